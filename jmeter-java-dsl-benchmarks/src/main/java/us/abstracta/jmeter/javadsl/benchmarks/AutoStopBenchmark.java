@@ -0,0 +1,98 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import static us.abstracta.jmeter.javadsl.JmeterDsl.autoStop;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.listeners.AutoStopListener.AutoStopCondition;
+import us.abstracta.jmeter.javadsl.core.listeners.autostop.AutoStopTestBean;
+
+/**
+ * Measures the per sample cost of registering samples for autoStop conditions that never
+ * trigger.
+ * <p>
+ * Conditions are evaluated by a separate thread, so this measures the cost imposed on sampler
+ * threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutoStopBenchmark {
+
+  private static final int SAMPLES_COUNT = 4096;
+
+  @State(Scope.Benchmark)
+  public static class AutoStop {
+
+    private AutoStopTestBean element;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+      BenchmarkEnvironment.init();
+      element = BenchmarkEnvironment.buildElement(autoStop()
+          .samplesMatching("(?!logout).*")
+          .when(AutoStopCondition.errors().percent().every(Duration.ofSeconds(1))
+              .greaterThan(99.0))
+          .when(AutoStopCondition.sampleTime().percentile(99).greaterThan(Duration.ofMinutes(1)))
+          .when(AutoStopCondition.samplesMatching("api/.*").sampleTime().mean()
+              .greaterThan(Duration.ofMinutes(1))), AutoStopTestBean.class);
+      element.testStarted();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      element.testEnded();
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class Events {
+
+    private SampleEvent[] events;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      events = Arrays.stream(BenchmarkEnvironment.buildSampleResults(SAMPLES_COUNT, 0.01))
+          .map(r -> new SampleEvent(r, "Thread Group"))
+          .toArray(SampleEvent[]::new);
+    }
+
+    private SampleEvent next() {
+      index = (index + 1) & (SAMPLES_COUNT - 1);
+      return events[index];
+    }
+
+  }
+
+  @Benchmark
+  public void sampleOccurred(AutoStop autoStop, Events events) {
+    autoStop.element.sampleOccurred(events.next());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void sampleOccurredContended(AutoStop autoStop, Events events) {
+    autoStop.element.sampleOccurred(events.next());
+  }
+
+}
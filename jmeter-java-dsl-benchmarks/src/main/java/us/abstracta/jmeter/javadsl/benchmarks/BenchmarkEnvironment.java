@@ -0,0 +1,103 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.DslTestElement;
+import us.abstracta.jmeter.javadsl.core.engines.BaseTestStopper;
+import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
+
+/**
+ * Contains common logic used by benchmarks to set up JMeter and build realistic sample data.
+ */
+public class BenchmarkEnvironment {
+
+  public static final String[] LABELS = {"login", "home", "search", "product", "addToCart",
+      "checkout", "logout", "api/users", "api/orders", "api/products"};
+  private static boolean initialized;
+
+  private BenchmarkEnvironment() {
+  }
+
+  public static synchronized void init() throws IOException {
+    if (initialized) {
+      return;
+    }
+    JmeterEnvironment env = new JmeterEnvironment();
+    // this is required so JMeter functions (eg: __jexl2) are found when evaluating properties
+    env.updateSearchPath(new ListedHashTree());
+    initialized = true;
+  }
+
+  public static JMeterContext initThreadContext() {
+    JMeterContext ctx = JMeterContextService.getContext();
+    ctx.setVariables(new JMeterVariables());
+    return ctx;
+  }
+
+  /**
+   * Builds the JMeter test element of the given DSL element.
+   * <p>
+   * Test state listeners are not started, so benchmarks need to invoke testStarted and testEnded
+   * when required (usually in setup and tear down methods).
+   */
+  public static <T> T buildElement(DslTestElement element, Class<T> elementClass) {
+    BuildTreeContext context = new BuildTreeContext();
+    context.setTestStopper(new NoOpTestStopper());
+    HashTree tree = new ListedHashTree();
+    element.buildTreeUnder(tree, context);
+    return elementClass.cast(tree.list().iterator().next());
+  }
+
+  private static class NoOpTestStopper extends BaseTestStopper {
+
+    @Override
+    protected void stopTestExecution() {
+    }
+
+  }
+
+  /**
+   * Builds a set of sample results with varying labels, times and sizes, similar to the ones
+   * generated by a regular HTTP test plan.
+   * <p>
+   * A fixed seed is used so different runs are comparable.
+   */
+  public static SampleResult[] buildSampleResults(int count, double errorRate) {
+    Random random = new Random(0);
+    SampleResult[] ret = new SampleResult[count];
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < count; i++) {
+      SampleResult result = new SampleResult(startTime + i, 50 + random.nextInt(450));
+      result.setSampleLabel(LABELS[random.nextInt(LABELS.length)]);
+      result.setSuccessful(random.nextDouble() >= errorRate);
+      result.setResponseCode(result.isSuccessful() ? "200" : "500");
+      result.setLatency(result.getTime() / 2);
+      result.setConnectTime(random.nextInt(10));
+      result.setBytes(1000L + random.nextInt(20000));
+      result.setSentBytes(200L + random.nextInt(800));
+      result.setThreadName("Thread Group 1-" + (i % 10));
+      ret[i] = result;
+    }
+    return ret;
+  }
+
+  public static SampleResult buildResponseSample(String body) {
+    SampleResult ret = new SampleResult();
+    ret.setSampleLabel("sample");
+    ret.setSuccessful(true);
+    ret.setResponseCodeOK();
+    ret.setDataType(SampleResult.TEXT);
+    ret.setResponseData(body.getBytes(StandardCharsets.UTF_8));
+    ret.setResponseHeaders("HTTP/1.1 200 OK\nContent-Type: application/json\n");
+    return ret;
+  }
+
+}
@@ -0,0 +1,94 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.simpleController;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.transaction;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.engines.EmbeddedJmeterEngine;
+import us.abstracta.jmeter.javadsl.core.samplers.DslDummySampler;
+
+/**
+ * Compares per iteration overhead of a CPU bound test plan with nested grouping controllers, when
+ * run with and without {@link EmbeddedJmeterEngine#compiledStructure()}.
+ * <p>
+ * Dummy samplers with no response time are used to make controllers traversal cost the dominant
+ * one. Each operation is a thread group iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CompiledStructureBenchmark {
+
+  private static final int THREADS = 4;
+  private static final int ITERATIONS = 5000;
+  private static final int TOTAL_ITERATIONS = THREADS * ITERATIONS;
+  private static final int SAMPLES_PER_ITERATION = 6;
+
+  @Param({"false", "true"})
+  private boolean compiled;
+
+  @Benchmark
+  @OperationsPerInvocation(TOTAL_ITERATIONS)
+  public TestPlanStats run() throws IOException {
+    EmbeddedJmeterEngine engine = new EmbeddedJmeterEngine();
+    if (compiled) {
+      engine.compiledStructure();
+    }
+    TestPlanStats ret = buildPlan().runIn(engine);
+    long expectedSamples = (long) TOTAL_ITERATIONS * SAMPLES_PER_ITERATION;
+    if (ret.overall().samplesCount() != expectedSamples) {
+      throw new IllegalStateException(String.format("Unexpected results: %d samples",
+          ret.overall().samplesCount()));
+    }
+    return ret;
+  }
+
+  private DslTestPlan buildPlan() {
+    return testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            simpleController("login",
+                sampler("home"),
+                sampler("login")
+            ),
+            simpleController("browse",
+                simpleController(
+                    sampler("list"),
+                    sampler("detail")
+                ),
+                transaction("checkout",
+                    simpleController(
+                        sampler("cart")
+                    )
+                )
+            )
+        )
+    );
+  }
+
+  private DslDummySampler sampler(String name) {
+    return dummySampler(name, "OK")
+        .responseTime(Duration.ZERO);
+  }
+
+}
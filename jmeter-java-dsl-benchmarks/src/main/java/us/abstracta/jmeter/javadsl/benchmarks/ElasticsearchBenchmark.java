@@ -0,0 +1,148 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.elasticsearch.listener.ElasticsearchBulkBackendClient;
+
+/**
+ * Compares the per sample cost, and the bytes sent per sample, of the Elasticsearch bulk client
+ * (used with elasticsearchListener flushInterval, summaries and gzip options) when indexing raw
+ * sample results, compressed raw sample results and per label summaries, against an in process
+ * HTTP stub server.
+ * <p>
+ * Each iteration runs a complete client lifecycle (setup, samples handling and teardown), so sent
+ * bytes include the final flush. Sent bytes per sample are reported as the bytesPerSample auxiliary
+ * counter of each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ElasticsearchBenchmark {
+
+  private static final int SAMPLES_COUNT = 4096;
+  private static final int BATCH_SIZE = 100;
+
+  @State(Scope.Benchmark)
+  public static class Elasticsearch {
+
+    @Param({"RAW", "RAW_GZIP", "SUMMARIES"})
+    public IndexingMode mode;
+
+    private HttpStubServer server;
+    private ElasticsearchBulkBackendClient client;
+    private BackendListenerContext context;
+    private List<SampleResult>[] batches;
+    private int index;
+    private long samplesCount;
+    private long startReceivedBytes;
+    private double sentBytesPerSample;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+      BenchmarkEnvironment.init();
+      server = new HttpStubServer("{\"took\":1,\"errors\":false,\"items\":[]}");
+      SampleResult[] results = BenchmarkEnvironment.buildSampleResults(SAMPLES_COUNT, 0.01);
+      batches = new List[SAMPLES_COUNT / BATCH_SIZE];
+      for (int i = 0; i < batches.length; i++) {
+        batches[i] = Arrays.asList(
+            Arrays.copyOfRange(results, i * BATCH_SIZE, (i + 1) * BATCH_SIZE));
+      }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws Exception {
+      client = new ElasticsearchBulkBackendClient();
+      Arguments args = client.getDefaultParameters();
+      setArgument(ElasticsearchBulkBackendClient.URL_ARG, server.getUrl() + "/jmeter", args);
+      if (mode == IndexingMode.RAW_GZIP) {
+        setArgument(ElasticsearchBulkBackendClient.COMPRESSION_ARG,
+            ElasticsearchBulkBackendClient.GZIP_COMPRESSION, args);
+      } else if (mode == IndexingMode.SUMMARIES) {
+        setArgument(ElasticsearchBulkBackendClient.SUMMARY_INTERVAL_ARG, "5000", args);
+      }
+      context = new BackendListenerContext(args);
+      samplesCount = 0;
+      sentBytesPerSample = 0;
+      startReceivedBytes = server.getReceivedBytes();
+      client.setupTest(context);
+    }
+
+    private static void setArgument(String name, String value, Arguments args) {
+      args.removeArgument(name);
+      args.addArgument(name, value);
+    }
+
+    private List<SampleResult> nextBatch() {
+      index = (index + 1) % batches.length;
+      samplesCount += BATCH_SIZE;
+      return batches[index];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws Exception {
+      client.teardownTest(context);
+      long sentBytes = server.getReceivedBytes() - startReceivedBytes;
+      sentBytesPerSample = (double) sentBytes / samplesCount;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+      server.close();
+    }
+
+  }
+
+  public enum IndexingMode {
+    RAW, RAW_GZIP, SUMMARIES
+  }
+
+  /**
+   * Reports the bytes sent per sample in each iteration as an additional benchmark result.
+   * <p>
+   * JMH collects auxiliary counters after iteration teardown, so the reported value includes the
+   * final flush done by the client teardown.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class SentBytes {
+
+    private Elasticsearch elasticsearch;
+
+    @Setup(Level.Iteration)
+    public void setupIteration(Elasticsearch elasticsearch) {
+      this.elasticsearch = elasticsearch;
+    }
+
+    public double bytesPerSample() {
+      return elasticsearch.sentBytesPerSample;
+    }
+
+  }
+
+  @Benchmark
+  public void handleSampleResults(Elasticsearch elasticsearch, SentBytes sentBytes) {
+    elasticsearch.client.handleSampleResults(elasticsearch.nextBatch(), elasticsearch.context);
+  }
+
+}
@@ -0,0 +1,89 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import static us.abstracta.jmeter.javadsl.JmeterDsl.boundaryExtractor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsonExtractor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.regexExtractor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.processor.PostProcessor;
+import org.apache.jmeter.threads.JMeterContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of extracting a variable from a realistic JSON response body with each of the
+ * provided extractors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtractorsBenchmark {
+
+  private static final int ITEMS_COUNT = 100;
+  private JMeterContext ctx;
+  private PostProcessor jsonExtractor;
+  private PostProcessor regexExtractor;
+  private PostProcessor boundaryExtractor;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkEnvironment.init();
+    ctx = BenchmarkEnvironment.initThreadContext();
+    ctx.setPreviousResult(BenchmarkEnvironment.buildResponseSample(buildJsonBody()));
+    jsonExtractor = BenchmarkEnvironment.buildElement(
+        jsonExtractor("TOKEN", "data.session.token"), PostProcessor.class);
+    regexExtractor = BenchmarkEnvironment.buildElement(
+        regexExtractor("TOKEN", "\"token\":\\s*\"([^\"]+)\""), PostProcessor.class);
+    boundaryExtractor = BenchmarkEnvironment.buildElement(
+        boundaryExtractor("TOKEN", "\"token\": \"", "\""), PostProcessor.class);
+  }
+
+  private static String buildJsonBody() {
+    StringBuilder ret = new StringBuilder("{\"data\": {\"items\": [");
+    for (int i = 0; i < ITEMS_COUNT; i++) {
+      if (i > 0) {
+        ret.append(", ");
+      }
+      ret.append("{\"id\": ").append(i)
+          .append(", \"name\": \"Product ").append(i)
+          .append("\", \"description\": \"Lorem ipsum dolor sit amet, consectetur adipiscing\"")
+          .append(", \"price\": ").append(10 + i).append(".99")
+          .append(", \"tags\": [\"tag1\", \"tag2\", \"tag3\"]}");
+    }
+    ret.append("], \"session\": {\"token\": \"eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIxMjM0In0.abc\"}}}");
+    return ret.toString();
+  }
+
+  @Benchmark
+  public void jsonExtractor(Blackhole bh) {
+    jsonExtractor.process();
+    bh.consume(ctx.getVariables().get("TOKEN"));
+  }
+
+  @Benchmark
+  public void regexExtractor(Blackhole bh) {
+    regexExtractor.process();
+    bh.consume(ctx.getVariables().get("TOKEN"));
+  }
+
+  @Benchmark
+  public void boundaryExtractor(Blackhole bh) {
+    boundaryExtractor.process();
+    bh.consume(ctx.getVariables().get("TOKEN"));
+  }
+
+}
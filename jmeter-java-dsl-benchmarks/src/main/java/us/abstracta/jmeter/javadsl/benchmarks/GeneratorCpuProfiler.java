@@ -0,0 +1,75 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler which reports the CPU used by the load generator (excluding {@link HttpStubServer}
+ * CPU) per operation and the throughput that each fully used core would be able to sustain.
+ * <p>
+ * Use it with {@code -prof us.abstracta.jmeter.javadsl.benchmarks.GeneratorCpuProfiler} on
+ * throughput benchmarks where each operation is a request (like
+ * {@link GeneratorThroughputBenchmark}).
+ */
+public class GeneratorCpuProfiler implements InternalProfiler {
+
+  private long startWallNanos;
+  private long startCpuNanos;
+
+  @Override
+  public String getDescription() {
+    return "Generator CPU usage per operation and throughput per core";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    startWallNanos = System.nanoTime();
+    startCpuNanos = getGeneratorCpuNanos();
+  }
+
+  private static long getGeneratorCpuNanos() {
+    OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    if (!(osBean instanceof com.sun.management.OperatingSystemMXBean)) {
+      return -1;
+    }
+    long processCpu = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+    return processCpu - HttpStubServer.getCpuTimeNanos();
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+      IterationParams iterationParams, IterationResult result) {
+    long cpuNanos = getGeneratorCpuNanos() - startCpuNanos;
+    long wallNanos = System.nanoTime() - startWallNanos;
+    if (startCpuNanos < 0 || wallNanos <= 0) {
+      return Collections.emptyList();
+    }
+    double opsPerSecond = opsPerSecond(result, benchmarkParams.getTimeUnit());
+    double usedCores = (double) cpuNanos / wallNanos;
+    double ops = opsPerSecond * wallNanos / TimeUnit.SECONDS.toNanos(1);
+    return Arrays.asList(
+        new ScalarResult("generator.cpu.cores", usedCores, "cores", AggregationPolicy.AVG),
+        new ScalarResult("generator.cpu.time.norm", ops > 0 ? cpuNanos / 1000.0 / ops : Double.NaN,
+            "us/op", AggregationPolicy.AVG),
+        new ScalarResult("generator.ops.per.core",
+            usedCores > 0 ? opsPerSecond / usedCores : Double.NaN, "ops/s/core",
+            AggregationPolicy.AVG));
+  }
+
+  private static double opsPerSecond(IterationResult result, TimeUnit outputTimeUnit) {
+    return result.getPrimaryResult().getScore() * TimeUnit.SECONDS.toNanos(1)
+        / outputTimeUnit.toNanos(1);
+  }
+
+}
@@ -0,0 +1,138 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import static us.abstracta.jmeter.javadsl.JmeterDsl.htmlReporter;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsonExtractor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jtlWriter;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.regexExtractor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.entity.ContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.http.DslHttpSampler;
+
+/**
+ * Measures the maximum throughput (requests per second) that the embedded engine can generate for
+ * representative test plans, against an in process {@link HttpStubServer}.
+ * <p>
+ * Each operation is a request, so throughput is reported in requests per second. Run it with
+ * {@code -prof gc} to get allocated bytes per request ({@code gc.alloc.rate.norm}) and with
+ * {@code -prof us.abstracta.jmeter.javadsl.benchmarks.GeneratorCpuProfiler} to get generator CPU
+ * time per request and requests per second per used core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GeneratorThroughputBenchmark {
+
+  private static final int THREADS = 10;
+  private static final int ITERATIONS = 2000;
+  private static final int REQUESTS = THREADS * ITERATIONS;
+  private static final String RESPONSE_BODY = "{\"data\": {\"id\": 1234, \"name\": \"John Doe\", "
+      + "\"email\": \"john.doe@example.com\", \"token\": \"eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIx\"}}";
+
+  @Param({"PLAIN", "EXTRACTORS", "LAMBDAS", "JTL_WRITER", "HTML_REPORTER"})
+  private PlanConfig config;
+  private HttpStubServer server;
+  private File outputDir;
+
+  public enum PlanConfig {
+    PLAIN {
+      @Override
+      protected DslTestPlan buildPlan(String url, File outputDir) {
+        return testPlan(threadGroup(THREADS, ITERATIONS, httpSampler(url)));
+      }
+    },
+    EXTRACTORS {
+      @Override
+      protected DslTestPlan buildPlan(String url, File outputDir) {
+        return testPlan(threadGroup(THREADS, ITERATIONS,
+            httpSampler(url)
+                .children(
+                    jsonExtractor("USER_ID", "data.id"),
+                    regexExtractor("TOKEN", "\"token\": \"([^\"]+)\"")
+                )));
+      }
+    },
+    LAMBDAS {
+      @Override
+      protected DslTestPlan buildPlan(String url, File outputDir) {
+        DslHttpSampler sampler = httpSampler(s -> url + "/users/" + s.ctx.getThreadNum())
+            .header("X-Iteration", s -> String.valueOf(s.vars.getIteration()))
+            .post(s -> "{\"thread\": " + s.ctx.getThreadNum() + "}",
+                ContentType.APPLICATION_JSON);
+        return testPlan(threadGroup(THREADS, ITERATIONS, sampler));
+      }
+    },
+    JTL_WRITER {
+      @Override
+      protected DslTestPlan buildPlan(String url, File outputDir) {
+        return testPlan(threadGroup(THREADS, ITERATIONS, httpSampler(url)),
+            jtlWriter(outputDir.getPath()));
+      }
+    },
+    HTML_REPORTER {
+      @Override
+      protected DslTestPlan buildPlan(String url, File outputDir) {
+        return testPlan(threadGroup(THREADS, ITERATIONS, httpSampler(url)),
+            htmlReporter(outputDir.getPath()));
+      }
+    };
+
+    protected abstract DslTestPlan buildPlan(String url, File outputDir);
+
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    server = new HttpStubServer(RESPONSE_BODY);
+    outputDir = Files.createTempDirectory("jmeter-dsl-benchmark").toFile();
+  }
+
+  @TearDown(Level.Iteration)
+  public void cleanOutputDir() throws IOException {
+    FileUtils.cleanDirectory(outputDir);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    server.close();
+    FileUtils.deleteDirectory(outputDir);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUESTS)
+  public TestPlanStats run() throws IOException {
+    TestPlanStats ret = config.buildPlan(server.getUrl(), outputDir).run();
+    if (ret.overall().samplesCount() != REQUESTS || ret.overall().errorsCount() > 0) {
+      throw new IllegalStateException(String.format("Unexpected results: %d samples, %d errors",
+          ret.overall().samplesCount(), ret.overall().errorsCount()));
+    }
+    return ret;
+  }
+
+}
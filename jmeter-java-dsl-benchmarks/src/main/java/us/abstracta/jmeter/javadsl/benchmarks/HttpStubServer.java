@@ -0,0 +1,186 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal HTTP/1.1 server which replies to every request with the same pre-built response.
+ * <p>
+ * It uses one thread per connection (keep alive is used by JMeter HTTP samplers) and reuses
+ * buffers, so it adds as little CPU and allocation as possible to benchmarks running in the same
+ * JVM. Additionally, it keeps track of threads it uses, so its CPU time can be discounted from
+ * generator CPU time.
+ */
+public class HttpStubServer implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HttpStubServer.class);
+  private static final List<Thread> THREADS = new CopyOnWriteArrayList<>();
+  private static final AtomicLong ENDED_THREADS_CPU_NANOS = new AtomicLong();
+  private static final String CONTENT_LENGTH_HEADER = "content-length:";
+  private static final String CONNECTION_CLOSE_HEADER = "connection: close";
+
+  private final ServerSocket serverSocket;
+  private final byte[] response;
+  private final AtomicLong receivedBytes = new AtomicLong();
+  private volatile boolean running = true;
+
+  public HttpStubServer(String responseBody) throws IOException {
+    byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+    byte[] headers = ("HTTP/1.1 200 OK\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: " + body.length + "\r\n"
+        + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    response = new byte[headers.length + body.length];
+    System.arraycopy(headers, 0, response, 0, headers.length);
+    System.arraycopy(body, 0, response, headers.length, body.length);
+    serverSocket = new ServerSocket(0, 1000, InetAddress.getLoopbackAddress());
+    startThread("http-stub-acceptor", this::acceptConnections);
+  }
+
+  private static void startThread(String name, Runnable runnable) {
+    Thread thread = new Thread(() -> {
+      try {
+        runnable.run();
+      } finally {
+        ENDED_THREADS_CPU_NANOS.addAndGet(
+            ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime());
+        THREADS.remove(Thread.currentThread());
+      }
+    }, name);
+    thread.setDaemon(true);
+    THREADS.add(thread);
+    thread.start();
+  }
+
+  public String getUrl() {
+    return "http://localhost:" + serverSocket.getLocalPort();
+  }
+
+  private void acceptConnections() {
+    while (running) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        startThread("http-stub-connection", () -> serve(socket));
+      } catch (IOException e) {
+        if (running) {
+          LOG.warn("Problem accepting connection", e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket) {
+      InputStream input = new BufferedInputStream(s.getInputStream());
+      OutputStream output = s.getOutputStream();
+      StringBuilder line = new StringBuilder();
+      boolean keepAlive = true;
+      while (running && keepAlive) {
+        long contentLength = 0;
+        boolean requestStarted = false;
+        long requestLength = 0;
+        int lineLength;
+        while ((lineLength = readLine(input, line)) > 0) {
+          requestStarted = true;
+          requestLength += lineLength + 2;
+          if (startsWithIgnoreCase(line, CONTENT_LENGTH_HEADER)) {
+            contentLength = Long.parseLong(
+                line.substring(CONTENT_LENGTH_HEADER.length()).trim());
+          } else if (startsWithIgnoreCase(line, CONNECTION_CLOSE_HEADER)) {
+            keepAlive = false;
+          }
+        }
+        if (lineLength < 0 || !requestStarted) {
+          return;
+        }
+        receivedBytes.addAndGet(requestLength + 2 + contentLength);
+        while (contentLength > 0) {
+          long skipped = input.skip(contentLength);
+          if (skipped <= 0) {
+            return;
+          }
+          contentLength -= skipped;
+        }
+        output.write(response);
+        output.flush();
+      }
+    } catch (SocketException e) {
+      // connection closed by client
+    } catch (IOException e) {
+      LOG.warn("Problem serving request", e);
+    }
+  }
+
+  /*
+   returns the length of the read line, or -1 if end of stream was reached before finding any
+   character
+   */
+  private static int readLine(InputStream input, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int c;
+    while ((c = input.read()) != -1) {
+      if (c == '\n') {
+        return line.length();
+      } else if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+    return line.length() > 0 ? line.length() : -1;
+  }
+
+  private static boolean startsWithIgnoreCase(CharSequence str, String prefix) {
+    if (str.length() < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (Character.toLowerCase(str.charAt(i)) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of bytes (headers and bodies) of requests received by this server.
+   */
+  public long getReceivedBytes() {
+    return receivedBytes.get();
+  }
+
+  /**
+   * Gets the CPU time consumed by all stub server threads since the JVM started.
+   */
+  public static long getCpuTimeNanos() {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    long ret = ENDED_THREADS_CPU_NANOS.get();
+    for (Thread thread : THREADS) {
+      long threadCpu = threadBean.getThreadCpuTime(thread.getId());
+      if (threadCpu > 0) {
+        ret += threadCpu;
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  public void close() throws IOException {
+    running = false;
+    serverSocket.close();
+  }
+
+}
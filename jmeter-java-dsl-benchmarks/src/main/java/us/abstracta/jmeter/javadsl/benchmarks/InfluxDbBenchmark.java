@@ -0,0 +1,171 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.BackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.apache.jmeter.visualizers.backend.influxdb.InfluxdbBackendListenerClient;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.listeners.influxdb.BatchingInfluxDbBackendListenerClient;
+
+/**
+ * Compares the per sample cost, and the bytes sent per sample, of JMeter InfluxDB backend listener
+ * client and the batching one (used with influxDbListener batching and gzip options), against an in
+ * process HTTP stub server.
+ * <p>
+ * Each iteration runs a complete client lifecycle (setup, samples handling and teardown), so sent
+ * bytes include the final metrics flush. Sent bytes per sample are reported as the bytesPerSample
+ * auxiliary counter of each iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class InfluxDbBenchmark {
+
+  private static final int SAMPLES_COUNT = 4096;
+  private static final int BATCH_SIZE = 100;
+
+  @State(Scope.Benchmark)
+  public static class InfluxDb {
+
+    @Param({"JMETER", "BATCHED", "BATCHED_GZIP"})
+    public ClientType client;
+
+    @Param({"10", "200"})
+    public int labelsCount;
+
+    private HttpStubServer server;
+    private BackendListenerClient listenerClient;
+    private BackendListenerContext context;
+    private List<SampleResult>[] batches;
+    private int index;
+    private long samplesCount;
+    private long startReceivedBytes;
+    private double sentBytesPerSample;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+      BenchmarkEnvironment.init();
+      server = new HttpStubServer("");
+      SampleResult[] results = BenchmarkEnvironment.buildSampleResults(SAMPLES_COUNT, 0.01);
+      for (int i = 0; i < results.length; i++) {
+        results[i].setSampleLabel(results[i].getSampleLabel() + "-" + (i % labelsCount));
+      }
+      batches = new List[SAMPLES_COUNT / BATCH_SIZE];
+      for (int i = 0; i < batches.length; i++) {
+        batches[i] = Arrays.asList(
+            Arrays.copyOfRange(results, i * BATCH_SIZE, (i + 1) * BATCH_SIZE));
+      }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws Exception {
+      listenerClient = client.buildClient();
+      Arguments args = listenerClient.getDefaultParameters();
+      args.removeArgument("influxdbUrl");
+      args.addArgument("influxdbUrl", server.getUrl() + "/write?db=jmeter");
+      args.removeArgument("application");
+      args.addArgument("application", "benchmark");
+      if (client == ClientType.BATCHED_GZIP) {
+        args.removeArgument(BatchingInfluxDbBackendListenerClient.COMPRESSION_ARG);
+        args.addArgument(BatchingInfluxDbBackendListenerClient.COMPRESSION_ARG,
+            BatchingInfluxDbBackendListenerClient.GZIP_COMPRESSION);
+      }
+      context = new BackendListenerContext(args);
+      samplesCount = 0;
+      sentBytesPerSample = 0;
+      startReceivedBytes = server.getReceivedBytes();
+      listenerClient.setupTest(context);
+    }
+
+    private List<SampleResult> nextBatch() {
+      index = (index + 1) % batches.length;
+      samplesCount += BATCH_SIZE;
+      return batches[index];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws Exception {
+      listenerClient.teardownTest(context);
+      long sentBytes = server.getReceivedBytes() - startReceivedBytes;
+      sentBytesPerSample = (double) sentBytes / samplesCount;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+      server.close();
+    }
+
+  }
+
+  public enum ClientType {
+    JMETER {
+      @Override
+      public BackendListenerClient buildClient() {
+        return new InfluxdbBackendListenerClient();
+      }
+    },
+    BATCHED {
+      @Override
+      public BackendListenerClient buildClient() {
+        return new BatchingInfluxDbBackendListenerClient();
+      }
+    },
+    BATCHED_GZIP {
+      @Override
+      public BackendListenerClient buildClient() {
+        return new BatchingInfluxDbBackendListenerClient();
+      }
+    };
+
+    public abstract BackendListenerClient buildClient();
+  }
+
+  /**
+   * Reports the bytes sent per sample in each iteration as an additional benchmark result.
+   * <p>
+   * JMH collects auxiliary counters after iteration teardown, so the reported value includes the
+   * final flush done by the client teardown.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class SentBytes {
+
+    private InfluxDb influxDb;
+
+    @Setup(Level.Iteration)
+    public void setupIteration(InfluxDb influxDb) {
+      this.influxDb = influxDb;
+    }
+
+    public double bytesPerSample() {
+      return influxDb.sentBytesPerSample;
+    }
+
+  }
+
+  @Benchmark
+  public void handleSampleResults(InfluxDb influxDb, SentBytes sentBytes) {
+    influxDb.listenerClient.handleSampleResults(influxDb.nextBatch(), influxDb.context);
+  }
+
+}
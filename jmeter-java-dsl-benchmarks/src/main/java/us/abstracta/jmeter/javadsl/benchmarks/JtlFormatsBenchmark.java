@@ -0,0 +1,100 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlOutput;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlReader;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFileOutput;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlOutput;
+
+/**
+ * Compares the per record cost of writing and reading JTL files in the different supported
+ * formats.
+ * <p>
+ * Each operation is a record, so throughput is reported in records per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JtlFormatsBenchmark {
+
+  private static final int RECORDS = 100_000;
+
+  private SampleEvent[] events;
+  private Path outputDir;
+  private Path binaryFile;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkEnvironment.init();
+    SampleResult[] samples = BenchmarkEnvironment.buildSampleResults(RECORDS, 0.01);
+    events = new SampleEvent[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      events[i] = new SampleEvent(samples[i], "Thread Group");
+    }
+    outputDir = Files.createTempDirectory("jmeter-dsl-benchmark");
+    binaryFile = outputDir.resolve("read.bjtl");
+    writeAll(new BinaryJtlOutput(binaryFile));
+  }
+
+  private void writeAll(JtlOutput output) throws IOException {
+    output.open(new SampleSaveConfiguration());
+    for (SampleEvent event : events) {
+      output.write(event);
+    }
+    output.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(outputDir.toFile());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void writeCsv() throws IOException {
+    writeAll(new JtlFileOutput(outputDir.resolve("write.jtl"), false, 0, null));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void writeGzipCsv() throws IOException {
+    writeAll(new JtlFileOutput(outputDir.resolve("write.jtl"), true, 0, null));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void writeBinary() throws IOException {
+    writeAll(new BinaryJtlOutput(outputDir.resolve("write.bjtl")));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public TestPlanStats readBinaryStats() throws IOException {
+    return BinaryJtlReader.readStats(binaryFile);
+  }
+
+}
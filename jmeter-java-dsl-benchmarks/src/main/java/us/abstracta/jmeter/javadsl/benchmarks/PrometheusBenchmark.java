@@ -0,0 +1,124 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import static us.abstracta.jmeter.javadsl.prometheus.DslPrometheusExporter.prometheusExporter;
+import static us.abstracta.jmeter.javadsl.prometheus.DslPrometheusListener.prometheusListener;
+
+import com.github.johrstrom.listener.PrometheusListener;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.prometheus.PrometheusExporterTestBean;
+
+/**
+ * Compares the per sample cost of publishing Prometheus metrics with the jmeter-prometheus-plugin
+ * based listener and with the pre-aggregated exporter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusBenchmark {
+
+  private static final int SAMPLES_COUNT = 4096;
+
+  @State(Scope.Benchmark)
+  public static class Listener {
+
+    private PrometheusListener element;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+      BenchmarkEnvironment.init();
+      element = BenchmarkEnvironment.buildElement(prometheusListener()
+          .port(9280)
+          .endWait(Duration.ZERO), PrometheusListener.class);
+      element.testStarted();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      element.testEnded();
+    }
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class Exporter {
+
+    private PrometheusExporterTestBean element;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+      BenchmarkEnvironment.init();
+      element = BenchmarkEnvironment.buildElement(prometheusExporter()
+          .port(9281)
+          .endWait(Duration.ZERO), PrometheusExporterTestBean.class);
+      element.testStarted();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      element.testEnded();
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class Events {
+
+    private SampleEvent[] events;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      events = Arrays.stream(BenchmarkEnvironment.buildSampleResults(SAMPLES_COUNT, 0.01))
+          .map(r -> new SampleEvent(r, "Thread Group"))
+          .toArray(SampleEvent[]::new);
+    }
+
+    private SampleEvent next() {
+      index = (index + 1) & (SAMPLES_COUNT - 1);
+      return events[index];
+    }
+
+  }
+
+  @Benchmark
+  public void listenerSampleOccurred(Listener listener, Events events) {
+    listener.element.sampleOccurred(events.next());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void listenerSampleOccurredContended(Listener listener, Events events) {
+    listener.element.sampleOccurred(events.next());
+  }
+
+  @Benchmark
+  public void exporterSampleOccurred(Exporter exporter, Events events) {
+    exporter.element.sampleOccurred(events.next());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void exporterSampleOccurredContended(Exporter exporter, Events events) {
+    exporter.element.sampleOccurred(events.next());
+  }
+
+}
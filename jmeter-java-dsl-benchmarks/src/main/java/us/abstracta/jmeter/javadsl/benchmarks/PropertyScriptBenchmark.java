@@ -0,0 +1,65 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.engine.util.CompoundVariable;
+import org.apache.jmeter.threads.JMeterContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScriptVars;
+
+/**
+ * Measures the cost of evaluating lambdas used in test element properties (eg: ifController
+ * conditions) compared to directly invoking them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyScriptBenchmark {
+
+  private static final PropertyScript<Boolean> SCRIPT = s -> "admin".equals(s.vars.get("ROLE"));
+  private JMeterContext ctx;
+  private CompoundVariable lambdaProperty;
+  private CompoundVariable variableProperty;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkEnvironment.init();
+    ctx = BenchmarkEnvironment.initThreadContext();
+    ctx.getVariables().put("ROLE", "admin");
+    lambdaProperty = new CompoundVariable(new PropertyScriptBuilder<>(SCRIPT).build());
+    variableProperty = new CompoundVariable("${ROLE}");
+  }
+
+  @Benchmark
+  public String lambdaProperty() {
+    return lambdaProperty.execute();
+  }
+
+  @Benchmark
+  public Boolean directLambda() throws Exception {
+    return SCRIPT.run(new PropertyScriptVars(ctx,
+        LoggerFactory.getLogger(PropertyScriptBenchmark.class)));
+  }
+
+  @Benchmark
+  public String variableProperty() {
+    return variableProperty.execute();
+  }
+
+}
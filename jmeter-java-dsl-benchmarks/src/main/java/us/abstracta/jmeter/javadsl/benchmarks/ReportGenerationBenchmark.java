@@ -0,0 +1,84 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.listeners.HtmlReporter;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFileOutput;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlOutput;
+
+/**
+ * Measures the time it takes to generate an HTML report from a big synthetic JTL file with
+ * different number of threads.
+ * <p>
+ * Comparing results of 1 thread (JMeter report generation as is) with the rest provides the
+ * speedup of {@link HtmlReporter#generationThreads(int)}. Use {@code -p records=...} to try other
+ * JTL sizes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReportGenerationBenchmark {
+
+  @Param({"2000000"})
+  private int records;
+
+  @Param({"1", "2", "4", "8"})
+  private int threads;
+
+  private Path workDir;
+  private Path jtlFile;
+  private int reportsCount;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkEnvironment.init();
+    workDir = Files.createTempDirectory("jmeter-dsl-benchmark");
+    jtlFile = workDir.resolve("results.jtl");
+    JtlOutput output = new JtlFileOutput(jtlFile, false, 0, null);
+    output.open(new SampleSaveConfiguration());
+    for (SampleResult sample : BenchmarkEnvironment.buildSampleResults(records, 0.01)) {
+      output.write(new SampleEvent(sample, "Thread Group"));
+    }
+    output.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(workDir.toFile());
+  }
+
+  @Benchmark
+  public void generateReport() throws IOException {
+    new HtmlReporter(workDir.toString(), "report-" + reportsCount++)
+        .generationThreads(threads)
+        .generateFrom(jtlFile);
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteReport() throws IOException {
+    FileUtils.deleteDirectory(workDir.resolve("report-" + (reportsCount - 1)).toFile());
+  }
+
+}
@@ -0,0 +1,84 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.samplers.SampleResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.engines.EmbeddedStatsSummary;
+
+/**
+ * Measures the per sample cost of statistics collected by embedded engine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsBenchmark {
+
+  private static final int SAMPLES_COUNT = 4096;
+
+  @State(Scope.Benchmark)
+  public static class SharedStats {
+
+    private TestPlanStats stats;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      stats = new TestPlanStats(EmbeddedStatsSummary::new);
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadSamples {
+
+    private SampleResult[] samples;
+    private EmbeddedStatsSummary summary;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+      samples = BenchmarkEnvironment.buildSampleResults(SAMPLES_COUNT, 0.01);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+      summary = new EmbeddedStatsSummary();
+    }
+
+    private SampleResult next() {
+      index = (index + 1) & (SAMPLES_COUNT - 1);
+      return samples[index];
+    }
+
+  }
+
+  @Benchmark
+  public void statsSummaryAdd(ThreadSamples samples) {
+    samples.summary.add(samples.next());
+  }
+
+  @Benchmark
+  public void testPlanStatsAddSampleResult(SharedStats stats, ThreadSamples samples) {
+    stats.stats.addSampleResult(samples.next());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void testPlanStatsAddSampleResultContended(SharedStats stats, ThreadSamples samples) {
+    stats.stats.addSampleResult(samples.next());
+  }
+
+}
@@ -0,0 +1,64 @@
+package us.abstracta.jmeter.javadsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import us.abstracta.jmeter.javadsl.core.util.StringTemplate;
+
+/**
+ * Measures the cost of solving and matching string templates, like the ones used to build request
+ * bodies or by recorder correlation logic.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StringTemplateBenchmark {
+
+  @Param({"1", "50"})
+  private int itemsCount;
+  private StringTemplate template;
+  private String matchingString;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    StringBuilder templateString = new StringBuilder("{\"user\": \"{{user}}\", \"items\": [");
+    for (int i = 0; i < itemsCount; i++) {
+      if (i > 0) {
+        templateString.append(", ");
+      }
+      templateString.append("{\"id\": {{id").append(i).append(":0~\\d+}}, \"quantity\": {{qty")
+          .append(i).append(":1~\\d+}}, \"comment\": \"{{comment").append(i).append(":}}\"}");
+    }
+    templateString.append("]}");
+    template = new StringTemplate(templateString.toString())
+        .bind("user", "john.doe@example.com");
+    for (int i = 0; i < itemsCount; i += 2) {
+      template.bind("id" + i, 1000 + i);
+    }
+    matchingString = template.solve();
+  }
+
+  @Benchmark
+  public String solve() {
+    return template.solve();
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return template.matches(matchingString);
+  }
+
+}
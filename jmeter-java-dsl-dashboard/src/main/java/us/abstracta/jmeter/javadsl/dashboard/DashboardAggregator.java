@@ -0,0 +1,252 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.swing.SwingUtilities;
+import kg.apc.charting.AbstractGraphPanelChartElement;
+import kg.apc.charting.AbstractGraphRow;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.apache.jmeter.visualizers.gui.AbstractVisualizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.util.RingBuffer;
+
+/*
+ Moves dashboard charts and stats updates out of sampler threads, and keeps charts memory and
+ paint cost bounded independently of test duration.
+
+ Sampler threads just offer sample results to a ring buffer per visualizer, and a background
+ thread drains them in batches which are added to the visualizers in the event dispatch thread,
+ where graphs rows are also periodically downsampled with Largest-Triangle-Three-Buckets (keeping
+ recent points at full resolution). Doing all rows updates in the event dispatch thread avoids
+ them being concurrently modified while charts are painted. The background thread waits for each
+ update to be applied before draining more samples, so pending updates are bounded.
+
+ When a buffer is full, sample results are discarded from the dashboard (but not from other
+ listeners), since the dashboard must never slow down the test plan. Since buffered sample results
+ keep their response data, each buffer is limited to 8192 of them (for the 5 dashboard
+ visualizers, this means around 40MB with 1KB responses).
+ */
+class DashboardAggregator {
+
+  // shared with web dashboard, which has the same discarding behavior
+  static final String DISCARDED_SAMPLES_WARNING = "{} discarded {} samples due to not being able "
+      + "to keep up with test plan throughput. Test plan statistics are not affected by this.";
+  private static final Logger LOG = LoggerFactory.getLogger(DashboardAggregator.class);
+  private static final int BUFFER_CAPACITY = 1 << 13;
+  private static final int MAX_DRAIN_BATCH = 4096;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long DOWNSAMPLE_INTERVAL_MILLIS = 10000;
+  // with default 500ms granularity, this keeps last 5 minutes with full resolution
+  private static final int RECENT_POINTS = 600;
+  private static final int MAX_OLD_POINTS = 1000;
+
+  private final List<Feed> feeds = new CopyOnWriteArrayList<>();
+  private final List<Supplier<Stream<AbstractGraphRow>>> graphsRows =
+      new CopyOnWriteArrayList<>();
+  private final LongAdder droppedSamples = new LongAdder();
+  private final long downsampleIntervalMillis;
+  private int users;
+  private Thread thread;
+  private volatile boolean running;
+  private volatile boolean updating;
+
+  DashboardAggregator() {
+    this(DOWNSAMPLE_INTERVAL_MILLIS);
+  }
+
+  DashboardAggregator(long downsampleIntervalMillis) {
+    this.downsampleIntervalMillis = downsampleIntervalMillis;
+  }
+
+  Visualizer addFeed(AbstractVisualizer visualizer, Component subComponent,
+      long repaintIntervalMillis) {
+    Feed ret = new Feed(visualizer, subComponent, repaintIntervalMillis);
+    feeds.add(ret);
+    return ret;
+  }
+
+  void addGraphRows(Supplier<Stream<AbstractGraphRow>> rows) {
+    graphsRows.add(rows);
+  }
+
+  synchronized void start() {
+    users++;
+    if (thread != null) {
+      return;
+    }
+    running = true;
+    thread = new Thread(this::run, "dashboard-aggregator");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /*
+   Joining the thread is safe even when invoked from the event dispatch thread (eg: when the
+   dashboard window is closed), since the aggregator thread never waits for it.
+   */
+  synchronized void stop() {
+    if (--users > 0 || thread == null) {
+      return;
+    }
+    running = false;
+    thread.interrupt();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    thread = null;
+    long dropped = droppedSamples.sumThenReset();
+    if (dropped > 0) {
+      LOG.warn(DISCARDED_SAMPLES_WARNING, "Dashboard", dropped);
+    }
+  }
+
+  private void run() {
+    long lastDownsample = System.currentTimeMillis();
+    while (running) {
+      if (updating) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+      long now = System.currentTimeMillis();
+      List<Runnable> updates = new ArrayList<>();
+      for (Feed feed : feeds) {
+        feed.drain(now, updates);
+      }
+      boolean downsample = now - lastDownsample >= downsampleIntervalMillis;
+      if (downsample) {
+        lastDownsample = now;
+      }
+      if (!updates.isEmpty() || downsample) {
+        updating = true;
+        SwingUtilities.invokeLater(() -> applyUpdates(updates, downsample));
+      } else {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+  }
+
+  private void applyUpdates(List<Runnable> updates, boolean downsample) {
+    try {
+      updates.forEach(Runnable::run);
+      if (downsample) {
+        graphsRows.forEach(rows -> rows.get().forEach(DashboardAggregator::downsample));
+      }
+    } catch (RuntimeException e) {
+      LOG.warn("Problem updating dashboard", e);
+    } finally {
+      updating = false;
+    }
+  }
+
+  private static void downsample(AbstractGraphRow row) {
+    int size = row.size();
+    if (size <= RECENT_POINTS + MAX_OLD_POINTS) {
+      return;
+    }
+    int oldPoints = size - RECENT_POINTS;
+    long[] xs = new long[oldPoints];
+    double[] ys = new double[oldPoints];
+    Iterator<Entry<Long, AbstractGraphPanelChartElement>> it = row.iterator();
+    int count = 0;
+    while (it.hasNext() && count < oldPoints) {
+      Entry<Long, AbstractGraphPanelChartElement> entry = it.next();
+      xs[count] = entry.getKey();
+      ys[count] = entry.getValue().getValue();
+      count++;
+    }
+    /*
+     we reduce old points to half of the limit, so downsampling is not required again until a
+     considerable number of points are added, keeping its amortized cost low.
+     */
+    int[] kept = LargestTriangleThreeBuckets.select(xs, ys, MAX_OLD_POINTS / 2);
+    List<Long> removed = new ArrayList<>(count - kept.length);
+    int keptIndex = 0;
+    for (int i = 0; i < count; i++) {
+      if (keptIndex < kept.length && kept[keptIndex] == i) {
+        keptIndex++;
+      } else {
+        removed.add(xs[i]);
+      }
+    }
+    removeKeys(row, removed);
+  }
+
+  private static void removeKeys(AbstractGraphRow row, List<Long> keys) {
+    Iterator<Entry<Long, AbstractGraphPanelChartElement>> it = row.iterator();
+    int keyIndex = 0;
+    try {
+      while (it.hasNext() && keyIndex < keys.size()) {
+        if (it.next().getKey().equals(keys.get(keyIndex))) {
+          it.remove();
+          keyIndex++;
+        }
+      }
+    } catch (UnsupportedOperationException e) {
+      LOG.debug("Graph row {} does not support removing points. Skipping its downsampling.",
+          row.getLabel());
+    }
+  }
+
+  private class Feed implements Visualizer {
+
+    private final RingBuffer<SampleResult> buffer = new RingBuffer<>(BUFFER_CAPACITY);
+    private final AbstractVisualizer delegate;
+    private final Component subComponent;
+    private final long repaintIntervalMillis;
+    private long lastRepaint;
+    private boolean pendingRepaint;
+
+    private Feed(AbstractVisualizer delegate, Component subComponent,
+        long repaintIntervalMillis) {
+      this.delegate = delegate;
+      this.subComponent = subComponent;
+      this.repaintIntervalMillis = repaintIntervalMillis;
+    }
+
+    @Override
+    public void add(SampleResult sample) {
+      if (!buffer.offer(sample)) {
+        droppedSamples.increment();
+      }
+    }
+
+    private void drain(long now, List<Runnable> updates) {
+      List<SampleResult> samples = new ArrayList<>();
+      buffer.drainTo(samples::add, MAX_DRAIN_BATCH);
+      pendingRepaint |= !samples.isEmpty();
+      boolean repaint = pendingRepaint && now - lastRepaint >= repaintIntervalMillis;
+      if (repaint) {
+        lastRepaint = now;
+        pendingRepaint = false;
+      }
+      if (!samples.isEmpty() || repaint) {
+        updates.add(() -> {
+          samples.forEach(delegate::add);
+          if (repaint) {
+            subComponent.repaint();
+          }
+        });
+      }
+    }
+
+    @Override
+    public boolean isStats() {
+      return false;
+    }
+
+  }
+
+}
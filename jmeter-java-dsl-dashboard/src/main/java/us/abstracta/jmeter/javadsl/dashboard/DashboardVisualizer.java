@@ -3,13 +3,17 @@ package us.abstracta.jmeter.javadsl.dashboard;
 import java.awt.Component;
 import java.awt.GraphicsEnvironment;
 import java.awt.GridLayout;
+import java.awt.event.HierarchyEvent;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.stream.Stream;
 import javax.swing.JPanel;
 import javax.swing.JSplitPane;
+import kg.apc.charting.AbstractGraphRow;
 import kg.apc.charting.GraphPanelChart;
 import kg.apc.jmeter.graphs.AbstractGraphPanelVisualizer;
 import kg.apc.jmeter.graphs.AbstractOverTimeVisualizer;
@@ -18,7 +22,6 @@ import kg.apc.jmeter.vizualizers.ResponseTimesOverTimeGui;
 import kg.apc.jmeter.vizualizers.ThreadsStateOverTimeGui;
 import kg.apc.jmeter.vizualizers.TransactionsPerSecondGui;
 import org.apache.jmeter.reporters.AbstractListenerElement;
-import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.visualizers.SummaryReport;
 import org.apache.jmeter.visualizers.Visualizer;
@@ -54,22 +57,87 @@ public class DashboardVisualizer extends DslVisualizer {
       logNonGuiExecutionWarning();
       return parent;
     }
-    List<AbstractOverTimeVisualizer> graphs = Arrays.asList(new ThreadsStateOverTimeGui(),
-        new ResponseTimesOverTimeGui(),
-        new TransactionsPerSecondGui(), new ResponseCodesPerSecondGui());
+    List<AbstractOverTimeVisualizer> graphs = Arrays.asList(new ThreadsStateGraph(),
+        new ResponseTimesGraph(), new TransactionsPerSecondGraph(),
+        new ResponseCodesPerSecondGraph());
     graphs.forEach(g -> parent.add(buildGraphTestElement(g, context)));
     SummaryReport summary = new SummaryReport();
     parent.add(buildVisualizerTestElement(summary, v -> v.getComponent(1), 0, context));
-    context.addVisualizer(this, () -> buildGui(graphs, summary));
+    context.addVisualizer(this, () -> buildGui(graphs, summary, findAggregator(context)));
     return parent;
   }
 
+  private DashboardAggregator findAggregator(BuildTreeContext context) {
+    return context.getRoot().getOrCreateEntry(DashboardAggregator.class.getName(),
+        DashboardAggregator::new);
+  }
+
+  /*
+   Graphs subclasses are used to access their rows for downsampling, since plugins visualizers
+   don't provide other means to access them.
+   */
+  private static Stream<AbstractGraphRow> rowsOf(Map<String, AbstractGraphRow> model,
+      Map<String, AbstractGraphRow> modelAggregate) {
+    return Stream.of(model, modelAggregate)
+        .filter(Objects::nonNull)
+        .flatMap(m -> m.values().stream());
+  }
+
+  private static class ThreadsStateGraph extends ThreadsStateOverTimeGui implements
+      DownsampledGraph {
+
+    @Override
+    public Stream<AbstractGraphRow> rows() {
+      return rowsOf(model, modelAggregate);
+    }
+
+  }
+
+  private static class ResponseTimesGraph extends ResponseTimesOverTimeGui implements
+      DownsampledGraph {
+
+    @Override
+    public Stream<AbstractGraphRow> rows() {
+      return rowsOf(model, modelAggregate);
+    }
+
+  }
+
+  private static class TransactionsPerSecondGraph extends TransactionsPerSecondGui implements
+      DownsampledGraph {
+
+    @Override
+    public Stream<AbstractGraphRow> rows() {
+      return rowsOf(model, modelAggregate);
+    }
+
+  }
+
+  private static class ResponseCodesPerSecondGraph extends ResponseCodesPerSecondGui implements
+      DownsampledGraph {
+
+    @Override
+    public Stream<AbstractGraphRow> rows() {
+      return rowsOf(model, modelAggregate);
+    }
+
+  }
+
+  private interface DownsampledGraph {
+
+    Stream<AbstractGraphRow> rows();
+
+  }
+
   private TestElement buildGraphTestElement(AbstractOverTimeVisualizer graph,
       BuildTreeContext buildContext) {
     GraphPanelChart graphPanelChart = graph.getGraphPanelChart();
     graphPanelChart.setxAxisLabelRenderer(new RelativeMinutesTimeRenderer());
     // we set this to false to avoid AbstractOverTimeVisualizer overwriting our custom renderer
     graphPanelChart.getChartSettings().setUseRelativeTime(false);
+    if (graph instanceof DownsampledGraph) {
+      findAggregator(buildContext).addGraphRows(((DownsampledGraph) graph)::rows);
+    }
     return buildVisualizerTestElement(graph,
         v -> ((AbstractGraphPanelVisualizer) v).getGraphPanelChart(), 500, buildContext);
   }
@@ -104,53 +172,34 @@ public class DashboardVisualizer extends DslVisualizer {
     AbstractListenerElement testElement = (AbstractListenerElement) visualizer.createTestElement();
     visualizer.configure(testElement);
     Component subComponent = subComponentLocator.apply(visualizer);
-    Visualizer rePainter = buildSubComponentRePainter(visualizer, subComponent,
+    Visualizer feed = findAggregator(context).addFeed(visualizer, subComponent,
         repaintIntervalMillis);
-    testElement.setListener(rePainter);
     /*
-    we need to add it to the root context to avoid losing reference and being null while sampling
-    due to weak reference of test element listeners
+    test element listeners are weakly referenced, but the aggregator, which strongly references
+    the feed, is kept in the root context, so the listener is not lost while sampling
     */
-    context.getRoot().getOrCreateEntry(getClass().getSimpleName(), ArrayList::new).add(rePainter);
+    testElement.setListener(feed);
     return testElement;
   }
 
-  private Visualizer buildSubComponentRePainter(AbstractVisualizer delegate,
-      Component subComponent, long repaintIntervalMillis) {
-    return new Visualizer() {
-
-      private long lastRepaint;
-
-      @Override
-      public void add(SampleResult sample) {
-        delegate.add(sample);
-        if (repaintIntervalMillis <= 0) {
-          subComponent.repaint();
-        } else {
-          long now = System.currentTimeMillis();
-          if (now - lastRepaint >= repaintIntervalMillis) {
-            subComponent.repaint();
-            lastRepaint = now;
-          }
-        }
-      }
-
-      @Override
-      public boolean isStats() {
-        return false;
-      }
-    };
-  }
-
   @Override
   protected TestElement buildTestElement() {
     return null;
   }
 
-  protected Component buildGui(List<AbstractOverTimeVisualizer> graphs, SummaryReport summary) {
+  protected Component buildGui(List<AbstractOverTimeVisualizer> graphs, SummaryReport summary,
+      DashboardAggregator aggregator) {
     JSplitPane ret = new JSplitPane(JSplitPane.VERTICAL_SPLIT, buildGraphsPanel(graphs),
         buildSummaryPanel(summary));
     ret.setResizeWeight(1.0);
+    aggregator.start();
+    // stopping the aggregator when the window is disposed to avoid leaving threads running
+    ret.addHierarchyListener(e -> {
+      if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0
+          && !ret.isDisplayable()) {
+        aggregator.stop();
+      }
+    });
     return ret;
   }
 
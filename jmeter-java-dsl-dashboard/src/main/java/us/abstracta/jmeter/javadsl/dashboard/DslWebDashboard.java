@@ -0,0 +1,131 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import java.time.Duration;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.TestElement;
+import us.abstracta.jmeter.javadsl.core.listeners.BaseListener;
+
+/**
+ * Test element which serves a live dashboard, with throughput, error rate and response time
+ * percentiles per sample label, in a local web page (by default http://localhost:8088).
+ * <p>
+ * Unlike {@link DashboardVisualizer}, this element does not require a graphical environment, so
+ * it can be used to monitor test plans running in CI agents, containers or remote machines
+ * (through an SSH tunnel or similar), just by opening the page in a browser.
+ * <p>
+ * Sampler threads only enqueue sample results in a bounded ring buffer, and a background thread
+ * aggregates them in per second histograms and pushes stats of the most recent window (check
+ * {@link #window(Duration)}) to connected browsers every second with server-sent events. This
+ * keeps the impact on sampler threads minimal, and the page updates independent of test plan
+ * throughput. Stats are also available as JSON in /stats path.
+ *
+ * @since 2.3
+ */
+public class DslWebDashboard extends BaseListener {
+
+  private String host = "localhost";
+  private int port = 8088;
+  private Duration window = Duration.ofSeconds(10);
+  private Duration endWait = Duration.ZERO;
+  private int maxLabels = 1000;
+
+  public DslWebDashboard() {
+    super("Web Dashboard", TestBeanGUI.class);
+  }
+
+  /**
+   * Creates a new web dashboard served in http://localhost:8088.
+   * <p>
+   * Use {@link #host(String)} and {@link #port(int)} to change where the dashboard is served.
+   *
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public static DslWebDashboard webDashboard() {
+    return new DslWebDashboard();
+  }
+
+  /**
+   * Specifies the host the internal server will listen to dashboard requests.
+   * <p>
+   * Use 0.0.0.0 to allow accessing the dashboard from other machines.
+   *
+   * @param host specifies the host to serve the dashboard. By default, it is localhost.
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public DslWebDashboard host(String host) {
+    this.host = host;
+    return this;
+  }
+
+  /**
+   * Specifies the port where to serve the dashboard.
+   *
+   * @param port specifies the port to serve the dashboard. By default, it is 8088.
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public DslWebDashboard port(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * Specifies the period of most recent samples used to calculate shown throughput, error rate
+   * and response time percentiles.
+   * <p>
+   * Shorter windows make the dashboard react faster to changes in the tested service, while
+   * longer ones provide more stable stats.
+   *
+   * @param window specifies the period of samples to consider. Only seconds granularity is
+   *               supported. By default, it is 10 seconds.
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public DslWebDashboard window(Duration window) {
+    if (window.getSeconds() < 1) {
+      throw new IllegalArgumentException("Window must be at least 1 second, but was " + window);
+    }
+    this.window = window;
+    return this;
+  }
+
+  /**
+   * Specifies a duration to keep serving the dashboard after the test run ends.
+   * <p>
+   * This is useful to review final stats before the test plan execution returns.
+   *
+   * @param duration specifies the duration to wait before stop serving the dashboard. Only
+   *                 seconds granularity is supported. By default, it is 0.
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public DslWebDashboard endWait(Duration duration) {
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("End wait must not be negative, but was " + duration);
+    }
+    this.endWait = duration;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum number of sample labels to show.
+   * <p>
+   * This avoids exhausting memory and overloading the page when sample labels contain unbounded
+   * values (eg: when using ids in sample labels). Samples with labels exceeding this limit are
+   * shown with "__overflow__" label.
+   *
+   * @param maxLabels specifies the maximum number of labels. By default, it is 1000.
+   * @return the dashboard instance for further configuration or usage.
+   */
+  public DslWebDashboard maxLabels(int maxLabels) {
+    if (maxLabels < 0) {
+      throw new IllegalArgumentException("Max labels must not be negative, but was " + maxLabels);
+    }
+    this.maxLabels = maxLabels;
+    return this;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    return new WebDashboardTestBean(host, port, (int) window.getSeconds(), endWait.getSeconds(),
+        maxLabels);
+  }
+
+}
@@ -0,0 +1,66 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+/*
+ Largest-Triangle-Three-Buckets downsampling (Sveinn Steinarsson, 2013).
+
+ Selects a subset of points of a time series which keeps its visual shape: first and last points
+ are always kept, and remaining points are split in buckets, keeping from each bucket the point
+ which forms the largest triangle with the point kept from previous bucket and the average of next
+ bucket. This preserves peaks and valleys, which plain averaging or decimation would hide.
+ */
+class LargestTriangleThreeBuckets {
+
+  private LargestTriangleThreeBuckets() {
+  }
+
+  /*
+   Returns the indexes (in ascending order) of the points to keep. When threshold is not lower
+   than the number of points, or lower than 3, all indexes are returned.
+   */
+  static int[] select(long[] xs, double[] ys, int threshold) {
+    int length = xs.length;
+    if (threshold >= length || threshold < 3) {
+      int[] ret = new int[length];
+      for (int i = 0; i < length; i++) {
+        ret[i] = i;
+      }
+      return ret;
+    }
+    int[] ret = new int[threshold];
+    double bucketSize = (double) (length - 2) / (threshold - 2);
+    int selected = 0;
+    ret[0] = 0;
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextStart; i < nextEnd; i++) {
+        avgX += xs[i];
+        avgY += ys[i];
+      }
+      int nextLength = nextEnd - nextStart;
+      avgX /= nextLength;
+      avgY /= nextLength;
+      int start = (int) Math.floor(bucket * bucketSize) + 1;
+      int end = nextStart;
+      double selectedX = xs[selected];
+      double selectedY = ys[selected];
+      double maxArea = -1;
+      int maxIndex = start;
+      for (int i = start; i < end; i++) {
+        double area = Math.abs((selectedX - avgX) * (ys[i] - selectedY)
+            - (selectedX - xs[i]) * (avgY - selectedY));
+        if (area > maxArea) {
+          maxArea = area;
+          maxIndex = i;
+        }
+      }
+      ret[bucket + 1] = maxIndex;
+      selected = maxIndex;
+    }
+    ret[threshold - 1] = length - 1;
+    return ret;
+  }
+
+}
@@ -0,0 +1,173 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
+import us.abstracta.jmeter.javadsl.core.util.JsonStrings;
+
+/*
+ Keeps, per sample label and for all samples, total counts and per second slots (in a ring
+ covering the configured window) with counts and response times histograms.
+
+ Memory only depends on the number of labels and the window length, and not on test duration,
+ since slots are reused as time passes.
+
+ This class is not thread safe. It is only used by web dashboard aggregator thread.
+ */
+class WebDashboardStats {
+
+  static final String OVERFLOW_LABEL = "__overflow__";
+  private static final int[] PERCENTILES = {50, 90, 99};
+
+  private final int windowSeconds;
+  private final int maxLabels;
+  private final Map<String, LabelStats> labels = new LinkedHashMap<>();
+  private final LabelStats overall;
+  private final long startMillis;
+
+  WebDashboardStats(int windowSeconds, int maxLabels, long startMillis) {
+    this.windowSeconds = windowSeconds;
+    this.maxLabels = maxLabels;
+    this.startMillis = startMillis;
+    overall = new LabelStats(windowSeconds);
+  }
+
+  void add(Sample sample) {
+    // end time is used instead of aggregation time to avoid stats depending on buffering delays
+    long second = sample.endTime / 1000;
+    String label = sample.label;
+    LabelStats labelStats = labels.get(label);
+    if (labelStats == null) {
+      if (labels.size() >= maxLabels) {
+        label = OVERFLOW_LABEL;
+      }
+      labelStats = labels.computeIfAbsent(label, l -> new LabelStats(windowSeconds));
+    }
+    labelStats.add(sample, second);
+    overall.add(sample, second);
+  }
+
+  String toJson(long nowMillis) {
+    long second = nowMillis / 1000;
+    // at the beginning of the test, the window is shorter than configured one
+    long elapsedSeconds = Math.max(1, (nowMillis - startMillis) / 1000);
+    long window = Math.min(windowSeconds, elapsedSeconds);
+    StringBuilder ret = new StringBuilder()
+        .append("{\"time\":").append(nowMillis)
+        .append(",\"elapsedSeconds\":").append(elapsedSeconds)
+        .append(",\"windowSeconds\":").append(window)
+        .append(",\"overall\":");
+    overall.appendJson(null, second, window, ret);
+    ret.append(",\"labels\":[");
+    boolean first = true;
+    for (Map.Entry<String, LabelStats> entry : labels.entrySet()) {
+      if (!first) {
+        ret.append(',');
+      }
+      first = false;
+      entry.getValue().appendJson(entry.getKey(), second, window, ret);
+    }
+    return ret.append("]}").toString();
+  }
+
+  /*
+   Keeps only the sample result fields used by the stats, so buffered samples don't retain
+   response data, headers, etc.
+   */
+  static class Sample {
+
+    private final String label;
+    private final long endTime;
+    private final long time;
+    private final int count;
+    private final int errorCount;
+
+    Sample(SampleResult result) {
+      label = result.getSampleLabel();
+      endTime = result.getEndTime();
+      time = result.getTime();
+      count = result.getSampleCount();
+      errorCount = result.getErrorCount();
+    }
+
+  }
+
+  private static class LabelStats {
+
+    private final Slot[] slots;
+    private long samples;
+    private long errors;
+
+    private LabelStats(int windowSeconds) {
+      slots = new Slot[windowSeconds];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = new Slot();
+      }
+    }
+
+    private void add(Sample sample, long second) {
+      int count = sample.count;
+      int errorCount = sample.errorCount;
+      samples += count;
+      errors += errorCount;
+      Slot slot = slots[(int) (second % slots.length)];
+      // samples older than the window are only included in totals, to not discard newer ones
+      if (slot.second > second) {
+        return;
+      }
+      if (slot.second != second) {
+        slot.reset(second);
+      }
+      slot.samples += count;
+      slot.errors += errorCount;
+      slot.times.record(sample.time, count);
+    }
+
+    private void appendJson(String label, long second, long window, StringBuilder json) {
+      long windowSamples = 0;
+      long windowErrors = 0;
+      LogLinearHistogram times = new LogLinearHistogram();
+      for (Slot slot : slots) {
+        if (slot.second > second - window && slot.second <= second) {
+          windowSamples += slot.samples;
+          windowErrors += slot.errors;
+          times.merge(slot.times);
+        }
+      }
+      json.append('{');
+      if (label != null) {
+        json.append("\"label\":\"").append(JsonStrings.escape(label)).append("\",");
+      }
+      json.append("\"samples\":").append(samples)
+          .append(",\"errors\":").append(errors)
+          .append(",\"throughput\":").append((double) windowSamples / window)
+          .append(",\"errorRate\":")
+          .append(windowSamples == 0 ? 0 : (double) windowErrors / windowSamples)
+          .append(",\"mean\":").append(times.mean());
+      for (int percentile : PERCENTILES) {
+        json.append(",\"p").append(percentile).append("\":").append(times.percentile(percentile));
+      }
+      json.append(",\"max\":").append(times.max())
+          .append('}');
+    }
+
+  }
+
+  private static class Slot {
+
+    private long second = -1;
+    private long samples;
+    private long errors;
+    private final LogLinearHistogram times = new LogLinearHistogram();
+
+    private void reset(long second) {
+      this.second = second;
+      samples = 0;
+      errors = 0;
+      times.reset();
+    }
+
+  }
+
+}
@@ -0,0 +1,292 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.reporters.AbstractListenerElement;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.util.RingBuffer;
+
+/*
+ Needs to implement Visualizer so that TestBeanGUI can find the correct GUI class.
+
+ Sampler threads only offer the few fields of sample results used by the stats to a ring buffer
+ (so, unlike whole sample results, 64K buffered samples only take a few MBs). An aggregator thread
+ drains them into time bucketed stats, and every second hands a snapshot of the stats to a
+ publisher thread, which sends it, as a server-sent event, to all connected browsers. When
+ browsers are slow to receive events, the publisher only keeps the latest pending snapshot, so the
+ aggregator is never blocked by them.
+ */
+public class WebDashboardTestBean extends AbstractListenerElement implements TestBean,
+    SampleListener, TestStateListener, NoThreadClone, Visualizer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WebDashboardTestBean.class);
+  private static final String PAGE_RESOURCE = "web-dashboard.html";
+  private static final int BUFFER_CAPACITY = 1 << 16;
+  private static final int MAX_DRAIN_BATCH = 4096;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long PUBLISH_INTERVAL_MILLIS = 1000;
+  private static final long PUBLISHER_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+  private String host;
+  private int port;
+  private int windowSeconds;
+  private long endWaitSeconds;
+  private int maxLabels;
+  private transient RingBuffer<WebDashboardStats.Sample> buffer;
+  private transient LongAdder droppedSamples;
+  private transient List<HttpExchange> clients;
+  private transient HttpServer server;
+  private transient Thread aggregator;
+  private transient ExecutorService publisher;
+  private transient volatile boolean running;
+  private transient volatile String lastSnapshot;
+
+  public WebDashboardTestBean() {
+    this("localhost", 8088, 10, 0, 1000);
+  }
+
+  public WebDashboardTestBean(String host, int port, int windowSeconds, long endWaitSeconds,
+      int maxLabels) {
+    this.host = host;
+    this.port = port;
+    this.windowSeconds = windowSeconds;
+    this.endWaitSeconds = endWaitSeconds;
+    this.maxLabels = maxLabels;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public int getWindowSeconds() {
+    return windowSeconds;
+  }
+
+  public void setWindowSeconds(int windowSeconds) {
+    this.windowSeconds = windowSeconds;
+  }
+
+  public long getEndWaitSeconds() {
+    return endWaitSeconds;
+  }
+
+  public void setEndWaitSeconds(long endWaitSeconds) {
+    this.endWaitSeconds = endWaitSeconds;
+  }
+
+  public int getMaxLabels() {
+    return maxLabels;
+  }
+
+  public void setMaxLabels(int maxLabels) {
+    this.maxLabels = maxLabels;
+  }
+
+  @Override
+  public void add(SampleResult sample) {
+  }
+
+  @Override
+  public boolean isStats() {
+    return false;
+  }
+
+  @Override
+  public void testStarted() {
+    buffer = new RingBuffer<>(BUFFER_CAPACITY);
+    droppedSamples = new LongAdder();
+    clients = new CopyOnWriteArrayList<>();
+    lastSnapshot = null;
+    try {
+      server = HttpServer.create(new InetSocketAddress(host, port), 0);
+      server.createContext("/", this::handlePage);
+      server.createContext("/events", this::handleEvents);
+      server.createContext("/stats", this::handleStats);
+      server.start();
+      LOG.info("Web dashboard available at http://{}:{}", host, port);
+    } catch (IOException e) {
+      LOG.error("Could not start web dashboard server on {}:{}", host, port, e);
+    }
+    publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1), r -> {
+          Thread ret = new Thread(r, "web-dashboard-publisher");
+          ret.setDaemon(true);
+          return ret;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    running = true;
+    WebDashboardStats stats = new WebDashboardStats(windowSeconds, maxLabels,
+        System.currentTimeMillis());
+    aggregator = new Thread(() -> aggregate(stats), "web-dashboard-aggregator");
+    aggregator.setDaemon(true);
+    aggregator.start();
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void sampleOccurred(SampleEvent e) {
+    if (!buffer.offer(new WebDashboardStats.Sample(e.getResult()))) {
+      droppedSamples.increment();
+    }
+  }
+
+  private void aggregate(WebDashboardStats stats) {
+    long lastPublish = 0;
+    while (running || !buffer.isEmpty()) {
+      long now = System.currentTimeMillis();
+      int drained = buffer.drainTo(stats::add, MAX_DRAIN_BATCH);
+      if (now - lastPublish >= PUBLISH_INTERVAL_MILLIS) {
+        publish(stats.toJson(now));
+        lastPublish = now;
+      }
+      if (drained == 0) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+    publish(stats.toJson(System.currentTimeMillis()));
+  }
+
+  private void publish(String snapshot) {
+    lastSnapshot = snapshot;
+    publisher.execute(() -> sendEvent(snapshot));
+  }
+
+  private void sendEvent(String snapshot) {
+    byte[] event = ("data: " + snapshot + "\n\n").getBytes(StandardCharsets.UTF_8);
+    for (HttpExchange client : clients) {
+      try {
+        OutputStream output = client.getResponseBody();
+        output.write(event);
+        output.flush();
+      } catch (IOException e) {
+        // browser closed the connection
+        clients.remove(client);
+        client.close();
+      }
+    }
+  }
+
+  private void handlePage(HttpExchange exchange) throws IOException {
+    try (InputStream page = getClass().getResourceAsStream(PAGE_RESOURCE)) {
+      if (!"/".equals(exchange.getRequestURI().getPath()) || page == null) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      byte[] body = readAll(page);
+      exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static byte[] readAll(InputStream input) throws IOException {
+    ByteArrayOutputStream ret = new ByteArrayOutputStream();
+    byte[] chunk = new byte[8192];
+    int read;
+    while ((read = input.read(chunk)) != -1) {
+      ret.write(chunk, 0, read);
+    }
+    return ret.toByteArray();
+  }
+
+  private void handleEvents(HttpExchange exchange) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    // 0 length means chunked encoding, which keeps the connection open to send events
+    exchange.sendResponseHeaders(200, 0);
+    clients.add(exchange);
+  }
+
+  private void handleStats(HttpExchange exchange) throws IOException {
+    try {
+      String snapshot = lastSnapshot;
+      byte[] body = (snapshot != null ? snapshot : "{}").getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  @Override
+  public void sampleStarted(SampleEvent e) {
+  }
+
+  @Override
+  public void sampleStopped(SampleEvent e) {
+  }
+
+  @Override
+  public void testEnded() {
+    running = false;
+    try {
+      aggregator.join();
+      publisher.shutdown();
+      publisher.awaitTermination(PUBLISHER_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      long dropped = droppedSamples.sum();
+      if (dropped > 0) {
+        LOG.warn(DashboardAggregator.DISCARDED_SAMPLES_WARNING, "Web dashboard", dropped);
+      }
+      if (server != null) {
+        // give the chance to check final stats
+        Thread.sleep(endWaitSeconds * 1000);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      // closing clients unblocks the publisher if it is still sending to a slow browser
+      clients.forEach(HttpExchange::close);
+      publisher.shutdownNow();
+      if (server != null) {
+        server.stop(0);
+        server = null;
+      }
+    }
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+}
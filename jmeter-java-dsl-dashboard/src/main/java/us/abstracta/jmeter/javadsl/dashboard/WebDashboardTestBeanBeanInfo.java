@@ -0,0 +1,24 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import java.beans.PropertyDescriptor;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class WebDashboardTestBeanBeanInfo extends BeanInfoSupport {
+
+  public WebDashboardTestBeanBeanInfo() {
+    super(WebDashboardTestBean.class);
+    createPropertyGroup("server", new String[]{"host", "port", "endWaitSeconds"});
+    createPropertyGroup("stats", new String[]{"windowSeconds", "maxLabels"});
+    setDefault(property("host"), "localhost");
+    setDefault(property("port"), 8088);
+    setDefault(property("endWaitSeconds"), 0L);
+    setDefault(property("windowSeconds"), 10);
+    setDefault(property("maxLabels"), 1000);
+  }
+
+  private static void setDefault(PropertyDescriptor p, Object value) {
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, value);
+  }
+
+}
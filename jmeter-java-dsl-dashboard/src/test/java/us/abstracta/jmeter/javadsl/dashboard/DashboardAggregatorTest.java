@@ -0,0 +1,124 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import javax.swing.SwingUtilities;
+import kg.apc.charting.AbstractGraphPanelChartElement;
+import kg.apc.charting.rows.GraphRowAverages;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.apache.jmeter.visualizers.gui.AbstractVisualizer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
+
+public class DashboardAggregatorTest {
+
+  private static final int SAMPLES_COUNT = 5000;
+  private static final int ROW_POINTS = 5000;
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  @BeforeAll
+  public static void setupAll() throws Exception {
+    // required by visualizers to solve their labels
+    new JmeterEnvironment();
+  }
+
+  @Test
+  public void shouldAddAllSamplesInEventDispatchThreadWhenFeedReceivesSamples() throws Exception {
+    DashboardAggregator aggregator = new DashboardAggregator();
+    RecordingVisualizer visualizer = new RecordingVisualizer();
+    Visualizer feed = aggregator.addFeed(visualizer, visualizer, 0);
+    aggregator.start();
+    try {
+      for (int i = 0; i < SAMPLES_COUNT; i++) {
+        feed.add(new SampleResult());
+      }
+      awaitUntil(() -> visualizer.samplesCount.get() == SAMPLES_COUNT);
+    } finally {
+      aggregator.stop();
+    }
+    assertThat(visualizer.samplesCount.get()).isEqualTo(SAMPLES_COUNT);
+    assertThat(visualizer.addedOutsideEventDispatchThread).isFalse();
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static class RecordingVisualizer extends AbstractVisualizer {
+
+    private final AtomicInteger samplesCount = new AtomicInteger();
+    private volatile boolean addedOutsideEventDispatchThread;
+
+    @Override
+    public void add(SampleResult sample) {
+      addedOutsideEventDispatchThread |= !SwingUtilities.isEventDispatchThread();
+      samplesCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean isStats() {
+      return false;
+    }
+
+    @Override
+    public void clearData() {
+    }
+
+    @Override
+    public String getLabelResource() {
+      return "view_results_tree_title";
+    }
+
+  }
+
+  @Test
+  public void shouldDownsampleOldPointsInEventDispatchThreadWhenRowExceedsPointsLimit()
+      throws Exception {
+    DashboardAggregator aggregator = new DashboardAggregator(0);
+    RecordingRow row = new RecordingRow();
+    for (int i = 0; i < ROW_POINTS; i++) {
+      row.add(i * 500L, Math.sin(i / 100.0));
+    }
+    aggregator.addGraphRows(() -> Stream.of(row));
+    aggregator.start();
+    try {
+      awaitUntil(() -> row.size() < ROW_POINTS);
+    } finally {
+      aggregator.stop();
+    }
+    assertThat(row.size()).isLessThan(ROW_POINTS);
+    assertThat(row.accessedOutsideEventDispatchThread).isFalse();
+  }
+
+  private static class RecordingRow extends GraphRowAverages {
+
+    private volatile boolean accessedOutsideEventDispatchThread;
+
+    @Override
+    public Iterator<Entry<Long, AbstractGraphPanelChartElement>> iterator() {
+      accessedOutsideEventDispatchThread |= !SwingUtilities.isEventDispatchThread();
+      return super.iterator();
+    }
+
+  }
+
+  @Test
+  public void shouldStopAggregatorThreadWhenStop() {
+    DashboardAggregator aggregator = new DashboardAggregator();
+    aggregator.start();
+    aggregator.stop();
+    assertThat(Thread.getAllStackTraces().keySet())
+        .noneMatch(t -> "dashboard-aggregator".equals(t.getName()));
+  }
+
+}
@@ -0,0 +1,125 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+import static us.abstracta.jmeter.javadsl.dashboard.DslWebDashboard.webDashboard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class DslWebDashboardTest {
+
+  private static final int PORT = 8089;
+  private static final String BASE_URL = "http://localhost:" + PORT;
+  private static final Duration POLL_PERIOD = Duration.ofMillis(500);
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(15);
+
+  @Test
+  public void shouldServeLabelStatsWhenWebDashboard() throws Exception {
+    runConcurrently(
+        testPlanRunner(webDashboard()
+            .port(PORT)
+            .endWait(Duration.ofSeconds(5))),
+        conditionChecker(BASE_URL + "/stats", ".*\"label\":\"OK\",\"samples\":1,.*")
+    );
+  }
+
+  @Test
+  public void shouldServeDashboardPageWhenWebDashboard() throws Exception {
+    runConcurrently(
+        testPlanRunner(webDashboard()
+            .port(PORT)
+            .endWait(Duration.ofSeconds(5))),
+        conditionChecker(BASE_URL + "/", ".*EventSource.*")
+    );
+  }
+
+  @Test
+  public void shouldServeOverflowLabelWhenWebDashboardExceedsMaxLabels() throws Exception {
+    runConcurrently(
+        testPlanRunner(webDashboard()
+            .port(PORT)
+            .endWait(Duration.ofSeconds(5))
+            .maxLabels(1)),
+        conditionChecker(BASE_URL + "/stats", ".*\"label\":\"__overflow__\",\"samples\":1,.*")
+    );
+  }
+
+  @Test
+  public void shouldThrowIllegalArgumentExceptionWhenWebDashboardWithNegativeEndWait() {
+    assertThatThrownBy(() -> webDashboard().endWait(Duration.ofSeconds(-1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Callable<Void> testPlanRunner(DslWebDashboard dashboard) {
+    return () -> {
+      testPlan(
+          threadGroup(1, 1,
+              dummySampler("OK", "OK"),
+              dummySampler("OTHER", "OK")
+          ),
+          dashboard
+      ).run();
+      return null;
+    };
+  }
+
+  @SafeVarargs
+  private static void runConcurrently(Callable<Void>... callables) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(callables.length);
+    try {
+      List<Future<Void>> rets = executor.invokeAll(Arrays.asList(callables));
+      for (Future<Void> ret : rets) {
+        ret.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Callable<Void> conditionChecker(String url, String expectedResponseRegex) {
+    return () -> {
+      Instant start = Instant.now();
+      do {
+        Thread.sleep(POLL_PERIOD.toMillis());
+        try {
+          if (urlQuery(url).matches(expectedResponseRegex)) {
+            return null;
+          }
+        } catch (IOException e) {
+          // server may not be started yet, so we just retry
+        }
+      } while (Instant.now().isBefore(start.plus(POLL_TIMEOUT)));
+      throw new TimeoutException("Could not get the expected response from " + url
+          + " within the timeout of " + POLL_TIMEOUT);
+    };
+  }
+
+  private static String urlQuery(String url) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    try (BufferedReader in = new BufferedReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      return in.lines().collect(Collectors.joining());
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+package us.abstracta.jmeter.javadsl.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class LargestTriangleThreeBucketsTest {
+
+  private static final int POINTS = 10000;
+  private static final int PEAK_INDEX = 5000;
+
+  @Test
+  public void shouldKeepFirstLastAndPeakPointsWhenSelect() {
+    long[] xs = new long[POINTS];
+    double[] ys = new double[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      xs[i] = i * 500L;
+      ys[i] = Math.sin(i / 100.0);
+    }
+    ys[PEAK_INDEX] = 50;
+    int[] selected = LargestTriangleThreeBuckets.select(xs, ys, 100);
+    assertThat(selected)
+        .hasSize(100)
+        .isSorted()
+        .contains(0, PEAK_INDEX, POINTS - 1);
+  }
+
+  @Test
+  public void shouldKeepAllPointsWhenSelectWithThresholdBiggerThanPoints() {
+    long[] xs = {1, 2, 3};
+    double[] ys = {1, 2, 3};
+    assertThat(Arrays.stream(LargestTriangleThreeBuckets.select(xs, ys, 5)).boxed())
+        .containsExactly(0, 1, 2);
+  }
+
+}
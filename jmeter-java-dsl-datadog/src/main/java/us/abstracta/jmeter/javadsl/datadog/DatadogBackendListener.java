@@ -2,6 +2,9 @@ package us.abstracta.jmeter.javadsl.datadog;
 
 import java.lang.reflect.Method;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.http.client.utils.URIBuilder;
@@ -9,6 +12,7 @@ import org.apache.jmeter.config.Arguments;
 import org.datadog.jmeter.plugins.DatadogBackendClient;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.DurationParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam.EnumPropertyValue;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringArrayParam;
@@ -36,6 +40,7 @@ public class DatadogBackendListener extends DslBackendListener<DatadogBackendLis
   protected String logsUrl;
   protected boolean resultsAsLogs = false;
   protected String[] tags;
+  protected Duration distributionsFlushInterval;
 
   public DatadogBackendListener(String apiKey) {
     super(DatadogBackendClient.class, null);
@@ -68,6 +73,21 @@ public class DatadogBackendListener extends DslBackendListener<DatadogBackendLis
     return this;
   }
 
+  /**
+   * Allows specifying a custom DataDog API URL.
+   * <p>
+   * This is useful when DataDog API is accessed through a proxy, or for testing purposes with a
+   * local fake intake.
+   *
+   * @param apiUrl specifies the base URL of DataDog API (eg: https://api.datadoghq.com/api/).
+   * @return the listener for further configuration and usage.
+   * @since 2.3
+   */
+  public DatadogBackendListener apiUrl(String apiUrl) {
+    this.apiUrl = apiUrl;
+    return this;
+  }
+
   public enum DatadogSite implements EnumPropertyValue {
     US1("datadoghq.com"), US3("us3.datadoghq.com"), US5("us5.datadoghq.com"), EU(
         "datadoghq.eu"), US1_FED("ddog-gov.com"), AP1("ap1.datadoghq.com");
@@ -116,13 +136,43 @@ public class DatadogBackendListener extends DslBackendListener<DatadogBackendLis
     return this;
   }
 
+  /**
+   * Specifies to aggregate sample results in DDSketch distributions, in the load generator, and
+   * send them periodically to DataDog.
+   * <p>
+   * Response times and latencies (jmeter.response_time.distribution and
+   * jmeter.latency.distribution metrics, in seconds) are aggregated per sample label, response
+   * code and result, in sketches with the same bins that DataDog agent uses. This way, DataDog can
+   * exactly merge distributions sent by several load generators, and calculate accurate
+   * percentiles (with 1% of relative error) of any group of them. Additionally, the number of
+   * requests to DataDog depends only on the flush interval, and not on test plan throughput.
+   * <p>
+   * When this option is enabled, jmeter-datadog-backend-listener plugin is not used, so no other
+   * metrics or results logs are sent to DataDog.
+   *
+   * @param flushInterval specifies the period between sketches sends. Consider that DataDog uses
+   *                      10 seconds intervals for distributions.
+   * @return the listener for further configuration and usage.
+   * @since 2.3
+   */
+  public DatadogBackendListener distributions(Duration flushInterval) {
+    distributionsFlushInterval = flushInterval;
+    listenerClass = DatadogSketchesBackendClient.class;
+    return this;
+  }
+
   @Override
   protected Arguments buildListenerArguments() {
     Arguments ret = new Arguments();
     ret.addArgument(API_KEY_ARG, apiKey);
     ret.addArgument(API_URL_ARG, apiUrl);
-    ret.addArgument(LOG_URL_ARG, buildLogsUrl());
-    ret.addArgument(RESULT_LOGS_ARG, String.valueOf(resultsAsLogs));
+    if (distributionsFlushInterval != null) {
+      ret.addArgument(DatadogSketchesBackendClient.FLUSH_INTERVAL_ARG,
+          String.valueOf(distributionsFlushInterval.toMillis()));
+    } else {
+      ret.addArgument(LOG_URL_ARG, buildLogsUrl());
+      ret.addArgument(RESULT_LOGS_ARG, String.valueOf(resultsAsLogs));
+    }
     ret.addArgument(TAGS_ARG, tags != null ? String.join(",", tags) : "");
     return ret;
   }
@@ -143,17 +193,33 @@ public class DatadogBackendListener extends DslBackendListener<DatadogBackendLis
   public static class CodeBuilder extends BackendListenerCodeBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(DatadogBackendClient.class, builderMethods);
+      super(Arrays.asList(DatadogBackendClient.class, DatadogSketchesBackendClient.class),
+          builderMethods);
     }
 
     @Override
     protected MethodCall buildBackendListenerCall(Map<String, String> args,
         Map<String, String> defaultValues) {
+      MethodCall ret = buildMethodCall(new StringParam(args.get(API_KEY_ARG)));
       String apiUrl = args.get(API_URL_ARG);
-      return buildMethodCall(new StringParam(args.get(API_KEY_ARG)))
-          .chain("site", new EnumParam<>(DatadogSite.class, apiUrl, DatadogSite.US1))
-          .chain("resultsLogs", new BoolParam(args.get(RESULT_LOGS_ARG), false))
+      if (isSiteUrl(apiUrl)) {
+        ret.chain("site", new EnumParam<>(DatadogSite.class, apiUrl, DatadogSite.US1));
+      } else {
+        ret.chain("apiUrl", new StringParam(apiUrl));
+      }
+      ret.chain("resultsLogs", new BoolParam(args.get(RESULT_LOGS_ARG), false))
           .chain("tags", new StringArrayParam(args.get(TAGS_ARG)));
+      // distributions are used even with default flush interval, which only sketches client has
+      String flushInterval = args.get(DatadogSketchesBackendClient.FLUSH_INTERVAL_ARG);
+      if (flushInterval != null) {
+        ret.chain("distributions", new DurationParam(flushInterval, null, ChronoUnit.MILLIS));
+      }
+      return ret;
+    }
+
+    private boolean isSiteUrl(String apiUrl) {
+      return Arrays.stream(DatadogSite.values())
+          .anyMatch(s -> s.propertyValue().equals(apiUrl));
     }
 
   }
@@ -0,0 +1,308 @@
+package us.abstracta.jmeter.javadsl.datadog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DataDog backend listener client which aggregates sample results in DDSketch distributions and
+ * sends them periodically to DataDog sketches intake.
+ * <p>
+ * Response times and latencies are aggregated, per sample label, response code and result, in
+ * sketches with same bins as the ones used by DataDog agent. This way, DataDog can merge sketches
+ * from several load generators (and flush intervals) without losing precision, and the number of
+ * sent metrics only depends on the flush interval and number of distinct labels, and not on test
+ * plan throughput.
+ * <p>
+ * All sketches of each flush interval are sent in a single deflate compressed request, encoded
+ * with the same protobuf messages DataDog agent uses, so no protobuf or DataDog client library is
+ * required.
+ *
+ * @since 2.3
+ */
+public class DatadogSketchesBackendClient extends AbstractBackendListenerClient {
+
+  public static final String API_KEY_ARG = DatadogBackendListener.API_KEY_ARG;
+  public static final String API_URL_ARG = DatadogBackendListener.API_URL_ARG;
+  public static final String TAGS_ARG = DatadogBackendListener.TAGS_ARG;
+  public static final String FLUSH_INTERVAL_ARG = "flushIntervalMillis";
+  public static final String RESPONSE_TIME_METRIC = "jmeter.response_time.distribution";
+  public static final String LATENCY_METRIC = "jmeter.latency.distribution";
+  public static final String SKETCHES_PATH = "beta/sketches";
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatadogSketchesBackendClient.class);
+  private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+  private static final int READ_TIMEOUT_MILLIS = 10000;
+
+  private final Map<String, SampleSketches> sketches = new ConcurrentHashMap<>();
+  private URL url;
+  private String apiKey;
+  private List<String> tags;
+  private String host;
+  private ScheduledExecutorService scheduler;
+
+  @Override
+  public Arguments getDefaultParameters() {
+    Arguments ret = new Arguments();
+    ret.addArgument(API_KEY_ARG, "");
+    ret.addArgument(API_URL_ARG, DatadogBackendListener.DatadogSite.US1.propertyValue());
+    ret.addArgument(TAGS_ARG, "");
+    ret.addArgument(FLUSH_INTERVAL_ARG, "10000");
+    return ret;
+  }
+
+  @Override
+  public void setupTest(BackendListenerContext context) throws Exception {
+    String apiUrl = context.getParameter(API_URL_ARG);
+    url = new URL(apiUrl + (apiUrl.endsWith("/") ? "" : "/") + SKETCHES_PATH);
+    apiKey = context.getParameter(API_KEY_ARG, "");
+    tags = Arrays.stream(context.getParameter(TAGS_ARG, "").split(","))
+        .map(String::trim)
+        .filter(t -> !t.isEmpty())
+        .collect(Collectors.toList());
+    host = findHostName();
+    sketches.clear();
+    super.setupTest(context);
+    long flushIntervalMillis = context.getLongParameter(FLUSH_INTERVAL_ARG, 10000);
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread ret = new Thread(r, "datadog-sketches-sender");
+      ret.setDaemon(true);
+      return ret;
+    });
+    scheduler.scheduleAtFixedRate(this::flush, flushIntervalMillis, flushIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  private static String findHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "";
+    }
+  }
+
+  @Override
+  public void handleSampleResults(List<SampleResult> results, BackendListenerContext context) {
+    for (SampleResult result : results) {
+      String label = result.getSampleLabel() != null ? result.getSampleLabel() : "";
+      String code = result.getResponseCode() != null ? result.getResponseCode() : "";
+      sketches.computeIfAbsent(label + '\n' + code + '\n' + result.isSuccessful(),
+              k -> new SampleSketches(buildTags(label, code, result.isSuccessful())))
+          .add(result);
+    }
+  }
+
+  private List<String> buildTags(String label, String code, boolean success) {
+    List<String> ret = new ArrayList<>(tags);
+    ret.add("sample_label:" + label);
+    ret.add("response_code:" + code);
+    ret.add("result:" + (success ? "ok" : "ko"));
+    return ret;
+  }
+
+  private synchronized void flush() {
+    try {
+      long timestampSeconds = System.currentTimeMillis() / 1000;
+      ProtobufWriter payload = new ProtobufWriter();
+      int sketchesCount = 0;
+      for (SampleSketches sampleSketches : sketches.values()) {
+        DogSketch[] collected = sampleSketches.collect();
+        if (collected[0].count() == 0) {
+          continue;
+        }
+        payload.writeMessage(1, buildSketch(RESPONSE_TIME_METRIC, sampleSketches.tags,
+            collected[0], timestampSeconds));
+        payload.writeMessage(1, buildSketch(LATENCY_METRIC, sampleSketches.tags,
+            collected[1], timestampSeconds));
+        sketchesCount += 2;
+      }
+      if (sketchesCount > 0) {
+        send(payload.toByteArray(), sketchesCount);
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Problem sending sketches to DataDog", e);
+    }
+  }
+
+  /*
+   Encodes a SketchPayload.Sketch protobuf message (as defined in DataDog agent-payload
+   project) with a single Dogsketch.
+   */
+  private ProtobufWriter buildSketch(String metric, List<String> tags, DogSketch sketch,
+      long timestampSeconds) {
+    ProtobufWriter dogSketch = new ProtobufWriter();
+    dogSketch.writeInt64(1, timestampSeconds);
+    dogSketch.writeInt64(2, sketch.count());
+    dogSketch.writeDouble(3, sketch.min());
+    dogSketch.writeDouble(4, sketch.max());
+    dogSketch.writeDouble(5, sketch.avg());
+    dogSketch.writeDouble(6, sketch.sum());
+    ProtobufWriter keys = new ProtobufWriter();
+    ProtobufWriter counts = new ProtobufWriter();
+    sketch.forEachBin((key, count) -> {
+      keys.writeSint32(key);
+      counts.writeVarint(Math.min(count, 0xFFFFFFFFL));
+    });
+    dogSketch.writeMessage(7, keys);
+    dogSketch.writeMessage(8, counts);
+    ProtobufWriter ret = new ProtobufWriter();
+    ret.writeString(1, metric);
+    ret.writeString(2, host);
+    tags.forEach(t -> ret.writeString(4, t));
+    ret.writeMessage(7, dogSketch);
+    return ret;
+  }
+
+  private void send(byte[] payload, int sketchesCount) {
+    try {
+      byte[] body = deflate(payload);
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      try {
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/x-protobuf");
+        connection.setRequestProperty("Content-Encoding", "deflate");
+        connection.setRequestProperty("DD-API-KEY", apiKey);
+        try (OutputStream output = connection.getOutputStream()) {
+          output.write(body);
+        }
+        int responseCode = connection.getResponseCode();
+        if (responseCode / 100 != 2) {
+          LOG.error("DataDog responded with status code {} to {} sketches", responseCode,
+              sketchesCount);
+        }
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      LOG.error("Problem sending {} sketches to DataDog", sketchesCount, e);
+    }
+  }
+
+  private static byte[] deflate(byte[] payload) throws IOException {
+    ByteArrayOutputStream ret = new ByteArrayOutputStream(payload.length / 2);
+    try (DeflaterOutputStream output = new DeflaterOutputStream(ret)) {
+      output.write(payload);
+    }
+    return ret.toByteArray();
+  }
+
+  @Override
+  public void teardownTest(BackendListenerContext context) throws Exception {
+    scheduler.shutdown();
+    scheduler.awaitTermination(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    flush();
+    super.teardownTest(context);
+  }
+
+  private static class SampleSketches {
+
+    private final List<String> tags;
+    private DogSketch responseTimes = new DogSketch();
+    private DogSketch latencies = new DogSketch();
+
+    private SampleSketches(List<String> tags) {
+      this.tags = tags;
+    }
+
+    private synchronized void add(SampleResult result) {
+      int samples = result.getSampleCount();
+      responseTimes.add(result.getTime() / 1000.0, samples);
+      latencies.add(result.getLatency() / 1000.0, samples);
+    }
+
+    private synchronized DogSketch[] collect() {
+      DogSketch[] ret = new DogSketch[]{responseTimes, latencies};
+      responseTimes = new DogSketch();
+      latencies = new DogSketch();
+      return ret;
+    }
+
+  }
+
+  /*
+   Minimal protobuf encoder for the few field types required by sketches payloads, to avoid
+   adding protobuf dependencies.
+   */
+  private static class ProtobufWriter {
+
+    private static final int VARINT_TYPE = 0;
+    private static final int FIXED64_TYPE = 1;
+    private static final int LENGTH_DELIMITED_TYPE = 2;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private void writeTag(int field, int type) {
+      writeVarint((long) field << 3 | type);
+    }
+
+    private void writeVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        buffer.write((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer.write((int) value);
+    }
+
+    private void writeSint32(int value) {
+      writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private void writeInt64(int field, long value) {
+      writeTag(field, VARINT_TYPE);
+      writeVarint(value);
+    }
+
+    private void writeDouble(int field, double value) {
+      writeTag(field, FIXED64_TYPE);
+      long bits = Double.doubleToLongBits(value);
+      for (int i = 0; i < 8; i++) {
+        buffer.write((int) (bits >>> (8 * i)) & 0xFF);
+      }
+    }
+
+    private void writeString(int field, String value) {
+      writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeMessage(int field, ProtobufWriter message) {
+      writeBytes(field, message.toByteArray());
+    }
+
+    private void writeBytes(int field, byte[] value) {
+      writeTag(field, LENGTH_DELIMITED_TYPE);
+      writeVarint(value.length);
+      buffer.write(value, 0, value.length);
+    }
+
+    private byte[] toByteArray() {
+      return buffer.toByteArray();
+    }
+
+  }
+
+}
@@ -0,0 +1,135 @@
+package us.abstracta.jmeter.javadsl.datadog;
+
+import java.util.Arrays;
+
+/*
+ DDSketch of positive values, with same bins (keys) as the ones used by Datadog agent for
+ distribution metrics (relative accuracy of 1/128), so Datadog can merge sketches sent by several
+ load generators (or several flush intervals) without losing precision.
+
+ Keys are stored in a growable array of counts, since with time values (in seconds) keys are in a
+ narrow range (eg: ~900 for 1ms and ~1600 for 1 minute).
+
+ This class is not thread safe, callers must synchronize access to it.
+ */
+class DogSketch {
+
+  private static final double RELATIVE_ACCURACY = 1.0 / 128;
+  private static final double MIN_VALUE = 1e-9;
+  private static final double GAMMA_LN = Math.log1p(2 * RELATIVE_ACCURACY);
+  private static final int MIN_EXPONENT = (int) Math.floor(Math.log(MIN_VALUE) / GAMMA_LN);
+  private static final int BIAS = -MIN_EXPONENT + 1;
+  private static final int MAX_KEY = Short.MAX_VALUE;
+
+  private long[] counts = new long[0];
+  private int minKey = Integer.MAX_VALUE;
+  private long count;
+  private double sum;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  static int key(double value) {
+    if (value < MIN_VALUE) {
+      return 0;
+    }
+    return (int) Math.min(MAX_KEY, Math.rint(Math.log(value) / GAMMA_LN) + BIAS);
+  }
+
+  static double value(int key) {
+    return key == 0 ? 0 : Math.exp((key - BIAS) * GAMMA_LN);
+  }
+
+  void add(double value, long times) {
+    if (times <= 0) {
+      return;
+    }
+    value = Math.max(value, 0);
+    addToKey(key(value), times);
+    count += times;
+    sum += value * times;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  private void addToKey(int key, long times) {
+    if (key >= counts.length) {
+      counts = Arrays.copyOf(counts, Math.max(key + 1, Math.min(MAX_KEY + 1,
+          counts.length * 2)));
+    }
+    counts[key] += times;
+    minKey = Math.min(minKey, key);
+  }
+
+  void merge(DogSketch other) {
+    if (other.count == 0) {
+      return;
+    }
+    for (int i = other.minKey; i < other.counts.length; i++) {
+      if (other.counts[i] > 0) {
+        addToKey(i, other.counts[i]);
+      }
+    }
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  long count() {
+    return count;
+  }
+
+  double sum() {
+    return sum;
+  }
+
+  double min() {
+    return count == 0 ? 0 : min;
+  }
+
+  double max() {
+    return count == 0 ? 0 : max;
+  }
+
+  double avg() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /*
+   Estimates the value under which the given quantile (between 0 and 1) of values are, with the
+   same relative accuracy than Datadog (bounded by min and max values).
+   */
+  double quantile(double quantile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long accumulated = 0;
+    for (int i = minKey; i < counts.length; i++) {
+      accumulated += counts[i];
+      if (accumulated >= rank) {
+        return Math.max(min, Math.min(max, value(i)));
+      }
+    }
+    return max;
+  }
+
+  /*
+   Visits non-empty bins in ascending keys order, which is the order Datadog expects keys in
+   sketches payloads.
+   */
+  void forEachBin(BinConsumer consumer) {
+    for (int i = minKey; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        consumer.accept(i, counts[i]);
+      }
+    }
+  }
+
+  interface BinConsumer {
+
+    void accept(int key, long count);
+
+  }
+
+}
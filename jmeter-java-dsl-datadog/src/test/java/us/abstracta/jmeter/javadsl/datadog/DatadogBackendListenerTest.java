@@ -9,6 +9,8 @@ import static us.abstracta.jmeter.javadsl.datadog.DatadogBackendListener.datadog
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -37,6 +39,28 @@ public class DatadogBackendListenerTest {
     assertThat(findJmeterDatadogResponseCountSince(start)).isEqualTo(1);
   }
 
+  @Test
+  public void shouldSendDistributionsToIntakeWhenDatadogListenerWithDistributions()
+      throws Exception {
+    try (FakeDatadogIntake intake = new FakeDatadogIntake()) {
+      testPlan(
+          threadGroup(1, 3,
+              httpSampler("sample1", "http://localhost"),
+              httpSampler("sample2", "http://localhost")
+          ),
+          datadogListener("test")
+              .apiUrl(intake.getApiUrl())
+              .tags(TAG)
+              .distributions(Duration.ofSeconds(10))
+      ).run();
+      Map<String, Long> expected = new HashMap<>();
+      expected.put("sample1", 3L);
+      expected.put("sample2", 3L);
+      assertThat(intake.getCounts(DatadogSketchesBackendClient.RESPONSE_TIME_METRIC))
+          .isEqualTo(expected);
+    }
+  }
+
   private int findJmeterDatadogResponseCountSince(Instant fromInstant) throws Exception {
     try (DatadogApiClient cli = new DatadogApiClient(System.getenv(DATADOG_API_KEY_ENV_VAR),
         System.getenv("DATADOG_APPLICATION_KEY"))) {
@@ -79,6 +103,18 @@ public class DatadogBackendListenerTest {
       );
     }
 
+    public DslTestPlan testPlanWithDistributionsDatadogListener() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              datadogListener("test")
+                  .apiUrl("http://localhost:8080/api/")
+                  .tags("jmeter-dsl", "test")
+                  .distributions(Duration.ofSeconds(5))
+          )
+      );
+    }
+
   }
 
 }
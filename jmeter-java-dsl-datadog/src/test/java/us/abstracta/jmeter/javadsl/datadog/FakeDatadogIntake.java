@@ -0,0 +1,156 @@
+package us.abstracta.jmeter.javadsl.datadog;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.InflaterInputStream;
+
+/*
+ Local stand-in of DataDog sketches intake which decodes received sketches payloads and keeps
+ samples counts per metric and sample label.
+ */
+public class FakeDatadogIntake implements AutoCloseable {
+
+  private static final String SAMPLE_LABEL_TAG_PREFIX = "sample_label:";
+
+  private final HttpServer server;
+  private final Map<String, Map<String, Long>> counts = new ConcurrentHashMap<>();
+
+  public FakeDatadogIntake() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/api/" + DatadogSketchesBackendClient.SKETCHES_PATH, this::handle);
+    server.start();
+  }
+
+  public String getApiUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + "/api/";
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (InputStream body = new InflaterInputStream(exchange.getRequestBody())) {
+      ProtobufReader payload = new ProtobufReader(readAll(body));
+      while (payload.hasRemaining()) {
+        int field = payload.readTag() >>> 3;
+        byte[] value = payload.readBytes();
+        if (field == 1) {
+          registerSketch(new ProtobufReader(value));
+        }
+      }
+    }
+    exchange.sendResponseHeaders(202, -1);
+    exchange.close();
+  }
+
+  private static byte[] readAll(InputStream input) throws IOException {
+    ByteArrayOutputStream ret = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      ret.write(buffer, 0, read);
+    }
+    return ret.toByteArray();
+  }
+
+  private void registerSketch(ProtobufReader sketch) {
+    String metric = null;
+    String label = null;
+    List<byte[]> dogSketches = new ArrayList<>();
+    while (sketch.hasRemaining()) {
+      int field = sketch.readTag() >>> 3;
+      byte[] value = sketch.readBytes();
+      if (field == 1) {
+        metric = new String(value, StandardCharsets.UTF_8);
+      } else if (field == 4) {
+        String tag = new String(value, StandardCharsets.UTF_8);
+        if (tag.startsWith(SAMPLE_LABEL_TAG_PREFIX)) {
+          label = tag.substring(SAMPLE_LABEL_TAG_PREFIX.length());
+        }
+      } else if (field == 7) {
+        dogSketches.add(value);
+      }
+    }
+    for (byte[] dogSketch : dogSketches) {
+      counts.computeIfAbsent(metric, m -> new ConcurrentHashMap<>())
+          .merge(label, findCount(new ProtobufReader(dogSketch)), Long::sum);
+    }
+  }
+
+  private long findCount(ProtobufReader dogSketch) {
+    while (dogSketch.hasRemaining()) {
+      int tag = dogSketch.readTag();
+      int type = tag & 0x7;
+      if (type == 0) {
+        long value = dogSketch.readVarint();
+        if (tag >>> 3 == 2) {
+          return value;
+        }
+      } else if (type == 1) {
+        dogSketch.skip(8);
+      } else {
+        dogSketch.readBytes();
+      }
+    }
+    return 0;
+  }
+
+  public Map<String, Long> getCounts(String metric) {
+    return counts.getOrDefault(metric, new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private static class ProtobufReader {
+
+    private final ByteBuffer buffer;
+
+    private ProtobufReader(byte[] bytes) {
+      buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private boolean hasRemaining() {
+      return buffer.hasRemaining();
+    }
+
+    private int readTag() {
+      return (int) readVarint();
+    }
+
+    private long readVarint() {
+      long ret = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get();
+        ret |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return ret;
+    }
+
+    private byte[] readBytes() {
+      byte[] ret = new byte[(int) readVarint()];
+      buffer.get(ret);
+      return ret;
+    }
+
+    private void skip(int bytes) {
+      buffer.position(buffer.position() + bytes);
+    }
+
+  }
+
+}
@@ -3,10 +3,17 @@ package us.abstracta.jmeter.javadsl.elasticsearch.listener;
 import io.github.delirius325.jmeter.backendlistener.elasticsearch.ElasticsearchBackendClient;
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.jmeter.config.Arguments;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.DurationParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.IntParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
 import us.abstracta.jmeter.javadsl.core.listeners.DslBackendListener;
 import us.abstracta.jmeter.javadsl.http.JmeterUrl;
@@ -28,9 +35,15 @@ public class ElasticsearchBackendListener extends DslBackendListener<Elasticsear
   private static final String INDEX_ARG = "es.index";
   private static final String USER_ARG = "es.xpack.user";
   private static final String PASSWORD_ARG = "es.xpack.password";
+  private static final String BULK_SIZE_ARG = "es.bulk.size";
+  private static final int PLUGIN_DEFAULT_BULK_SIZE = 100;
 
   protected String username;
   protected String password;
+  protected Integer bulkSize;
+  protected Duration flushInterval;
+  protected Duration summariesInterval;
+  protected boolean gzip;
 
   public ElasticsearchBackendListener(String url) {
     super(ElasticsearchBackendClient.class, url);
@@ -61,8 +74,92 @@ public class ElasticsearchBackendListener extends DslBackendListener<Elasticsear
     return this;
   }
 
+  /**
+   * Specifies the maximum number of documents to send to Elasticsearch in each bulk request.
+   * <p>
+   * A bulk request is sent as soon as this number of documents is pending. If
+   * {@link #flushInterval(Duration)}, {@link #summaries(Duration)} or {@link #gzip()} are used, a
+   * bulk request with pending documents is also sent when the flush interval elapses, whichever
+   * happens first. Otherwise, documents are only sent when this number is reached or the test plan
+   * ends.
+   * <p>
+   * Bigger bulks reduce the number of requests, and Elasticsearch overhead, at the cost of more
+   * memory and delay before documents are available in Elasticsearch.
+   *
+   * @param bulkSize specifies the maximum number of documents in each request. By default, 1000
+   *                 when a flush interval applies, and 100 otherwise.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public ElasticsearchBackendListener bulkSize(int bulkSize) {
+    if (bulkSize < 1) {
+      throw new IllegalArgumentException("Bulk size must be positive, but was " + bulkSize);
+    }
+    this.bulkSize = bulkSize;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum time documents are kept in memory before being sent to Elasticsearch,
+   * even if {@link #bulkSize(int)} has not been reached.
+   * <p>
+   * When this option, {@link #summaries(Duration)} or {@link #gzip()} are used, the DSL bulk
+   * client is used instead of jmeter-elasticsearch-backend-listener plugin. The DSL client indexes
+   * documents with same field names as the plugin, but only a subset of them (eg: no assertions
+   * results or headers are included).
+   *
+   * @param flushInterval specifies the maximum time to keep documents in memory. By default, 5
+   *                      seconds.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public ElasticsearchBackendListener flushInterval(Duration flushInterval) {
+    this.flushInterval = flushInterval;
+    listenerClass = ElasticsearchBulkBackendClient.class;
+    return this;
+  }
+
+  /**
+   * Specifies to index, for each sample label, a summary document per interval, instead of a
+   * document per sample result.
+   * <p>
+   * Summary documents contain the count of samples and errors, mean, min, max and percentiles (50,
+   * 90, 95 and 99) of response times, mean latency, and received and sent bytes in the interval.
+   * This considerably reduces Elasticsearch load and storage for test plans with high throughput,
+   * at the cost of losing the detail of each sample result.
+   *
+   * @param interval specifies the period summarized by each document.
+   * @return the listener for further configuration or usage.
+   * @see #flushInterval(Duration)
+   * @since 2.3
+   */
+  public ElasticsearchBackendListener summaries(Duration interval) {
+    this.summariesInterval = interval;
+    listenerClass = ElasticsearchBulkBackendClient.class;
+    return this;
+  }
+
+  /**
+   * Specifies to compress bulk requests with gzip.
+   * <p>
+   * Sample results documents are highly repetitive (field names, labels, URLs, etc.), so
+   * compression usually reduces sent bytes by an order of magnitude.
+   *
+   * @return the listener for further configuration or usage.
+   * @see #flushInterval(Duration)
+   * @since 2.3
+   */
+  public ElasticsearchBackendListener gzip() {
+    gzip = true;
+    listenerClass = ElasticsearchBulkBackendClient.class;
+    return this;
+  }
+
   @Override
   protected Arguments buildListenerArguments() {
+    if (listenerClass == ElasticsearchBulkBackendClient.class) {
+      return buildBulkClientArguments();
+    }
     Arguments ret = new Arguments();
     URI uri = URI.create(url);
     String scheme = uri.getScheme();
@@ -76,18 +173,50 @@ public class ElasticsearchBackendListener extends DslBackendListener<Elasticsear
     ret.addArgument(INDEX_ARG, uri.getPath().substring(1));
     ret.addArgument(USER_ARG, username);
     ret.addArgument(PASSWORD_ARG, password);
+    if (bulkSize != null) {
+      ret.addArgument(BULK_SIZE_ARG, String.valueOf(bulkSize));
+    }
+    return ret;
+  }
+
+  private Arguments buildBulkClientArguments() {
+    Arguments ret = new Arguments();
+    ret.addArgument(ElasticsearchBulkBackendClient.URL_ARG, url);
+    if (username != null) {
+      ret.addArgument(ElasticsearchBulkBackendClient.USER_ARG, username);
+      ret.addArgument(ElasticsearchBulkBackendClient.PASSWORD_ARG, password);
+    }
+    if (bulkSize != null) {
+      ret.addArgument(ElasticsearchBulkBackendClient.BULK_SIZE_ARG, String.valueOf(bulkSize));
+    }
+    if (flushInterval != null) {
+      ret.addArgument(ElasticsearchBulkBackendClient.FLUSH_INTERVAL_ARG,
+          String.valueOf(flushInterval.toMillis()));
+    }
+    if (summariesInterval != null) {
+      ret.addArgument(ElasticsearchBulkBackendClient.SUMMARY_INTERVAL_ARG,
+          String.valueOf(summariesInterval.toMillis()));
+    }
+    if (gzip) {
+      ret.addArgument(ElasticsearchBulkBackendClient.COMPRESSION_ARG,
+          ElasticsearchBulkBackendClient.GZIP_COMPRESSION);
+    }
     return ret;
   }
 
   public static class CodeBuilder extends BackendListenerCodeBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(ElasticsearchBackendClient.class, builderMethods);
+      super(Arrays.asList(ElasticsearchBackendClient.class, ElasticsearchBulkBackendClient.class),
+          builderMethods);
     }
 
     @Override
     protected MethodCall buildBackendListenerCall(Map<String, String> args,
         Map<String, String> defaultValues) {
+      if (args.containsKey(ElasticsearchBulkBackendClient.URL_ARG)) {
+        return buildBulkClientCall(args, defaultValues);
+      }
       String scheme = args.get(SCHEME_ARG);
       String port = args.get(PORT_ARG);
       if ("80".equals(port) && "http".equals(scheme) || "443".equals(port) && "https".equals(
@@ -98,7 +227,35 @@ public class ElasticsearchBackendListener extends DslBackendListener<Elasticsear
           "/" + args.get(INDEX_ARG)).toString();
       return buildMethodCall(new StringParam(url))
           .chain("credentials", new StringParam(args.get(USER_ARG)),
-              new StringParam(args.get(PASSWORD_ARG)));
+              new StringParam(args.get(PASSWORD_ARG)))
+          .chain("bulkSize", new IntParam(args.get(BULK_SIZE_ARG), PLUGIN_DEFAULT_BULK_SIZE));
+    }
+
+    private MethodCall buildBulkClientCall(Map<String, String> args,
+        Map<String, String> defaultValues) {
+      MethodParam summaries = new DurationParam(
+          args.get(ElasticsearchBulkBackendClient.SUMMARY_INTERVAL_ARG), Duration.ZERO,
+          ChronoUnit.MILLIS);
+      MethodParam gzip = new BoolParam(ElasticsearchBulkBackendClient.GZIP_COMPRESSION
+          .equalsIgnoreCase(args.get(ElasticsearchBulkBackendClient.COMPRESSION_ARG)), false);
+      /*
+       when neither summaries nor gzip are generated, flush interval is required (even when it has
+       default value) to keep using the bulk client
+       */
+      Duration defaultFlushInterval = summaries.isDefault() && gzip.isDefault() ? null
+          : Duration.ofMillis(Long.parseLong(
+              defaultValues.get(ElasticsearchBulkBackendClient.FLUSH_INTERVAL_ARG)));
+      return buildMethodCall(new StringParam(args.get(ElasticsearchBulkBackendClient.URL_ARG)))
+          .chain("credentials", buildArgParam(ElasticsearchBulkBackendClient.USER_ARG, args,
+                  defaultValues),
+              buildArgParam(ElasticsearchBulkBackendClient.PASSWORD_ARG, args, defaultValues))
+          .chain("bulkSize", new IntParam(args.get(ElasticsearchBulkBackendClient.BULK_SIZE_ARG),
+              Integer.valueOf(defaultValues.get(ElasticsearchBulkBackendClient.BULK_SIZE_ARG))))
+          .chain("flushInterval", new DurationParam(
+              args.get(ElasticsearchBulkBackendClient.FLUSH_INTERVAL_ARG), defaultFlushInterval,
+              ChronoUnit.MILLIS))
+          .chain("summaries", summaries)
+          .chain("gzip", gzip);
     }
 
   }
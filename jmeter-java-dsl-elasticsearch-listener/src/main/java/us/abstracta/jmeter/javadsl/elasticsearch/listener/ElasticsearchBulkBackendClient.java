@@ -0,0 +1,374 @@
+package us.abstracta.jmeter.javadsl.elasticsearch.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
+import us.abstracta.jmeter.javadsl.core.util.ConcurrentMapKeys;
+import us.abstracta.jmeter.javadsl.core.util.JsonStrings;
+
+/**
+ * Elasticsearch backend listener client which indexes sample results, or summaries of them, with
+ * bulk requests limited by size and time, and optionally compressed with gzip.
+ * <p>
+ * Raw sample results documents use same field names, and timestamp format, as
+ * jmeter-elasticsearch-backend-listener plugin ones, so existing index templates and dashboards can
+ * be used with them. Summary documents
+ * additionally include a DocType field with "summary" value, ResponseTime contains the mean
+ * response time, and ResponseTimeMin, ResponseTimeMax and ResponseTimeP* fields contain
+ * statistics of the summarized sample results.
+ * <p>
+ * Documents are built in backend listener consumer threads and appended to a single pending bulk,
+ * which is sent as soon as it reaches the bulk size, or from a separate thread when the flush
+ * interval elapses.
+ *
+ * @since 2.3
+ */
+public class ElasticsearchBulkBackendClient extends AbstractBackendListenerClient {
+
+  public static final String URL_ARG = "es.url";
+  public static final String USER_ARG = "es.xpack.user";
+  public static final String PASSWORD_ARG = "es.xpack.password";
+  public static final String BULK_SIZE_ARG = "es.bulk.size";
+  public static final String FLUSH_INTERVAL_ARG = "es.flush.interval.ms";
+  public static final String SUMMARY_INTERVAL_ARG = "es.summary.interval.ms";
+  public static final String COMPRESSION_ARG = "es.compression";
+  public static final String GZIP_COMPRESSION = "gzip";
+
+  private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchBulkBackendClient.class);
+  private static final int[] SUMMARY_PERCENTILES = {50, 90, 95, 99};
+  private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+  private static final int READ_TIMEOUT_MILLIS = 30000;
+  // same format used by default in jmeter-elasticsearch-backend-listener plugin
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(
+      "yyyy-MM-dd'T'HH:mm:ss.SSSZZ").withZone(ZoneId.systemDefault());
+  private static final int MAX_LOGGED_ITEM_ERRORS = 10;
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private final Map<String, LabelSummary> summaries = new ConcurrentHashMap<>();
+  private final StringBuilder pendingDocs = new StringBuilder();
+  private int pendingDocsCount;
+  private URL url;
+  private String indexAction;
+  private String authorization;
+  private int bulkSize;
+  private long flushIntervalMillis;
+  private boolean summaryOnly;
+  private boolean gzip;
+  private String hostname;
+  private long lastFlushMillis;
+  private ScheduledExecutorService scheduler;
+
+  @Override
+  public Arguments getDefaultParameters() {
+    Arguments ret = new Arguments();
+    ret.addArgument(URL_ARG, "http://localhost:9200/jmeter");
+    ret.addArgument(USER_ARG, "");
+    ret.addArgument(PASSWORD_ARG, "");
+    ret.addArgument(BULK_SIZE_ARG, "1000");
+    ret.addArgument(FLUSH_INTERVAL_ARG, "5000");
+    ret.addArgument(SUMMARY_INTERVAL_ARG, "0");
+    ret.addArgument(COMPRESSION_ARG, "");
+    return ret;
+  }
+
+  @Override
+  public void setupTest(BackendListenerContext context) throws Exception {
+    URL indexUrl = new URL(context.getParameter(URL_ARG));
+    // index is the last path segment, and any previous one is kept for proxies with path prefixes
+    String indexPath = indexUrl.getPath().replaceAll("/+$", "");
+    int indexPos = indexPath.lastIndexOf('/') + 1;
+    String index = indexPath.substring(indexPos);
+    url = new URL(indexUrl, indexPath.substring(0, indexPos) + "_bulk");
+    indexAction = "{\"index\":{\"_index\":\"" + JsonStrings.escape(index) + "\"}}\n";
+    String user = context.getParameter(USER_ARG, "");
+    authorization = user.isEmpty() ? null : "Basic " + Base64.getEncoder().encodeToString(
+        (user + ":" + context.getParameter(PASSWORD_ARG, "")).getBytes(StandardCharsets.UTF_8));
+    bulkSize = context.getIntParameter(BULK_SIZE_ARG, 1000);
+    flushIntervalMillis = context.getLongParameter(FLUSH_INTERVAL_ARG, 5000);
+    long summaryIntervalMillis = context.getLongParameter(SUMMARY_INTERVAL_ARG, 0);
+    summaryOnly = summaryIntervalMillis > 0;
+    gzip = GZIP_COMPRESSION.equalsIgnoreCase(context.getParameter(COMPRESSION_ARG, ""));
+    hostname = findHostName();
+    summaries.clear();
+    super.setupTest(context);
+    lastFlushMillis = System.currentTimeMillis();
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread ret = new Thread(r, "elasticsearch-bulk-sender");
+      ret.setDaemon(true);
+      return ret;
+    });
+    if (summaryOnly) {
+      scheduler.scheduleAtFixedRate(this::addSummaries, summaryIntervalMillis,
+          summaryIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    scheduler.scheduleWithFixedDelay(this::flushIfExpired, flushIntervalMillis,
+        flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private static String findHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "";
+    }
+  }
+
+  @Override
+  public void handleSampleResults(List<SampleResult> results, BackendListenerContext context) {
+    if (summaryOnly) {
+      for (SampleResult result : results) {
+        summaries.computeIfAbsent(ConcurrentMapKeys.of(result.getSampleLabel()),
+            LabelSummary::new).add(result);
+      }
+      return;
+    }
+    StringBuilder docs = new StringBuilder();
+    for (SampleResult result : results) {
+      appendSampleDoc(result, docs);
+    }
+    addDocs(docs, results.size());
+  }
+
+  private void appendSampleDoc(SampleResult result, StringBuilder docs) {
+    docs.append(indexAction).append('{');
+    appendTimestampField(result.getTimeStamp(), docs);
+    appendField("SampleLabel", result.getSampleLabel(), docs);
+    appendField("ResponseTime", result.getTime(), docs);
+    appendField("Latency", result.getLatency(), docs);
+    appendField("ConnectTime", result.getConnectTime(), docs);
+    appendField("IdleTime", result.getIdleTime(), docs);
+    appendField("Bytes", result.getBytesAsLong(), docs);
+    appendField("SentBytes", result.getSentBytes(), docs);
+    appendField("BodySize", result.getBodySizeAsLong(), docs);
+    appendField("SampleCount", result.getSampleCount(), docs);
+    appendField("ErrorCount", result.getErrorCount(), docs);
+    appendField("Success", result.isSuccessful(), docs);
+    appendField("ResponseCode", result.getResponseCode(), docs);
+    appendField("ResponseMessage", result.getResponseMessage(), docs);
+    appendField("ThreadName", result.getThreadName(), docs);
+    appendField("URL", result.getUrlAsString(), docs);
+    appendField("GrpThreads", result.getGroupThreads(), docs);
+    appendField("AllThreads", result.getAllThreads(), docs);
+    appendField("InjectorHostname", hostname, docs);
+    docs.setLength(docs.length() - 1);
+    docs.append("}\n");
+  }
+
+  private static void appendTimestampField(long timestamp, StringBuilder docs) {
+    appendField("Timestamp", TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(timestamp)), docs);
+  }
+
+  private static void appendField(String name, long value, StringBuilder docs) {
+    docs.append('"').append(name).append("\":").append(value).append(',');
+  }
+
+  private static void appendField(String name, boolean value, StringBuilder docs) {
+    docs.append('"').append(name).append("\":").append(value).append(',');
+  }
+
+  private static void appendField(String name, String value, StringBuilder docs) {
+    docs.append('"').append(name).append("\":\"").append(JsonStrings.escape(value)).append("\",");
+  }
+
+  private void addSummaries() {
+    try {
+      long timestamp = System.currentTimeMillis();
+      StringBuilder docs = new StringBuilder();
+      int docsCount = 0;
+      for (LabelSummary summary : summaries.values()) {
+        if (summary.appendDocAndReset(timestamp, docs)) {
+          docsCount++;
+        }
+      }
+      addDocs(docs, docsCount);
+    } catch (RuntimeException e) {
+      LOG.error("Problem building summaries for Elasticsearch", e);
+    }
+  }
+
+  private synchronized void addDocs(CharSequence docs, int docsCount) {
+    pendingDocs.append(docs);
+    pendingDocsCount += docsCount;
+    if (pendingDocsCount >= bulkSize) {
+      flush();
+    }
+  }
+
+  private synchronized void flushIfExpired() {
+    if (System.currentTimeMillis() - lastFlushMillis >= flushIntervalMillis) {
+      flush();
+    }
+  }
+
+  private synchronized void flush() {
+    if (pendingDocsCount > 0) {
+      send(pendingDocs.toString().getBytes(StandardCharsets.UTF_8), pendingDocsCount);
+      pendingDocs.setLength(0);
+      pendingDocsCount = 0;
+    }
+    lastFlushMillis = System.currentTimeMillis();
+  }
+
+  private void send(byte[] bulk, int docsCount) {
+    try {
+      byte[] body = gzip ? compress(bulk) : bulk;
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      try {
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/x-ndjson");
+        if (gzip) {
+          connection.setRequestProperty("Content-Encoding", GZIP_COMPRESSION);
+        }
+        if (authorization != null) {
+          connection.setRequestProperty("Authorization", authorization);
+        }
+        try (OutputStream output = connection.getOutputStream()) {
+          output.write(body);
+        }
+        int responseCode = connection.getResponseCode();
+        if (responseCode / 100 != 2) {
+          LOG.error("Elasticsearch responded with status code {} to bulk of {} documents",
+              responseCode, docsCount);
+        } else {
+          logFailedItems(connection, docsCount);
+        }
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      LOG.error("Problem sending bulk of {} documents to Elasticsearch {}", docsCount, url, e);
+    }
+  }
+
+  /*
+   Elasticsearch responds with 200 status code even when some documents of the bulk fail to be
+   indexed (eg: due to mapping conflicts), so the response needs to be checked for such errors.
+   */
+  private void logFailedItems(HttpURLConnection connection, int docsCount) throws IOException {
+    JsonNode response;
+    try (InputStream input = connection.getInputStream()) {
+      response = JSON_MAPPER.readTree(input);
+    }
+    if (response == null || !response.path("errors").asBoolean()) {
+      return;
+    }
+    int failedCount = 0;
+    for (JsonNode item : response.path("items")) {
+      JsonNode result = item.elements().hasNext() ? item.elements().next() : item;
+      JsonNode error = result.path("error");
+      if (!error.isMissingNode()) {
+        if (failedCount < MAX_LOGGED_ITEM_ERRORS) {
+          LOG.error("Elasticsearch failed to index document with status {}: {}",
+              result.path("status").asInt(), error);
+        }
+        failedCount++;
+      }
+    }
+    LOG.error("Elasticsearch failed to index {} of {} documents", failedCount, docsCount);
+  }
+
+  private static byte[] compress(byte[] body) throws IOException {
+    ByteArrayOutputStream ret = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream output = new GZIPOutputStream(ret)) {
+      output.write(body);
+    }
+    return ret.toByteArray();
+  }
+
+  @Override
+  public void teardownTest(BackendListenerContext context) throws Exception {
+    scheduler.shutdown();
+    scheduler.awaitTermination(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    if (summaryOnly) {
+      addSummaries();
+    }
+    flush();
+    super.teardownTest(context);
+  }
+
+  private class LabelSummary {
+
+    private final String label;
+    private final LogLinearHistogram times = new LogLinearHistogram();
+    private long latencySum;
+    private long errors;
+    private long bytes;
+    private long sentBytes;
+
+    private LabelSummary(String label) {
+      this.label = label;
+    }
+
+    private synchronized void add(SampleResult result) {
+      int samples = result.getSampleCount();
+      times.record(result.getTime(), samples);
+      latencySum += result.getLatency() * samples;
+      errors += result.getErrorCount();
+      bytes += result.getBytesAsLong();
+      sentBytes += result.getSentBytes();
+    }
+
+    private synchronized boolean appendDocAndReset(long timestamp, StringBuilder docs) {
+      long count = times.count();
+      if (count == 0) {
+        return false;
+      }
+      docs.append(indexAction).append('{');
+      appendField("DocType", "summary", docs);
+      appendTimestampField(timestamp, docs);
+      appendField("SampleLabel", label, docs);
+      appendField("SampleCount", count, docs);
+      appendField("ErrorCount", errors, docs);
+      appendField("ResponseTime", Math.round(times.mean()), docs);
+      appendField("ResponseTimeMin", times.min(), docs);
+      appendField("ResponseTimeMax", times.max(), docs);
+      for (int percentile : SUMMARY_PERCENTILES) {
+        appendField("ResponseTimeP" + percentile, times.percentile(percentile), docs);
+      }
+      appendField("Latency", Math.round((double) latencySum / count), docs);
+      appendField("Bytes", bytes, docs);
+      appendField("SentBytes", sentBytes, docs);
+      appendField("InjectorHostname", hostname, docs);
+      docs.setLength(docs.length() - 1);
+      docs.append("}\n");
+      times.reset();
+      latencySum = 0;
+      errors = 0;
+      bytes = 0;
+      sentBytes = 0;
+      return true;
+    }
+
+  }
+
+}
@@ -1,5 +1,12 @@
 package us.abstracta.jmeter.javadsl.elasticsearch.listener;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
@@ -27,6 +34,7 @@ import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket;
+import org.elasticsearch.search.aggregations.metrics.Sum;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
@@ -37,6 +45,7 @@ import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 public class ElasticsearchBackendListenerTest extends JmeterDslTest {
 
   private static final String INDEX_NAME = "jmeter";
+  private static final String BULK_PATH = "/proxy/_bulk";
 
   @Test
   public void shouldSendMetricsToElasticsearchWhenElasticsearchListenerInPlan() throws Exception {
@@ -62,6 +71,51 @@ public class ElasticsearchBackendListenerTest extends JmeterDslTest {
     }
   }
 
+  @Test
+  public void shouldSendSummariesToElasticsearchWhenElasticsearchListenerWithSummariesAndGzip()
+      throws Exception {
+    try (ElasticsearchContainer container = new ElasticsearchContainer(
+        "docker.elastic.co/elasticsearch/elasticsearch:7.14.0")
+        .withEnv("discovery.type", "single-node")) {
+      container.start();
+      String hostAddress = container.getHttpHostAddress();
+      try (RestHighLevelClient client = buildElasticsearchClient(hostAddress)) {
+        createIndex(client);
+
+        testPlan(
+            threadGroup(1, TEST_ITERATIONS,
+                httpSampler(SAMPLE_1_LABEL, wiremockUri),
+                httpSampler(SAMPLE_2_LABEL, wiremockUri)
+            ),
+            elasticsearchListener("http://" + hostAddress + "/" + INDEX_NAME)
+                .summaries(Duration.ofSeconds(1))
+                .bulkSize(10)
+                .gzip()
+        ).run();
+
+        assertThat(findRecordedSamplesCounts(client))
+            .isEqualTo(buildExpectedTotalCounts());
+      }
+    }
+  }
+
+  @Test
+  public void shouldSendBulkWithPluginTimestampsToIndexBasePathWhenFlushInterval()
+      throws Exception {
+    stubFor(post(urlEqualTo(BULK_PATH)).willReturn(okJson("{\"errors\":true,\"items\":[{\"index\":"
+        + "{\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}]}")));
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(SAMPLE_1_LABEL, wiremockUri)
+        ),
+        elasticsearchListener(wiremockUri + "/proxy/" + INDEX_NAME)
+            .flushInterval(Duration.ofSeconds(1))
+    ).run();
+    verify(postRequestedFor(urlEqualTo(BULK_PATH))
+        .withRequestBody(matching("(?s).*\"Timestamp\":"
+            + "\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}[+-]\\d{4}\".*")));
+  }
+
   private RestHighLevelClient buildElasticsearchClient(String hostAddress) {
     return new RestHighLevelClient(RestClient.builder(HttpHost.create(hostAddress)));
   }
@@ -82,6 +136,28 @@ public class ElasticsearchBackendListenerTest extends JmeterDslTest {
     return buildMetricsFromAggregation(response.getAggregations().get(aggregationName));
   }
 
+  private Map<String, Long> findRecordedSamplesCounts(RestHighLevelClient client)
+      throws IOException, InterruptedException {
+    String aggregationName = "by_label";
+    String countAggregationName = "samples";
+    SearchRequest search = new SearchRequest(INDEX_NAME);
+    search.source().aggregation(AggregationBuilders.terms(aggregationName).field("SampleLabel")
+        .subAggregation(AggregationBuilders.sum(countAggregationName).field("SampleCount")));
+    Instant start = Instant.now();
+    Map<String, Long> ret;
+    do {
+      Thread.sleep(1000);
+      Terms aggregation = client.search(search, RequestOptions.DEFAULT).getAggregations()
+          .get(aggregationName);
+      ret = aggregation.getBuckets().stream()
+          .collect(Collectors.toMap(MultiBucketsAggregation.Bucket::getKeyAsString,
+              b -> (long) ((Sum) b.getAggregations().get(countAggregationName)).getValue()));
+      ret.put(OVERALL_STATS_LABEL, ret.values().stream().mapToLong(Long::longValue).sum());
+    } while (ret.get(OVERALL_STATS_LABEL) != TEST_ITERATIONS * 2
+        && Duration.between(start, Instant.now()).compareTo(Duration.ofSeconds(30)) < 0);
+    return ret;
+  }
+
   // this is required due to eventual consistency of elasticsearch search
   private SearchResponse searchUntilResultsCountIs(int resultsCount, SearchRequest search,
       RestHighLevelClient client) throws IOException, InterruptedException {
@@ -130,6 +206,40 @@ public class ElasticsearchBackendListenerTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithElasticSearchListenerAndBulkSize() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              elasticsearchListener("http://localhost/jmeter")
+                  .bulkSize(500)
+          )
+      );
+    }
+
+    public DslTestPlan testPlanWithElasticSearchBulkListener() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              elasticsearchListener("http://localhost/jmeter")
+                  .credentials("user", "pass")
+                  .bulkSize(500)
+                  .flushInterval(Duration.ofSeconds(1))
+                  .summaries(Duration.ofSeconds(10))
+                  .gzip()
+          )
+      );
+    }
+
+    public DslTestPlan testPlanWithElasticSearchBulkListenerAndDefaultFlushInterval() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              elasticsearchListener("http://localhost/jmeter")
+                  .flushInterval(Duration.ofSeconds(5))
+          )
+      );
+    }
+
   }
 
 }
@@ -0,0 +1,324 @@
+package us.abstracta.jmeter.javadsl.opentelemetry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.processor.PreProcessor;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jorphan.collections.HashTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.listeners.DslListener;
+import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
+
+/**
+ * Test element which exports test run metrics, and optionally traces, to an OpenTelemetry
+ * collector (or any other OTLP compatible backend).
+ * <p>
+ * Samples response times are aggregated in the load generator, per sample label, response code
+ * and success, in OTLP exponential histograms (jmeter.sample.duration metric, in milliseconds),
+ * which are exported in batches periodically (check {@link #exportInterval(Duration)}). This
+ * keeps exported data and collector load independent of test plan throughput, while still
+ * providing accurate percentiles estimations.
+ * <p>
+ * Additionally, when {@link #traceContext()} is enabled, HTTP samplers requests include W3C trace
+ * context headers (traceparent) and a client span is exported for each HTTP sample. This allows
+ * joining client side timings with services spans in your tracing backend.
+ * <p>
+ * This element is only supported when the test plan runs in current JVM, and it is ignored (with
+ * a warning) otherwise (eg: when saving test plan as JMX or running it in remote engines).
+ *
+ * @since 2.3
+ */
+public class DslOtelListener extends BaseTestElement implements DslListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DslOtelListener.class);
+  private static final String DEFAULT_ENDPOINT = "http://localhost:4317";
+
+  protected String endpoint;
+  protected OtlpProtocol protocol = OtlpProtocol.GRPC;
+  protected final Map<String, String> headers = new LinkedHashMap<>();
+  protected String serviceName = "jmeter-java-dsl";
+  protected Duration exportInterval = Duration.ofSeconds(10);
+  protected int maxBuckets = 160;
+  protected boolean traceContext;
+
+  public DslOtelListener(String endpoint) {
+    super("OpenTelemetry Listener", null);
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Creates a new OpenTelemetry listener exporting metrics to a collector listening in default
+   * OTLP gRPC endpoint (http://localhost:4317).
+   *
+   * @return the listener for further configuration or usage.
+   * @see #otelListener(String)
+   * @since 2.3
+   */
+  public static DslOtelListener otelListener() {
+    return new DslOtelListener(DEFAULT_ENDPOINT);
+  }
+
+  /**
+   * Creates a new OpenTelemetry listener exporting metrics to the given OTLP endpoint.
+   *
+   * @param endpoint specifies the URL of the collector (or OTLP compatible backend). Eg:
+   *                 http://localhost:4317 for gRPC or http://localhost:4318 for HTTP. When using
+   *                 HTTP protocol, /v1/metrics and /v1/traces paths are appended to this URL.
+   * @return the listener for further configuration or usage.
+   * @see #protocol(OtlpProtocol)
+   * @since 2.3
+   */
+  public static DslOtelListener otelListener(String endpoint) {
+    return new DslOtelListener(endpoint);
+  }
+
+  /**
+   * Specifies the protocol used to export metrics and traces.
+   *
+   * @param protocol specifies the protocol to use. By default, gRPC is used.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener protocol(OtlpProtocol protocol) {
+    this.protocol = protocol;
+    return this;
+  }
+
+  /**
+   * Protocols supported to export metrics and traces.
+   *
+   * @since 2.3
+   */
+  public enum OtlpProtocol {
+    /**
+     * OTLP over gRPC, usually served by collectors in port 4317.
+     */
+    GRPC,
+    /**
+     * OTLP with protobuf payloads over HTTP, usually served by collectors in port 4318.
+     */
+    HTTP_PROTOBUF
+  }
+
+  /**
+   * Allows specifying a header to include in export requests.
+   * <p>
+   * This is usually required for authentication with OTLP compatible SaaS backends.
+   *
+   * @param name  specifies the name of the header.
+   * @param value specifies the value of the header.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener header(String name, String value) {
+    headers.put(name, value);
+    return this;
+  }
+
+  /**
+   * Specifies the service name (service.name resource attribute) associated to exported metrics
+   * and traces.
+   *
+   * @param serviceName specifies the service name. By default, jmeter-java-dsl is used.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener serviceName(String serviceName) {
+    this.serviceName = serviceName;
+    return this;
+  }
+
+  /**
+   * Specifies the period between metrics exports.
+   * <p>
+   * Metrics are aggregated in the load generator between exports, so shorter periods provide
+   * more up-to-date metrics at the cost of more requests to the collector. Collected metrics are
+   * always exported when the test plan ends.
+   * <p>
+   * This period is also used as the maximum delay to export batches of spans.
+   *
+   * @param interval specifies the period between exports. By default, 10 seconds.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener exportInterval(Duration interval) {
+    this.exportInterval = interval;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum number of buckets of each exponential histogram.
+   * <p>
+   * Exponential histograms automatically adjust their scale to keep recorded values within this
+   * number of buckets, so more buckets provide more precise percentiles at the cost of more memory
+   * and exported data.
+   *
+   * @param maxBuckets specifies the maximum number of buckets. By default, 160.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener maxBuckets(int maxBuckets) {
+    if (maxBuckets < 1) {
+      throw new IllegalArgumentException("Max buckets must be positive, but was " + maxBuckets);
+    }
+    this.maxBuckets = maxBuckets;
+    return this;
+  }
+
+  /**
+   * Same as {@link #traceContext(boolean)} but enabling trace context propagation.
+   *
+   * @return the listener for further configuration or usage.
+   * @see #traceContext(boolean)
+   * @since 2.3
+   */
+  public DslOtelListener traceContext() {
+    return traceContext(true);
+  }
+
+  /**
+   * Specifies to inject W3C trace context headers in HTTP samplers requests and export a client
+   * span for each HTTP sample.
+   * <p>
+   * This allows to find services spans associated to each HTTP request, and compare client side
+   * timings (which include network and queueing time) with server side ones.
+   * <p>
+   * Headers are injected in all HTTP samplers in the scope of this listener.
+   *
+   * @param enabled specifies to enable trace context propagation or not. By default, it is
+   *                disabled.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public DslOtelListener traceContext(boolean enabled) {
+    this.traceContext = enabled;
+    return this;
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (!context.isInProcessExecution()) {
+      LOG.warn("{} is only supported when running test plan in current JVM, ignoring it.", name);
+      return parent;
+    }
+    OtelExporter exporter = new OtelExporter(endpoint, protocol, headers, serviceName,
+        exportInterval, maxBuckets, traceContext);
+    if (traceContext) {
+      parent.add(configureTestElement(new TraceContextPreProcessor(exporter),
+          "OpenTelemetry Trace Context", null));
+    }
+    return parent.add(configureTestElement(new OtelListener(exporter), name, null));
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    // this is never used, since buildTreeUnder takes care of building elements
+    return new OtelListener();
+  }
+
+  /**
+   * Registers sample results in metrics and spans to be exported with OTLP.
+   * <p>
+   * A single instance is shared by all threads (no thread clones), so metrics of all threads are
+   * aggregated in the same histograms before being exported.
+   *
+   * @since 2.3
+   */
+  public static class OtelListener extends AbstractTestElement implements SampleListener,
+      TestStateListener, NoThreadClone {
+
+    private OtelExporter exporter;
+
+    public OtelListener() {
+    }
+
+    private OtelListener(OtelExporter exporter) {
+      this.exporter = exporter;
+    }
+
+    @Override
+    public Object clone() {
+      OtelListener ret = (OtelListener) super.clone();
+      ret.exporter = exporter;
+      return ret;
+    }
+
+    @Override
+    public void testStarted() {
+      exporter.start();
+    }
+
+    @Override
+    public void testStarted(String host) {
+      testStarted();
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      exporter.record(event.getResult());
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+    }
+
+    @Override
+    public void testEnded() {
+      exporter.stop();
+    }
+
+    @Override
+    public void testEnded(String host) {
+      testEnded();
+    }
+
+  }
+
+  /**
+   * Injects W3C trace context headers in HTTP samplers requests.
+   * <p>
+   * The client span is started in the sampler thread right before the request is sent, and is
+   * ended by {@link OtelListener} when the sample result is notified, so span timings match the
+   * sample ones.
+   *
+   * @since 2.3
+   */
+  public static class TraceContextPreProcessor extends AbstractTestElement implements
+      PreProcessor {
+
+    private OtelExporter exporter;
+
+    public TraceContextPreProcessor() {
+    }
+
+    private TraceContextPreProcessor(OtelExporter exporter) {
+      this.exporter = exporter;
+    }
+
+    @Override
+    public Object clone() {
+      TraceContextPreProcessor ret = (TraceContextPreProcessor) super.clone();
+      ret.exporter = exporter;
+      return ret;
+    }
+
+    @Override
+    public void process() {
+      exporter.startSpan();
+    }
+
+  }
+
+}
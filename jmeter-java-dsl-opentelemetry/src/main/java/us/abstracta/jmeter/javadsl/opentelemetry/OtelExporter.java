@@ -0,0 +1,231 @@
+package us.abstracta.jmeter.javadsl.opentelemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.otlp.http.metrics.OtlpHttpMetricExporter;
+import io.opentelemetry.exporter.otlp.http.metrics.OtlpHttpMetricExporterBuilder;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporterBuilder;
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporterBuilder;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporterBuilder;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.View;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import us.abstracta.jmeter.javadsl.core.util.ConcurrentMapKeys;
+import us.abstracta.jmeter.javadsl.opentelemetry.DslOtelListener.OtlpProtocol;
+
+/*
+ Keeps OpenTelemetry SDK metrics and traces providers shared by all listener and pre-processor
+ instances (threads) of a test plan.
+
+ Samples are recorded in SDK exponential histograms, which aggregate them in memory without
+ locks in sampler threads, and are exported in batches by SDK periodic reader thread.
+ */
+class OtelExporter {
+
+  private static final String SCOPE_NAME = "us.abstracta.jmeter.javadsl";
+  private static final String DURATION_METRIC = "jmeter.sample.duration";
+  private static final String SPAN_VAR = "__otelSpan";
+  private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+  private static final AttributeKey<String> LABEL = AttributeKey.stringKey("jmeter.sample.label");
+  private static final AttributeKey<String> RESPONSE_CODE = AttributeKey.stringKey(
+      "jmeter.response.code");
+  private static final AttributeKey<Boolean> SUCCESS = AttributeKey.booleanKey(
+      "jmeter.sample.success");
+  private static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey(
+      "http.response.status_code");
+  private static final int MAX_SCALE = 20;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final String endpoint;
+  private final OtlpProtocol protocol;
+  private final Map<String, String> headers;
+  private final String serviceName;
+  private final Duration exportInterval;
+  private final int maxBuckets;
+  private final boolean traceContext;
+  // attributes are cached to avoid creating them for each sample
+  private final Map<String, Map<String, Attributes[]>> attributes = new ConcurrentHashMap<>();
+  private SdkMeterProvider meterProvider;
+  private SdkTracerProvider tracerProvider;
+  private DoubleHistogram durations;
+  private volatile Tracer tracer;
+
+  OtelExporter(String endpoint, OtlpProtocol protocol, Map<String, String> headers,
+      String serviceName, Duration exportInterval, int maxBuckets, boolean traceContext) {
+    this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1)
+        : endpoint;
+    this.protocol = protocol;
+    this.headers = new LinkedHashMap<>(headers);
+    this.serviceName = serviceName;
+    this.exportInterval = exportInterval;
+    this.maxBuckets = maxBuckets;
+    this.traceContext = traceContext;
+  }
+
+  synchronized void start() {
+    if (meterProvider != null) {
+      return;
+    }
+    attributes.clear();
+    Resource resource = Resource.getDefault()
+        .merge(Resource.create(Attributes.of(SERVICE_NAME, serviceName)));
+    meterProvider = SdkMeterProvider.builder()
+        .setResource(resource)
+        .registerView(InstrumentSelector.builder().setName(DURATION_METRIC).build(),
+            View.builder()
+                .setAggregation(Aggregation.base2ExponentialBucketHistogram(maxBuckets, MAX_SCALE))
+                .build())
+        .registerMetricReader(PeriodicMetricReader.builder(buildMetricExporter())
+            .setInterval(exportInterval)
+            .build())
+        .build();
+    durations = meterProvider.get(SCOPE_NAME)
+        .histogramBuilder(DURATION_METRIC)
+        .setDescription("Samples response time")
+        .setUnit("ms")
+        .build();
+    if (traceContext) {
+      tracerProvider = SdkTracerProvider.builder()
+          .setResource(resource)
+          .addSpanProcessor(BatchSpanProcessor.builder(buildSpanExporter())
+              .setScheduleDelay(exportInterval)
+              .build())
+          .build();
+      tracer = tracerProvider.get(SCOPE_NAME);
+    }
+  }
+
+  private MetricExporter buildMetricExporter() {
+    if (protocol == OtlpProtocol.GRPC) {
+      OtlpGrpcMetricExporterBuilder ret = OtlpGrpcMetricExporter.builder()
+          .setEndpoint(endpoint)
+          .setCompression("gzip");
+      headers.forEach(ret::addHeader);
+      return ret.build();
+    } else {
+      OtlpHttpMetricExporterBuilder ret = OtlpHttpMetricExporter.builder()
+          .setEndpoint(endpoint + "/v1/metrics")
+          .setCompression("gzip");
+      headers.forEach(ret::addHeader);
+      return ret.build();
+    }
+  }
+
+  private SpanExporter buildSpanExporter() {
+    if (protocol == OtlpProtocol.GRPC) {
+      OtlpGrpcSpanExporterBuilder ret = OtlpGrpcSpanExporter.builder()
+          .setEndpoint(endpoint)
+          .setCompression("gzip");
+      headers.forEach(ret::addHeader);
+      return ret.build();
+    } else {
+      OtlpHttpSpanExporterBuilder ret = OtlpHttpSpanExporter.builder()
+          .setEndpoint(endpoint + "/v1/traces")
+          .setCompression("gzip");
+      headers.forEach(ret::addHeader);
+      return ret.build();
+    }
+  }
+
+  void startSpan() {
+    JMeterContext context = JMeterContextService.getContext();
+    Sampler sampler = context.getCurrentSampler();
+    if (tracer == null || !(sampler instanceof HTTPSamplerBase)) {
+      return;
+    }
+    HTTPSamplerBase httpSampler = (HTTPSamplerBase) sampler;
+    Span span = tracer.spanBuilder(httpSampler.getName())
+        .setSpanKind(SpanKind.CLIENT)
+        .startSpan();
+    HeaderManager headerManager = new HeaderManager();
+    W3CTraceContextPropagator.getInstance().inject(Context.root().with(span), headerManager,
+        (carrier, key, value) -> carrier.add(new Header(key, value)));
+    /*
+     setting the header manager merges it with the existing one (if any) into a new one, and since
+     the sampler is in running version the change is reverted after the sample, so no trace
+     headers are left in shared header managers.
+     */
+    httpSampler.setHeaderManager(headerManager);
+    context.getVariables().putObject(SPAN_VAR, span);
+  }
+
+  void record(SampleResult result) {
+    durations.record(result.getTime(), findAttributes(result));
+    if (tracer != null) {
+      endSpan(result);
+    }
+  }
+
+  private Attributes findAttributes(SampleResult result) {
+    String label = ConcurrentMapKeys.of(result.getSampleLabel());
+    String code = ConcurrentMapKeys.of(result.getResponseCode());
+    Attributes[] ret = attributes.computeIfAbsent(label, l -> new ConcurrentHashMap<>())
+        .computeIfAbsent(code, c -> new Attributes[]{
+            Attributes.of(LABEL, label, RESPONSE_CODE, code, SUCCESS, false),
+            Attributes.of(LABEL, label, RESPONSE_CODE, code, SUCCESS, true)});
+    return ret[result.isSuccessful() ? 1 : 0];
+  }
+
+  private void endSpan(SampleResult result) {
+    JMeterVariables vars = JMeterContextService.getContext().getVariables();
+    Object span = vars != null ? vars.getObject(SPAN_VAR) : null;
+    if (!(span instanceof Span)) {
+      return;
+    }
+    vars.remove(SPAN_VAR);
+    Span ret = (Span) span;
+    String code = result.getResponseCode();
+    if (code != null && code.matches("\\d{1,3}")) {
+      ret.setAttribute(HTTP_STATUS_CODE, Long.parseLong(code));
+    }
+    if (!result.isSuccessful()) {
+      ret.setStatus(StatusCode.ERROR, result.getResponseMessage());
+    }
+    ret.end(result.getEndTime(), TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void stop() {
+    if (meterProvider == null) {
+      return;
+    }
+    // shutting down providers exports pending metrics and spans
+    meterProvider.shutdown().join(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    meterProvider = null;
+    if (tracerProvider != null) {
+      tracerProvider.shutdown().join(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      tracerProvider = null;
+      tracer = null;
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+package us.abstracta.jmeter.javadsl.opentelemetry;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+import static us.abstracta.jmeter.javadsl.opentelemetry.DslOtelListener.otelListener;
+
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.opentelemetry.DslOtelListener.OtlpProtocol;
+
+/*
+ Wiremock is used as a stand-in of the collector, since OTLP HTTP exporters only require a
+ successful response.
+ */
+public class DslOtelListenerTest extends JmeterDslTest {
+
+  private static final String SAMPLE_PATH = "/sample";
+
+  @Test
+  public void shouldExportMetricsWhenOtelListenerWithHttpProtocol() throws Exception {
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri + SAMPLE_PATH)
+        ),
+        otelListener(wiremockUri)
+            .protocol(OtlpProtocol.HTTP_PROTOBUF)
+    ).run();
+    verify(postRequestedFor(urlEqualTo("/v1/metrics")));
+  }
+
+  @Test
+  public void shouldInjectTraceContextAndExportSpansWhenOtelListenerWithTraceContext()
+      throws Exception {
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri + SAMPLE_PATH)
+        ),
+        otelListener(wiremockUri)
+            .protocol(OtlpProtocol.HTTP_PROTOBUF)
+            .traceContext()
+    ).run();
+    verify(TEST_ITERATIONS, getRequestedFor(urlEqualTo(SAMPLE_PATH))
+        .withHeader("traceparent", matching("00-[0-9a-f]{32}-[0-9a-f]{16}-01")));
+    verify(postRequestedFor(urlEqualTo("/v1/traces")));
+  }
+
+}
@@ -0,0 +1,145 @@
+package us.abstracta.jmeter.javadsl.prometheus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.TestElement;
+import us.abstracta.jmeter.javadsl.core.listeners.BaseListener;
+
+/**
+ * Test element which publishes test run metrics in a Prometheus endpoint, pre-aggregating them
+ * in the load generator with minimal impact on sampler threads.
+ * <p>
+ * Unlike {@link DslPrometheusListener}, which uses jmeter-prometheus-plugin and updates Prometheus
+ * client summaries and histograms under locks for each sample, this element registers each sample
+ * in lock-free striped counters of a per sample label and response code histogram, and only
+ * materializes the metrics when Prometheus scrapes them. This considerably reduces the overhead
+ * in test plans with high throughput. Additionally, unlike summaries quantiles, histograms can be
+ * aggregated across load generators.
+ * <p>
+ * Published metrics are:
+ * <ul>
+ * <li>jmeter_response_time_seconds: histogram of samples response time, with label and code
+ * labels.</li>
+ * <li>jmeter_errors_total: count of failed samples, with label and code labels.</li>
+ * <li>jmeter_overflow_samples_total: count of samples registered in overflow series (check
+ * {@link #maxSeries(int)}).</li>
+ * </ul>
+ *
+ * @since 2.3
+ */
+public class DslPrometheusExporter extends BaseListener {
+
+  private static final Duration[] DEFAULT_BUCKETS = {Duration.ofMillis(5), Duration.ofMillis(10),
+      Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+      Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5),
+      Duration.ofSeconds(10)};
+
+  private int port = 9270;
+  private String host = "0.0.0.0";
+  private Duration endWait = Duration.ofSeconds(10);
+  private Duration[] buckets = DEFAULT_BUCKETS;
+  private int maxSeries = 1000;
+
+  public DslPrometheusExporter() {
+    super("Prometheus Exporter", TestBeanGUI.class);
+  }
+
+  /**
+   * Creates a new Prometheus Exporter publishing pre-aggregated test run metrics in endpoint
+   * http://0.0.0.0:9270/metrics.
+   * <p>
+   * Use {@link #host(String)} and {@link #port(int)} to change the endpoint.
+   *
+   * @return the exporter instance for further configuration or usage.
+   */
+  public static DslPrometheusExporter prometheusExporter() {
+    return new DslPrometheusExporter();
+  }
+
+  /**
+   * Specifies the port where to publish the metrics.
+   * <p>
+   * If you use several exporters (or a {@link DslPrometheusListener}) in the same test plan,
+   * remember setting different ports for each of them.
+   *
+   * @param port specifies the port to publish the metrics. By default, it is 9270.
+   * @return the exporter instance for further configuration or usage.
+   */
+  public DslPrometheusExporter port(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * Specifies the host the internal server will listen to requests for metrics.
+   *
+   * @param host specifies the host to publish the metrics. By default, it is 0.0.0.0.
+   * @return the exporter instance for further configuration or usage.
+   */
+  public DslPrometheusExporter host(String host) {
+    this.host = host;
+    return this;
+  }
+
+  /**
+   * Specifies a duration to wait after the test run ends, before stop publishing the metrics.
+   * <p>
+   * <b>Warning:</b> It is very important to set this value greater than Prometheus server
+   * scrape_interval to avoid missing metrics at the end of test execution.
+   *
+   * @param duration specifies the duration to wait before stop publishing the metrics. Only
+   *                 seconds granularity is supported. By default, it is set to 10 seconds.
+   * @return the exporter instance for further configuration or usage.
+   */
+  public DslPrometheusExporter endWait(Duration duration) {
+    this.endWait = duration;
+    return this;
+  }
+
+  /**
+   * Specifies the upper bounds of response time histogram buckets.
+   * <p>
+   * More buckets provide more precise quantiles estimations in Prometheus, at the cost of more
+   * published series.
+   *
+   * @param buckets specifies the buckets upper bounds. Only milliseconds granularity is supported.
+   *                By default, 5ms, 10ms, 25ms, 50ms, 100ms, 250ms, 500ms, 1s, 2.5s, 5s and 10s
+   *                are used.
+   * @return the exporter instance for further configuration or usage.
+   */
+  public DslPrometheusExporter buckets(Duration... buckets) {
+    this.buckets = buckets;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum number of sample label and response code combinations (series) to
+   * publish.
+   * <p>
+   * This avoids exhausting memory and overloading Prometheus when sample labels contain unbounded
+   * values (eg: when using ids in sample labels). Samples of combinations exceeding this limit are
+   * published in a series with "__overflow__" label.
+   *
+   * @param maxSeries specifies the maximum number of published series. By default, it is 1000.
+   * @return the exporter instance for further configuration or usage.
+   */
+  public DslPrometheusExporter maxSeries(int maxSeries) {
+    if (maxSeries < 0) {
+      throw new IllegalArgumentException("Max series must not be negative, but was " + maxSeries);
+    }
+    this.maxSeries = maxSeries;
+    return this;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    return new PrometheusExporterTestBean(host, port, endWait.getSeconds(),
+        Arrays.stream(buckets)
+            .map(b -> String.valueOf(b.toMillis()))
+            .collect(Collectors.joining(",")),
+        maxSeries);
+  }
+
+}
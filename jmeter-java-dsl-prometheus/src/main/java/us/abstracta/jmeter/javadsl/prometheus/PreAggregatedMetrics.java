@@ -0,0 +1,173 @@
+package us.abstracta.jmeter.javadsl.prometheus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.util.ConcurrentMapKeys;
+
+/*
+ Keeps per label and response code histograms of sample results response times, and renders them
+ in Prometheus text exposition format.
+
+ Sample results are registered from sampler threads without any locks: series are found through
+ concurrent maps lookups (which don't lock on reads), and counters are LongAdders, which stripe
+ updates in different cells under contention. Counters are only summed when metrics are scraped.
+
+ Histograms (unlike summaries quantiles) can be aggregated by Prometheus across series and load
+ generators.
+ */
+class PreAggregatedMetrics {
+
+  static final String OVERFLOW_LABEL = "__overflow__";
+  private static final String RESPONSE_TIME_METRIC = "jmeter_response_time_seconds";
+  private static final String ERRORS_METRIC = "jmeter_errors_total";
+  private static final String OVERFLOW_METRIC = "jmeter_overflow_samples_total";
+
+  private final long[] bucketsMillis;
+  private final String[] bucketsLabels;
+  private final int maxSeries;
+  private final Map<String, Map<String, Series>> series = new ConcurrentHashMap<>();
+  private final AtomicInteger seriesCount = new AtomicInteger();
+  private final Series overflow;
+
+  PreAggregatedMetrics(long[] bucketsMillis, int maxSeries) {
+    this.bucketsMillis = bucketsMillis.clone();
+    Arrays.sort(this.bucketsMillis);
+    this.bucketsLabels = Arrays.stream(this.bucketsMillis)
+        .mapToObj(b -> String.valueOf(b / 1000.0))
+        .toArray(String[]::new);
+    this.maxSeries = maxSeries;
+    this.overflow = new Series(OVERFLOW_LABEL, "", this.bucketsMillis.length);
+  }
+
+  void add(SampleResult result) {
+    findSeries(ConcurrentMapKeys.of(result.getSampleLabel()),
+        ConcurrentMapKeys.of(result.getResponseCode()))
+        .add(bucketIndex(result.getTime()), result.getTime(), result.isSuccessful());
+  }
+
+  private Series findSeries(String label, String code) {
+    Map<String, Series> codes = series.get(label);
+    Series ret = codes != null ? codes.get(code) : null;
+    return ret != null ? ret : createSeries(label, code);
+  }
+
+  /*
+   The number of series has a hard limit to avoid memory exhaustion and overloading Prometheus
+   when labels contain unbounded values (eg: ids in sample labels). Samples of series exceeding the
+   limit are registered in an overflow series.
+   */
+  private Series createSeries(String label, String code) {
+    if (seriesCount.get() >= maxSeries) {
+      return overflow;
+    }
+    Series ret = series.computeIfAbsent(label, l -> new ConcurrentHashMap<>())
+        .computeIfAbsent(code, c -> {
+          if (seriesCount.incrementAndGet() > maxSeries) {
+            seriesCount.decrementAndGet();
+            return null;
+          }
+          return new Series(label, code, bucketsMillis.length);
+        });
+    return ret != null ? ret : overflow;
+  }
+
+  private int bucketIndex(long millis) {
+    int ret = Arrays.binarySearch(bucketsMillis, millis);
+    // buckets upper bounds are inclusive, and last index (after all bounds) is the +Inf bucket
+    return ret >= 0 ? ret : -ret - 1;
+  }
+
+  void write(Writer writer) throws IOException {
+    writer.write("# HELP " + RESPONSE_TIME_METRIC + " Samples response time.\n");
+    writer.write("# TYPE " + RESPONSE_TIME_METRIC + " histogram\n");
+    forEachSeries(s -> s.writeHistogram(writer));
+    writer.write("# HELP " + ERRORS_METRIC + " Failed samples count.\n");
+    writer.write("# TYPE " + ERRORS_METRIC + " counter\n");
+    forEachSeries(s -> s.writeErrors(writer));
+    writer.write("# HELP " + OVERFLOW_METRIC
+        + " Samples registered in overflow series due to series limit.\n");
+    writer.write("# TYPE " + OVERFLOW_METRIC + " counter\n");
+    writer.write(OVERFLOW_METRIC + " " + overflow.count() + "\n");
+  }
+
+  private void forEachSeries(SeriesWriter seriesWriter) throws IOException {
+    for (Map<String, Series> codes : series.values()) {
+      for (Series s : codes.values()) {
+        seriesWriter.write(s);
+      }
+    }
+    if (overflow.count() > 0) {
+      seriesWriter.write(overflow);
+    }
+  }
+
+  private interface SeriesWriter {
+
+    void write(Series series) throws IOException;
+
+  }
+
+  private class Series {
+
+    private final String labels;
+    // buckets are not cumulative, since cumulative counts are only required when scraping
+    private final LongAdder[] buckets;
+    private final LongAdder sumMillis = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private Series(String label, String code, int bucketsCount) {
+      labels = "label=\"" + escape(label) + "\",code=\"" + escape(code) + "\"";
+      buckets = new LongAdder[bucketsCount + 1];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    private void add(int bucketIndex, long millis, boolean success) {
+      buckets[bucketIndex].increment();
+      sumMillis.add(millis);
+      if (!success) {
+        errors.increment();
+      }
+    }
+
+    private long count() {
+      long ret = 0;
+      for (LongAdder bucket : buckets) {
+        ret += bucket.sum();
+      }
+      return ret;
+    }
+
+    private void writeHistogram(Writer writer) throws IOException {
+      long count = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        count += buckets[i].sum();
+        String bound = i < bucketsLabels.length ? bucketsLabels[i] : "+Inf";
+        writer.write(RESPONSE_TIME_METRIC + "_bucket{" + labels + ",le=\"" + bound + "\"} "
+            + count + "\n");
+      }
+      writer.write(RESPONSE_TIME_METRIC + "_sum{" + labels + "} " + sumMillis.sum() / 1000.0
+          + "\n");
+      writer.write(RESPONSE_TIME_METRIC + "_count{" + labels + "} " + count + "\n");
+    }
+
+    private void writeErrors(Writer writer) throws IOException {
+      writer.write(ERRORS_METRIC + "{" + labels + "} " + errors.sum() + "\n");
+    }
+
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\")
+        .replace("\"", "\\\"")
+        .replace("\n", "\\n");
+  }
+
+}
@@ -0,0 +1,168 @@
+package us.abstracta.jmeter.javadsl.prometheus;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.reporters.AbstractListenerElement;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ Needs to implement Visualizer so that TestBeanGUI can find the correct GUI class
+ */
+public class PrometheusExporterTestBean extends AbstractListenerElement implements TestBean,
+    SampleListener, TestStateListener, NoThreadClone, Visualizer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrometheusExporterTestBean.class);
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private String host;
+  private int port;
+  private long endWaitSeconds;
+  private String bucketsMillis;
+  private int maxSeries;
+  private transient PreAggregatedMetrics metrics;
+  private transient HttpServer server;
+
+  public PrometheusExporterTestBean() {
+    this("0.0.0.0", 9270, 10, "", 1000);
+  }
+
+  public PrometheusExporterTestBean(String host, int port, long endWaitSeconds,
+      String bucketsMillis, int maxSeries) {
+    this.host = host;
+    this.port = port;
+    this.endWaitSeconds = endWaitSeconds;
+    this.bucketsMillis = bucketsMillis;
+    this.maxSeries = maxSeries;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public long getEndWaitSeconds() {
+    return endWaitSeconds;
+  }
+
+  public void setEndWaitSeconds(long endWaitSeconds) {
+    this.endWaitSeconds = endWaitSeconds;
+  }
+
+  public String getBucketsMillis() {
+    return bucketsMillis;
+  }
+
+  public void setBucketsMillis(String bucketsMillis) {
+    this.bucketsMillis = bucketsMillis;
+  }
+
+  public int getMaxSeries() {
+    return maxSeries;
+  }
+
+  public void setMaxSeries(int maxSeries) {
+    this.maxSeries = maxSeries;
+  }
+
+  @Override
+  public void add(SampleResult sample) {
+  }
+
+  @Override
+  public boolean isStats() {
+    return false;
+  }
+
+  @Override
+  public void testStarted() {
+    metrics = new PreAggregatedMetrics(Arrays.stream(bucketsMillis.split(","))
+        .map(String::trim)
+        .filter(b -> !b.isEmpty())
+        .mapToLong(Long::parseLong)
+        .toArray(), maxSeries);
+    try {
+      server = HttpServer.create(new InetSocketAddress(host, port), 0);
+      server.createContext("/metrics", this::handleScrape);
+      server.start();
+    } catch (IOException e) {
+      LOG.error("Could not start Prometheus metrics server on {}:{}", host, port, e);
+    }
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void sampleOccurred(SampleEvent e) {
+    metrics.add(e.getResult());
+  }
+
+  private void handleScrape(HttpExchange exchange) throws IOException {
+    try {
+      StringWriter body = new StringWriter();
+      metrics.write(body);
+      byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, bytes.length);
+      exchange.getResponseBody().write(bytes);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  @Override
+  public void sampleStarted(SampleEvent e) {
+  }
+
+  @Override
+  public void sampleStopped(SampleEvent e) {
+  }
+
+  @Override
+  public void testEnded() {
+    if (server == null) {
+      return;
+    }
+    try {
+      // give Prometheus the chance to scrape last metrics
+      Thread.sleep(endWaitSeconds * 1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      server.stop(0);
+      server = null;
+    }
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+}
@@ -0,0 +1,24 @@
+package us.abstracta.jmeter.javadsl.prometheus;
+
+import java.beans.PropertyDescriptor;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class PrometheusExporterTestBeanBeanInfo extends BeanInfoSupport {
+
+  public PrometheusExporterTestBeanBeanInfo() {
+    super(PrometheusExporterTestBean.class);
+    createPropertyGroup("server", new String[]{"host", "port", "endWaitSeconds"});
+    createPropertyGroup("metrics", new String[]{"bucketsMillis", "maxSeries"});
+    setDefault(property("host"), "0.0.0.0");
+    setDefault(property("port"), 9270);
+    setDefault(property("endWaitSeconds"), 10L);
+    setDefault(property("bucketsMillis"), "");
+    setDefault(property("maxSeries"), 1000);
+  }
+
+  private static void setDefault(PropertyDescriptor p, Object value) {
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, value);
+  }
+
+}
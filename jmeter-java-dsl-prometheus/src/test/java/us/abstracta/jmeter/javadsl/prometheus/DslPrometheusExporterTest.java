@@ -0,0 +1,135 @@
+package us.abstracta.jmeter.javadsl.prometheus;
+
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+import static us.abstracta.jmeter.javadsl.prometheus.DslPrometheusExporter.prometheusExporter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DslPrometheusExporterTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DslPrometheusExporterTest.class);
+  private static final int PORT = 9271;
+  private static final String METRICS_URL = "http://localhost:" + PORT + "/metrics";
+
+  @Test
+  public void shouldPublishResponseTimeHistogramWhenPrometheusExporter() throws Exception {
+    runConcurrently(
+        testPlanRunner(prometheusExporter()
+            .port(PORT)
+            .endWait(Duration.ofSeconds(5))),
+        new MetricsConditionChecker(
+            ".*jmeter_response_time_seconds_count\\{label=\"OK\",code=\"200\"} 1.*")
+    );
+  }
+
+  @Test
+  public void shouldPublishOverflowSeriesWhenPrometheusExporterExceedsMaxSeries()
+      throws Exception {
+    runConcurrently(
+        testPlanRunner(prometheusExporter()
+            .port(PORT)
+            .endWait(Duration.ofSeconds(5))
+            .maxSeries(1)),
+        new MetricsConditionChecker(".*jmeter_overflow_samples_total 1.*")
+    );
+  }
+
+  @SafeVarargs
+  private final void runConcurrently(Callable<Void>... callables) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(callables.length);
+    try {
+      List<Future<Void>> rets = executor.invokeAll(Arrays.asList(callables));
+      for (Future<Void> ret : rets) {
+        ret.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Callable<Void> testPlanRunner(DslPrometheusExporter exporter) {
+    return () -> {
+      testPlan(
+          threadGroup(1, 1,
+              dummySampler("OK", "OK"),
+              dummySampler("OTHER", "OK")
+          ),
+          exporter
+      ).run();
+      return null;
+    };
+  }
+
+  private static class MetricsConditionChecker implements Callable<Void> {
+
+    private static final Duration POLL_PERIOD = Duration.ofSeconds(1);
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(15);
+
+    private final String expectedMetricsRegex;
+
+    private MetricsConditionChecker(String expectedMetricsRegex) {
+      this.expectedMetricsRegex = expectedMetricsRegex;
+    }
+
+    @Override
+    public Void call() throws InterruptedException, TimeoutException {
+      Instant start = Instant.now();
+      do {
+        Thread.sleep(POLL_PERIOD.toMillis());
+        try {
+          String response = urlQuery(METRICS_URL);
+          if (response.matches(expectedMetricsRegex)) {
+            return null;
+          }
+        } catch (IOException | IllegalStateException e) {
+          LOG.warn("Failed to poll metrics", e);
+        }
+      } while (Instant.now().isBefore(start.plus(POLL_TIMEOUT)));
+      throw new TimeoutException(
+          "Could not collect the expected metrics within the timeout of " + POLL_TIMEOUT
+              + " seconds");
+    }
+
+    private String urlQuery(String url) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      try {
+        int responseCode = connection.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_OK) {
+          BufferedReader in = new BufferedReader(
+              new InputStreamReader(connection.getInputStream()));
+          String inputLine;
+          StringBuilder response = new StringBuilder();
+          while ((inputLine = in.readLine()) != null) {
+            response.append(inputLine);
+          }
+          in.close();
+          return response.toString();
+        } else {
+          throw new IllegalStateException("HTTP error code : " + responseCode);
+        }
+      } finally {
+        connection.disconnect();
+      }
+    }
+
+  }
+
+}
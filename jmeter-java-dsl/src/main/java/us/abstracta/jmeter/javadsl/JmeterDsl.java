@@ -24,6 +24,8 @@ import us.abstracta.jmeter.javadsl.core.controllers.ForLoopController;
 import us.abstracta.jmeter.javadsl.core.controllers.PercentController;
 import us.abstracta.jmeter.javadsl.core.engines.AutoStoppedTestException;
 import us.abstracta.jmeter.javadsl.core.listeners.AutoStopListener;
+import us.abstracta.jmeter.javadsl.core.listeners.DslListener;
+import us.abstracta.jmeter.javadsl.core.listeners.DslSampledListener;
 import us.abstracta.jmeter.javadsl.core.listeners.DslViewResultsTree;
 import us.abstracta.jmeter.javadsl.core.listeners.GraphiteBackendListener;
 import us.abstracta.jmeter.javadsl.core.listeners.HtmlReporter;
@@ -1655,6 +1657,26 @@ public class JmeterDsl {
     return new HtmlReporter(reportsDirectory, name);
   }
 
+  /**
+   * Builds a listener wrapper which only passes a portion of sample results to the given
+   * listener.
+   * <p>
+   * This is helpful to use heavy listeners (like a jtlWriter with response data, a
+   * responseFileSaver or a backend listener) in high load test plans, while still getting a
+   * representative portion of sample results. Eg: <pre>{@code sampled(0.01, jtlWriter("target"))
+   * .allErrors()}</pre> will log all failed sample results and 1 out of every 100 successful ones.
+   *
+   * @param rate     specifies the portion, between 0 and 1, of sample results to pass to the
+   *                 listener.
+   * @param listener specifies the listener to pass sampled results to.
+   * @return the sampled listener for further configuration or usage.
+   * @see DslSampledListener
+   * @since 2.3
+   */
+  public static DslSampledListener sampled(double rate, DslListener listener) {
+    return new DslSampledListener(rate, listener);
+  }
+
   /**
    * Builds a View Results Tree element to show live results in a pop-up window while the test
    * runs.
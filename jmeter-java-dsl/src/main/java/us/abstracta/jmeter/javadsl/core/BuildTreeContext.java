@@ -32,6 +32,8 @@ public class BuildTreeContext {
    */
   private DslTestElement element;
   private TestStopper testStopper;
+  private boolean inProcessExecution;
+  private boolean structureCompilation;
 
   public BuildTreeContext() {
     this(null, new LinkedHashMap<>(), null);
@@ -81,6 +83,45 @@ public class BuildTreeContext {
     return getRoot().testStopper;
   }
 
+  /**
+   * Specifies that the tree is built to be run in current JVM, and not to be saved as JMX or sent
+   * to a remote engine.
+   * <p>
+   * This allows elements to build a tree that is optimized for execution (eg: solving at build
+   * time settings that JMeter would otherwise solve on each sample), even though it might not
+   * properly reflect the DSL test plan structure when loaded in JMeter GUI or converted to DSL
+   * code.
+   *
+   * @param inProcessExecution specifies if the tree is built to be run in current JVM.
+   * @since 2.3
+   */
+  public void setInProcessExecution(boolean inProcessExecution) {
+    this.inProcessExecution = inProcessExecution;
+  }
+
+  public boolean isInProcessExecution() {
+    return getRoot().inProcessExecution;
+  }
+
+  /**
+   * Specifies that elements may compile the test plan static structure into an equivalent tree
+   * that requires less work from JMeter on each iteration (eg: removing controllers that only
+   * group samplers).
+   * <p>
+   * This only applies when {@link #isInProcessExecution()} is also enabled, since resulting tree
+   * no longer reflects the DSL test plan structure.
+   *
+   * @param structureCompilation specifies if test plan structure should be compiled.
+   * @since 2.3
+   */
+  public void setStructureCompilation(boolean structureCompilation) {
+    this.structureCompilation = structureCompilation;
+  }
+
+  public boolean isStructureCompilation() {
+    return isInProcessExecution() && getRoot().structureCompilation;
+  }
+
   public void addEndListener(TreeContextEndListener endListener) {
     endListeners.add(endListener);
   }
@@ -1,12 +1,18 @@
 package us.abstracta.jmeter.javadsl.core;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlStatsReader;
+import us.abstracta.jmeter.javadsl.core.stats.BackendListenerStats;
 import us.abstracta.jmeter.javadsl.core.stats.StatsSummary;
 
 /**
@@ -22,6 +28,8 @@ public class TestPlanStats {
   protected final Supplier<StatsSummary> statsSummaryBuilder;
   protected StatsSummary overallStats;
   protected final Map<String, StatsSummary> labeledStats = new ConcurrentHashMap<>();
+  protected final List<BackendListenerStats> backendListenersStats =
+      new CopyOnWriteArrayList<>();
   private Instant start;
   private Instant end;
 
@@ -30,6 +38,22 @@ public class TestPlanStats {
     overallStats = statsSummaryBuilder.get();
   }
 
+  /**
+   * Calculates statistics from existing JTL files, like ones generated in a remote machine or a
+   * previous test plan execution, allowing to run same assertions on them as on a test plan run.
+   * <p>
+   * Files are parsed in parallel chunks with bounded memory. Check {@link JtlStatsReader} for
+   * supported formats and to tune parallelism.
+   *
+   * @param jtlFiles the JTL files to calculate statistics from.
+   * @return the statistics calculated from all files records.
+   * @throws IOException if there is some problem reading the files or parsing their contents.
+   * @since 2.3
+   */
+  public static TestPlanStats fromJtl(Path... jtlFiles) throws IOException {
+    return new JtlStatsReader().read(jtlFiles);
+  }
+
   public synchronized void addSampleResult(SampleResult result) {
     overallStats.add(result);
     StatsSummary labelStats = labeledStats.computeIfAbsent(
@@ -37,6 +61,10 @@ public class TestPlanStats {
     labelStats.add(result);
   }
 
+  public void addBackendListenerStats(BackendListenerStats stats) {
+    backendListenersStats.add(stats);
+  }
+
   public void setStart(Instant start) {
     this.start = start;
   }
@@ -73,4 +101,20 @@ public class TestPlanStats {
     return labeledStats.keySet();
   }
 
+  /**
+   * Provides statistics of the queues and sending of sample results of backend listeners (eg:
+   * influxDbListener) in the test plan, in test plan order.
+   * <p>
+   * Use these statistics to check if backend services kept up with test plan throughput, and if
+   * sample results were dropped or aggregated due to the configured overflow policy.
+   * <p>
+   * These statistics are only available when the test plan runs in current JVM, and only for
+   * backend listeners with an overflow policy or several consumers.
+   *
+   * @since 2.3
+   */
+  public List<BackendListenerStats> backendListeners() {
+    return backendListenersStats;
+  }
+
 }
@@ -5,11 +5,16 @@ import java.util.List;
 import org.apache.jmeter.control.GenericController;
 import org.apache.jmeter.control.gui.LogicControllerGui;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.ChildrenParam;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.DslTestElement;
+import us.abstracta.jmeter.javadsl.core.samplers.DslSampler;
+import us.abstracta.jmeter.javadsl.core.threadgroups.BaseThreadGroup;
 import us.abstracta.jmeter.javadsl.core.threadgroups.BaseThreadGroup.ThreadGroupChild;
 
 /**
@@ -31,6 +36,31 @@ public class DslSimpleController extends BaseController<DslSimpleController> {
     super(name == null ? DEFAULT_NAME : name, LogicControllerGui.class, children);
   }
 
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (context.isStructureCompilation() && isGroupingOnly(context)) {
+      /*
+       children are directly attached to parent since this controller only groups them and
+       doesn't define any scope for other elements. This avoids JMeter to go through this
+       controller on each iteration.
+       */
+      children.forEach(c -> context.buildChild(c, parent));
+      return parent;
+    }
+    return super.buildTreeUnder(parent, context);
+  }
+
+  private boolean isGroupingOnly(BuildTreeContext context) {
+    /*
+     we only inline in controllers that run all their children sequentially, since others (like
+     switch, random or runtime controllers) use the children structure to decide what to run.
+     */
+    DslTestElement parent = context.getParent().getTestElement();
+    return (parent instanceof BaseThreadGroup || parent instanceof DslSimpleController
+        || parent instanceof DslTransactionController || parent instanceof ForLoopController)
+        && children.stream().allMatch(c -> c instanceof DslSampler || c instanceof DslController);
+  }
+
   @Override
   protected TestElement buildTestElement() {
     return new GenericController();
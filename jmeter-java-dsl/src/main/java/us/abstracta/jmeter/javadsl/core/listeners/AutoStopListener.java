@@ -348,7 +348,9 @@ public class AutoStopListener extends BaseTestElement implements DslListener {
      * <p>
      * <b>Warning:</b> as percentiles are calculated with P<SUP>2</SUP> algorithm, they may not be
      * accurate when evaluating a few samples. This is specially important when using small
-     * aggregation periods with {@link AggregatedConditionBuilder#every(Duration)}.
+     * aggregation periods with {@link AggregatedConditionBuilder#every(Duration)}. Consider
+     * using {@link AggregatedConditionBuilder#over(Duration)} instead, which calculates
+     * percentiles from histograms.
      *
      * @param percentile specifies the percentile to use. For example to check the median, specify
      *                   50. To check the 90 percentile, then specify 90.
@@ -398,6 +400,42 @@ public class AutoStopListener extends BaseTestElement implements DslListener {
       return this;
     }
 
+    /**
+     * Specifies to evaluate the aggregation (min, max, etc.) every second, over the samples of the
+     * given last period of time (sliding window).
+     * <p>
+     * In contrast to {@link #every(Duration)}, which evaluates and resets aggregations at the end
+     * of each period, with sliding windows conditions are evaluated every second and a spike is
+     * not split among two periods. For example, {@code sampleTime().percentile(99)
+     * .over(Duration.ofSeconds(30)).greaterThan(Duration.ofSeconds(2))} checks every second if the
+     * 99 percentile of sample times of last 30 seconds is over 2 seconds.
+     * <p>
+     * Sliding windows keep a small histogram of metric values for each second of the window, so
+     * memory usage is constant no matter the number of samples. Aggregated values (including
+     * percentiles) are calculated from such histograms, which estimate values with less than 1% of
+     * relative error.
+     * <p>
+     * Windows without samples (eg: before first samples arrive) never match the condition, so
+     * conditions like {@code samples().perSecond().over(Duration.ofSeconds(10)).lessThan(5.0)}
+     * don't stop the test plan while it starts.
+     * <p>
+     * When this method is used, {@link #every(Duration)} is ignored.
+     *
+     * @param window specifies the period of time of samples to consider in each evaluation.
+     *               <p>
+     *               The granularity of the period has to be seconds or greater (milliseconds are
+     *               ignored).
+     * @return a condition builder to complete the condition definition.
+     * @since 2.3
+     */
+    public AggregatedConditionBuilder<T> over(Duration window) {
+      if (window.getSeconds() < 1) {
+        throw new IllegalArgumentException("Window must be at least 1 second, but was " + window);
+      }
+      ret.setSlidingWindowSeconds(window.getSeconds());
+      return this;
+    }
+
     /**
      * Specifies to check the aggregated metric value to be less than a provided one.
      *
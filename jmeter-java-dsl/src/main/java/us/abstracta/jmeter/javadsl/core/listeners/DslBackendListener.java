@@ -1,21 +1,37 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.jmeter.config.Argument;
 import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jmeter.visualizers.backend.BackendListener;
 import org.apache.jmeter.visualizers.backend.BackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
 import org.apache.jmeter.visualizers.backend.BackendListenerGui;
+import org.apache.jorphan.collections.HashTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.stats.BackendListenerStats;
+import us.abstracta.jmeter.javadsl.core.util.ConcurrentMapKeys;
+import us.abstracta.jmeter.javadsl.core.util.RingBuffer;
 
 /**
  * Contains common logic used by test elements that use the backend listener.
@@ -24,37 +40,172 @@ import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
  */
 public abstract class DslBackendListener<T extends DslBackendListener<T>> extends BaseListener {
 
+  private static final Logger LOG = LoggerFactory.getLogger(DslBackendListener.class);
+  private static final String STATS_ENTRY = DslBackendListener.class.getName() + ".stats";
+
   protected final String url;
-  protected final Class<? extends BackendListenerClient> listenerClass;
+  protected Class<? extends BackendListenerClient> listenerClass;
   protected int queueSize = 5000;
+  protected OverflowPolicy overflowPolicy;
+  protected int consumers = 1;
+  protected BackendListenerStats stats;
 
   protected DslBackendListener(Class<? extends BackendListenerClient> listenerClass, String url) {
     super("Backend Listener", BackendListenerGui.class);
     this.url = url;
     this.listenerClass = listenerClass;
+    this.stats = new BackendListenerStats(listenerClass.getSimpleName());
   }
 
   /**
    * Specifies the length of sample results queue used to asynchronously send the information to the
    * backend service.
    * <p>
-   * When the queue reaches this limit, then the test plan execution will be affected since sample
-   * results will get blocked until there is space in the queue, affecting the general execution of
-   * the test plan and in consequence collected metrics.
+   * When the queue reaches this limit, then the configured overflow policy applies. By default,
+   * sample results will get blocked until there is space in the queue, affecting the general
+   * execution of the test plan and in consequence collected metrics.
    * <p>
    * When not specified, this value defaults to 5000.
    *
    * @param queueSize the size of the queue to use.
    * @return the listener for further configuration or usage.
+   * @see #overflowPolicy(OverflowPolicy)
    */
   public T queueSize(int queueSize) {
     this.queueSize = queueSize;
     return (T) this;
   }
 
+  /**
+   * Specifies what to do with sample results when the queue is full, due to the backend service
+   * not keeping up with test plan throughput.
+   * <p>
+   * You can check the effects of the selected policy with
+   * {@link us.abstracta.jmeter.javadsl.core.TestPlanStats#backendListeners()} after the test plan
+   * runs.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and sample results are blocked until there is space in the queue otherwise.
+   *
+   * When neither this setting nor {@link #consumers(int)} are specified, JMeter backend listener is
+   * used as is, and no statistics are collected.
+   *
+   * @param policy specifies the policy to apply. By default, {@link OverflowPolicy#BLOCK} is used.
+   * @return the listener for further configuration or usage.
+   * @see OverflowPolicy
+   * @since 2.3
+   */
+  public T overflowPolicy(OverflowPolicy policy) {
+    this.overflowPolicy = policy;
+    return (T) this;
+  }
+
+  /**
+   * Specifies what to do with sample results when backend listener queue is full.
+   *
+   * @since 2.3
+   */
+  public enum OverflowPolicy {
+    /**
+     * Sampler threads wait until there is space in the queue. No sample result is lost, but test
+     * plan throughput may be affected by the backend service speed.
+     */
+    BLOCK,
+    /**
+     * Oldest sample results in the queue are discarded to make space for new ones.
+     */
+    DROP_OLDEST,
+    /**
+     * Sample results that don't fit in the queue are discarded.
+     */
+    DROP_NEWEST,
+    /**
+     * Sample results that don't fit in the queue are aggregated, per label and success, in local
+     * sample results with proper sample and error counts and mean response time, which are sent
+     * when the queue has space again. No sample is lost from counts, at the cost of losing
+     * response time distribution details of aggregated sample results.
+     */
+    AGGREGATE_LOCALLY
+  }
+
+  /**
+   * Specifies the number of threads taking sample results from the queue and sending them to the
+   * backend service.
+   * <p>
+   * More consumers allow sending sample results in parallel when the backend service has high
+   * latency. All consumers share the same backend listener client instance, so only use more than
+   * one consumer with clients that support concurrent calls and send sample results while handling
+   * them. Clients that just accumulate sample results and send them from their own thread (like
+   * included InfluxDB and Graphite ones) don't benefit from more consumers, which would only add
+   * contention.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and a single consumer is used otherwise.
+   *
+   * @param consumers specifies the number of consumer threads. By default, 1.
+   * @return the listener for further configuration or usage.
+   * @since 2.3
+   */
+  public T consumers(int consumers) {
+    if (consumers < 1) {
+      throw new IllegalArgumentException("Consumers must be positive, but was " + consumers);
+    }
+    this.consumers = consumers;
+    return (T) this;
+  }
+
+  /**
+   * Gets statistics of the queue and sending of sample results in the last test plan execution.
+   * <p>
+   * Statistics are only collected when {@link #overflowPolicy(OverflowPolicy)} or
+   * {@link #consumers(int)} are specified. A new instance is created each time the test plan runs,
+   * so get them after the test plan execution.
+   * <p>
+   * Same statistics are also available in
+   * {@link us.abstracta.jmeter.javadsl.core.TestPlanStats#backendListeners()}.
+   *
+   * @return the statistics of the backend listener.
+   * @since 2.3
+   */
+  public BackendListenerStats stats() {
+    return stats;
+  }
+
+  /**
+   * Gets the statistics of all backend listeners included in a test plan.
+   * <p>
+   * This is used by engines to include them in test plan statistics.
+   *
+   * @param context is the context used to build the test plan tree.
+   * @return the statistics of backend listeners, in test plan order.
+   * @since 2.3
+   */
+  public static List<BackendListenerStats> findStats(BuildTreeContext context) {
+    List<BackendListenerStats> ret = (List<BackendListenerStats>) context.getRoot()
+        .getEntry(STATS_ENTRY);
+    return ret != null ? ret : Collections.emptyList();
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (!context.isInProcessExecution() || overflowPolicy == null && consumers <= 1) {
+      return super.buildTreeUnder(parent, context);
+    }
+    // listener class may change after creation (eg: by DSL element settings)
+    stats = new BackendListenerStats(listenerClass.getSimpleName());
+    context.getRoot().<List<BackendListenerStats>>getOrCreateEntry(STATS_ENTRY, ArrayList::new)
+        .add(stats);
+    return parent.add(configureTestElement(configureListener(
+        new QueuedBackendListener(overflowPolicy != null ? overflowPolicy : OverflowPolicy.BLOCK,
+            consumers, stats)), name, guiClass));
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    BackendListener ret = new BackendListener();
+    return configureListener(new BackendListener());
+  }
+
+  private BackendListener configureListener(BackendListener ret) {
     ret.setClassname(listenerClass.getName());
     ret.setQueueSize(String.valueOf(queueSize));
     ret.setArguments(buildArguments());
@@ -81,21 +232,307 @@ public abstract class DslBackendListener<T extends DslBackendListener<T>> extend
     }
   }
 
+  /**
+   * Backend listener which applies an overflow policy when its queue is full, supports several
+   * consumer threads and collects statistics of its queue and sending of sample results.
+   * <p>
+   * A single instance is shared by all threads (no thread clones), so the queue and consumer
+   * threads are only created once per test plan execution.
+   *
+   * @since 2.3
+   */
+  public static class QueuedBackendListener extends BackendListener implements NoThreadClone {
+
+    private OverflowPolicy overflowPolicy;
+    private int consumers;
+    private BackendListenerStats stats;
+    private SamplesQueue queue;
+
+    public QueuedBackendListener() {
+      this(OverflowPolicy.BLOCK, 1, new BackendListenerStats(""));
+    }
+
+    public QueuedBackendListener(OverflowPolicy overflowPolicy, int consumers,
+        BackendListenerStats stats) {
+      this.overflowPolicy = overflowPolicy;
+      this.consumers = consumers;
+      this.stats = stats;
+      this.queue = new SamplesQueue();
+    }
+
+    @Override
+    public Object clone() {
+      QueuedBackendListener ret = (QueuedBackendListener) super.clone();
+      ret.overflowPolicy = overflowPolicy;
+      ret.consumers = consumers;
+      ret.stats = stats;
+      ret.queue = queue;
+      return ret;
+    }
+
+    @Override
+    public void testStarted() {
+      testStarted("local");
+    }
+
+    @Override
+    public void testStarted(String host) {
+      queue.start(this);
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      queue.add(event.getResult());
+    }
+
+    @Override
+    public void testEnded() {
+      testEnded("local");
+    }
+
+    @Override
+    public void testEnded(String host) {
+      queue.stop();
+    }
+
+    private class SamplesQueue {
+
+      private static final int BATCH_SIZE = 1000;
+      private final long waitNanos = TimeUnit.MILLISECONDS.toNanos(1);
+      private final Map<String, LocalAggregate[]> aggregates = new ConcurrentHashMap<>();
+      private BackendListenerClient client;
+      private BackendListenerContext context;
+      private RingBuffer<SampleResult> buffer;
+      private Thread[] consumerThreads;
+      private volatile boolean running;
+
+      private synchronized void start(BackendListener listener) {
+        if (running) {
+          return;
+        }
+        stats.reset();
+        aggregates.clear();
+        buffer = new RingBuffer<>(Integer.parseInt(listener.getQueueSize()));
+        context = new BackendListenerContext(listener.getArguments().getArgumentsAsMap());
+        try {
+          client = Class.forName(listener.getClassname())
+              .asSubclass(BackendListenerClient.class)
+              .newInstance();
+          client.setupTest(context);
+        } catch (Exception e) {
+          throw new IllegalStateException("Could not setup backend listener client "
+              + listener.getClassname(), e);
+        }
+        running = true;
+        consumerThreads = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+          consumerThreads[i] = new Thread(this::consume,
+              listener.getName() + " consumer " + (i + 1));
+          consumerThreads[i].setDaemon(true);
+          consumerThreads[i].start();
+        }
+      }
+
+      private void add(SampleResult result) {
+        result = client.createSampleResult(context, result);
+        if (result == null || buffer.offer(result)) {
+          return;
+        }
+        switch (overflowPolicy) {
+          case DROP_NEWEST:
+            stats.registerDroppedSample();
+            break;
+          case DROP_OLDEST:
+            while (!buffer.offer(result)) {
+              if (buffer.poll() != null) {
+                stats.registerDroppedSample();
+              }
+            }
+            break;
+          case AGGREGATE_LOCALLY:
+            aggregate(result);
+            stats.registerAggregatedSample();
+            break;
+          default:
+            stats.registerQueueWait();
+            while (!buffer.offer(result)) {
+              // avoid blocking sampler threads forever if consumers are no longer running
+              if (!running) {
+                stats.registerDroppedSample();
+                return;
+              }
+              LockSupport.parkNanos(waitNanos);
+            }
+        }
+      }
+
+      private void aggregate(SampleResult result) {
+        String label = ConcurrentMapKeys.of(result.getSampleLabel());
+        LocalAggregate[] labelAggregates = aggregates.computeIfAbsent(label,
+            l -> new LocalAggregate[]{new LocalAggregate(l, false), new LocalAggregate(l, true)});
+        labelAggregates[result.isSuccessful() ? 1 : 0].add(result);
+      }
+
+      private void consume() {
+        List<SampleResult> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !buffer.isEmpty()) {
+          stats.registerQueueDepth(buffer.size());
+          if (buffer.drainTo(batch::add, BATCH_SIZE) < BATCH_SIZE) {
+            // queue has caught up, so locally aggregated sample results can be sent
+            drainAggregatesTo(batch);
+          }
+          if (batch.isEmpty()) {
+            LockSupport.parkNanos(waitNanos);
+          } else {
+            send(batch);
+            batch.clear();
+          }
+        }
+      }
+
+      private void drainAggregatesTo(List<SampleResult> batch) {
+        for (LocalAggregate[] labelAggregates : aggregates.values()) {
+          for (LocalAggregate aggregate : labelAggregates) {
+            SampleResult result = aggregate.drain();
+            if (result != null) {
+              batch.add(result);
+            }
+          }
+        }
+      }
+
+      private void send(List<SampleResult> batch) {
+        long start = System.nanoTime();
+        try {
+          client.handleSampleResults(batch, context);
+        } catch (RuntimeException e) {
+          LOG.error("Problem sending sample results with {}", client.getClass().getName(), e);
+        }
+        stats.registerSentBatch(batch.size(), System.nanoTime() - start);
+      }
+
+      private synchronized void stop() {
+        if (!running) {
+          return;
+        }
+        running = false;
+        try {
+          for (Thread consumer : consumerThreads) {
+            consumer.join();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        List<SampleResult> batch = new ArrayList<>();
+        drainAggregatesTo(batch);
+        if (!batch.isEmpty()) {
+          send(batch);
+        }
+        if (stats.droppedSamplesCount() > 0) {
+          LOG.warn("{} sample results were not sent with {} due to {} overflow policy",
+              stats.droppedSamplesCount(), client.getClass().getName(), overflowPolicy);
+        }
+        try {
+          client.teardownTest(context);
+        } catch (Exception e) {
+          LOG.error("Problem tearing down backend listener client {}",
+              client.getClass().getName(), e);
+        }
+      }
+
+    }
+
+  }
+
+  /*
+   Aggregates sample results of a label and success status that don't fit in the queue, until
+   they can be sent.
+   */
+  private static class LocalAggregate {
+
+    private final String label;
+    private final boolean success;
+    private long samplesCount;
+    private long resultsCount;
+    private long timeSum;
+    private SampleResult last;
+
+    private LocalAggregate(String label, boolean success) {
+      this.label = label;
+      this.success = success;
+    }
+
+    private synchronized void add(SampleResult result) {
+      samplesCount += result.getSampleCount();
+      resultsCount++;
+      timeSum += result.getTime();
+      last = result;
+    }
+
+    private synchronized SampleResult drain() {
+      if (resultsCount == 0) {
+        return null;
+      }
+      long meanTime = timeSum / resultsCount;
+      SampleResult ret = new SampleResult();
+      ret.setSampleLabel(label);
+      ret.setSuccessful(success);
+      ret.setResponseCode(last.getResponseCode());
+      ret.setThreadName(last.getThreadName());
+      ret.setAllThreads(last.getAllThreads());
+      ret.setGroupThreads(last.getGroupThreads());
+      ret.setStampAndTime(last.getEndTime() - meanTime, meanTime);
+      ret.setSampleCount((int) samplesCount);
+      ret.setErrorCount(success ? 0 : (int) samplesCount);
+      samplesCount = 0;
+      resultsCount = 0;
+      timeSum = 0;
+      last = null;
+      return ret;
+    }
+
+  }
+
   protected abstract static class BackendListenerCodeBuilder extends MethodCallBuilder {
 
-    private final Class<? extends BackendListenerClient> backendListenerClass;
+    private final List<Class<? extends BackendListenerClient>> backendListenerClasses;
 
     public BackendListenerCodeBuilder(Class<? extends BackendListenerClient> backendListenerClass,
         List<Method> builderMethods) {
+      this(Collections.singletonList(backendListenerClass), builderMethods);
+    }
+
+    /**
+     * Allows creating a builder for a DSL element which may use different backend listener client
+     * classes depending on its configuration.
+     *
+     * @param backendListenerClasses classes of backend listener clients generated by the DSL
+     *                               element.
+     * @param builderMethods         builder methods of the DSL element.
+     * @since 2.3
+     */
+    public BackendListenerCodeBuilder(
+        List<Class<? extends BackendListenerClient>> backendListenerClasses,
+        List<Method> builderMethods) {
       super(builderMethods);
-      this.backendListenerClass = backendListenerClass;
+      this.backendListenerClasses = backendListenerClasses;
     }
 
     @Override
     public boolean matches(MethodCallContext context) {
-      TestElement testElement = context.getTestElement();
-      return testElement instanceof BackendListener
-          && backendListenerClass.getName().equals(((BackendListener) testElement).getClassname());
+      return findBackendListenerClass(context.getTestElement()) != null;
+    }
+
+    private Class<? extends BackendListenerClient> findBackendListenerClass(
+        TestElement testElement) {
+      if (!(testElement instanceof BackendListener)) {
+        return null;
+      }
+      String className = ((BackendListener) testElement).getClassname();
+      return backendListenerClasses.stream()
+          .filter(c -> c.getName().equals(className))
+          .findAny()
+          .orElse(null);
     }
 
     @Override
@@ -105,7 +542,8 @@ public abstract class DslBackendListener<T extends DslBackendListener<T>> extend
             context.getTestElement());
         Map<String, String> args = ((BackendListener) context.getTestElement()).getArguments()
             .getArgumentsAsMap();
-        Map<String, String> defaultValues = backendListenerClass.newInstance()
+        Map<String, String> defaultValues = findBackendListenerClass(context.getTestElement())
+            .newInstance()
             .getDefaultParameters()
             .getArgumentsAsMap();
         return buildBackendListenerCall(args, defaultValues)
@@ -0,0 +1,247 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
+
+/**
+ * Allows passing only a portion of sample results to a listener, reducing the cost of heavy
+ * listeners (like a {@link JtlWriter} with response data, a {@link ResponseFileSaver} or a backend
+ * listener) in high load test plans.
+ * <p>
+ * Sampling is deterministic and cheap: with a rate of 0.01, exactly 1 out of every 100 sample
+ * results is passed to the listener, using just an atomic counter. Successful and failed sample
+ * results are sampled independently, so you can, for example, keep all errors while only passing a
+ * portion of successful sample results to the listener (check {@link #errorsRate(double)}).
+ * <p>
+ * To allow aggregations to re-weight sampled results, passed sample results are copies of
+ * original ones with sample count (and error count, for failed ones) set to the inverse of the
+ * sampling rate. Eg: with a rate of 0.01, each passed sample result has a sample count of 100,
+ * which is considered by JMeter aggregations and can be saved in JTL files with
+ * {@link JtlWriter#withSampleAndErrorCounts(boolean)}.
+ * <p>
+ * Sampling only applies when the test plan runs in current JVM (eg: not when saved as JMX), and
+ * the listener gets all sample results otherwise.
+ *
+ * @since 2.3
+ */
+public class DslSampledListener extends BaseTestElement implements DslListener {
+
+  protected final DslListener listener;
+  protected double successesRate;
+  protected double errorsRate;
+
+  public DslSampledListener(double rate, DslListener listener) {
+    super(null, null);
+    this.successesRate = checkRate(rate);
+    this.errorsRate = rate;
+    this.listener = listener;
+  }
+
+  private static double checkRate(double rate) {
+    if (rate < 0 || rate > 1) {
+      throw new IllegalArgumentException("Sampling rate must be between 0 and 1, but was " + rate);
+    }
+    return rate;
+  }
+
+  /**
+   * Allows setting a different sampling rate for failed sample results.
+   * <p>
+   * Failed sample results are usually less frequent and more relevant than successful ones, so
+   * you may want to keep all or a bigger portion of them.
+   *
+   * @param rate specifies the portion, between 0 and 1, of failed sample results to pass to the
+   *             listener. By default, the same rate as successful sample results is used.
+   * @return the sampled listener for further configuration or usage.
+   * @see #allErrors()
+   * @since 2.3
+   */
+  public DslSampledListener errorsRate(double rate) {
+    this.errorsRate = checkRate(rate);
+    return this;
+  }
+
+  /**
+   * Same as {@link #errorsRate(double)} but passing all failed sample results to the listener.
+   *
+   * @return the sampled listener for further configuration or usage.
+   * @see #errorsRate(double)
+   * @since 2.3
+   */
+  public DslSampledListener allErrors() {
+    return errorsRate(1);
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (!context.isInProcessExecution()) {
+      return listener.buildTreeUnder(parent, context);
+    }
+    /*
+     listener elements are added under the sampled listener element, so JMeter compiles them
+     (evaluating expressions and notifying them of test start and end). JMeter only notifies sample
+     results to listeners that are siblings of samplers or their ancestors, so sampled listener
+     element takes care of notifying them the sampled results.
+     */
+    HashTree listenerTree = new ListedHashTree();
+    listener.buildTreeUnder(listenerTree, context);
+    List<TestElement> listeners = new ArrayList<>();
+    for (Object element : listenerTree.list()) {
+      if (element instanceof TestElement) {
+        listeners.add((TestElement) element);
+      }
+    }
+    SampledListener sampled = new SampledListener(successesRate, errorsRate, listeners);
+    sampled.setName(listeners.isEmpty() ? "Sampled" : "Sampled " + listeners.get(0).getName());
+    sampled.setProperty(TestElement.TEST_CLASS, SampledListener.class.getName());
+    HashTree ret = parent.add(sampled);
+    ret.add(listenerTree);
+    return ret;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    // this is never used, since buildTreeUnder takes care of building elements
+    return new SampledListener();
+  }
+
+  @Override
+  public void showInGui() {
+    listener.showInGui();
+  }
+
+  /**
+   * Notifies a portion of sample results to the wrapped listeners.
+   * <p>
+   * Use {@link DslSampledListener} instead of directly using this class.
+   *
+   * @since 2.3
+   */
+  public static class SampledListener extends AbstractTestElement implements SampleListener,
+      TestStateListener, NoThreadClone {
+
+    private double successesRate;
+    private double errorsRate;
+    private List<TestElement> listeners;
+    private AtomicLong successes = new AtomicLong();
+    private AtomicLong errors = new AtomicLong();
+
+    public SampledListener() {
+      this(1, 1, new ArrayList<>());
+    }
+
+    public SampledListener(double successesRate, double errorsRate,
+        List<TestElement> listeners) {
+      this.successesRate = successesRate;
+      this.errorsRate = errorsRate;
+      this.listeners = listeners;
+    }
+
+    @Override
+    public Object clone() {
+      SampledListener ret = (SampledListener) super.clone();
+      ret.successesRate = successesRate;
+      ret.errorsRate = errorsRate;
+      ret.listeners = listeners;
+      ret.successes = successes;
+      ret.errors = errors;
+      return ret;
+    }
+
+    /*
+     Wrapped listeners are notified of test start and end by JMeter engine, since they are part of
+     the test plan tree, so only counters need to be reset.
+     */
+    @Override
+    public void testStarted() {
+      successes.set(0);
+      errors.set(0);
+    }
+
+    @Override
+    public void testStarted(String host) {
+      testStarted();
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      SampleResult result = event.getResult();
+      boolean success = result.isSuccessful();
+      double rate = success ? successesRate : errorsRate;
+      if (!isSampled(success ? successes : errors, rate)) {
+        return;
+      }
+      if (rate < 1) {
+        event = new SampleEvent(weighted(result, rate), event.getThreadGroup(),
+            JMeterContextService.getContext().getVariables(), event.isTransactionSampleEvent());
+      }
+      for (TestElement listener : listeners) {
+        if (listener instanceof SampleListener) {
+          ((SampleListener) listener).sampleOccurred(event);
+        }
+      }
+    }
+
+    /*
+     Selects sample results so that the ratio of passed ones is exactly the given rate, evenly
+     distributed in time.
+     */
+    private static boolean isSampled(AtomicLong counter, double rate) {
+      if (rate >= 1) {
+        return true;
+      }
+      long count = counter.getAndIncrement();
+      return (long) (count * rate) != (long) ((count + 1) * rate);
+    }
+
+    private static SampleResult weighted(SampleResult result, double rate) {
+      // a copy is used to avoid affecting other listeners using the same sample result
+      SampleResult ret = (SampleResult) result.clone();
+      int weight = (int) Math.round(result.getSampleCount() / rate);
+      ret.setSampleCount(weight);
+      ret.setErrorCount(result.isSuccessful() ? 0 : weight);
+      return ret;
+    }
+
+    @Override
+    public void sampleStarted(SampleEvent event) {
+      for (TestElement listener : listeners) {
+        if (listener instanceof SampleListener) {
+          ((SampleListener) listener).sampleStarted(event);
+        }
+      }
+    }
+
+    @Override
+    public void sampleStopped(SampleEvent event) {
+      for (TestElement listener : listeners) {
+        if (listener instanceof SampleListener) {
+          ((SampleListener) listener).sampleStopped(event);
+        }
+      }
+    }
+
+    @Override
+    public void testEnded() {
+    }
+
+    @Override
+    public void testEnded(String host) {
+    }
+
+  }
+
+}
@@ -1,8 +1,12 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.ViewResultsFullVisualizer;
@@ -12,6 +16,8 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.SingleGuiClassCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatus;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatusParam;
 
 /**
  * Shows a popup window including live results tree using JMeter built-in View Results Tree
@@ -20,13 +26,21 @@ import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
  * If resultsTreeVisualizer is added at testPlan level it will show information about all samples in
  * the test plan, if added at thread group level it will only show samples for samplers contained
  * within it, if added as a sampler child, then only that sampler samples will be shown.
+ * <p>
+ * Shown sample results are kept in memory in a buffer limited by {@link #resultsLimit(int)}, where
+ * latest results replace oldest ones. To further limit used memory in long executions, use
+ * {@link #showOnly(SampleStatus)} and {@link #labelsMatching(String)} to discard sample results
+ * before they are kept, and {@link #maxBodySize(int)} to truncate requests and responses bodies.
  *
  * @since 0.19
  */
 public class DslViewResultsTree extends DslVisualizer {
 
   private static final String MAX_RESULTS_PROPERTY_NAME = "view.results.tree.max_results";
-  protected int resultsLimit;
+  protected int resultsLimit = 500;
+  protected SampleStatus showOnly;
+  protected String labelsRegex;
+  protected int maxBodySize = -1;
 
   public DslViewResultsTree() {
     super("View Results Tree", ViewResultsFullVisualizer.class);
@@ -49,6 +63,53 @@ public class DslViewResultsTree extends DslVisualizer {
     return this;
   }
 
+  /**
+   * Allows showing only sample results with a given status.
+   * <p>
+   * This is useful, for example, to only review failing requests in long executions, without
+   * keeping in memory successful ones.
+   *
+   * @param status specifies the status of the sample results to show. When set to null it will
+   *               show all sample results. By default, it is set to null.
+   * @return the visualizer for further configuration or usage.
+   * @since 2.3
+   */
+  public DslViewResultsTree showOnly(SampleStatus status) {
+    this.showOnly = status;
+    return this;
+  }
+
+  /**
+   * Allows showing only sample results with labels matching a given regular expression.
+   *
+   * @param regex specifies the regular expression that the whole sample result label has to
+   *              match for it to be shown. When set to null it will show all sample results. By
+   *              default, it is set to null.
+   * @return the visualizer for further configuration or usage.
+   * @since 2.3
+   */
+  public DslViewResultsTree labelsMatching(String regex) {
+    this.labelsRegex = regex;
+    return this;
+  }
+
+  /**
+   * Allows truncating requests and responses bodies of shown sample results.
+   * <p>
+   * Truncation is applied to copies of sample results, so it does not affect other listeners in
+   * the test plan.
+   *
+   * @param maxBodySize specifies the maximum number of bytes (for response bodies) or characters
+   *                    (for request bodies) to keep for each sample result. When set to a negative
+   *                    value bodies are not truncated, which is the default.
+   * @return the visualizer for further configuration or usage.
+   * @since 2.3
+   */
+  public DslViewResultsTree maxBodySize(int maxBodySize) {
+    this.maxBodySize = maxBodySize;
+    return this;
+  }
+
   @Override
   public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
     int prevLimit = JMeterUtils.getPropDefault(MAX_RESULTS_PROPERTY_NAME, 500);
@@ -62,7 +123,124 @@ public class DslViewResultsTree extends DslVisualizer {
 
   @Override
   protected TestElement buildTestElement() {
-    return new ResultCollector();
+    ResultCollector ret = labelsRegex != null || maxBodySize >= 0
+        ? new BoundedResultCollector(labelsRegex, maxBodySize)
+        : new ResultCollector();
+    if (showOnly != null) {
+      ret.setSuccessOnlyLogging(showOnly == SampleStatus.SUCCESS);
+      ret.setErrorLogging(showOnly == SampleStatus.ERROR);
+    }
+    return ret;
+  }
+
+  /**
+   * Result collector that discards sample results not matching a label pattern and truncates
+   * bodies before sample results are kept by the visualizer.
+   * <p>
+   * Labels regex and maximum body size are stored as element properties, so they are kept in
+   * saved JMX files, and are solved once on test start. Configured through
+   * {@link DslViewResultsTree#labelsMatching(String)} and
+   * {@link DslViewResultsTree#maxBodySize(int)}.
+   *
+   * @since 2.3
+   */
+  public static class BoundedResultCollector extends ResultCollector {
+
+    private static final String LABELS_REGEX_PROP = "BoundedResultCollector.labelsRegex";
+    private static final String MAX_BODY_SIZE_PROP = "BoundedResultCollector.maxBodySize";
+
+    // property values are cached on start to avoid solving them for each sample
+    private transient Pattern labelsPattern;
+    private transient int maxBodySize = -1;
+
+    public BoundedResultCollector() {
+    }
+
+    public BoundedResultCollector(String labelsRegex, int maxBodySize) {
+      setLabelsRegex(labelsRegex);
+      setMaxBodySize(maxBodySize);
+    }
+
+    public String getLabelsRegex() {
+      return getPropertyAsString(LABELS_REGEX_PROP, null);
+    }
+
+    public void setLabelsRegex(String labelsRegex) {
+      if (labelsRegex == null) {
+        removeProperty(LABELS_REGEX_PROP);
+      } else {
+        setProperty(LABELS_REGEX_PROP, labelsRegex);
+      }
+    }
+
+    public int getMaxBodySize() {
+      return getPropertyAsInt(MAX_BODY_SIZE_PROP, -1);
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+      setProperty(MAX_BODY_SIZE_PROP, maxBodySize, -1);
+    }
+
+    @Override
+    public void testStarted(String host) {
+      String labelsRegex = getLabelsRegex();
+      labelsPattern = labelsRegex != null && !labelsRegex.isEmpty()
+          ? Pattern.compile(labelsRegex)
+          : null;
+      maxBodySize = getMaxBodySize();
+      super.testStarted(host);
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      SampleResult result = event.getResult();
+      if (labelsPattern != null && !labelsPattern.matcher(result.getSampleLabel()).matches()) {
+        return;
+      }
+      if (maxBodySize >= 0 && exceedsMaxBodySize(result)) {
+        event = new SampleEvent(truncate(result), event.getThreadGroup(), event.getHostname());
+      }
+      super.sampleOccurred(event);
+    }
+
+    private boolean exceedsMaxBodySize(SampleResult result) {
+      if (result.getResponseData().length > maxBodySize
+          || result.getSamplerData() != null && result.getSamplerData().length() > maxBodySize) {
+        return true;
+      }
+      for (SampleResult subResult : result.getSubResults()) {
+        if (exceedsMaxBodySize(subResult)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /*
+     We truncate a shallow copy (keeping sample result type, like HTTPSampleResult, so the
+     visualizer properly displays it) to avoid affecting other listeners using the same sample
+     result.
+     */
+    private SampleResult truncate(SampleResult result) {
+      SampleResult ret = (SampleResult) result.clone();
+      byte[] body = result.getResponseData();
+      if (body.length > maxBodySize) {
+        ret.setResponseData(Arrays.copyOf(body, maxBodySize));
+      }
+      String samplerData = result.getSamplerData();
+      if (samplerData != null && samplerData.length() > maxBodySize) {
+        ret.setSamplerData(samplerData.substring(0, maxBodySize));
+      }
+      SampleResult[] subResults = result.getSubResults();
+      if (subResults.length > 0) {
+        ret.removeSubResults();
+        for (SampleResult subResult : subResults) {
+          ret.addRawSubResult(truncate(subResult));
+        }
+      }
+      return ret;
+    }
+
   }
 
   public static class CodeBuilder extends SingleGuiClassCallBuilder {
@@ -87,7 +265,13 @@ public class DslViewResultsTree extends DslVisualizer {
 
     @Override
     protected MethodCall buildMethodCall(MethodCallContext context) {
-      return buildMethodCall();
+      TestElementParamBuilder paramBuilder = new TestElementParamBuilder(context.getTestElement());
+      return buildMethodCall()
+          .chain("showOnly", SampleStatusParam.fromParamBuilder(paramBuilder))
+          .chain("labelsMatching",
+              paramBuilder.stringParam(BoundedResultCollector.LABELS_REGEX_PROP))
+          .chain("maxBodySize",
+              paramBuilder.intParam(BoundedResultCollector.MAX_BODY_SIZE_PROP, -1));
     }
 
   }
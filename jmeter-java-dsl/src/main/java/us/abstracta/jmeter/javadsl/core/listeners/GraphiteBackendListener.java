@@ -1,12 +1,17 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.visualizers.backend.graphite.GraphiteBackendListenerClient;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.params.DurationParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.IntParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.listeners.graphite.AggregatingGraphiteBackendListenerClient;
 
 /**
  * Test element which publishes all test run metrics to a Graphite instance.
@@ -20,6 +25,9 @@ public class GraphiteBackendListener extends DslBackendListener<GraphiteBackendL
   private static final String PORT_ARG = "graphitePort";
   private static final String PREFIX_ARG = "rootMetricsPrefix";
   private String prefix;
+  private String metricsTemplate;
+  private Integer maxBatchSize;
+  private Duration sendInterval;
 
   public GraphiteBackendListener(String url) {
     super(GraphiteBackendListenerClient.class, url);
@@ -39,6 +47,70 @@ public class GraphiteBackendListener extends DslBackendListener<GraphiteBackendL
     return this;
   }
 
+  /**
+   * Specifies the template used to build the names of sample metrics sent to Graphite.
+   * <p>
+   * This is useful to control the number of series stored in Graphite. For example, when sample
+   * labels contain unbounded values (eg: ids), using a template without {label} aggregates all
+   * samples in the same metrics, and a template without {status} only sends metrics of all
+   * samples, instead of also sending metrics of successful and failed samples.
+   * <p>
+   * When this option is used, metrics are aggregated in the load generator, percentiles are
+   * calculated from log-linear histograms (with less than 1% of relative error), and metrics of
+   * each send interval are sent in batches of pickle protocol messages through a connection kept
+   * open during the whole test plan execution.
+   *
+   * @param template specifies the template for the metrics names, which are appended to the
+   *                 metrics prefix (check {@link #metricsPrefix(String)}). Supports {label}
+   *                 (sample label with unsupported characters replaced by "-"), {status} (a, ok or
+   *                 ko) and {metric} (count, min, max, avg, pct90, etc.) placeholders. {metric}
+   *                 is required. By default, "{label}.{status}.{metric}" is used, which matches
+   *                 JMeter Graphite client metrics names.
+   * @return the Graphite listener for further configuration or usage.
+   * @see #batching(int, Duration)
+   * @since 2.3
+   */
+  public GraphiteBackendListener metricsTemplate(String template) {
+    if (!template.contains("{metric}")) {
+      throw new IllegalArgumentException("Metrics template must contain {metric}, but was "
+          + template);
+    }
+    this.metricsTemplate = template;
+    listenerClass = AggregatingGraphiteBackendListenerClient.class;
+    return this;
+  }
+
+  /**
+   * Specifies to aggregate metrics in the load generator and send them in batches of pickle
+   * protocol messages.
+   * <p>
+   * JMeter Graphite client keeps a window of response times for each sample label and status to
+   * calculate percentiles, and opens a connection to Graphite on each send interval. With this
+   * option, percentiles are calculated from log-linear histograms (with less than 1% of relative
+   * error), and all metrics of each send interval are sent through a connection kept open during
+   * the whole test plan execution, in messages of up to the given number of metrics. This
+   * considerably reduces CPU, memory and network usage for test plans with high throughput or
+   * many sample labels.
+   *
+   * @param maxBatchSize specifies the maximum number of metrics to include in each pickle
+   *                     message. By default, 500.
+   * @param sendInterval specifies the period between metrics aggregation and sending. By
+   *                     default, 1 second.
+   * @return the Graphite listener for further configuration or usage.
+   * @see #metricsTemplate(String)
+   * @since 2.3
+   */
+  public GraphiteBackendListener batching(int maxBatchSize, Duration sendInterval) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Max batch size must be positive, but was "
+          + maxBatchSize);
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.sendInterval = sendInterval;
+    listenerClass = AggregatingGraphiteBackendListenerClient.class;
+    return this;
+  }
+
   @Override
   protected Arguments buildListenerArguments() {
     Arguments ret = new Arguments();
@@ -46,8 +118,21 @@ public class GraphiteBackendListener extends DslBackendListener<GraphiteBackendL
     if (prefix != null) {
       ret.addArgument(PREFIX_ARG, prefix);
     }
-    ret.addArgument("graphiteMetricsSender",
-        "org.apache.jmeter.visualizers.backend.graphite.PickleGraphiteMetricsSender");
+    if (listenerClass == AggregatingGraphiteBackendListenerClient.class) {
+      if (metricsTemplate != null) {
+        ret.addArgument(AggregatingGraphiteBackendListenerClient.METRICS_TEMPLATE_ARG,
+            metricsTemplate);
+      }
+      if (maxBatchSize != null) {
+        ret.addArgument(AggregatingGraphiteBackendListenerClient.MAX_BATCH_SIZE_ARG,
+            String.valueOf(maxBatchSize));
+        ret.addArgument(AggregatingGraphiteBackendListenerClient.SEND_INTERVAL_ARG,
+            String.valueOf(sendInterval.toMillis()));
+      }
+    } else {
+      ret.addArgument("graphiteMetricsSender",
+          "org.apache.jmeter.visualizers.backend.graphite.PickleGraphiteMetricsSender");
+    }
     ret.addArgument("summaryOnly", "false");
     ret.addArgument("useRegexpForSamplersList", "true");
     ret.addArgument("samplersList", ".*");
@@ -72,17 +157,34 @@ public class GraphiteBackendListener extends DslBackendListener<GraphiteBackendL
   public static class CodeBuilder extends BackendListenerCodeBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(GraphiteBackendListenerClient.class, builderMethods);
+      super(Arrays.asList(GraphiteBackendListenerClient.class,
+          AggregatingGraphiteBackendListenerClient.class), builderMethods);
     }
 
     @Override
     protected MethodCall buildBackendListenerCall(Map<String, String> args,
         Map<String, String> defaultValues) {
       String port = args.get(PORT_ARG);
-      return buildMethodCall(
+      MethodCall ret = buildMethodCall(
           new StringParam(
               args.get(HOST_ARG) + (!String.valueOf(PICKLE_PORT).equals(port) ? ":" + port : "")))
           .chain("metricsPrefix", buildArgParam(PREFIX_ARG, args, defaultValues));
+      /*
+       default value is not used for template, since even the default template has to be set in
+       generated code to use aggregating client when no batching is specified.
+       */
+      String metricsTemplate = args.get(AggregatingGraphiteBackendListenerClient
+          .METRICS_TEMPLATE_ARG);
+      if (metricsTemplate != null) {
+        ret.chain("metricsTemplate", new StringParam(metricsTemplate));
+      }
+      String maxBatchSize = args.get(AggregatingGraphiteBackendListenerClient.MAX_BATCH_SIZE_ARG);
+      if (maxBatchSize != null) {
+        ret.chain("batching", new IntParam(Integer.parseInt(maxBatchSize)),
+            new DurationParam(Duration.ofMillis(Long.parseLong(
+                args.get(AggregatingGraphiteBackendListenerClient.SEND_INTERVAL_ARG)))));
+      }
+      return ret;
     }
 
   }
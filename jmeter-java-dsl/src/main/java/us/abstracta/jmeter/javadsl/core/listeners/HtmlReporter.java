@@ -1,11 +1,15 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -18,9 +22,14 @@ import org.apache.jmeter.report.dashboard.ReportGenerator;
 import org.apache.jmeter.reporters.ResultCollector;
 import org.apache.jmeter.reporters.Summariser;
 import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.SimpleDataWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFiles;
 
 /**
  * Generates a nice HTML report at the end of test plan execution.
@@ -29,10 +38,14 @@ import org.apache.jmeter.visualizers.SimpleDataWriter;
  */
 public class HtmlReporter extends BaseListener {
 
+  private static final Logger LOG = LoggerFactory.getLogger(HtmlReporter.class);
+
   protected File reportDirectory;
   protected final ApdexThresholds apdexThresholds = new ApdexThresholds();
   protected final Map<String, ApdexThresholds> labelApdexThresholds = new HashMap<>();
   private Duration granularity;
+  private boolean incremental;
+  private int generationThreads = 1;
 
   public HtmlReporter(String reportsDirectoryPath, String name) {
     super("Simple Data Writer", SimpleDataWriter.class);
@@ -123,6 +136,157 @@ public class HtmlReporter extends BaseListener {
     return this;
   }
 
+  /**
+   * Allows aggregating report data while the test plan runs, instead of doing it from the results
+   * file once the test plan ends.
+   * <p>
+   * By default, JMeter report generation reads the entire results file after the test plan ends,
+   * which for long-running or high throughput test plans may take several minutes and a lot of
+   * memory. When incremental generation is enabled, sample results are fed into report
+   * aggregations (in a background thread) as they occur, and at the end of test plan execution
+   * only the HTML rendering of already aggregated data is pending, which takes just a few
+   * seconds.
+   * <p>
+   * Sample results are still saved to the report results file, and if there is any problem with
+   * incremental aggregation, the report is generated from such file as usual.
+   * <p>
+   * The HTML report is only rendered once, when the test plan ends. No intermediate reports are
+   * generated while the test plan runs, since JMeter report aggregations only provide their
+   * results once they stop consuming samples. Use a real-time listener (eg: InfluxDB, Graphite or
+   * web dashboard) to check metrics while the test plan runs.
+   *
+   * @param enabled specifies to enable or disable incremental report generation. By default, it
+   *                is disabled.
+   * @return the HtmlReporter for further configuration and usage.
+   * @since 2.3
+   */
+  public HtmlReporter incremental(boolean enabled) {
+    this.incremental = enabled;
+    return this;
+  }
+
+  /**
+   * Allows using several threads to generate the report from the results file.
+   * <p>
+   * JMeter report generation processes the results file in a single thread, which for big results
+   * files (eg: several GBs) may take even longer than the test plan execution. When more than one
+   * thread is specified, the results file is split in chunks which are parsed in parallel, and
+   * report graphs and statistics are distributed among threads, generating the same report in a
+   * fraction of the time.
+   * <p>
+   * Parallel generation requires results to be saved in CSV format with timestamps in
+   * milliseconds (JMeter defaults). If that is not the case, the report is generated as usual.
+   *
+   * @param threads specifies the number of threads to use. When not specified, 1 is used, which
+   *                uses JMeter report generation as is. You may use
+   *                {@code Runtime.getRuntime().availableProcessors()} to use all available
+   *                cores.
+   * @return the HtmlReporter for further configuration and usage.
+   * @since 2.3
+   */
+  public HtmlReporter generationThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Report generation threads must be at least 1, but was "
+          + threads);
+    }
+    this.generationThreads = threads;
+    return this;
+  }
+
+  /**
+   * Generates the HTML report from existing JTL files, instead of doing it at the end of a test
+   * plan execution.
+   * <p>
+   * This is handy to generate reports from JTL files generated by {@link JtlWriter} (eg: in
+   * another machine or in a previous execution). Compressed and rotated files generated by
+   * {@link JtlWriter#compressed(boolean)}, {@link JtlWriter#rotateOnSize(long)} and
+   * {@link JtlWriter#rotateOnTime(Duration)} are transparently read.
+   * <p>
+   * Take into consideration that JTL files must be in CSV format and include the fields required
+   * by JMeter report generator (like the ones included by default by {@link JtlWriter}).
+   *
+   * @param jtlFiles specifies the JTL files to generate the report from. These are the paths as
+   *                 specified in {@link JtlWriter}, compressed and rotated files are automatically
+   *                 found.
+   * @throws IOException if there is some problem reading JTL files or generating the report.
+   * @see JtlFiles#resolve(Path)
+   * @since 2.3
+   */
+  public void generateFrom(Path... jtlFiles) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (Path jtlFile : jtlFiles) {
+      files.addAll(JtlFiles.resolve(jtlFile));
+    }
+    new JmeterEnvironment();
+    if (!reportDirectory.exists()) {
+      reportDirectory.mkdirs();
+    }
+    File resultsFile = new File(reportDirectory, "report.jtl");
+    JtlFiles.mergeCsv(files, resultsFile.toPath());
+    try {
+      generateReport(resultsFile);
+    } catch (GenerationException | ConfigurationException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private void generateReport(File resultsFile)
+      throws GenerationException, ConfigurationException {
+    configureReportGeneration(resultsFile);
+    if (generationThreads > 1 && generateInParallel(resultsFile)) {
+      return;
+    }
+    new ReportGenerator(resultsFile.getPath(), null).generate();
+  }
+
+  private boolean generateInParallel(File resultsFile)
+      throws GenerationException, ConfigurationException {
+    try {
+      if (new ParallelReportGenerator(generationThreads, labelApdexThresholds)
+          .generate(resultsFile)) {
+        return true;
+      }
+      LOG.info("Results file format not supported by parallel report generation, generating "
+          + "report with a single thread.");
+      return false;
+    } catch (IOException e) {
+      throw new GenerationException("Problem reading results file " + resultsFile, e);
+    }
+  }
+
+  private void configureReportGeneration(File resultsFile) {
+    configureApdexThresholds();
+    configureGranularity();
+    JMeterUtils.setProperty(JMeter.JMETER_REPORT_OUTPUT_DIR_PROPERTY,
+        new File(resultsFile.getParent()).getAbsolutePath());
+  }
+
+  private void configureApdexThresholds() {
+    if (apdexThresholds.satisfied != null) {
+      JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+          + ".apdex_satisfied_threshold", "" + apdexThresholds.satisfied.toMillis());
+    }
+    if (apdexThresholds.tolerated != null) {
+      JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+          + ".apdex_tolerated_threshold", "" + apdexThresholds.tolerated.toMillis());
+    }
+    String transactionsApdex = labelApdexThresholds.entrySet().stream()
+        .map(e -> e.getKey() + ":" + e.getValue().satisfied.toMillis() + "|"
+            + e.getValue().tolerated.toMillis())
+        .collect(Collectors.joining(";"));
+    if (!transactionsApdex.isEmpty()) {
+      JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+          + ".apdex_per_transaction", "" + transactionsApdex);
+    }
+  }
+
+  private void configureGranularity() {
+    if (granularity != null) {
+      JMeterUtils.setProperty("jmeter.reportgenerator.overall_granularity",
+          String.valueOf(granularity.toMillis()));
+    }
+  }
+
   @Override
   public TestElement buildTestElement() {
     if (!reportDirectory.exists()) {
@@ -132,6 +296,7 @@ public class HtmlReporter extends BaseListener {
     HtmlReportSummariser reporter = new HtmlReportSummariser(resultsFile);
     ResultCollector logger = new AutoFlushingResultCollector(reporter);
     logger.setFilename(resultsFile.getPath());
+    reporter.saveConfig = logger.getSaveConfig();
     return logger;
   }
 
@@ -139,6 +304,8 @@ public class HtmlReporter extends BaseListener {
 
     private final File resultsFile;
     private final AtomicInteger hostsCount = new AtomicInteger(0);
+    private SampleSaveConfiguration saveConfig;
+    private volatile IncrementalReportGenerator incrementalGenerator;
 
     private HtmlReportSummariser(File resultsFile) {
       this.resultsFile = resultsFile;
@@ -147,12 +314,29 @@ public class HtmlReporter extends BaseListener {
     @Override
     public void testStarted(String host) {
       super.testStarted(host);
-      hostsCount.incrementAndGet();
+      if (hostsCount.getAndIncrement() == 0 && incremental) {
+        startIncrementalGeneration();
+      }
+    }
+
+    private void startIncrementalGeneration() {
+      configureReportGeneration(resultsFile);
+      try {
+        incrementalGenerator = new IncrementalReportGenerator(resultsFile, saveConfig,
+            labelApdexThresholds);
+      } catch (GenerationException | ConfigurationException | IOException
+               | RuntimeException e) {
+        LOG.warn("Could not start incremental report generation. Report will be generated from "
+            + "results file at the end of the test plan.", e);
+      }
     }
 
     @Override
     public void sampleOccurred(SampleEvent e) {
-      // same as previous method
+      IncrementalReportGenerator generator = incrementalGenerator;
+      if (generator != null) {
+        generator.add(e);
+      }
     }
 
     @Override
@@ -160,40 +344,28 @@ public class HtmlReporter extends BaseListener {
       // verify that all remote hosts have ended before generating report
       if (hostsCount.decrementAndGet() <= 0) {
         try {
-          configureApdexThresholds();
-          configureGranularity();
-          JMeterUtils.setProperty(JMeter.JMETER_REPORT_OUTPUT_DIR_PROPERTY,
-              new File(resultsFile.getParent()).getAbsolutePath());
-          new ReportGenerator(resultsFile.getPath(), null).generate();
+          if (!finishIncrementalGeneration()) {
+            generateReport(resultsFile);
+          }
         } catch (GenerationException | ConfigurationException e) {
           throw new RuntimeException(e);
         }
       }
     }
 
-    private void configureApdexThresholds() {
-      if (apdexThresholds.satisfied != null) {
-        JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
-            + ".apdex_satisfied_threshold", "" + apdexThresholds.satisfied.toMillis());
-      }
-      if (apdexThresholds.tolerated != null) {
-        JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
-            + ".apdex_tolerated_threshold", "" + apdexThresholds.tolerated.toMillis());
+    private boolean finishIncrementalGeneration() {
+      IncrementalReportGenerator generator = incrementalGenerator;
+      if (generator == null) {
+        return false;
       }
-      String transactionsApdex = labelApdexThresholds.entrySet().stream()
-          .map(e -> e.getKey() + ":" + e.getValue().satisfied.toMillis() + "|"
-              + e.getValue().tolerated.toMillis())
-          .collect(Collectors.joining(";"));
-      if (!transactionsApdex.isEmpty()) {
-        JMeterUtils.setProperty(ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
-            + ".apdex_per_transaction", "" + transactionsApdex);
-      }
-    }
-
-    private void configureGranularity() {
-      if (granularity != null) {
-        JMeterUtils.setProperty("jmeter.reportgenerator.overall_granularity",
-            String.valueOf(granularity.toMillis()));
+      incrementalGenerator = null;
+      try {
+        generator.finish();
+        return true;
+      } catch (GenerationException | RuntimeException e) {
+        LOG.warn("Problem with incremental report generation. Generating report from results "
+            + "file.", e);
+        return false;
       }
     }
 
@@ -0,0 +1,193 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import org.apache.jmeter.report.config.ConfigurationException;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.dashboard.GenerationException;
+import org.apache.jmeter.report.processor.NormalizerSampleConsumer;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import us.abstracta.jmeter.javadsl.core.listeners.HtmlReporter.ApdexThresholds;
+import us.abstracta.jmeter.javadsl.core.util.RingBuffer;
+
+/*
+ Feeds the same sample consumers used by JMeter ReportGenerator with sample results as they occur
+ (in a background thread, to avoid impacting sampler threads), instead of reading them from the
+ results file once the test plan ends. This way, when the test plan ends only the export of
+ already aggregated data is pending.
+ */
+class IncrementalReportGenerator {
+
+  private static final int BUFFER_SIZE = 65536;
+  private static final int BATCH_SIZE = 1024;
+  private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+  private final File resultsFile;
+  private final SampleMetadata metadata;
+  private final ReportPipeline pipeline;
+  private final NormalizerSampleConsumer normalizer;
+  private final List<Function<SampleEvent, Object>> columns;
+  private final RingBuffer<SampleEvent> buffer = new RingBuffer<>(BUFFER_SIZE);
+  private final Thread consumerThread;
+  private volatile boolean running = true;
+  private volatile RuntimeException failure;
+  private long row;
+
+  IncrementalReportGenerator(File resultsFile, SampleSaveConfiguration saveConfig,
+      Map<String, ApdexThresholds> labelApdexThresholds)
+      throws ConfigurationException, GenerationException, IOException {
+    this.resultsFile = resultsFile;
+    metadata = new SampleMetadata(saveConfig);
+    columns = buildColumns(metadata, saveConfig);
+    pipeline = new ReportPipeline(metadata, labelApdexThresholds);
+    pipeline.start();
+    normalizer = pipeline.buildNormalizer(pipeline::consume);
+    consumerThread = new Thread(this::consumeSamples, "html-reporter " + resultsFile.getParent());
+    consumerThread.setDaemon(true);
+    consumerThread.start();
+  }
+
+  /*
+   Solves each column value with same fields that CSVSaveService would write in the results file,
+   avoiding formatting sample results to CSV and parsing them back, and modifying them (with
+   setSaveConfig) while they may still be used by other listeners.
+   */
+  private static List<Function<SampleEvent, Object>> buildColumns(SampleMetadata metadata,
+      SampleSaveConfiguration saveConfig) {
+    List<Function<SampleEvent, Object>> ret = new ArrayList<>(metadata.getColumnCount());
+    for (int i = 0; i < metadata.getColumnCount(); i++) {
+      ret.add(buildColumn(metadata.getColumnName(i), saveConfig));
+    }
+    return ret;
+  }
+
+  private static Function<SampleEvent, Object> buildColumn(String name,
+      SampleSaveConfiguration saveConfig) {
+    switch (name) {
+      case "timeStamp":
+        if (saveConfig.printMilliseconds()) {
+          return e -> e.getResult().getTimeStamp();
+        }
+        // only used by the consumer thread, so there is no need for a thread safe formatter
+        DateFormat dateFormat = saveConfig.strictDateFormatter();
+        return e -> dateFormat.format(new Date(e.getResult().getTimeStamp()));
+      case "elapsed":
+        return e -> e.getResult().getTime();
+      case "label":
+        return e -> e.getResult().getSampleLabel();
+      case "responseCode":
+        return e -> e.getResult().getResponseCode();
+      case "responseMessage":
+        return e -> e.getResult().getResponseMessage();
+      case "threadName":
+        return e -> e.getResult().getThreadName();
+      case "dataType":
+        return e -> e.getResult().getDataType();
+      case "success":
+        return e -> e.getResult().isSuccessful();
+      case "failureMessage":
+        return e -> e.getResult().getFirstAssertionFailureMessage();
+      case "bytes":
+        return e -> e.getResult().getBytesAsLong();
+      case "sentBytes":
+        return e -> e.getResult().getSentBytes();
+      case "grpThreads":
+        return e -> e.getResult().getGroupThreads();
+      case "allThreads":
+        return e -> e.getResult().getAllThreads();
+      case "URL":
+        return e -> e.getResult().getUrlAsString();
+      case "Filename":
+        return e -> e.getResult().getResultFileName();
+      case "Latency":
+        return e -> e.getResult().getLatency();
+      case "Encoding":
+        return e -> e.getResult().getDataEncodingWithDefault();
+      case "SampleCount":
+        return e -> e.getResult().getSampleCount();
+      case "ErrorCount":
+        return e -> e.getResult().getErrorCount();
+      case "Hostname":
+        return SampleEvent::getHostname;
+      case "IdleTime":
+        return e -> e.getResult().getIdleTime();
+      case "Connect":
+        return e -> e.getResult().getConnectTime();
+      default:
+        int varIndex = findSampleVariable(name);
+        return e -> e.getVarValue(varIndex);
+    }
+  }
+
+  private static int findSampleVariable(String name) {
+    for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+      if (name.equals(SampleEvent.getVarName(i))) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Unknown sample results column " + name);
+  }
+
+  void add(SampleEvent event) {
+    while (running && !buffer.offer(event)) {
+      // avoid blocking sampler threads forever if consumer thread is no longer running
+      if (!consumerThread.isAlive()) {
+        return;
+      }
+      LockSupport.parkNanos(WAIT_NANOS);
+    }
+  }
+
+  private void consumeSamples() {
+    try {
+      while (running || !buffer.isEmpty()) {
+        if (buffer.drainTo(this::consumeSample, BATCH_SIZE) == 0) {
+          LockSupport.parkNanos(WAIT_NANOS);
+        }
+      }
+    } catch (RuntimeException e) {
+      failure = e;
+      running = false;
+    }
+  }
+
+  private void consumeSample(SampleEvent event) {
+    String[] data = new String[columns.size()];
+    for (int i = 0; i < data.length; i++) {
+      Object value = columns.get(i).apply(event);
+      data[i] = value != null ? value.toString() : "";
+    }
+    normalizer.consume(new Sample(row++, metadata, data), 0);
+  }
+
+  /*
+   Waits for all pending samples to be aggregated and generates the report in the results file
+   directory.
+   */
+  void finish() throws GenerationException {
+    running = false;
+    try {
+      consumerThread.join();
+      if (failure != null) {
+        throw new GenerationException("Problem while aggregating samples for report", failure);
+      }
+      pipeline.export(resultsFile);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GenerationException("Interrupted while generating report", e);
+    } finally {
+      pipeline.close();
+    }
+  }
+
+}
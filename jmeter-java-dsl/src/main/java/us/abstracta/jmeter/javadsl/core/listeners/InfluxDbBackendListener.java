@@ -4,14 +4,19 @@ import static java.util.stream.Collectors.joining;
 import static java.util.stream.IntStream.range;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.visualizers.backend.influxdb.InfluxdbBackendListenerClient;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.params.DurationParam;
+import us.abstracta.jmeter.javadsl.codegeneration.params.IntParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.listeners.influxdb.BatchingInfluxDbBackendListenerClient;
 
 /**
  * Test element which publishes all test run metrics to an InfluxDB instance.
@@ -36,6 +41,9 @@ public class InfluxDbBackendListener extends DslBackendListener<InfluxDbBackendL
   protected String measurement;
   protected String applicationName;
   protected String percentiles;
+  protected Integer maxBatchSize;
+  protected Duration flushInterval;
+  protected boolean gzip;
 
   public InfluxDbBackendListener(String url) {
     super(InfluxdbBackendListenerClient.class, url);
@@ -144,6 +152,57 @@ public class InfluxDbBackendListener extends DslBackendListener<InfluxDbBackendL
     return this;
   }
 
+  /**
+   * Specifies to buffer metrics lines and send them to InfluxDB in batches.
+   * <p>
+   * By default, JMeter InfluxDB client sends one request for each send interval (5 seconds by
+   * default, configurable with backend_influxdb.send_interval JMeter property), which, with many
+   * sample labels, may require considerable network and InfluxDB resources. With this option,
+   * lines are sent only when the batch reaches the given number of lines or when the given time
+   * has passed since last sent batch. Pending lines are always sent when the test plan ends.
+   * <p>
+   * Additionally, when this option is used, percentiles are calculated from log-linear histograms
+   * (with less than 1% of relative error), instead of keeping response times of each sample label
+   * and status. This considerably reduces CPU and memory usage for test plans with high
+   * throughput.
+   *
+   * @param maxBatchSize  specifies the maximum number of lines to send in each request.
+   * @param flushInterval specifies the maximum time that lines are kept in memory before being
+   *                      sent.
+   * @return the listener for further configuration or usage.
+   * @see #gzip()
+   * @since 2.3
+   */
+  public InfluxDbBackendListener batching(int maxBatchSize, Duration flushInterval) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Max batch size must be positive, but was "
+          + maxBatchSize);
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.flushInterval = flushInterval;
+    listenerClass = BatchingInfluxDbBackendListenerClient.class;
+    return this;
+  }
+
+  /**
+   * Specifies to compress requests sent to InfluxDB with gzip.
+   * <p>
+   * Line protocol is highly repetitive (measurement, tags and field names are repeated in every
+   * line), so compression usually reduces sent bytes by an order of magnitude.
+   * <p>
+   * This option uses same client as {@link #batching(int, Duration)}, so percentiles are also
+   * calculated from histograms when it is enabled.
+   *
+   * @return the listener for further configuration or usage.
+   * @see #batching(int, Duration)
+   * @since 2.3
+   */
+  public InfluxDbBackendListener gzip() {
+    gzip = true;
+    listenerClass = BatchingInfluxDbBackendListenerClient.class;
+    return this;
+  }
+
   @Override
   protected Arguments buildListenerArguments() {
     Arguments ret = new Arguments();
@@ -165,6 +224,16 @@ public class InfluxDbBackendListener extends DslBackendListener<InfluxDbBackendL
     if (percentiles != null) {
       ret.addArgument(PCT_ARG, percentiles);
     }
+    if (maxBatchSize != null) {
+      ret.addArgument(BatchingInfluxDbBackendListenerClient.MAX_BATCH_SIZE_ARG,
+          String.valueOf(maxBatchSize));
+      ret.addArgument(BatchingInfluxDbBackendListenerClient.FLUSH_INTERVAL_ARG,
+          String.valueOf(flushInterval.toMillis()));
+    }
+    if (gzip) {
+      ret.addArgument(BatchingInfluxDbBackendListenerClient.COMPRESSION_ARG,
+          BatchingInfluxDbBackendListenerClient.GZIP_COMPRESSION);
+    }
     tags.forEach((name, value) -> ret.addArgument(TAG_ARGS_PREFIX + name, value));
     return ret;
   }
@@ -172,7 +241,8 @@ public class InfluxDbBackendListener extends DslBackendListener<InfluxDbBackendL
   public static class CodeBuilder extends BackendListenerCodeBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(InfluxdbBackendListenerClient.class, builderMethods);
+      super(Arrays.asList(InfluxdbBackendListenerClient.class,
+          BatchingInfluxDbBackendListenerClient.class), builderMethods);
     }
 
     protected MethodCall buildBackendListenerCall(Map<String, String> args,
@@ -189,6 +259,16 @@ public class InfluxDbBackendListener extends DslBackendListener<InfluxDbBackendL
           .forEach(
               e -> ret.chain("tag", new StringParam(e.getKey().substring(TAG_ARGS_PREFIX.length())),
                   new StringParam(e.getValue())));
+      String maxBatchSize = args.get(BatchingInfluxDbBackendListenerClient.MAX_BATCH_SIZE_ARG);
+      if (maxBatchSize != null) {
+        ret.chain("batching", new IntParam(Integer.parseInt(maxBatchSize)),
+            new DurationParam(Duration.ofMillis(Long.parseLong(
+                args.get(BatchingInfluxDbBackendListenerClient.FLUSH_INTERVAL_ARG)))));
+      }
+      if (BatchingInfluxDbBackendListenerClient.GZIP_COMPRESSION.equals(
+          args.get(BatchingInfluxDbBackendListenerClient.COMPRESSION_ARG))) {
+        ret.chain("gzip");
+      }
       return ret;
     }
 
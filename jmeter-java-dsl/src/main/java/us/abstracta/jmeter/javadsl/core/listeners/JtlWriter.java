@@ -1,7 +1,12 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -10,12 +15,18 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.samplers.SampleSaveConfiguration;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.SimpleDataWriter;
+import org.apache.jorphan.collections.HashTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
@@ -23,6 +34,13 @@ import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlOutput;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlReader;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFileOutput;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFiles;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlOutput;
+import us.abstracta.jmeter.javadsl.core.util.AsyncDispatcher;
 
 /**
  * Allows to generate a result log file (JTL) with data for each sample for a test plan, thread
@@ -47,6 +65,7 @@ public class JtlWriter extends BaseListener {
   protected String jtlFile;
   protected SampleStatus logOnly;
   protected boolean saveAsXml;
+  protected boolean saveAsBinary;
   protected boolean saveElapsedTime = true;
   protected boolean saveResponseMessage = true;
   protected boolean saveSuccess = true;
@@ -75,6 +94,12 @@ public class JtlWriter extends BaseListener {
   protected boolean saveSamplerData;
   protected boolean saveSubResults = true;
   protected List<String> sampleVariables = Collections.emptyList();
+  protected boolean compressed;
+  protected long rotationFileBytes;
+  protected Duration rotationFileDuration;
+  protected int asyncBufferSize;
+  protected BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+  protected final AtomicLong droppedRecords = new AtomicLong();
 
   public JtlWriter(String directoryPath, String fileName) {
     super("Simple Data Writer", SimpleDataWriter.class);
@@ -191,6 +216,32 @@ public class JtlWriter extends BaseListener {
     return this;
   }
 
+  /**
+   * Allows setting to store sample results in a compact binary columnar format instead of CSV or
+   * XML.
+   * <p>
+   * This format avoids most of the cost of formatting each sample result field as text, generates
+   * smaller files, and can be read much faster than CSV. Use {@link BinaryJtlReader} to read
+   * generated files, calculate statistics from them, or convert them to CSV for usage in other
+   * JMeter tools.
+   * <p>
+   * Binary JTL files always contain the fields included by default in CSV JTL files, so fields
+   * settings are ignored, as well as {@link #compressed(boolean)}, {@link #rotateOnSize(long)} and
+   * {@link #rotateOnTime(Duration)}.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and default CSV format is used otherwise.
+   *
+   * @param enabled specifies whether to use binary format or not. By default, it is set to false.
+   * @return the JtlWriter for further configuration or usage.
+   * @see BinaryJtlOutput
+   * @since 2.3
+   */
+  public JtlWriter saveAsBinary(boolean enabled) {
+    this.saveAsBinary = enabled;
+    return this;
+  }
+
   /**
    * Allows setting whether or not to include elapsed time (milliseconds spent in each sample) in
    * generated JTL.
@@ -650,9 +701,178 @@ public class JtlWriter extends BaseListener {
     return this;
   }
 
+  /**
+   * Allows compressing the generated JTL file with gzip.
+   * <p>
+   * JTL files are usually highly compressible, so this is handy for long-running tests that would
+   * otherwise generate huge files. When enabled, {@code .gz} is appended to the file name. You can
+   * use {@link JtlFiles} to read generated files, or {@link HtmlReporter#generateFrom(Path...)} to
+   * generate an HTML report from them.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and it is ignored otherwise.
+   *
+   * @param enabled specifies whether to compress the JTL file or not. By default, it is set to
+   *                false.
+   * @return the JtlWriter for further configuration or usage.
+   * @since 2.3
+   */
+  public JtlWriter compressed(boolean enabled) {
+    this.compressed = enabled;
+    return this;
+  }
+
+  /**
+   * Allows splitting JTL records into numbered files, creating a new file each time the current
+   * one reaches the given size.
+   * <p>
+   * Files are named inserting the file number before the file extension (eg: {@code results.1.jtl},
+   * {@code results.2.jtl}, etc.). Each file includes the header line, so they can be processed
+   * independently. You can use {@link JtlFiles#resolve(Path)} to find all the files of a JTL.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and it is ignored otherwise.
+   *
+   * @param maxFileBytes specifies the size in bytes (after compression, if enabled) after which a
+   *                     new file is created.
+   * @return the JtlWriter for further configuration or usage.
+   * @see #rotateOnTime(Duration)
+   * @since 2.3
+   */
+  public JtlWriter rotateOnSize(long maxFileBytes) {
+    this.rotationFileBytes = maxFileBytes;
+    return this;
+  }
+
+  /**
+   * Same as {@link #rotateOnSize(long)} but creating a new file each time the given period
+   * elapses.
+   * <p>
+   * This can be combined with {@link #rotateOnSize(long)}, in which case a new file is created
+   * when any of the conditions is met.
+   *
+   * @param maxFileDuration specifies the period after which a new file is created.
+   * @return the JtlWriter for further configuration or usage.
+   * @see #rotateOnSize(long)
+   * @since 2.3
+   */
+  public JtlWriter rotateOnTime(Duration maxFileDuration) {
+    this.rotationFileDuration = maxFileDuration;
+    return this;
+  }
+
+  /**
+   * Allows writing the JTL file from a separate thread, avoiding sampler threads to spend time in
+   * records formatting and to be affected by disk stalls.
+   * <p>
+   * When enabled, sampler threads just publish sample results into a bounded lock-free buffer, and
+   * a single writer thread takes them in batches and writes them to the file. When the buffer is
+   * full, the given backpressure policy is applied.
+   * <p>
+   * Take into consideration that pending sample results are kept in memory with their response
+   * data, so memory used by the buffer, when full, is around bufferSize times the average
+   * response size (eg: 8MB for 8192 sample results with 1KB responses). Keep the buffer small
+   * when responses are big.
+   * <p>
+   * This setting only applies when the test plan runs in current JVM (eg: not when saved as JMX),
+   * and it is ignored otherwise.
+   *
+   * @param bufferSize specifies the maximum number of sample results to keep in memory pending to
+   *                   be written. This is rounded up to the next power of two.
+   * @param backpressure specifies what to do with sample results when the buffer is full.
+   * @return the JtlWriter for further configuration or usage.
+   * @see BackpressurePolicy
+   * @see #droppedRecordsCount()
+   * @since 2.3
+   */
+  public JtlWriter async(int bufferSize, BackpressurePolicy backpressure) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Async buffer size must be positive, but was "
+          + bufferSize);
+    }
+    this.asyncBufferSize = bufferSize;
+    this.backpressure = backpressure;
+    return this;
+  }
+
+  /**
+   * Same as {@link #async(int, BackpressurePolicy)} but using a buffer of 8192 sample results and
+   * blocking sampler threads when the buffer is full.
+   *
+   * @return the JtlWriter for further configuration or usage.
+   * @see #async(int, BackpressurePolicy)
+   * @since 2.3
+   */
+  public JtlWriter async() {
+    return async(AsyncResultCollector.DEFAULT_BUFFER_SIZE, BackpressurePolicy.BLOCK);
+  }
+
+  /**
+   * Specifies what to do with sample results when async writer buffer is full.
+   *
+   * @since 2.3
+   */
+  public enum BackpressurePolicy {
+    /**
+     * Sampler threads wait until there is space in the buffer. No sample result is lost, but test
+     * plan throughput may be affected by disk speed.
+     */
+    BLOCK,
+    /**
+     * Sample results that don't fit in the buffer are discarded.
+     */
+    DROP,
+    /**
+     * When the buffer is more than half full, only 1 out of every 10 successful sample results is
+     * kept, and sampler threads wait when the buffer is full. Failed sample results are always
+     * kept.
+     */
+    SAMPLE
+  }
+
+  /**
+   * Gets the number of sample results that were not written in the last test plan execution due
+   * to the async writer backpressure policy.
+   *
+   * @return the number of sample results discarded by the async writer.
+   * @see #async(int, BackpressurePolicy)
+   * @since 2.3
+   */
+  public long droppedRecordsCount() {
+    return droppedRecords.get();
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    boolean customTextOutput = compressed || rotationFileBytes > 0
+        || rotationFileDuration != null;
+    if (!context.isInProcessExecution()
+        || !saveAsBinary && !customTextOutput && asyncBufferSize <= 0) {
+      return super.buildTreeUnder(parent, context);
+    }
+    JtlOutput output = null;
+    if (saveAsBinary) {
+      output = new BinaryJtlOutput(Paths.get(jtlFile));
+    } else if (customTextOutput) {
+      output = new JtlFileOutput(Paths.get(jtlFile), compressed, rotationFileBytes,
+          rotationFileDuration);
+    }
+    ResultCollector collector = configureCollector(asyncBufferSize > 0
+        ? new AsyncResultCollector(asyncBufferSize, backpressure, droppedRecords, output)
+        : new FileResultCollector(output));
+    if (output != null) {
+      // avoid JMeter writing to the file, since it is handled by the custom output
+      collector.setFilename("");
+    }
+    return parent.add(configureTestElement(collector, name, guiClass));
+  }
+
   @Override
   public TestElement buildTestElement() {
-    ResultCollector logger = new ResultCollector();
+    return configureCollector(new ResultCollector());
+  }
+
+  private ResultCollector configureCollector(ResultCollector logger) {
     logger.setFilename(jtlFile);
     if (logOnly != null) {
       logger.setSuccessOnlyLogging(logOnly == SampleStatus.SUCCESS);
@@ -693,6 +913,205 @@ public class JtlWriter extends BaseListener {
     return logger;
   }
 
+  /**
+   * Result collector that writes sample results to a {@link JtlOutput}, when one is provided, or
+   * uses default JMeter file output otherwise.
+   * <p>
+   * The output is opened when the first host starts and closed when the last one ends, so it is
+   * only opened and closed once. Configured through {@link JtlWriter#compressed(boolean)},
+   * {@link JtlWriter#rotateOnSize(long)}, {@link JtlWriter#rotateOnTime(Duration)} and
+   * {@link JtlWriter#saveAsBinary(boolean)}.
+   *
+   * @since 2.3
+   */
+  public static class FileResultCollector extends ResultCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileResultCollector.class);
+
+    private JtlOutput output;
+    private transient int runningHosts;
+
+    public FileResultCollector() {
+    }
+
+    public FileResultCollector(JtlOutput output) {
+      this.output = output;
+    }
+
+    @Override
+    public Object clone() {
+      FileResultCollector ret = (FileResultCollector) super.clone();
+      ret.output = output;
+      return ret;
+    }
+
+    protected String getOutputName() {
+      return output != null ? output.getPath().toString() : getFilename();
+    }
+
+    @Override
+    public void testStarted(String host) {
+      super.testStarted(host);
+      synchronized (this) {
+        if (output != null && runningHosts++ == 0) {
+          try {
+            output.open(getSaveConfig());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      super.sampleOccurred(event);
+      if (output == null || !isSampleWanted(event.getResult().isSuccessful())) {
+        return;
+      }
+      try {
+        output.write(event);
+      } catch (IOException e) {
+        LOG.error("Problem writing sample result to {}", getOutputName(), e);
+      }
+    }
+
+    @Override
+    public void testEnded(String host) {
+      synchronized (this) {
+        if (output != null && --runningHosts == 0) {
+          try {
+            output.close();
+          } catch (IOException e) {
+            LOG.error("Problem closing {}", getOutputName(), e);
+          }
+        }
+      }
+      super.testEnded(host);
+    }
+
+  }
+
+  /**
+   * Result collector that writes sample results to file from a separate thread.
+   * <p>
+   * Sampler threads only copy each sample result into a bounded buffer, and a single writer thread
+   * formats and writes them. Configured through {@link JtlWriter#async(int, BackpressurePolicy)}.
+   *
+   * @since 2.3
+   */
+  public static class AsyncResultCollector extends FileResultCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncResultCollector.class);
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int BATCH_SIZE = 1024;
+
+    private int bufferSize;
+    private BackpressurePolicy backpressure;
+    private AtomicLong droppedRecords;
+    private transient AsyncDispatcher<SampleEvent> dispatcher;
+
+    public AsyncResultCollector() {
+      this(DEFAULT_BUFFER_SIZE, BackpressurePolicy.BLOCK, new AtomicLong(), null);
+    }
+
+    public AsyncResultCollector(int bufferSize, BackpressurePolicy backpressure,
+        AtomicLong droppedRecords, JtlOutput output) {
+      super(output);
+      this.bufferSize = bufferSize;
+      this.backpressure = backpressure;
+      this.droppedRecords = droppedRecords;
+    }
+
+    @Override
+    public Object clone() {
+      AsyncResultCollector ret = (AsyncResultCollector) super.clone();
+      ret.bufferSize = bufferSize;
+      ret.backpressure = backpressure;
+      ret.droppedRecords = droppedRecords;
+      return ret;
+    }
+
+    @Override
+    public void testStarted(String host) {
+      super.testStarted(host);
+      droppedRecords.set(0);
+      dispatcher = new AsyncDispatcher<>("jtl-writer " + getOutputName(), bufferSize, BATCH_SIZE,
+          backpressure, droppedRecords, this::writeRecord);
+      dispatcher.start();
+    }
+
+    private void writeRecord(SampleEvent event) {
+      try {
+        super.sampleOccurred(event);
+      } catch (RuntimeException e) {
+        LOG.error("Problem writing sample result to {}", getOutputName(), e);
+      }
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      boolean success = event.getResult().isSuccessful();
+      if (isSampleWanted(success)) {
+        dispatcher.dispatch(new DetachedSampleEvent(event), success);
+      }
+    }
+
+    /*
+     ResultCollector sets its save configuration in the sample result before formatting it, so
+     writer thread uses a copy of the result to avoid interfering with other listeners using it in
+     sampler threads.
+     */
+    private static class DetachedSampleEvent extends SampleEvent {
+
+      private final SampleEvent event;
+      private final SampleResult result;
+
+      private DetachedSampleEvent(SampleEvent event) {
+        this.event = event;
+        this.result = (SampleResult) event.getResult().clone();
+      }
+
+      @Override
+      public SampleResult getResult() {
+        return result;
+      }
+
+      @Override
+      public String getVarValue(int index) {
+        return event.getVarValue(index);
+      }
+
+      @Override
+      public String getThreadGroup() {
+        return event.getThreadGroup();
+      }
+
+      @Override
+      public String getHostname() {
+        return event.getHostname();
+      }
+
+      @Override
+      public boolean isTransactionSampleEvent() {
+        return event.isTransactionSampleEvent();
+      }
+
+    }
+
+    @Override
+    public void testEnded(String host) {
+      dispatcher.stop();
+      long dropped = droppedRecords.get();
+      if (dropped > 0) {
+        LOG.warn("{} sample results were not written to {} due to async writer {} backpressure "
+            + "policy", dropped, getOutputName(), backpressure);
+      }
+      super.testEnded(host);
+    }
+
+  }
+
   public static class CodeBuilder extends SingleTestElementCallBuilder<ResultCollector> {
 
     public CodeBuilder(List<Method> builderMethods) {
@@ -770,7 +1189,7 @@ public class JtlWriter extends BaseListener {
 
   }
 
-  private static class SampleStatusParam extends MethodParam {
+  static class SampleStatusParam extends MethodParam {
 
     private final SampleStatus sampleStatus;
 
@@ -780,13 +1199,18 @@ public class JtlWriter extends BaseListener {
     }
 
     public static MethodParam fromParamBuilder(TestElementParamBuilder paramBuilder) {
+      return fromParamBuilder(paramBuilder, "ResultCollector.success_only_logging",
+          "ResultCollector.error_logging");
+    }
+
+    public static MethodParam fromParamBuilder(TestElementParamBuilder paramBuilder,
+        String successOnlyPropName, String errorOnlyPropName) {
       SampleStatus status = null;
-      MethodParam successOnly = paramBuilder.boolParam(
-          "ResultCollector.success_only_logging", false);
+      MethodParam successOnly = paramBuilder.boolParam(successOnlyPropName, false);
       if (!successOnly.isDefault()) {
         status = SampleStatus.SUCCESS;
       } else {
-        MethodParam errorOnly = paramBuilder.boolParam("ResultCollector.error_logging", false);
+        MethodParam errorOnly = paramBuilder.boolParam(errorOnlyPropName, false);
         if (!errorOnly.isDefault()) {
           status = SampleStatus.ERROR;
         }
@@ -0,0 +1,300 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.apache.jmeter.report.config.ConfigurationException;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.dashboard.GenerationException;
+import org.apache.jmeter.report.processor.NormalizerSampleConsumer;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
+import us.abstracta.jmeter.javadsl.core.listeners.HtmlReporter.ApdexThresholds;
+import us.abstracta.jmeter.javadsl.core.listeners.ReportPipeline.Stage;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.CsvJtlChunk;
+
+/*
+ Generates the same report as JMeter ReportGenerator, but using several threads.
+
+ The results file is split in chunks which are parsed (and normalized) in parallel, and report
+ consumers are distributed in groups, where each group runs in its own thread and consumes all
+ parsed samples. Samples are provided to consumers in the same order as they are in the results
+ file (chunk after chunk), since some aggregations (like percentiles calculated over a window of
+ samples) depend on it.
+
+ Memory is bounded by the number of chunks being parsed and the size of the queues between
+ threads.
+ */
+class ParallelReportGenerator {
+
+  private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int BATCH_SIZE = 1024;
+  private static final int QUEUES_CAPACITY = 16;
+  private static final SampleBatch END = new SampleBatch();
+
+  private final int parallelism;
+  private final Map<String, ApdexThresholds> labelApdexThresholds;
+
+  ParallelReportGenerator(int parallelism, Map<String, ApdexThresholds> labelApdexThresholds) {
+    this.parallelism = parallelism;
+    this.labelApdexThresholds = labelApdexThresholds;
+  }
+
+  /*
+   Returns false when the results file format is not supported, in which case the report should be
+   generated with JMeter ReportGenerator.
+   */
+  boolean generate(File resultsFile) throws GenerationException, ConfigurationException,
+      IOException {
+    SampleMetadata metadata = readMetadata(resultsFile);
+    if (metadata == null) {
+      return false;
+    }
+    ReportPipeline pipeline = new ReportPipeline(metadata, labelApdexThresholds);
+    try (FileChannel channel = FileChannel.open(resultsFile.toPath(), StandardOpenOption.READ)) {
+      pipeline.start();
+      List<CsvJtlChunk> chunks = CsvJtlChunk.split(channel, 0, CHUNK_SIZE);
+      if (!chunks.isEmpty()) {
+        process(channel, chunks, metadata, pipeline);
+      }
+      pipeline.export(resultsFile);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GenerationException("Interrupted while generating report", e);
+    } catch (ExecutionException e) {
+      throw new GenerationException("Problem while generating report", e.getCause());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  /*
+   Splitting chunks requires the timestamp to be the first column and stored in milliseconds,
+   which is JMeter default, and the format generated by HtmlReporter.
+   */
+  private static SampleMetadata readMetadata(File resultsFile) throws IOException {
+    String header;
+    try (BufferedReader reader = Files.newBufferedReader(resultsFile.toPath(),
+        StandardCharsets.UTF_8)) {
+      header = reader.readLine();
+    }
+    if (header == null) {
+      return null;
+    }
+    SampleSaveConfiguration saveConfig = CSVSaveService.getSampleSaveConfiguration(header,
+        resultsFile.getPath());
+    if (saveConfig == null || !saveConfig.printMilliseconds()) {
+      return null;
+    }
+    SampleMetadata ret = new SampleMetadata(saveConfig);
+    return ret.indexOf(CSVSaveService.TIME_STAMP) == 0 ? ret : null;
+  }
+
+  private void process(FileChannel channel, List<CsvJtlChunk> chunks, SampleMetadata metadata,
+      ReportPipeline pipeline) throws InterruptedException, ExecutionException {
+    List<List<Stage>> stageGroups = pipeline.partitionStages(parallelism);
+    ExecutorService parsers = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+    ExecutorService consumers = Executors.newFixedThreadPool(stageGroups.size());
+    try {
+      List<BlockingQueue<SampleBatch>> chunksBatches = new ArrayList<>();
+      List<Future<?>> parsings = new ArrayList<>();
+      for (int i = 0; i < chunks.size(); i++) {
+        BlockingQueue<SampleBatch> batches = new ArrayBlockingQueue<>(QUEUES_CAPACITY);
+        chunksBatches.add(batches);
+        CsvJtlChunk chunk = chunks.get(i);
+        boolean skipHeader = i == 0;
+        parsings.add(parsers.submit(() -> {
+          try {
+            parseChunk(chunk.read(channel), skipHeader, metadata, pipeline, batches);
+          } finally {
+            batches.put(END);
+          }
+          return null;
+        }));
+      }
+      List<BlockingQueue<SampleBatch>> groupsBatches = new ArrayList<>();
+      List<Future<?>> consumptions = new ArrayList<>();
+      for (List<Stage> group : stageGroups) {
+        BlockingQueue<SampleBatch> batches = new ArrayBlockingQueue<>(QUEUES_CAPACITY);
+        groupsBatches.add(batches);
+        consumptions.add(consumers.submit(() -> {
+          consumeBatches(batches, group);
+          return null;
+        }));
+      }
+      try {
+        /*
+         chunks are parsed in order (executor processes tasks in submission order), so waiting
+         for each chunk batches in order never blocks on a chunk not being parsed.
+         */
+        for (BlockingQueue<SampleBatch> chunkBatches : chunksBatches) {
+          SampleBatch batch = chunkBatches.take();
+          while (batch != END) {
+            for (BlockingQueue<SampleBatch> groupBatches : groupsBatches) {
+              groupBatches.put(batch);
+            }
+            batch = chunkBatches.take();
+          }
+        }
+      } finally {
+        for (BlockingQueue<SampleBatch> groupBatches : groupsBatches) {
+          groupBatches.put(END);
+        }
+      }
+      for (Future<?> parsing : parsings) {
+        parsing.get();
+      }
+      for (Future<?> consumption : consumptions) {
+        consumption.get();
+      }
+    } finally {
+      parsers.shutdownNow();
+      consumers.shutdownNow();
+    }
+  }
+
+  private static void parseChunk(byte[] chunk, boolean skipHeader, SampleMetadata metadata,
+      ReportPipeline pipeline, BlockingQueue<SampleBatch> batches)
+      throws IOException, InterruptedException {
+    BatchesCollector collector = new BatchesCollector(pipeline, batches);
+    NormalizerSampleConsumer normalizer = pipeline.buildNormalizer(collector);
+    String contents = new String(chunk, StandardCharsets.UTF_8);
+    char delimiter = metadata.getSeparator();
+    int lineStart = skipHeader ? findLineEnd(contents, 0) : 0;
+    long row = 0;
+    while (lineStart < contents.length()) {
+      int lineEnd = findLineEnd(contents, lineStart);
+      int contentEnd = lineEnd;
+      while (contentEnd > lineStart && (contents.charAt(contentEnd - 1) == '\n'
+          || contents.charAt(contentEnd - 1) == '\r')) {
+        contentEnd--;
+      }
+      if (contentEnd > lineStart) {
+        String line = contents.substring(lineStart, contentEnd);
+        normalizer.consume(new Sample(row++, metadata,
+            CSVSaveService.csvSplitString(line, delimiter)), 0);
+      }
+      lineStart = lineEnd;
+    }
+    collector.flush();
+  }
+
+  /*
+   Finds the end of the line (after the line break) starting at given position, taking into
+   consideration quoted values with line breaks.
+   */
+  private static int findLineEnd(String contents, int lineStart) {
+    boolean quoted = false;
+    for (int i = lineStart; i < contents.length(); i++) {
+      char c = contents.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == '\n' && !quoted) {
+        return i + 1;
+      }
+    }
+    return contents.length();
+  }
+
+  private static void consumeBatches(BlockingQueue<SampleBatch> batches, List<Stage> stages)
+      throws InterruptedException {
+    RuntimeException failure = null;
+    SampleBatch batch = batches.take();
+    while (batch != END) {
+      // we keep taking batches after a failure to avoid blocking the thread distributing them
+      if (failure == null) {
+        try {
+          batch.feed(stages);
+        } catch (RuntimeException e) {
+          failure = e;
+        }
+      }
+      batch = batches.take();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static class BatchesCollector implements Consumer<Sample> {
+
+    private final ReportPipeline pipeline;
+    private final BlockingQueue<SampleBatch> batches;
+    private SampleBatch batch = new SampleBatch();
+
+    private BatchesCollector(ReportPipeline pipeline, BlockingQueue<SampleBatch> batches) {
+      this.pipeline = pipeline;
+      this.batches = batches;
+    }
+
+    @Override
+    public void accept(Sample sample) {
+      batch.add(sample, pipeline.scopeOf(sample));
+      if (batch.isFull()) {
+        try {
+          flush();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while parsing results file", e);
+        }
+      }
+    }
+
+    private void flush() throws InterruptedException {
+      if (!batch.isEmpty()) {
+        batches.put(batch);
+        batch = new SampleBatch();
+      }
+    }
+
+  }
+
+  private static class SampleBatch {
+
+    private final Sample[] samples = new Sample[BATCH_SIZE];
+    private final int[] scopes = new int[BATCH_SIZE];
+    private int count;
+
+    private void add(Sample sample, int scope) {
+      if (scope == ReportPipeline.OUT_OF_RANGE_SCOPE) {
+        return;
+      }
+      samples[count] = sample;
+      scopes[count++] = scope;
+    }
+
+    private boolean isFull() {
+      return count == BATCH_SIZE;
+    }
+
+    private boolean isEmpty() {
+      return count == 0;
+    }
+
+    private void feed(List<Stage> stages) {
+      for (int i = 0; i < count; i++) {
+        for (Stage stage : stages) {
+          stage.consume(samples[i], scopes[i]);
+        }
+      }
+    }
+
+  }
+
+}
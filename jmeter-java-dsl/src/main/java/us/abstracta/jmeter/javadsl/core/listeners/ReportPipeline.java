@@ -0,0 +1,339 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.io.FileUtils;
+import org.apache.jmeter.report.config.ConfigurationException;
+import org.apache.jmeter.report.config.ExporterConfiguration;
+import org.apache.jmeter.report.config.GraphConfiguration;
+import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
+import org.apache.jmeter.report.core.ConvertException;
+import org.apache.jmeter.report.core.Converters;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.dashboard.DataExporter;
+import org.apache.jmeter.report.dashboard.ExportException;
+import org.apache.jmeter.report.dashboard.GenerationException;
+import org.apache.jmeter.report.processor.AbstractSampleConsumer;
+import org.apache.jmeter.report.processor.AggregateConsumer;
+import org.apache.jmeter.report.processor.Aggregator;
+import org.apache.jmeter.report.processor.ApdexSummaryConsumer;
+import org.apache.jmeter.report.processor.ApdexThresholdsInfo;
+import org.apache.jmeter.report.processor.ErrorsSummaryConsumer;
+import org.apache.jmeter.report.processor.MaxAggregator;
+import org.apache.jmeter.report.processor.MinAggregator;
+import org.apache.jmeter.report.processor.NormalizerSampleConsumer;
+import org.apache.jmeter.report.processor.RequestsSummaryConsumer;
+import org.apache.jmeter.report.processor.SampleContext;
+import org.apache.jmeter.report.processor.StatisticsSummaryConsumer;
+import org.apache.jmeter.report.processor.Top5ErrorsBySamplerConsumer;
+import org.apache.jmeter.report.processor.graph.AbstractGraphConsumer;
+import org.apache.jmeter.util.JMeterUtils;
+import us.abstracta.jmeter.javadsl.core.listeners.HtmlReporter.ApdexThresholds;
+
+/*
+ Contains the same sample consumers as the ones used by JMeter ReportGenerator (summaries and
+ configured graphs), but allows feeding them from any source (instead of only from the results
+ file), and processing them in different threads.
+
+ Instead of chaining consumers with FilterConsumers, as ReportGenerator does, filters are applied
+ once per sample to calculate its scope, and then each consumer only gets samples within its
+ scope. This allows distributing consumers in several threads without duplicating filtering.
+ */
+class ReportPipeline {
+
+  static final int OUT_OF_RANGE_SCOPE = -1;
+  private static final int DATE_RANGE_SCOPE = 0;
+  private static final int NAME_FILTER_SCOPE = 1;
+  private static final int NO_CONTROLLERS_SCOPE = 2;
+  private static final Pattern PROPERTY_WORD_START = Pattern.compile("_(.)");
+  private static final String REPORT_GENERATOR_PROPERTIES = "reportgenerator.properties";
+
+  private final SampleMetadata metadata;
+  private final Map<String, ApdexThresholds> labelApdexThresholds;
+  private final ReportGeneratorConfiguration configuration;
+  private final Date startDate;
+  private final Date endDate;
+  private final Pattern filteredSamplesPattern;
+  private final File workingDirectory;
+  private final SampleContext context = new SampleContext();
+  private final List<Stage> stages = new ArrayList<>();
+
+  ReportPipeline(SampleMetadata metadata, Map<String, ApdexThresholds> labelApdexThresholds)
+      throws ConfigurationException, GenerationException, IOException {
+    this.metadata = metadata;
+    this.labelApdexThresholds = labelApdexThresholds;
+    configuration = loadConfiguration();
+    startDate = configuration.getStartDate();
+    endDate = configuration.getEndDate();
+    filteredSamplesPattern = configuration.getFilteredSamplesPattern();
+    workingDirectory = Files.createTempDirectory("jmeter-dsl-report").toFile();
+    context.setWorkingDirectory(workingDirectory);
+    try {
+      buildStages();
+    } catch (GenerationException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  // same as ReportGenerator: default report generator properties overridden by JMeter ones
+  static ReportGeneratorConfiguration loadConfiguration()
+      throws ConfigurationException, IOException {
+    Properties props = new Properties();
+    File defaultsFile = new File(JMeterUtils.getJMeterBinDir(), REPORT_GENERATOR_PROPERTIES);
+    if (defaultsFile.isFile()) {
+      try (InputStream input = Files.newInputStream(defaultsFile.toPath())) {
+        props.load(input);
+      }
+    }
+    props.putAll(JMeterUtils.getJMeterProperties());
+    return ReportGeneratorConfiguration.loadFromProperties(props);
+  }
+
+  private void buildStages() throws GenerationException {
+    addStage(DATE_RANGE_SCOPE, buildDateConsumer("beginDate", new MinAggregator(), true));
+    addStage(DATE_RANGE_SCOPE, buildDateConsumer("endDate", new MaxAggregator(), false));
+    addStage(NAME_FILTER_SCOPE, buildApdexSummaryConsumer());
+    RequestsSummaryConsumer requests = new RequestsSummaryConsumer();
+    requests.setName("requestsSummary");
+    addStage(NAME_FILTER_SCOPE, requests);
+    StatisticsSummaryConsumer statistics = new StatisticsSummaryConsumer();
+    statistics.setName("statisticsSummary");
+    statistics.setHasOverallResult(true);
+    addStage(NAME_FILTER_SCOPE, statistics);
+    Top5ErrorsBySamplerConsumer top5Errors = new Top5ErrorsBySamplerConsumer();
+    top5Errors.setName("top5ErrorsBySampler");
+    top5Errors.setHasOverallResult(true);
+    top5Errors.setIgnoreTransactionController(configuration.isIgnoreTCFromTop5ErrorsBySampler());
+    addStage(NAME_FILTER_SCOPE, top5Errors);
+    ErrorsSummaryConsumer errors = new ErrorsSummaryConsumer();
+    errors.setName("errorsSummary");
+    addStage(NO_CONTROLLERS_SCOPE, errors);
+    for (Map.Entry<String, GraphConfiguration> graph : configuration.getGraphConfigurations()
+        .entrySet()) {
+      addStage(graph.getValue().excludesControllers() ? NO_CONTROLLERS_SCOPE : NAME_FILTER_SCOPE,
+          buildGraphConsumer(graph.getKey(), graph.getValue()));
+    }
+  }
+
+  private void addStage(int scope, AbstractSampleConsumer consumer) {
+    consumer.setSampleContext(context);
+    stages.add(new Stage(scope, consumer));
+  }
+
+  private AggregateConsumer buildDateConsumer(String name, Aggregator aggregator,
+      boolean startTime) {
+    AggregateConsumer ret = new AggregateConsumer(aggregator,
+        s -> (double) (startTime ? s.getStartTime() : s.getEndTime()));
+    ret.setName(name);
+    return ret;
+  }
+
+  private ApdexSummaryConsumer buildApdexSummaryConsumer() {
+    ApdexSummaryConsumer ret = new ApdexSummaryConsumer();
+    ret.setName("apdexSummary");
+    ret.setHasOverallResult(true);
+    ret.setThresholdSelector(this::findApdexThresholds);
+    return ret;
+  }
+
+  private ApdexThresholdsInfo findApdexThresholds(String sampleName) {
+    ApdexThresholdsInfo ret = new ApdexThresholdsInfo();
+    ret.setSatisfiedThreshold(configuration.getApdexSatisfiedThreshold());
+    ret.setToleratedThreshold(configuration.getApdexToleratedThreshold());
+    if (sampleName == null) {
+      return ret;
+    }
+    for (Map.Entry<String, ApdexThresholds> labelThresholds : labelApdexThresholds.entrySet()) {
+      if (sampleName.matches(labelThresholds.getKey())) {
+        ApdexThresholds thresholds = labelThresholds.getValue();
+        if (thresholds.satisfied != null) {
+          ret.setSatisfiedThreshold(thresholds.satisfied.toMillis());
+        }
+        if (thresholds.tolerated != null) {
+          ret.setToleratedThreshold(thresholds.tolerated.toMillis());
+        }
+      }
+    }
+    return ret;
+  }
+
+  private AbstractGraphConsumer buildGraphConsumer(String name, GraphConfiguration config)
+      throws GenerationException {
+    try {
+      AbstractGraphConsumer ret = (AbstractGraphConsumer) Class.forName(config.getClassName())
+          .getDeclaredConstructor()
+          .newInstance();
+      ret.setName(name);
+      ret.setTitle(config.getTitle());
+      for (Map.Entry<String, String> property : config.getProperties().entrySet()) {
+        setProperty(ret, property.getKey(), property.getValue());
+      }
+      ret.initialize();
+      return ret;
+    } catch (ReflectiveOperationException | ClassCastException | ConvertException e) {
+      throw new GenerationException("Could not create graph " + name + " with class "
+          + config.getClassName(), e);
+    }
+  }
+
+  /*
+   Fails when no setter is found (instead of ignoring the property), to avoid silently generating
+   a different report than JMeter ReportGenerator if graph consumers change in JMeter.
+   */
+  private static void setProperty(Object target, String propertyName, String value)
+      throws ReflectiveOperationException, ConvertException {
+    // same conversion from property to setter name as used by JMeter ReportGenerator
+    Matcher matcher = PROPERTY_WORD_START.matcher(propertyName);
+    StringBuffer setterName = new StringBuffer();
+    while (matcher.find()) {
+      matcher.appendReplacement(setterName, matcher.group(1).toUpperCase());
+    }
+    matcher.appendTail(setterName);
+    for (Method method : target.getClass().getMethods()) {
+      if (method.getName().equals(setterName.toString()) && method.getParameterCount() == 1) {
+        method.invoke(target, Converters.convert(method.getParameterTypes()[0], value));
+        return;
+      }
+    }
+    throw new NoSuchMethodException("No setter found for property " + propertyName + " in "
+        + target.getClass().getName());
+  }
+
+  /*
+   Builds a normalizer which converts sample timestamps to milliseconds (as ReportGenerator does
+   before any other consumer) and provides normalized samples to given consumer.
+
+   Each thread parsing samples should use its own normalizer.
+   */
+  NormalizerSampleConsumer buildNormalizer(Consumer<Sample> normalizedSampleConsumer) {
+    NormalizerSampleConsumer ret = new NormalizerSampleConsumer();
+    ret.setName("normalizer");
+    ret.setSampleContext(context);
+    ret.addSampleConsumer(new AbstractSampleConsumer() {
+
+      @Override
+      public void startConsuming() {
+      }
+
+      @Override
+      public void consume(Sample sample, int channel) {
+        normalizedSampleConsumer.accept(sample);
+      }
+
+      @Override
+      public void stopConsuming() {
+      }
+
+    });
+    ret.setConsumedMetadata(metadata, 0);
+    ret.startConsuming();
+    return ret;
+  }
+
+  /*
+   Calculates the scope of a normalized sample, applying same filters as ReportGenerator.
+   */
+  int scopeOf(Sample sample) {
+    long startTime = sample.getStartTime();
+    if (startDate != null && startTime < startDate.getTime()
+        || endDate != null && startTime > endDate.getTime()) {
+      return OUT_OF_RANGE_SCOPE;
+    } else if (filteredSamplesPattern != null
+        && !filteredSamplesPattern.matcher(sample.getName()).matches()) {
+      return DATE_RANGE_SCOPE;
+    } else if (sample.isController()) {
+      return NAME_FILTER_SCOPE;
+    } else {
+      return NO_CONTROLLERS_SCOPE;
+    }
+  }
+
+  void start() {
+    for (Stage stage : stages) {
+      stage.consumer.setConsumedMetadata(metadata, 0);
+      stage.consumer.startConsuming();
+    }
+  }
+
+  void consume(Sample sample) {
+    int scope = scopeOf(sample);
+    for (Stage stage : stages) {
+      stage.consume(sample, scope);
+    }
+  }
+
+  /*
+   Splits stages in the given number of groups, which can then be fed by different threads, since
+   stages don't share any state while consuming samples.
+   */
+  List<List<Stage>> partitionStages(int groups) {
+    List<List<Stage>> ret = new ArrayList<>();
+    for (int i = 0; i < Math.min(groups, stages.size()); i++) {
+      ret.add(new ArrayList<>());
+    }
+    for (int i = 0; i < stages.size(); i++) {
+      ret.get(i % ret.size()).add(stages.get(i));
+    }
+    return ret;
+  }
+
+  /*
+   Stops all stages, which makes them store their results in the context, and then exports them
+   with configured exporters (eg: HTML dashboard).
+   */
+  void export(File resultsFile) throws GenerationException {
+    for (Stage stage : stages) {
+      stage.consumer.stopConsuming();
+    }
+    for (Map.Entry<String, ExporterConfiguration> exporterConfig
+        : configuration.getExportConfigurations().entrySet()) {
+      try {
+        DataExporter exporter = (DataExporter) Class.forName(
+                exporterConfig.getValue().getClassName())
+            .getDeclaredConstructor()
+            .newInstance();
+        exporter.setName(exporterConfig.getKey());
+        exporter.export(context, resultsFile, configuration);
+      } catch (ReflectiveOperationException | ClassCastException | ExportException e) {
+        throw new GenerationException("Could not export report with "
+            + exporterConfig.getKey() + " exporter", e);
+      }
+    }
+  }
+
+  void close() {
+    FileUtils.deleteQuietly(workingDirectory);
+  }
+
+  static class Stage {
+
+    private final int scope;
+    private final AbstractSampleConsumer consumer;
+
+    private Stage(int scope, AbstractSampleConsumer consumer) {
+      this.scope = scope;
+      this.consumer = consumer;
+    }
+
+    void consume(Sample sample, int sampleScope) {
+      if (sampleScope >= scope) {
+        consumer.consume(sample, 0);
+      }
+    }
+
+  }
+
+}
@@ -1,16 +1,42 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.jmeter.control.TransactionController;
 import org.apache.jmeter.reporters.ResultSaver;
 import org.apache.jmeter.reporters.gui.ResultSaverGui;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.services.FileServer;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.collections.HashTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
 import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.BackpressurePolicy;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatus;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatusParam;
+import us.abstracta.jmeter.javadsl.core.util.AsyncDispatcher;
 
 /**
  * Generates one file for each response of a sample/request.
@@ -29,6 +55,13 @@ import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
  * <p>
  * Both the incremental number and the file extension can be disabled setting
  * {@link #autoNumber(boolean)} and {@link #autoFileExtension(boolean)} to false.
+ * <p>
+ * Saving every response in long or high load test plans may generate a huge number of files and
+ * affect sampler threads performance. In such scenarios, consider saving only failed responses
+ * ({@link #saveOnly(SampleStatus)}) or a portion of successful ones
+ * ({@link #sampledSuccesses(double)}), limiting generated files ({@link #maxFiles(long)} and
+ * {@link #maxTotalBytes(long)}), writing files from a separate thread ({@link #async()}), and
+ * storing identical responses only once ({@link #deduplicate()}).
  *
  * @since 0.13
  */
@@ -37,19 +70,45 @@ public class ResponseFileSaver extends BaseListener {
   protected String fileNamePrefix;
   protected boolean autoNumber = true;
   protected boolean autoFileExtension = true;
+  protected SampleStatus saveOnly;
+  protected double successesRatio = 1;
+  protected long maxFiles;
+  protected long maxTotalBytes;
+  protected boolean deduplicate;
+  protected int asyncBufferSize;
+  protected BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+  protected final AtomicLong droppedResponses = new AtomicLong();
 
   public ResponseFileSaver(String fileNamePrefix) {
     super("Save Responses to a file", ResultSaverGui.class);
     this.fileNamePrefix = fileNamePrefix;
   }
 
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (!context.isInProcessExecution() || successesRatio >= 1 && maxFiles <= 0
+        && maxTotalBytes <= 0 && !deduplicate && asyncBufferSize <= 0) {
+      return super.buildTreeUnder(parent, context);
+    }
+    ResultSaver saver = configureSaver(new BoundedResultSaver(successesRatio, maxFiles,
+        maxTotalBytes, deduplicate, asyncBufferSize, backpressure, droppedResponses));
+    return parent.add(configureTestElement(saver, name, guiClass));
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    ResultSaver ret = new ResultSaver();
-    ret.setFilename(fileNamePrefix);
-    ret.setSkipAutoNumber(!autoNumber);
-    ret.setSkipSuffix(!autoFileExtension);
-    return ret;
+    return configureSaver(new ResultSaver());
+  }
+
+  private ResultSaver configureSaver(ResultSaver saver) {
+    saver.setFilename(fileNamePrefix);
+    saver.setSkipAutoNumber(!autoNumber);
+    saver.setSkipSuffix(!autoFileExtension);
+    if (saveOnly != null) {
+      saver.setProperty(ResultSaver.SUCCESS_ONLY, saveOnly == SampleStatus.SUCCESS);
+      saver.setProperty(ResultSaver.ERRORS_ONLY, saveOnly == SampleStatus.ERROR);
+    }
+    return saver;
   }
 
   /**
@@ -86,6 +145,605 @@ public class ResponseFileSaver extends BaseListener {
     return this;
   }
 
+  /**
+   * Allows saving only responses of samples with a given status.
+   * <p>
+   * This is useful, for example, to only keep responses of failing requests, which are usually
+   * the ones that require further analysis.
+   *
+   * @param status specifies the status of the samples to save responses for. When set to null it
+   *               will save responses for all samples. By default, it is set to null.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @since 2.3
+   */
+  public ResponseFileSaver saveOnly(SampleStatus status) {
+    this.saveOnly = status;
+    return this;
+  }
+
+  /**
+   * Allows saving only a portion of successful responses, while still saving all failed ones.
+   * <p>
+   * Sampling is deterministic: with a ratio of 0.01, exactly 1 out of every 100 successful
+   * responses is saved.
+   * <p>
+   * This setting, as well as {@link #maxFiles(long)}, {@link #maxTotalBytes(long)},
+   * {@link #deduplicate()} and {@link #async()}, only applies when the test plan runs in current
+   * JVM (eg: not when saved as JMX), and it is ignored otherwise.
+   *
+   * @param ratio specifies the ratio, between 0 and 1, of successful responses to save. By
+   *              default, it is set to 1, saving all successful responses.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @since 2.3
+   */
+  public ResponseFileSaver sampledSuccesses(double ratio) {
+    if (ratio < 0 || ratio > 1) {
+      throw new IllegalArgumentException("Successes ratio must be between 0 and 1, but was "
+          + ratio);
+    }
+    this.successesRatio = ratio;
+    return this;
+  }
+
+  /**
+   * Allows limiting the number of generated files.
+   * <p>
+   * Once the limit is reached, no more responses are saved (besides the ones whose content is
+   * already stored when {@link #deduplicate()} is enabled).
+   *
+   * @param maxFiles specifies the maximum number of files to generate. When set to 0 there is no
+   *                 limit, which is the default.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @see #droppedResponsesCount()
+   * @since 2.3
+   */
+  public ResponseFileSaver maxFiles(long maxFiles) {
+    this.maxFiles = maxFiles;
+    return this;
+  }
+
+  /**
+   * Allows limiting the total size of generated files.
+   * <p>
+   * Once saving a response would exceed the limit, the response is not saved.
+   *
+   * @param maxTotalBytes specifies the maximum number of bytes to store in generated files. When
+   *                      set to 0 there is no limit, which is the default.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @see #droppedResponsesCount()
+   * @since 2.3
+   */
+  public ResponseFileSaver maxTotalBytes(long maxTotalBytes) {
+    this.maxTotalBytes = maxTotalBytes;
+    return this;
+  }
+
+  /**
+   * Same as {@link #deduplicate(boolean)} but enabling deduplication.
+   *
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @see #deduplicate(boolean)
+   * @since 2.3
+   */
+  public ResponseFileSaver deduplicate() {
+    return deduplicate(true);
+  }
+
+  /**
+   * Specifies whether, or not, to store identical responses only once.
+   * <p>
+   * When enabled, each distinct response body is stored in a file named with the given prefix and
+   * the SHA-256 hash of the body (eg: "responses/resp3f2a...9c.json"), and a CSV index file (eg:
+   * "responses/respindex.csv") is generated with the number, timestamp, label, response code and
+   * stored file of each saved response. This greatly reduces the number of files and used disk
+   * space when many requests get same responses.
+   *
+   * @param enabled specifies to deduplicate responses when set to true. By default, it is set to
+   *                false.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @since 2.3
+   */
+  public ResponseFileSaver deduplicate(boolean enabled) {
+    this.deduplicate = enabled;
+    return this;
+  }
+
+  /**
+   * Same as {@link #async(int, BackpressurePolicy)} but using a buffer of 1024 responses and
+   * blocking sampler threads when the buffer is full.
+   *
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @see #async(int, BackpressurePolicy)
+   * @since 2.3
+   */
+  public ResponseFileSaver async() {
+    return async(BoundedResultSaver.DEFAULT_BUFFER_SIZE, BackpressurePolicy.BLOCK);
+  }
+
+  /**
+   * Allows saving responses from a separate thread, avoiding sampler threads to be affected by
+   * disk latency.
+   * <p>
+   * When enabled, sampler threads just publish sample results into a bounded lock-free buffer,
+   * and a single thread takes them and writes response files. When the buffer is full, the given
+   * backpressure policy is applied.
+   * <p>
+   * Take into consideration that pending sample results hold their response bodies in memory, so
+   * keep buffer size small when responses are big.
+   *
+   * @param bufferSize   specifies the maximum number of sample results to keep in memory pending
+   *                     to be saved. This is rounded up to the next power of two.
+   * @param backpressure specifies what to do with sample results when the buffer is full.
+   * @return the ResponseFileSaver for further configuration or usage.
+   * @see BackpressurePolicy
+   * @see #droppedResponsesCount()
+   * @since 2.3
+   */
+  public ResponseFileSaver async(int bufferSize, BackpressurePolicy backpressure) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Async buffer size must be positive, but was "
+          + bufferSize);
+    }
+    this.asyncBufferSize = bufferSize;
+    this.backpressure = backpressure;
+    return this;
+  }
+
+  /**
+   * Gets the number of responses that were not saved in the last test plan execution due to
+   * configured limits or async backpressure policy.
+   * <p>
+   * Responses discarded by {@link #saveOnly(SampleStatus)} or {@link #sampledSuccesses(double)}
+   * are not included in this count.
+   *
+   * @return the number of responses discarded.
+   * @see #maxFiles(long)
+   * @see #maxTotalBytes(long)
+   * @see #async(int, BackpressurePolicy)
+   * @since 2.3
+   */
+  public long droppedResponsesCount() {
+    return droppedResponses.get();
+  }
+
+  /**
+   * Result saver that applies sampling, limits, deduplication and async writing of responses.
+   * <p>
+   * Saved responses and generated files names are the same as the ones of {@link ResultSaver}
+   * (including timestamp, number padding and ignored transaction controller samples settings).
+   * When responses are saved synchronously and without deduplication, saving is just delegated to
+   * {@link ResultSaver}.
+   * <p>
+   * All thread clones share a single store, so sampling and limits apply to samples of all threads
+   * together.
+   *
+   * @since 2.3
+   */
+  public static class BoundedResultSaver extends ResultSaver {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private ResponsesStore store;
+
+    public BoundedResultSaver() {
+      this(1, 0, 0, false, 0, BackpressurePolicy.BLOCK, new AtomicLong());
+    }
+
+    public BoundedResultSaver(double successesRatio, long maxFiles, long maxTotalBytes,
+        boolean deduplicate, int asyncBufferSize, BackpressurePolicy backpressure,
+        AtomicLong droppedResponses) {
+      store = new ResponsesStore(successesRatio, maxFiles, maxTotalBytes, deduplicate,
+          asyncBufferSize, backpressure, droppedResponses);
+    }
+
+    @Override
+    public Object clone() {
+      BoundedResultSaver ret = (BoundedResultSaver) super.clone();
+      // all clones share the same store to apply limits and sampling to all threads samples
+      ret.store = store;
+      return ret;
+    }
+
+    @Override
+    public void testStarted() {
+      super.testStarted();
+      startStore();
+    }
+
+    @Override
+    public void testStarted(String host) {
+      super.testStarted(host);
+      startStore();
+    }
+
+    private void startStore() {
+      store.start(FileServer.resolveBaseRelativeName(getPropertyAsString(ResultSaver.FILENAME)),
+          getPropertyAsBoolean(ResultSaver.ADD_TIMESTAMP));
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+      SampleResult result = event.getResult();
+      // same default as ResultSaver
+      boolean ignoreTransactions = getPropertyAsBoolean(ResultSaver.IGNORE_TC, true);
+      if (ignoreTransactions && TransactionController.isFromTransactionController(result)
+          || result.isSuccessful() && !store.isSampledSuccess()) {
+        return;
+      }
+      /*
+       file name is solved in sampler thread, since it may contain JMeter expressions depending on
+       thread variables
+       */
+      PendingResponse response = new PendingResponse(result,
+          FileServer.resolveBaseRelativeName(getPropertyAsString(ResultSaver.FILENAME)),
+          !getPropertyAsBoolean(ResultSaver.SKIP_AUTO_NUMBER),
+          getPropertyAsInt(ResultSaver.NUMBER_PAD_LENGTH),
+          !getPropertyAsBoolean(ResultSaver.SKIP_SUFFIX),
+          getPropertyAsBoolean(ResultSaver.SUCCESS_ONLY),
+          getPropertyAsBoolean(ResultSaver.ERRORS_ONLY), ignoreTransactions);
+      if (store.isSavedByResultSaver()) {
+        if (store.reserve(response)) {
+          super.sampleOccurred(event);
+        }
+      } else {
+        store.add(response);
+      }
+    }
+
+    @Override
+    public void testEnded() {
+      store.stop();
+      super.testEnded();
+    }
+
+    @Override
+    public void testEnded(String host) {
+      store.stop();
+      super.testEnded(host);
+    }
+
+  }
+
+  private static class PendingResponse {
+
+    private final SampleResult result;
+    private final String fileNamePrefix;
+    private final boolean autoNumber;
+    private final int numberPadLength;
+    private final boolean autoFileExtension;
+    private final boolean successOnly;
+    private final boolean errorsOnly;
+    private final boolean ignoreTransactions;
+
+    private PendingResponse(SampleResult result, String fileNamePrefix, boolean autoNumber,
+        int numberPadLength, boolean autoFileExtension, boolean successOnly, boolean errorsOnly,
+        boolean ignoreTransactions) {
+      this.result = result;
+      this.fileNamePrefix = fileNamePrefix;
+      this.autoNumber = autoNumber;
+      this.numberPadLength = numberPadLength;
+      this.autoFileExtension = autoFileExtension;
+      this.successOnly = successOnly;
+      this.errorsOnly = errorsOnly;
+      this.ignoreTransactions = ignoreTransactions;
+    }
+
+    /*
+     Provides the results (the sample result and its sub results) which ResultSaver would save with
+     the same settings, in same order.
+     */
+    private void forEachSavedResult(Consumer<SampleResult> consumer) {
+      forEachSavedResult(result, consumer);
+    }
+
+    private void forEachSavedResult(SampleResult result, Consumer<SampleResult> consumer) {
+      if (ignoreTransactions && TransactionController.isFromTransactionController(result)) {
+        return;
+      }
+      if (result.isSuccessful() ? !errorsOnly : !successOnly) {
+        consumer.accept(result);
+      }
+      for (SampleResult subResult : result.getSubResults()) {
+        forEachSavedResult(subResult, consumer);
+      }
+    }
+
+  }
+
+  private static class ResponsesStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponsesStore.class);
+    private static final int BATCH_SIZE = 64;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String TIMESTAMP_FORMAT = "yyyyMMdd-HHmm_";
+
+    private final double successesRatio;
+    private final long maxFiles;
+    private final long maxTotalBytes;
+    private final boolean deduplicate;
+    private final int asyncBufferSize;
+    private final BackpressurePolicy backpressure;
+    private final AtomicLong droppedResponses;
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong responsesCount = new AtomicLong();
+    private final AtomicLong filesCount = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Set<String> storedHashes = ConcurrentHashMap.newKeySet();
+    private final Object indexLock = new Object();
+    private boolean started;
+    private String timeStamp;
+    private String indexPath;
+    private BufferedWriter index;
+    private AsyncDispatcher<PendingResponse> dispatcher;
+
+    private ResponsesStore(double successesRatio, long maxFiles, long maxTotalBytes,
+        boolean deduplicate, int asyncBufferSize, BackpressurePolicy backpressure,
+        AtomicLong droppedResponses) {
+      this.successesRatio = successesRatio;
+      this.maxFiles = maxFiles;
+      this.maxTotalBytes = maxTotalBytes;
+      this.deduplicate = deduplicate;
+      this.asyncBufferSize = asyncBufferSize;
+      this.backpressure = backpressure;
+      this.droppedResponses = droppedResponses;
+    }
+
+    /*
+     JMeter invokes either testStarted() or testStarted(host) depending on the execution being
+     local or remote, and ResultSaver may delegate one to the other, so we make sure to only start
+     (and stop) once.
+     */
+    private synchronized void start(String fileNamePrefix, boolean addTimeStamp) {
+      if (started) {
+        return;
+      }
+      started = true;
+      // same timestamp as the one used by ResultSaver, since it is solved at same time
+      timeStamp = addTimeStamp ? new SimpleDateFormat(TIMESTAMP_FORMAT).format(new Date()) : "";
+      droppedResponses.set(0);
+      successes.set(0);
+      responsesCount.set(0);
+      filesCount.set(0);
+      totalBytes.set(0);
+      storedHashes.clear();
+      try {
+        Path parent = Paths.get(fileNamePrefix).toAbsolutePath().getParent();
+        if (parent != null) {
+          Files.createDirectories(parent);
+        }
+        if (deduplicate) {
+          indexPath = fileNamePrefix + timeStamp + "index.csv";
+          synchronized (indexLock) {
+            index = Files.newBufferedWriter(Paths.get(indexPath), StandardCharsets.UTF_8);
+            index.write("number,timeStamp,label,responseCode,file\n");
+          }
+        }
+      } catch (IOException e) {
+        LOG.error("Problem preparing responses files for {}", fileNamePrefix, e);
+      }
+      if (asyncBufferSize > 0) {
+        dispatcher = new AsyncDispatcher<>("response-file-saver " + fileNamePrefix,
+            asyncBufferSize, BATCH_SIZE, backpressure, droppedResponses, this::save);
+        dispatcher.start();
+      }
+    }
+
+    /*
+     Deterministically selects successes so that the ratio of saved ones is exactly the configured
+     one, without requiring any coordination besides an atomic counter.
+     */
+    private boolean isSampledSuccess() {
+      if (successesRatio >= 1) {
+        return true;
+      }
+      long count = successes.getAndIncrement();
+      return (long) (count * successesRatio) != (long) ((count + 1) * successesRatio);
+    }
+
+    private boolean isSavedByResultSaver() {
+      return dispatcher == null && !deduplicate;
+    }
+
+    /*
+     Reserves limits for all the files to be generated for the given response, so they are either
+     all saved or all dropped.
+     */
+    private boolean reserve(PendingResponse response) {
+      long[] filesAndBytes = new long[2];
+      response.forEachSavedResult(r -> {
+        filesAndBytes[0]++;
+        filesAndBytes[1] += r.getResponseData().length;
+      });
+      if (filesAndBytes[0] == 0) {
+        return false;
+      }
+      if (!reserveLimits(filesAndBytes[0], filesAndBytes[1])) {
+        droppedResponses.addAndGet(filesAndBytes[0]);
+        return false;
+      }
+      return true;
+    }
+
+    private boolean reserveLimits(long files, long bytes) {
+      if (maxFiles > 0 && filesCount.addAndGet(files) > maxFiles) {
+        filesCount.addAndGet(-files);
+        return false;
+      }
+      if (maxTotalBytes > 0 && totalBytes.addAndGet(bytes) > maxTotalBytes) {
+        totalBytes.addAndGet(-bytes);
+        if (maxFiles > 0) {
+          filesCount.addAndGet(-files);
+        }
+        return false;
+      }
+      return true;
+    }
+
+    private void add(PendingResponse response) {
+      if (dispatcher == null) {
+        save(response);
+      } else {
+        dispatcher.dispatch(response, response.result.isSuccessful());
+      }
+    }
+
+    private void save(PendingResponse response) {
+      response.forEachSavedResult(result -> {
+        try {
+          if (deduplicate) {
+            saveDeduplicated(result, response);
+          } else {
+            saveFile(result, response);
+          }
+        } catch (IOException | RuntimeException e) {
+          LOG.error("Problem saving response of {} with prefix {}", result.getSampleLabel(),
+              response.fileNamePrefix, e);
+        }
+      });
+    }
+
+    private void saveFile(SampleResult result, PendingResponse response) throws IOException {
+      byte[] body = result.getResponseData();
+      if (!reserveLimits(1, body.length)) {
+        droppedResponses.incrementAndGet();
+        return;
+      }
+      StringBuilder fileName = new StringBuilder(response.fileNamePrefix).append(timeStamp);
+      if (response.autoNumber) {
+        String number = String.valueOf(responsesCount.incrementAndGet());
+        for (int i = number.length(); i < response.numberPadLength; i++) {
+          fileName.append('0');
+        }
+        fileName.append(number);
+      }
+      appendExtension(fileName, result, response);
+      writeFile(fileName.toString(), body, result);
+    }
+
+    // uses same logic as ResultSaver to get same extensions (eg: "problem+json")
+    private void appendExtension(StringBuilder fileName, SampleResult result,
+        PendingResponse response) {
+      if (!response.autoFileExtension) {
+        return;
+      }
+      fileName.append('.');
+      String contentType = result.getContentType();
+      int subtypeStart = contentType != null ? contentType.indexOf('/') : -1;
+      if (subtypeStart < 0) {
+        fileName.append("unknown");
+        return;
+      }
+      int parametersStart = contentType.indexOf(';');
+      fileName.append(contentType, subtypeStart + 1,
+          parametersStart >= 0 ? parametersStart : contentType.length());
+    }
+
+    private void writeFile(String fileName, byte[] body, SampleResult result) throws IOException {
+      Path path = Paths.get(fileName);
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.write(path, body);
+      // async saved results may be in use by other listeners, so we only update sync ones
+      if (dispatcher == null) {
+        result.setResultFileName(fileName);
+      }
+    }
+
+    private void saveDeduplicated(SampleResult result, PendingResponse response)
+        throws IOException {
+      byte[] body = result.getResponseData();
+      String hash = hash(body);
+      StringBuilder fileName = new StringBuilder(response.fileNamePrefix).append(timeStamp)
+          .append(hash);
+      appendExtension(fileName, result, response);
+      if (!storedHashes.contains(hash)) {
+        if (!reserveLimits(1, body.length)) {
+          droppedResponses.incrementAndGet();
+          return;
+        }
+        if (storedHashes.add(hash)) {
+          writeFile(fileName.toString(), body, result);
+        } else {
+          // another thread stored same content in the meantime
+          release(body.length);
+        }
+      }
+      writeIndexEntry(result, fileName.toString());
+    }
+
+    private void release(long bytes) {
+      if (maxFiles > 0) {
+        filesCount.decrementAndGet();
+      }
+      if (maxTotalBytes > 0) {
+        totalBytes.addAndGet(-bytes);
+      }
+    }
+
+    private static String hash(byte[] body) {
+      try {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+        char[] ret = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+          ret[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+          ret[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(ret);
+      } catch (NoSuchAlgorithmException e) {
+        // every JVM is required to support SHA-256
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private void writeIndexEntry(SampleResult result, String fileName) throws IOException {
+      String entry = "," + result.getTimeStamp() + "," + csvValue(result.getSampleLabel()) + ","
+          + csvValue(result.getResponseCode()) + ","
+          + csvValue(Paths.get(fileName).getFileName().toString()) + "\n";
+      synchronized (indexLock) {
+        if (index != null) {
+          index.write(responsesCount.incrementAndGet() + entry);
+        }
+      }
+    }
+
+    private static String csvValue(String value) {
+      if (value == null) {
+        return "";
+      }
+      return value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+          || value.indexOf('\r') >= 0 ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+
+    private synchronized void stop() {
+      if (!started) {
+        return;
+      }
+      started = false;
+      if (dispatcher != null) {
+        dispatcher.stop();
+        dispatcher = null;
+      }
+      synchronized (indexLock) {
+        if (index != null) {
+          try {
+            index.close();
+          } catch (IOException e) {
+            LOG.error("Problem closing responses index {}", indexPath, e);
+          }
+          index = null;
+        }
+      }
+      long dropped = droppedResponses.get();
+      if (dropped > 0) {
+        LOG.warn("{} responses were not saved due to response file saver limits or async "
+            + "backpressure policy", dropped);
+      }
+    }
+
+  }
+
   public static class CodeBuilder extends SingleTestElementCallBuilder<ResultSaver> {
 
     public CodeBuilder(List<Method> builderMethods) {
@@ -104,7 +762,8 @@ public class ResponseFileSaver extends BaseListener {
       if (!skipSuffix.isDefault()) {
         ret.chain("autoFileExtension", new BoolParam(false, true));
       }
-      return ret;
+      return ret.chain("saveOnly", SampleStatusParam.fromParamBuilder(paramBuilder,
+          ResultSaver.SUCCESS_ONLY, ResultSaver.ERRORS_ONLY));
     }
 
   }
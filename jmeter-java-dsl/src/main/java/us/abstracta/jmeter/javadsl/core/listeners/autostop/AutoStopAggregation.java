@@ -1,5 +1,6 @@
 package us.abstracta.jmeter.javadsl.core.listeners.autostop;
 
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.AutoStopAggregator;
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.AverageAggregator;
@@ -7,27 +8,45 @@ import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.PerSecond
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.PercentAggregator;
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.PercentileAggregator;
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.SimpleAggregator;
+import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.SlidingWindowAggregator;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
 
 public enum AutoStopAggregation {
-  MIN(c -> "min", c -> new SimpleAggregator<Long>(Math::min)),
-  MAX(c -> "max", c -> new SimpleAggregator<Long>(Math::max)),
-  MEAN(c -> "mean", c -> new AverageAggregator()),
+  MIN(c -> "min", c -> new SimpleAggregator<Long>(Math::min),
+      c -> (window, seconds) -> window.min()),
+  MAX(c -> "max", c -> new SimpleAggregator<Long>(Math::max),
+      c -> (window, seconds) -> window.max()),
+  MEAN(c -> "mean", c -> new AverageAggregator(), c -> (window, seconds) -> window.mean()),
   PERCENTILE(c -> PercentileAggregator.getName(c.getPercentile()),
-      c -> new PercentileAggregator(c.getPercentile())),
-  TOTAL(c -> "total", c -> new SimpleAggregator<>(Long::sum)),
-  PER_SECOND(c -> "per second", c -> new PerSecondAggregator(c.getClock())),
-  PERCENT(c -> "percent", c -> new PercentAggregator());
+      c -> new PercentileAggregator(c.getPercentile()),
+      c -> (window, seconds) -> window.percentile(c.getPercentile())),
+  TOTAL(c -> "total", c -> new SimpleAggregator<>(Long::sum),
+      c -> (window, seconds) -> window.sum()),
+  PER_SECOND(c -> "per second", c -> new PerSecondAggregator(c.getClock()),
+      c -> (window, seconds) -> seconds == 0 ? 0.0 : (double) window.sum() / seconds),
+  PERCENT(c -> "percent", c -> new PercentAggregator(),
+      c -> (window, seconds) -> window.mean() * 100);
 
   private final Function<AutoStopConditionElement, String> nameSolver;
   private final Function<AutoStopConditionElement, AutoStopAggregator<?>> aggregatorBuilder;
+  private final Function<AutoStopConditionElement,
+      BiFunction<LogLinearHistogram, Integer, Comparable<?>>> windowValueSolver;
 
   AutoStopAggregation(Function<AutoStopConditionElement, String> nameSolver,
-      Function<AutoStopConditionElement, AutoStopAggregator<?>> aggregatorBuilder) {
+      Function<AutoStopConditionElement, AutoStopAggregator<?>> aggregatorBuilder,
+      Function<AutoStopConditionElement,
+          BiFunction<LogLinearHistogram, Integer, Comparable<?>>> windowValueSolver) {
     this.nameSolver = nameSolver;
     this.aggregatorBuilder = aggregatorBuilder;
+    this.windowValueSolver = windowValueSolver;
   }
 
   public AutoStopAggregator<?> buildAggregator(AutoStopConditionElement condition) {
+    long windowSeconds = condition.getSlidingWindowSeconds();
+    if (windowSeconds > 0) {
+      return new SlidingWindowAggregator<>((int) windowSeconds, condition.getClock(),
+          windowValueSolver.apply(condition));
+    }
     return aggregatorBuilder.apply(condition);
   }
 
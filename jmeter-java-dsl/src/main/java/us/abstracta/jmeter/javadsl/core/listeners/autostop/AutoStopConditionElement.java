@@ -4,12 +4,14 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.regex.Pattern;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.AbstractTestElement;
 import org.apache.jmeter.testelement.property.DoubleProperty;
 import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jorphan.documentation.VisibleForTesting;
 import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.AutoStopAggregator;
+import us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators.SlidingWindowAggregator;
 
 public class AutoStopConditionElement extends AbstractTestElement {
 
@@ -19,12 +21,19 @@ public class AutoStopConditionElement extends AbstractTestElement {
   private static final String PERCENTILE_PROP = "percentile";
   private static final String AGGREGATION_RESET_PERIOD_SECONDS_PROP =
       "aggregationResetPeriodSeconds";
+  private static final String SLIDING_WINDOW_SECONDS_PROP = "slidingWindowSeconds";
   private static final String COMPARISON_PROP = "comparison";
   private static final String VALUE_PROP = "value";
   private static final String HOLDS_FOR_SECONDS_PROP = "holdsForSeconds";
 
   private Clock clock = Clock.systemUTC();
+  // property values are cached on start to avoid solving them for each sample
+  private Pattern regexPattern;
+  private AutoStopMetric metric;
+  private long aggregationResetPeriodSeconds;
+  private long slidingWindowSeconds;
   private Instant slotStart;
+  private Instant lastTime;
   private AutoStopAggregator<?> aggregator;
   private Instant matchStart;
 
@@ -68,6 +77,14 @@ public class AutoStopConditionElement extends AbstractTestElement {
     setProperty(AGGREGATION_RESET_PERIOD_SECONDS_PROP, aggregationResetPeriod);
   }
 
+  public long getSlidingWindowSeconds() {
+    return getPropertyAsLong(SLIDING_WINDOW_SECONDS_PROP);
+  }
+
+  public void setSlidingWindowSeconds(long slidingWindowSeconds) {
+    setProperty(SLIDING_WINDOW_SECONDS_PROP, slidingWindowSeconds);
+  }
+
   public String getComparison() {
     return getPropertyAsString(COMPARISON_PROP);
   }
@@ -112,24 +129,114 @@ public class AutoStopConditionElement extends AbstractTestElement {
   }
 
   public void start() {
+    String regex = getRegex();
+    regexPattern = regex != null ? Pattern.compile(regex) : null;
+    metric = getMetricEnumValue();
+    aggregationResetPeriodSeconds = getAggregationResetPeriodSeconds();
+    slidingWindowSeconds = getSlidingWindowSeconds();
     slotStart = clock.instant();
+    lastTime = slotStart;
     aggregator = getAggregationEnumValue().buildAggregator(this);
+    matchStart = null;
   }
 
   private AutoStopAggregation getAggregationEnumValue() {
     return AutoStopAggregation.valueOf(getAggregation());
   }
 
-  public boolean eval(SampleResult result) {
-    if (getRegex() != null && !result.getSampleLabel().matches(getRegex())) {
+  /**
+   * Checks if samples with the given label should be considered by this condition.
+   * <p>
+   * Conditions without regex consider all samples.
+   */
+  public boolean matches(String label) {
+    return regexPattern == null || regexPattern.matcher(label).matches();
+  }
+
+  public long extractMetric(SampleResult result) {
+    return metric.extractFrom(result);
+  }
+
+  /**
+   * Checks if the condition is evaluated over a sliding window.
+   * <p>
+   * Such conditions need to be evaluated every second, even when no new samples are collected, to
+   * consider the window moving.
+   */
+  public boolean hasSlidingWindow() {
+    return slidingWindowSeconds > 0;
+  }
+
+  /**
+   * Adds metric values collected since last evaluation and checks if the condition is met.
+   * <p>
+   * Values are considered at the end time of their samples, so they are aggregated in the period
+   * (or second of sliding window) of their samples, and the condition is checked after each of
+   * them, no matter when they are evaluated.
+   * <p>
+   * This method is not thread safe, and is expected to be invoked only by the thread evaluating
+   * conditions.
+   *
+   * @param timestamps contains the end times, in epoch milliseconds and ascending order, of the
+   *                   samples of the collected metric values.
+   * @param values     contains the collected metric values.
+   * @param count      specifies the number of values to take from given arrays.
+   * @return true if the condition is met, false otherwise.
+   */
+  public boolean eval(long[] timestamps, long[] values, int count) {
+    for (int i = 0; i < count; i++) {
+      Instant time = Instant.ofEpochMilli(timestamps[i]);
+      /*
+       samples of previous evaluations may end after some sample of this one (eg: when a sampler
+       thread takes long to notify a sample), so time is never moved back to avoid re-opening
+       already evaluated periods.
+       */
+      if (time.isAfter(lastTime)) {
+        lastTime = time;
+      }
+      if (evalAt(lastTime, values[i])) {
+        return true;
+      }
+    }
+    // sliding windows move with time, even when no new values are collected
+    return slidingWindowSeconds > 0 && isMatchWindow(clock.instant());
+  }
+
+  private boolean evalAt(Instant time, long value) {
+    if (slidingWindowSeconds > 0) {
+      if (isMatchWindow(time)) {
+        return true;
+      }
+      aggregator.add(value, time);
+      return false;
+    } else if (aggregationResetPeriodSeconds == 0) {
+      aggregator.add(value, time);
+      return isMatchAt(time);
+    } else {
+      if (isMatchSlot(time)) {
+        return true;
+      }
+      aggregator.add(value, time);
       return false;
     }
-    return getAggregationResetPeriodSeconds() == 0 ? isMatchNow(result) : isMatchSlot(result);
   }
 
-  private boolean isMatchNow(SampleResult result) {
-    aggregator.add(getMetricEnumValue().extractFrom(result));
-    return isMatchAt(clock.instant());
+  private boolean isMatchWindow(Instant time) {
+    SlidingWindowAggregator<?> window = (SlidingWindowAggregator<?>) aggregator;
+    while (!window.getSlotEnd().isAfter(time)) {
+      Instant slotEnd = window.getSlotEnd();
+      window.rotate();
+      /*
+       an empty window (eg: before first samples or during ramp-up) is not considered a match, to
+       avoid conditions like lessThan stopping the test plan before samples arrive
+       */
+      if (window.isEmpty()) {
+        matchStart = null;
+      } else if (isMatchAt(slotEnd)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private AutoStopMetric getMetricEnumValue() {
@@ -157,35 +264,41 @@ public class AutoStopConditionElement extends AbstractTestElement {
     return Duration.ofSeconds(getHoldsForSeconds());
   }
 
-  private boolean isMatchSlot(SampleResult result) {
-    Instant currentSlotStart = findSlotStart();
+  private boolean isMatchSlot(Instant time) {
+    Instant currentSlotStart = findSlotStart(time);
     while (!slotStart.equals(currentSlotStart)) {
-      Instant slotEnd = slotStart.plusSeconds(getAggregationResetPeriodSeconds());
+      Instant slotEnd = slotStart.plusSeconds(aggregationResetPeriodSeconds);
       if (isMatchAt(slotEnd)) {
         return true;
       }
       aggregator = getAggregationEnumValue().buildAggregator(this);
       slotStart = slotEnd;
     }
-    aggregator.add(getMetricEnumValue().extractFrom(result));
     return false;
   }
 
-  private Instant findSlotStart() {
+  private Instant findSlotStart(Instant time) {
     long startMillis = slotStart.toEpochMilli();
-    long slotMillis = getAggregationResetPeriodSeconds() * 1000;
-    long nowMillis = clock.instant().toEpochMilli();
+    long slotMillis = aggregationResetPeriodSeconds * 1000;
+    long nowMillis = time.toEpochMilli();
     return slotStart.plusMillis(((nowMillis - startMillis) / slotMillis) * slotMillis);
   }
 
   @Override
   public String toString() {
-    return String.format("%s%s %s (last value: %s) was %s %s%s", buildSamplesMatchingMessage(),
-        getMetricEnumValue().getName(), getAggregationEnumValue().getNameFor(this),
+    return String.format("%s%s %s%s (last value: %s) was %s %s%s",
+        buildSamplesMatchingMessage(), getMetricEnumValue().getName(),
+        getAggregationEnumValue().getNameFor(this), buildSlidingWindowMessage(),
         aggregator != null ? aggregator.getValue() : null, getComparisonEnumValue().getName(),
         getValue(), buildHoldsForMessage());
   }
 
+  private String buildSlidingWindowMessage() {
+    long windowSeconds = getSlidingWindowSeconds();
+    return windowSeconds > 0 ? " in last " + prettyDuration(Duration.ofSeconds(windowSeconds))
+        : "";
+  }
+
   private String buildSamplesMatchingMessage() {
     String regex = getRegex();
     return regex != null ? "samples matching '" + regex + "' " : "";
@@ -2,8 +2,13 @@ package us.abstracta.jmeter.javadsl.core.listeners.autostop;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.reporters.AbstractListenerElement;
 import org.apache.jmeter.samplers.SampleEvent;
@@ -21,16 +26,29 @@ import us.abstracta.jmeter.javadsl.core.engines.TestStopper;
  implementing it as a listener instead of an assertion, so it always executes after all defined
  assertions, and is not possible by mistake to not count some failed assertion in errors count.
  Needs to implement Visualizer so that TestBeanGUI can find the correct GUI class
+
+ To avoid contention between sampler threads, each thread only registers samples metrics values
+ (along with samples end times) in its own stripe, and a separate thread periodically collects the
+ values of all stripes, evaluates the conditions in samples end time order and stops the test plan
+ when any of them is met.
  */
 public class AutoStopTestBean extends AbstractListenerElement implements TestBean,
     SampleListener, TestStateListener, NoThreadClone, Visualizer {
 
   private static final Logger LOG = LoggerFactory.getLogger(AutoStopTestBean.class);
+  private static final long EVALUATION_PERIOD_MILLIS = 100;
 
   private Pattern regex;
   private List<AutoStopConditionElement> conditions;
   private TestStopper testStopper;
-  private boolean stopped;
+  private transient AutoStopConditionElement[] startedConditions;
+  // caches indexes of conditions matching each label to avoid evaluating regexes for each sample
+  private transient Map<String, int[]> labelsConditions;
+  private transient ThreadLocal<Stripe> stripe;
+  private transient List<Stripe> stripes;
+  private transient ValuesBuffer[] collectedValues;
+  private transient Thread evaluator;
+  private transient volatile boolean stopped;
 
   public AutoStopTestBean() {
     this(null, new ArrayList<>(), null);
@@ -77,32 +95,77 @@ public class AutoStopTestBean extends AbstractListenerElement implements TestBea
   }
 
   @Override
-  public synchronized void sampleOccurred(SampleEvent e) {
-    for (AutoStopConditionElement condition : conditions) {
-      if (condition.getRegex() == null && regex != null
-          && !regex.matcher(e.getResult().getSampleLabel()).matches()) {
-        break;
+  public void sampleOccurred(SampleEvent e) {
+    if (stopped) {
+      return;
+    }
+    SampleResult result = e.getResult();
+    String label = result.getSampleLabel() != null ? result.getSampleLabel() : "";
+    int[] matchingConditions = labelsConditions.computeIfAbsent(label,
+        this::findMatchingConditions);
+    if (matchingConditions.length > 0) {
+      stripe.get().add(result, matchingConditions, startedConditions);
+    }
+  }
+
+  private int[] findMatchingConditions(String label) {
+    boolean matchesRegex = regex == null || regex.matcher(label).matches();
+    return IntStream.range(0, startedConditions.length)
+        .filter(i -> startedConditions[i].getRegex() != null
+            ? startedConditions[i].matches(label) : matchesRegex)
+        .toArray();
+  }
+
+  private Stripe buildStripe() {
+    Stripe ret = new Stripe(startedConditions.length);
+    stripes.add(ret);
+    return ret;
+  }
+
+  /**
+   * Collects metrics values registered by sampler threads since last evaluation, and stops the
+   * test plan if any condition is met.
+   * <p>
+   * This is periodically invoked by an internal thread while the test plan runs.
+   */
+  @VisibleForTesting
+  public synchronized void evaluate() {
+    if (stopped) {
+      return;
+    }
+    for (Stripe s : stripes) {
+      s.drainTo(collectedValues);
+    }
+    for (int i = 0; i < startedConditions.length; i++) {
+      ValuesBuffer values = collectedValues[i];
+      AutoStopConditionElement condition = startedConditions[i];
+      if (values.size == 0 && !condition.hasSlidingWindow()) {
+        continue;
       }
-      /*
-       Since stop is async, we check that result property is not already set to avoid overriding it
-       and losing the original condition that triggered the stop
-       */
-      if (!stopped && condition.eval(e.getResult())) {
-        stopped = true;
-        String stopMessage = String.format("%s: %s%s", getName(),
-            buildSamplesMatchingMessage(condition), condition);
-        if (testStopper == null) {
-          LOG.error("{} but no test stopper configured, so is not possible to stop test execution. "
-                  + "This is probably caused by a JMeter DSL engine not supporting autoStop. "
-                  + "Create an issue in the GitHub repository so we can implement proper support.",
-              stopMessage);
-          return;
-        }
-        testStopper.stop(stopMessage);
+      values.sortByTimestamp();
+      boolean matched = condition.eval(values.timestamps, values.values, values.size);
+      values.size = 0;
+      if (matched) {
+        stop(condition);
+        return;
       }
     }
   }
 
+  private void stop(AutoStopConditionElement condition) {
+    stopped = true;
+    String stopMessage = String.format("%s: %s%s", getName(),
+        buildSamplesMatchingMessage(condition), condition);
+    if (testStopper == null) {
+      LOG.error("{} but no test stopper configured, so is not possible to stop test execution. "
+              + "This is probably caused by a JMeter DSL engine not supporting autoStop. "
+              + "Create an issue in the GitHub repository so we can implement proper support.",
+          stopMessage);
+      return;
+    }
+    testStopper.stop(stopMessage);
+  }
+
   @Override
   public void sampleStarted(SampleEvent e) {
   }
@@ -118,6 +181,16 @@ public class AutoStopTestBean extends AbstractListenerElement implements TestBea
   @Override
   public void testStarted() {
     conditions.forEach(AutoStopConditionElement::start);
+    startedConditions = conditions.toArray(new AutoStopConditionElement[0]);
+    labelsConditions = new ConcurrentHashMap<>();
+    stripes = new CopyOnWriteArrayList<>();
+    stripe = ThreadLocal.withInitial(this::buildStripe);
+    collectedValues = new ValuesBuffer[startedConditions.length];
+    Arrays.setAll(collectedValues, i -> new ValuesBuffer());
+    stopped = false;
+    evaluator = new Thread(this::runEvaluator, getName() + " evaluator");
+    evaluator.setDaemon(true);
+    evaluator.start();
   }
 
   @Override
@@ -125,12 +198,42 @@ public class AutoStopTestBean extends AbstractListenerElement implements TestBea
     testStarted();
   }
 
+  private void runEvaluator() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Thread.sleep(EVALUATION_PERIOD_MILLIS);
+        evaluate();
+      }
+    } catch (InterruptedException e) {
+      // this is expected when test ends
+    } catch (RuntimeException e) {
+      LOG.error("Problem evaluating {} conditions. No more evaluations will be done.", getName(),
+          e);
+      // avoid sampler threads collecting values that will never be evaluated
+      stopped = true;
+      stripes.forEach(Stripe::clear);
+    }
+  }
+
   @Override
   public void testEnded() {
+    if (evaluator == null) {
+      return;
+    }
+    evaluator.interrupt();
+    try {
+      evaluator.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    evaluator = null;
+    // evaluating pending values, since samples of last period may meet some condition
+    evaluate();
   }
 
   @Override
   public void testEnded(String host) {
+    testEnded();
   }
 
   @VisibleForTesting
@@ -138,4 +241,127 @@ public class AutoStopTestBean extends AbstractListenerElement implements TestBea
     this.conditions.forEach(c -> c.setClock(clock));
   }
 
+  /*
+   Keeps metrics values registered by a sampler thread since last evaluation.
+
+   Only the owner thread adds values and the evaluator thread drains them, so the lock is almost
+   never contended.
+   */
+  private static class Stripe {
+
+    private final ValuesBuffer[] conditionsValues;
+
+    private Stripe(int conditionsCount) {
+      conditionsValues = new ValuesBuffer[conditionsCount];
+      Arrays.setAll(conditionsValues, i -> new ValuesBuffer());
+    }
+
+    private synchronized void add(SampleResult result, int[] conditionIndexes,
+        AutoStopConditionElement[] conditions) {
+      long endTime = result.getEndTime();
+      for (int i : conditionIndexes) {
+        conditionsValues[i].add(endTime, conditions[i].extractMetric(result));
+      }
+    }
+
+    private synchronized void drainTo(ValuesBuffer[] target) {
+      for (int i = 0; i < conditionsValues.length; i++) {
+        conditionsValues[i].drainTo(target[i]);
+      }
+    }
+
+    private synchronized void clear() {
+      Arrays.setAll(conditionsValues, i -> new ValuesBuffer());
+    }
+
+  }
+
+  private static class ValuesBuffer {
+
+    private long[] timestamps = new long[64];
+    private long[] values = new long[64];
+    private int size;
+    // reused between sorts to avoid allocating arrays on each evaluation
+    private long[] sortTimestamps = new long[0];
+    private long[] sortValues = new long[0];
+
+    private void add(long timestamp, long value) {
+      ensureCapacity(size + 1);
+      timestamps[size] = timestamp;
+      values[size++] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (values.length < capacity) {
+        int length = Math.max(capacity, values.length * 2);
+        timestamps = Arrays.copyOf(timestamps, length);
+        values = Arrays.copyOf(values, length);
+      }
+    }
+
+    private void drainTo(ValuesBuffer target) {
+      if (size == 0) {
+        return;
+      }
+      target.ensureCapacity(target.size + size);
+      System.arraycopy(timestamps, 0, target.timestamps, target.size, size);
+      System.arraycopy(values, 0, target.values, target.size, size);
+      target.size += size;
+      size = 0;
+    }
+
+    /*
+     Values drained from each stripe are usually sorted, but values of different stripes are
+     interleaved in time, so they need to be sorted to evaluate conditions in samples end time
+     order. A stable bottom up merge sort is used to keep values along with their timestamps.
+     */
+    private void sortByTimestamp() {
+      if (isSorted()) {
+        return;
+      }
+      if (sortValues.length < size) {
+        sortTimestamps = new long[timestamps.length];
+        sortValues = new long[values.length];
+      }
+      long[] srcTimestamps = timestamps;
+      long[] srcValues = values;
+      long[] dstTimestamps = sortTimestamps;
+      long[] dstValues = sortValues;
+      for (int width = 1; width < size; width *= 2) {
+        for (int low = 0; low < size; low += 2 * width) {
+          int mid = Math.min(low + width, size);
+          int high = Math.min(low + 2 * width, size);
+          int left = low;
+          int right = mid;
+          for (int i = low; i < high; i++) {
+            int from = left < mid && (right >= high || srcTimestamps[left] <= srcTimestamps[right])
+                ? left++ : right++;
+            dstTimestamps[i] = srcTimestamps[from];
+            dstValues[i] = srcValues[from];
+          }
+        }
+        long[] swap = srcTimestamps;
+        srcTimestamps = dstTimestamps;
+        dstTimestamps = swap;
+        swap = srcValues;
+        srcValues = dstValues;
+        dstValues = swap;
+      }
+      timestamps = srcTimestamps;
+      values = srcValues;
+      sortTimestamps = dstTimestamps;
+      sortValues = dstValues;
+    }
+
+    private boolean isSorted() {
+      for (int i = 1; i < size; i++) {
+        if (timestamps[i] < timestamps[i - 1]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
 }
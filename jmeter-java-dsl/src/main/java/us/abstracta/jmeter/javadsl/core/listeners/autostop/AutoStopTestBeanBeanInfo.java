@@ -15,7 +15,8 @@ public class AutoStopTestBeanBeanInfo extends BeanInfoSupport {
     p.setPropertyEditorClass(TableEditor.class);
     p.setValue(TableEditor.CLASSNAME, AutoStopConditionElement.class.getName());
     String[] props = new String[]{"regex", "metric", "aggregation", "percentile",
-        "aggregationResetPeriodSeconds", "comparison", "value", "holdsForSeconds"};
+        "aggregationResetPeriodSeconds", "slidingWindowSeconds", "comparison", "value",
+        "holdsForSeconds"};
     p.setValue(TableEditor.HEADERS, Arrays.stream(props)
         .map(prop -> JMeterUtils.getResString("autostop_" + prop))
         .toArray(String[]::new));
@@ -1,9 +1,21 @@
 package us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators;
 
+import java.time.Instant;
+
 public interface AutoStopAggregator<T extends Comparable<?>> {
 
   void add(long value);
 
+  /**
+   * Adds a value of a sample that ended at the given time.
+   * <p>
+   * Aggregators which depend on time should override this method, since values may be added some
+   * time after their samples end.
+   */
+  default void add(long value, Instant time) {
+    add(value);
+  }
+
   T getValue();
 
 }
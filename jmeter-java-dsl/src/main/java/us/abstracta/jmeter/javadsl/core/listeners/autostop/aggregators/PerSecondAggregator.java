@@ -17,7 +17,11 @@ public class PerSecondAggregator implements AutoStopAggregator<Double> {
 
   @Override
   public void add(long value) {
-    Instant now = clock.instant();
+    add(value, clock.instant());
+  }
+
+  @Override
+  public void add(long value, Instant now) {
     if (nextSecond.compareTo(now) > 0) {
       countInSecond++;
       return;
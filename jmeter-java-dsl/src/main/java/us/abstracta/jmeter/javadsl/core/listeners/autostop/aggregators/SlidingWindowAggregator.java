@@ -0,0 +1,79 @@
+package us.abstracta.jmeter.javadsl.core.listeners.autostop.aggregators;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.function.BiFunction;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
+
+/*
+ Keeps a ring of one second histograms, so the aggregated value can be calculated over the last
+ complete seconds of the window with constant memory, no matter the number of samples.
+ */
+public class SlidingWindowAggregator<T extends Comparable<?>> implements AutoStopAggregator<T> {
+
+  private final LogLinearHistogram[] slots;
+  private final LogLinearHistogram window = new LogLinearHistogram();
+  private final BiFunction<LogLinearHistogram, Integer, T> valueSolver;
+  private int currentSlot;
+  private int completedSlots;
+  private Instant slotEnd;
+
+  /**
+   * Creates an aggregator for a window of the given number of seconds.
+   *
+   * @param windowSeconds specifies the number of seconds of the window.
+   * @param clock         clock used to solve the end of the current second.
+   * @param valueSolver   calculates the aggregated value from the histogram of the window and the
+   *                      number of seconds it contains (which is less than the window size during
+   *                      the first seconds).
+   */
+  public SlidingWindowAggregator(int windowSeconds, Clock clock,
+      BiFunction<LogLinearHistogram, Integer, T> valueSolver) {
+    slots = new LogLinearHistogram[windowSeconds];
+    for (int i = 0; i < windowSeconds; i++) {
+      slots[i] = new LogLinearHistogram();
+    }
+    this.valueSolver = valueSolver;
+    slotEnd = clock.instant().plusSeconds(1);
+  }
+
+  @Override
+  public void add(long value) {
+    slots[currentSlot].record(value);
+  }
+
+  public Instant getSlotEnd() {
+    return slotEnd;
+  }
+
+  /**
+   * Includes the current second in the window, discarding the oldest one, and starts a new
+   * second.
+   */
+  public void rotate() {
+    window.reset();
+    for (LogLinearHistogram slot : slots) {
+      window.merge(slot);
+    }
+    completedSlots = Math.min(completedSlots + 1, slots.length);
+    currentSlot = (currentSlot + 1) % slots.length;
+    slots[currentSlot].reset();
+    slotEnd = slotEnd.plusSeconds(1);
+  }
+
+  /**
+   * Checks if no value was collected in the complete seconds of the window.
+   * <p>
+   * The value of an empty window is meaningless (eg: it is 0 for any aggregation), so it should
+   * not be compared to condition values.
+   */
+  public boolean isEmpty() {
+    return window.count() == 0;
+  }
+
+  @Override
+  public T getValue() {
+    return valueSolver.apply(window, completedSlots);
+  }
+
+}
@@ -0,0 +1,420 @@
+package us.abstracta.jmeter.javadsl.core.listeners.graphite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.apache.jmeter.visualizers.backend.UserMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
+
+/**
+ * Graphite backend listener client which aggregates metrics in the load generator and sends them
+ * in batches with pickle protocol.
+ * <p>
+ * In contrast to JMeter Graphite client, this client:
+ * <ul>
+ * <li>Calculates percentiles from mergeable histograms, instead of keeping windows of response
+ * times per label and status.</li>
+ * <li>Builds metrics names from a template (check {@link #METRICS_TEMPLATE_ARG}), which allows
+ * aggregating several sample labels in same metrics to control the number of series stored in
+ * Graphite.</li>
+ * <li>Sends all metrics of each send interval in pickle frames of up to a maximum number of
+ * metrics, through a connection which is kept open between intervals.</li>
+ * </ul>
+ * <p>
+ * Backend listener consumer threads only add sample results to aggregated metrics, and metrics
+ * are sent from a separate thread, so a slow Graphite server does not delay the handling of sample
+ * results.
+ *
+ * @since 2.3
+ */
+public class AggregatingGraphiteBackendListenerClient extends AbstractBackendListenerClient {
+
+  public static final String HOST_ARG = "graphiteHost";
+  public static final String PORT_ARG = "graphitePort";
+  public static final String PREFIX_ARG = "rootMetricsPrefix";
+  public static final String SUMMARY_ONLY_ARG = "summaryOnly";
+  public static final String SAMPLERS_LIST_ARG = "samplersList";
+  public static final String USE_REGEX_ARG = "useRegexpForSamplersList";
+  public static final String PERCENTILES_ARG = "percentiles";
+  /**
+   * Template used to build sample metrics names (after the root prefix).
+   * <p>
+   * Supports {label} (sanitized sample label), {status} (a, ok or ko) and {metric} (count, min,
+   * max, avg, pctXX, etc.) placeholders. {metric} is required, and when {label} is not included
+   * all sample labels are aggregated in the same metrics. When {status} is not included, only
+   * metrics of all samples (no matter their status) are sent.
+   */
+  public static final String METRICS_TEMPLATE_ARG = "metricsTemplate";
+  public static final String MAX_BATCH_SIZE_ARG = "maxBatchSize";
+  public static final String SEND_INTERVAL_ARG = "sendIntervalMillis";
+  public static final String DEFAULT_METRICS_TEMPLATE = "{label}.{status}.{metric}";
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+      AggregatingGraphiteBackendListenerClient.class);
+  private static final String LABEL_PLACEHOLDER = "{label}";
+  private static final String STATUS_PLACEHOLDER = "{status}";
+  private static final String METRIC_PLACEHOLDER = "{metric}";
+  private static final String CUMULATED_METRICS = "all";
+  private static final String STATUS_ALL = "a";
+  private static final String STATUS_OK = "ok";
+  private static final String STATUS_KO = "ko";
+  private static final Pattern UNSUPPORTED_NAME_CHARS = Pattern.compile("[^\\w\\-]");
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+  private static final int SHUTDOWN_TIMEOUT_MILLIS = 3000;
+
+  // labels are mapped to series with a cache to avoid rendering template and regex matching
+  private final Map<String, SeriesMetrics> labelsSeries = new ConcurrentHashMap<>();
+  private final Map<String, SeriesMetrics> series = new ConcurrentHashMap<>();
+  private final SeriesMetrics ignoredSeries = new SeriesMetrics(null);
+  private SeriesMetrics cumulatedSeries;
+  private String host;
+  private int port;
+  private String prefix;
+  private boolean summaryOnly;
+  private Pattern samplersRegex;
+  private List<String> samplersList;
+  private String metricsTemplate;
+  private String[] percentiles;
+  private int maxBatchSize;
+  private ScheduledExecutorService scheduler;
+  /*
+   socket is only accessed while holding this instance lock, except when closing it on teardown to
+   unblock a pending write, which is why it is volatile.
+   */
+  private volatile Socket socket;
+
+  @Override
+  public Arguments getDefaultParameters() {
+    Arguments ret = new Arguments();
+    ret.addArgument(HOST_ARG, "");
+    ret.addArgument(PORT_ARG, "2004");
+    ret.addArgument(PREFIX_ARG, "jmeter.");
+    ret.addArgument(SUMMARY_ONLY_ARG, "false");
+    ret.addArgument(SAMPLERS_LIST_ARG, ".*");
+    ret.addArgument(USE_REGEX_ARG, "true");
+    ret.addArgument(PERCENTILES_ARG, "90;95;99");
+    ret.addArgument(METRICS_TEMPLATE_ARG, DEFAULT_METRICS_TEMPLATE);
+    ret.addArgument(MAX_BATCH_SIZE_ARG, "500");
+    ret.addArgument(SEND_INTERVAL_ARG, "1000");
+    return ret;
+  }
+
+  @Override
+  public void setupTest(BackendListenerContext context) throws Exception {
+    host = context.getParameter(HOST_ARG);
+    port = context.getIntParameter(PORT_ARG, 2004);
+    prefix = context.getParameter(PREFIX_ARG, "jmeter.");
+    summaryOnly = context.getBooleanParameter(SUMMARY_ONLY_ARG, false);
+    String samplers = context.getParameter(SAMPLERS_LIST_ARG, "");
+    if (context.getBooleanParameter(USE_REGEX_ARG, false)) {
+      samplersRegex = Pattern.compile(samplers);
+    } else {
+      samplersList = Arrays.asList(samplers.split(";"));
+    }
+    metricsTemplate = context.getParameter(METRICS_TEMPLATE_ARG, DEFAULT_METRICS_TEMPLATE);
+    if (!metricsTemplate.contains(METRIC_PLACEHOLDER)) {
+      throw new IllegalArgumentException("Metrics template must contain " + METRIC_PLACEHOLDER
+          + ", but was " + metricsTemplate);
+    }
+    percentiles = Arrays.stream(context.getParameter(PERCENTILES_ARG, "").split(";"))
+        .map(String::trim)
+        .filter(p -> !p.isEmpty())
+        .toArray(String[]::new);
+    maxBatchSize = context.getIntParameter(MAX_BATCH_SIZE_ARG, 500);
+    long sendIntervalMillis = context.getLongParameter(SEND_INTERVAL_ARG, 1000);
+    labelsSeries.clear();
+    series.clear();
+    // when labels are not part of the name, cumulated metrics would overwrite samples ones
+    cumulatedSeries = metricsTemplate.contains(LABEL_PLACEHOLDER)
+        ? new SeriesMetrics(renderSeries(CUMULATED_METRICS)) : null;
+    super.setupTest(context);
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread ret = new Thread(r, "graphite-aggregating-sender");
+      ret.setDaemon(true);
+      return ret;
+    });
+    scheduler.scheduleAtFixedRate(this::sendMetrics, sendIntervalMillis, sendIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  private String renderSeries(String label) {
+    return prefix + metricsTemplate.replace(LABEL_PLACEHOLDER,
+        UNSUPPORTED_NAME_CHARS.matcher(label).replaceAll("-"));
+  }
+
+  @Override
+  public void handleSampleResults(List<SampleResult> results, BackendListenerContext context) {
+    UserMetric userMetrics = getUserMetrics();
+    for (SampleResult result : results) {
+      userMetrics.add(result);
+      if (!summaryOnly) {
+        SeriesMetrics labelSeries = labelsSeries.computeIfAbsent(result.getSampleLabel(),
+            this::findSeries);
+        if (labelSeries != ignoredSeries) {
+          labelSeries.add(result);
+        }
+      }
+      if (cumulatedSeries != null) {
+        cumulatedSeries.add(result);
+      }
+    }
+  }
+
+  private SeriesMetrics findSeries(String label) {
+    if (samplersRegex != null ? !samplersRegex.matcher(label).matches()
+        : !samplersList.contains(label)) {
+      return ignoredSeries;
+    }
+    return series.computeIfAbsent(renderSeries(label), SeriesMetrics::new);
+  }
+
+  private void sendMetrics() {
+    try {
+      long timestampSeconds = System.currentTimeMillis() / 1000;
+      List<Metric> metrics = new ArrayList<>();
+      series.values().forEach(s -> s.collect().addMetrics(timestampSeconds, metrics));
+      if (cumulatedSeries != null) {
+        cumulatedSeries.collect().addMetrics(timestampSeconds, metrics);
+      }
+      addUserMetrics(timestampSeconds, metrics);
+      for (int i = 0; i < metrics.size(); i += maxBatchSize) {
+        send(metrics.subList(i, Math.min(metrics.size(), i + maxBatchSize)));
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Problem sending metrics to Graphite", e);
+    }
+  }
+
+  private void addUserMetrics(long timestampSeconds, List<Metric> metrics) {
+    UserMetric userMetrics = getUserMetrics();
+    String testPrefix = prefix + "test.";
+    metrics.add(new Metric(testPrefix + "minAT", userMetrics.getMinActiveThreads(),
+        timestampSeconds));
+    metrics.add(new Metric(testPrefix + "maxAT", userMetrics.getMaxActiveThreads(),
+        timestampSeconds));
+    metrics.add(new Metric(testPrefix + "meanAT", userMetrics.getMeanActiveThreads(),
+        timestampSeconds));
+    metrics.add(new Metric(testPrefix + "startedT", userMetrics.getStartedThreads(),
+        timestampSeconds));
+    metrics.add(new Metric(testPrefix + "endedT", userMetrics.getFinishedThreads(),
+        timestampSeconds));
+    userMetrics.resetForTimeInterval();
+  }
+
+  private synchronized void send(List<Metric> metrics) {
+    try {
+      if (socket == null) {
+        socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+      }
+      OutputStream output = socket.getOutputStream();
+      output.write(buildPickleFrame(metrics));
+      output.flush();
+    } catch (IOException e) {
+      LOG.error("Problem sending {} metrics to Graphite {}:{}", metrics.size(), host, port, e);
+      closeSocket();
+    }
+  }
+
+  /*
+   Carbon pickle protocol expects a 4 bytes big endian length header followed by a pickled list of
+   (path, (timestamp, value)) tuples. Only the few opcodes required for such structure are
+   generated, as JMeter pickle sender does.
+   */
+  private static byte[] buildPickleFrame(List<Metric> metrics) {
+    StringBuilder pickle = new StringBuilder(metrics.size() * 64)
+        .append("(l");
+    for (Metric metric : metrics) {
+      pickle.append("(S'").append(metric.path).append("'\n")
+          .append("(L").append(metric.timestampSeconds).append("L\n")
+          .append("S'").append(metric.value).append("'\n")
+          .append("tta");
+    }
+    pickle.append('.');
+    byte[] payload = pickle.toString().getBytes(StandardCharsets.US_ASCII);
+    ByteArrayOutputStream ret = new ByteArrayOutputStream(payload.length + 4);
+    ret.write(payload.length >>> 24);
+    ret.write(payload.length >>> 16);
+    ret.write(payload.length >>> 8);
+    ret.write(payload.length);
+    ret.write(payload, 0, payload.length);
+    return ret.toByteArray();
+  }
+
+  private synchronized void closeSocket() {
+    if (socket == null) {
+      return;
+    }
+    try {
+      socket.close();
+    } catch (IOException e) {
+      LOG.warn("Problem closing connection to Graphite", e);
+    }
+    socket = null;
+  }
+
+  private void abortSocket() {
+    Socket pendingSocket = socket;
+    if (pendingSocket == null) {
+      return;
+    }
+    try {
+      pendingSocket.close();
+    } catch (IOException e) {
+      LOG.warn("Problem closing connection to Graphite", e);
+    }
+  }
+
+  @Override
+  public void teardownTest(BackendListenerContext context) throws Exception {
+    scheduler.shutdown();
+    if (scheduler.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+      sendMetrics();
+      closeSocket();
+    } else {
+      LOG.warn("Timeout waiting for metrics to be sent to Graphite {}:{}. Skipping last metrics.",
+          host, port);
+      scheduler.shutdownNow();
+      abortSocket();
+    }
+    super.teardownTest(context);
+  }
+
+  private static class Metric {
+
+    private final String path;
+    private final Object value;
+    private final long timestampSeconds;
+
+    private Metric(String path, Object value, long timestampSeconds) {
+      this.path = path;
+      this.value = value;
+      this.timestampSeconds = timestampSeconds;
+    }
+
+  }
+
+  /*
+   Keeps metrics of a series (the sample labels which render to the same name) in current send
+   interval.
+
+   Sample results are added from backend listener consumer threads and metrics are collected by
+   the scheduler thread, so access is synchronized. The lock is held only for a few operations on
+   each sample result, since percentiles are only calculated on collected copies.
+   */
+  private class SeriesMetrics {
+
+    private final String name;
+    private LogLinearHistogram okTimes = new LogLinearHistogram();
+    private LogLinearHistogram koTimes = new LogLinearHistogram();
+    private long sentBytes;
+    private long receivedBytes;
+    private long hits;
+
+    private SeriesMetrics(String name) {
+      this.name = name;
+    }
+
+    private synchronized void add(SampleResult result) {
+      int samples = result.getSampleCount();
+      if (result.isSuccessful()) {
+        okTimes.record(result.getTime(), samples);
+      } else {
+        koTimes.record(result.getTime(), samples);
+      }
+      sentBytes += result.getSentBytes();
+      receivedBytes += result.getBytesAsLong();
+      hits += samples + result.getSubResults().length;
+    }
+
+    private synchronized CollectedMetrics collect() {
+      CollectedMetrics ret = new CollectedMetrics(name, okTimes, koTimes, sentBytes,
+          receivedBytes, hits);
+      okTimes = new LogLinearHistogram();
+      koTimes = new LogLinearHistogram();
+      sentBytes = 0;
+      receivedBytes = 0;
+      hits = 0;
+      return ret;
+    }
+
+  }
+
+  private class CollectedMetrics {
+
+    private final String name;
+    private final LogLinearHistogram okTimes;
+    private final LogLinearHistogram koTimes;
+    private final LogLinearHistogram allTimes = new LogLinearHistogram();
+    private final long sentBytes;
+    private final long receivedBytes;
+    private final long hits;
+
+    private CollectedMetrics(String name, LogLinearHistogram okTimes, LogLinearHistogram koTimes,
+        long sentBytes, long receivedBytes, long hits) {
+      this.name = name;
+      this.okTimes = okTimes;
+      this.koTimes = koTimes;
+      allTimes.merge(okTimes);
+      allTimes.merge(koTimes);
+      this.sentBytes = sentBytes;
+      this.receivedBytes = receivedBytes;
+      this.hits = hits;
+    }
+
+    private void addMetrics(long timestampSeconds, List<Metric> metrics) {
+      if (allTimes.count() == 0) {
+        return;
+      }
+      addTimeMetrics(STATUS_ALL, allTimes, timestampSeconds, metrics);
+      addMetric(STATUS_ALL, "sb", sentBytes, timestampSeconds, metrics);
+      addMetric(STATUS_ALL, "rb", receivedBytes, timestampSeconds, metrics);
+      addMetric(STATUS_ALL, "h.count", hits, timestampSeconds, metrics);
+      if (name.contains(STATUS_PLACEHOLDER)) {
+        addTimeMetrics(STATUS_OK, okTimes, timestampSeconds, metrics);
+        addTimeMetrics(STATUS_KO, koTimes, timestampSeconds, metrics);
+      }
+    }
+
+    private void addTimeMetrics(String status, LogLinearHistogram times, long timestampSeconds,
+        List<Metric> metrics) {
+      addMetric(status, "count", times.count(), timestampSeconds, metrics);
+      if (times.count() == 0) {
+        return;
+      }
+      addMetric(status, "min", times.min(), timestampSeconds, metrics);
+      addMetric(status, "max", times.max(), timestampSeconds, metrics);
+      addMetric(status, "avg", times.mean(), timestampSeconds, metrics);
+      for (String percentile : percentiles) {
+        addMetric(status, "pct" + percentile.replace('.', '_'),
+            times.percentile(Double.parseDouble(percentile)), timestampSeconds, metrics);
+      }
+    }
+
+    private void addMetric(String status, String metric, Object value, long timestampSeconds,
+        List<Metric> metrics) {
+      metrics.add(new Metric(name.replace(STATUS_PLACEHOLDER, status)
+          .replace(METRIC_PLACEHOLDER, metric), value, timestampSeconds));
+    }
+
+  }
+
+}
@@ -0,0 +1,118 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.util.Arrays;
+
+/*
+ Binary JTL files have following layout:
+
+ - header: MAGIC bytes and VERSION byte.
+ - blocks: each block starts with a varint with the number of records in the block, followed by a
+   varint with the block payload size in bytes, and the payload. The payload contains new
+   dictionary entries (varint count, and for each entry a varint length and UTF-8 bytes), and then
+   each column values for all block records, in the order defined by JtlRecord fields: longs and
+   dictionary ids as varints (timestamps as zigzag encoded deltas) and success as a bitset.
+ - end: a block with zero records.
+
+ Dictionary entries are shared by all string columns, with id 0 being reserved for empty strings.
+ */
+class BinaryJtlFormat {
+
+  static final byte[] MAGIC = {'J', 'T', 'L', 'B'};
+  static final byte VERSION = 1;
+  static final int BLOCK_SIZE = 4096;
+
+  private BinaryJtlFormat() {
+  }
+
+  static class ByteBuffer {
+
+    private byte[] bytes;
+    private int size;
+    private int position;
+
+    ByteBuffer(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    byte[] bytes() {
+      return bytes;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      size = 0;
+      position = 0;
+    }
+
+    void ensureCapacity(int capacity) {
+      if (bytes.length < capacity) {
+        bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+      }
+    }
+
+    void setSize(int size) {
+      this.size = size;
+      position = 0;
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(size + 1);
+      bytes[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] value) {
+      ensureCapacity(size + value.length);
+      System.arraycopy(value, 0, bytes, size, value.length);
+      size += value.length;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(size + 10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeZigZagLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    int readByte() {
+      return bytes[position++] & 0xFF;
+    }
+
+    byte[] readBytes(int length) {
+      byte[] ret = Arrays.copyOfRange(bytes, position, position + length);
+      position += length;
+      return ret;
+    }
+
+    long readVarLong() {
+      long ret = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        ret |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return ret;
+    }
+
+    int readVarInt() {
+      return (int) readVarLong();
+    }
+
+    long readZigZagLong() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+  }
+
+}
@@ -0,0 +1,209 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlFormat.ByteBuffer;
+
+/**
+ * Writes sample results in a compact binary columnar format.
+ * <p>
+ * Records are grouped in blocks, and each block stores the values of each field contiguously,
+ * using variable length integers and delta encoded timestamps, and replacing strings (labels,
+ * response codes, etc.) with ids of a dictionary stored in the same file. This avoids formatting
+ * each field as text and produces files that are considerably smaller than CSV ones and that can
+ * be read much faster with {@link BinaryJtlReader}.
+ * <p>
+ * Stored fields are the ones included by default in CSV JTL files (check {@link JtlRecord}), and
+ * provided {@link SampleSaveConfiguration} is ignored. Take into consideration that the
+ * dictionary is kept in memory while writing, so avoid using this format when labels, response
+ * messages or URLs have unbounded cardinality.
+ *
+ * @since 2.3
+ */
+public class BinaryJtlOutput implements JtlOutput {
+
+  private final Path path;
+  private OutputStream out;
+  private final Map<String, Integer> dictionary = new HashMap<>();
+  private final List<String> newEntries = new ArrayList<>();
+  private final ByteBuffer blockHeader = new ByteBuffer(20);
+  private final ByteBuffer payload = new ByteBuffer(64 * 1024);
+  private final long[] timeStamps = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] elapsed = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] labels = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] responseCodes = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] responseMessages = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] threadNames = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] dataTypes = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final boolean[] successes = new boolean[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] failureMessages = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] bytes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] sentBytes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] grpThreads = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] allThreads = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final int[] urls = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] latencies = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] idleTimes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private final long[] connectTimes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private int count;
+
+  public BinaryJtlOutput(Path path) {
+    this.path = path;
+  }
+
+  @Override
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public synchronized void open(SampleSaveConfiguration config) throws IOException {
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+    out.write(BinaryJtlFormat.MAGIC);
+    out.write(BinaryJtlFormat.VERSION);
+    dictionary.clear();
+    dictionary.put("", 0);
+    newEntries.clear();
+    count = 0;
+  }
+
+  @Override
+  public synchronized void write(SampleEvent event) throws IOException {
+    if (out == null) {
+      throw new IllegalStateException("Output for " + path + " has not been opened");
+    }
+    SampleResult result = event.getResult();
+    timeStamps[count] = result.getTimeStamp();
+    elapsed[count] = result.getTime();
+    labels[count] = dictionaryId(result.getSampleLabel());
+    responseCodes[count] = dictionaryId(result.getResponseCode());
+    responseMessages[count] = dictionaryId(result.getResponseMessage());
+    threadNames[count] = dictionaryId(result.getThreadName());
+    dataTypes[count] = dictionaryId(result.getDataType());
+    successes[count] = result.isSuccessful();
+    failureMessages[count] = dictionaryId(findFailureMessage(result));
+    bytes[count] = result.getBytesAsLong();
+    sentBytes[count] = result.getSentBytes();
+    grpThreads[count] = result.getGroupThreads();
+    allThreads[count] = result.getAllThreads();
+    urls[count] = dictionaryId(result.getUrlAsString());
+    latencies[count] = result.getLatency();
+    idleTimes[count] = result.getIdleTime();
+    connectTimes[count] = result.getConnectTime();
+    if (++count == BinaryJtlFormat.BLOCK_SIZE) {
+      writeBlock();
+    }
+  }
+
+  private int dictionaryId(String value) {
+    if (value == null) {
+      return 0;
+    }
+    Integer ret = dictionary.get(value);
+    if (ret == null) {
+      ret = dictionary.size();
+      dictionary.put(value, ret);
+      newEntries.add(value);
+    }
+    return ret;
+  }
+
+  private static String findFailureMessage(SampleResult result) {
+    // same logic as used by JMeter CSV JTL
+    for (AssertionResult assertion : result.getAssertionResults()) {
+      String message = assertion.getFailureMessage();
+      if (message != null) {
+        return message;
+      }
+    }
+    return null;
+  }
+
+  private void writeBlock() throws IOException {
+    payload.clear();
+    payload.writeVarLong(newEntries.size());
+    for (String entry : newEntries) {
+      byte[] entryBytes = entry.getBytes(StandardCharsets.UTF_8);
+      payload.writeVarLong(entryBytes.length);
+      payload.writeBytes(entryBytes);
+    }
+    newEntries.clear();
+    long prevTimeStamp = 0;
+    for (int i = 0; i < count; i++) {
+      payload.writeZigZagLong(timeStamps[i] - prevTimeStamp);
+      prevTimeStamp = timeStamps[i];
+    }
+    writeColumn(elapsed);
+    writeColumn(labels);
+    writeColumn(responseCodes);
+    writeColumn(responseMessages);
+    writeColumn(threadNames);
+    writeColumn(dataTypes);
+    for (int i = 0; i < count; i += 8) {
+      int bits = 0;
+      for (int j = 0; j < 8 && i + j < count; j++) {
+        if (successes[i + j]) {
+          bits |= 1 << j;
+        }
+      }
+      payload.writeByte(bits);
+    }
+    writeColumn(failureMessages);
+    writeColumn(bytes);
+    writeColumn(sentBytes);
+    writeColumn(grpThreads);
+    writeColumn(allThreads);
+    writeColumn(urls);
+    writeColumn(latencies);
+    writeColumn(idleTimes);
+    writeColumn(connectTimes);
+    blockHeader.clear();
+    blockHeader.writeVarLong(count);
+    blockHeader.writeVarLong(payload.size());
+    out.write(blockHeader.bytes(), 0, blockHeader.size());
+    out.write(payload.bytes(), 0, payload.size());
+    count = 0;
+  }
+
+  private void writeColumn(long[] values) {
+    for (int i = 0; i < count; i++) {
+      payload.writeVarLong(values[i]);
+    }
+  }
+
+  private void writeColumn(int[] values) {
+    for (int i = 0; i < count; i++) {
+      payload.writeVarLong(values[i]);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (out == null) {
+      return;
+    }
+    if (count > 0) {
+      writeBlock();
+    }
+    // zero records block marks the end of the file
+    out.write(0);
+    out.close();
+    out = null;
+  }
+
+}
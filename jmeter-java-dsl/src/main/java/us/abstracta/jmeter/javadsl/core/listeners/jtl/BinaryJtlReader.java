@@ -0,0 +1,316 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlFormat.ByteBuffer;
+
+/**
+ * Reads files generated by {@link BinaryJtlOutput}.
+ * <p>
+ * Records are decoded a block at a time, and provided through a single reused {@link JtlRecord}
+ * instance, which allows scanning millions of records per second with minimal allocations.
+ *
+ * @since 2.3
+ */
+public class BinaryJtlReader implements Closeable {
+
+  private static final String CSV_HEADER = "timeStamp,elapsed,label,responseCode,responseMessage,"
+      + "threadName,dataType,success,failureMessage,bytes,sentBytes,grpThreads,allThreads,URL,"
+      + "Latency,IdleTime,Connect";
+
+  private final Path path;
+  private final InputStream in;
+  private final List<String> dictionary = new ArrayList<>();
+  private final ByteBuffer payload = new ByteBuffer(64 * 1024);
+  private long[] timeStamps = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] elapsed = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] labels = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] responseCodes = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] responseMessages = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] threadNames = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] dataTypes = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private boolean[] successes = new boolean[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] failureMessages = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] bytes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] sentBytes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] grpThreads = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] allThreads = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private int[] urls = new int[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] latencies = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] idleTimes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private long[] connectTimes = new long[BinaryJtlFormat.BLOCK_SIZE];
+  private int count;
+
+  public BinaryJtlReader(Path path) throws IOException {
+    this.path = path;
+    in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+    try {
+      byte[] magic = new byte[BinaryJtlFormat.MAGIC.length];
+      if (in.read(magic) != magic.length || !Arrays.equals(magic, BinaryJtlFormat.MAGIC)) {
+        throw new IOException(path + " is not a binary JTL file");
+      }
+      int version = in.read();
+      if (version != BinaryJtlFormat.VERSION) {
+        throw new IOException("Unsupported binary JTL version " + version + " in " + path);
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    dictionary.add("");
+  }
+
+  /**
+   * Checks if the given file is a binary JTL file.
+   *
+   * @param path is the path to the file to check.
+   * @return true if the file starts with binary JTL header, false otherwise.
+   * @throws IOException if there is some problem reading the file.
+   */
+  public static boolean isBinaryJtl(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      byte[] magic = new byte[BinaryJtlFormat.MAGIC.length];
+      return in.read(magic) == magic.length && Arrays.equals(magic, BinaryJtlFormat.MAGIC);
+    }
+  }
+
+  /**
+   * Reads all the records of the file.
+   *
+   * @param consumer is invoked for each record. The same {@link JtlRecord} instance is provided in
+   *                 each invocation, so don't keep references to it.
+   * @throws IOException if there is some problem reading the file or its contents are invalid.
+   */
+  public void forEach(Consumer<? super JtlRecord> consumer) throws IOException {
+    JtlRecord record = new JtlRecord();
+    while (readBlock()) {
+      for (int i = 0; i < count; i++) {
+        record.timeStamp = timeStamps[i];
+        record.elapsed = elapsed[i];
+        record.label = dictionary.get(labels[i]);
+        record.responseCode = dictionary.get(responseCodes[i]);
+        record.responseMessage = dictionary.get(responseMessages[i]);
+        record.threadName = dictionary.get(threadNames[i]);
+        record.dataType = dictionary.get(dataTypes[i]);
+        record.success = successes[i];
+        record.failureMessage = dictionary.get(failureMessages[i]);
+        record.bytes = bytes[i];
+        record.sentBytes = sentBytes[i];
+        record.grpThreads = grpThreads[i];
+        record.allThreads = allThreads[i];
+        record.url = dictionary.get(urls[i]);
+        record.latency = latencies[i];
+        record.idleTime = idleTimes[i];
+        record.connect = connectTimes[i];
+        consumer.accept(record);
+      }
+    }
+  }
+
+  private boolean readBlock() throws IOException {
+    // we tolerate missing end block, since file might have not been properly closed
+    int firstByte = in.read();
+    if (firstByte == -1) {
+      return false;
+    }
+    count = (int) readVarLong(firstByte);
+    if (count == 0) {
+      return false;
+    }
+    int payloadSize = (int) readVarLong(in.read());
+    payload.ensureCapacity(payloadSize);
+    readFully(payload.bytes(), payloadSize);
+    payload.setSize(payloadSize);
+    ensureColumnsCapacity(count);
+    int newEntries = payload.readVarInt();
+    for (int i = 0; i < newEntries; i++) {
+      dictionary.add(new String(payload.readBytes(payload.readVarInt()), StandardCharsets.UTF_8));
+    }
+    long timeStamp = 0;
+    for (int i = 0; i < count; i++) {
+      timeStamp += payload.readZigZagLong();
+      timeStamps[i] = timeStamp;
+    }
+    readColumn(elapsed);
+    readColumn(labels);
+    readColumn(responseCodes);
+    readColumn(responseMessages);
+    readColumn(threadNames);
+    readColumn(dataTypes);
+    for (int i = 0; i < count; i += 8) {
+      int bits = payload.readByte();
+      for (int j = 0; j < 8 && i + j < count; j++) {
+        successes[i + j] = (bits & (1 << j)) != 0;
+      }
+    }
+    readColumn(failureMessages);
+    readColumn(bytes);
+    readColumn(sentBytes);
+    readColumn(grpThreads);
+    readColumn(allThreads);
+    readColumn(urls);
+    readColumn(latencies);
+    readColumn(idleTimes);
+    readColumn(connectTimes);
+    return true;
+  }
+
+  private long readVarLong(int firstByte) throws IOException {
+    long ret = 0;
+    int shift = 0;
+    int b = firstByte;
+    while (true) {
+      if (b == -1) {
+        throw new EOFException("Unexpected end of file " + path);
+      }
+      ret |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return ret;
+      }
+      shift += 7;
+      b = in.read();
+    }
+  }
+
+  private void readFully(byte[] buffer, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      int read = in.read(buffer, offset, length - offset);
+      if (read == -1) {
+        throw new EOFException("Unexpected end of file " + path);
+      }
+      offset += read;
+    }
+  }
+
+  private void ensureColumnsCapacity(int capacity) {
+    if (timeStamps.length >= capacity) {
+      return;
+    }
+    timeStamps = new long[capacity];
+    elapsed = new long[capacity];
+    labels = new int[capacity];
+    responseCodes = new int[capacity];
+    responseMessages = new int[capacity];
+    threadNames = new int[capacity];
+    dataTypes = new int[capacity];
+    successes = new boolean[capacity];
+    failureMessages = new int[capacity];
+    bytes = new long[capacity];
+    sentBytes = new long[capacity];
+    grpThreads = new int[capacity];
+    allThreads = new int[capacity];
+    urls = new int[capacity];
+    latencies = new long[capacity];
+    idleTimes = new long[capacity];
+    connectTimes = new long[capacity];
+  }
+
+  private void readColumn(long[] values) {
+    for (int i = 0; i < count; i++) {
+      values[i] = payload.readVarLong();
+    }
+  }
+
+  private void readColumn(int[] values) {
+    for (int i = 0; i < count; i++) {
+      values[i] = payload.readVarInt();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Calculates statistics from the records of the given binary JTL files.
+   * <p>
+   * This is the same as using {@link JtlStatsReader#read(Path...)}, which also supports CSV JTL
+   * files.
+   *
+   * @param files the binary JTL files to read records from.
+   * @return the statistics.
+   * @throws IOException if there is some problem reading any of the files.
+   */
+  public static TestPlanStats readStats(Path... files) throws IOException {
+    return new JtlStatsReader().read(files);
+  }
+
+  /**
+   * Converts a binary JTL file into a CSV JTL file with JMeter default fields, so it can be used by
+   * any JMeter tool.
+   *
+   * @param binaryFile the binary JTL file to convert.
+   * @param csvFile    the path of the CSV file to generate.
+   * @throws IOException if there is some problem reading or writing files.
+   */
+  public static void convertToCsv(Path binaryFile, Path csvFile) throws IOException {
+    try (BinaryJtlReader reader = new BinaryJtlReader(binaryFile);
+        Writer writer = new BufferedWriter(Files.newBufferedWriter(csvFile,
+            StandardCharsets.UTF_8))) {
+      writer.write(CSV_HEADER);
+      writer.write(System.lineSeparator());
+      StringBuilder line = new StringBuilder();
+      try {
+        reader.forEach(r -> {
+          line.setLength(0);
+          line.append(r.timeStamp).append(',')
+              .append(r.elapsed).append(',');
+          appendCsvString(r.label, line).append(',');
+          appendCsvString(r.responseCode, line).append(',');
+          appendCsvString(r.responseMessage, line).append(',');
+          appendCsvString(r.threadName, line).append(',');
+          appendCsvString(r.dataType, line).append(',')
+              .append(r.success).append(',');
+          appendCsvString(r.failureMessage, line).append(',')
+              .append(r.bytes).append(',')
+              .append(r.sentBytes).append(',')
+              .append(r.grpThreads).append(',')
+              .append(r.allThreads).append(',');
+          appendCsvString(r.url, line).append(',')
+              .append(r.latency).append(',')
+              .append(r.idleTime).append(',')
+              .append(r.connect)
+              .append(System.lineSeparator());
+          try {
+            writer.append(line);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  private static StringBuilder appendCsvString(String value, StringBuilder builder) {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      return builder.append(value);
+    }
+    return builder.append('"')
+        .append(value.replace("\"", "\"\""))
+        .append('"');
+  }
+
+}
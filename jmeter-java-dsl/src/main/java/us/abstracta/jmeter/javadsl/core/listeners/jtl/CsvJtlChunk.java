@@ -0,0 +1,204 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Range of a plain (not compressed) CSV JTL file which contains complete records, and can be
+ * processed independently of other ranges of the same file.
+ * <p>
+ * This allows processing big JTL files in parallel, while keeping in memory only the chunks being
+ * processed.
+ *
+ * @since 2.3
+ */
+public class CsvJtlChunk {
+
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+  private final long start;
+  private final long end;
+
+  private CsvJtlChunk(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Splits a CSV JTL file in chunks of approximately the given size.
+   * <p>
+   * Instead of scanning the whole file, each chunk boundary is found by seeking to the approximate
+   * position and moving forward to the next record start. Since quoting state is unknown at an
+   * arbitrary position, a line is only considered a record start when it starts with a digit (the
+   * timestamp, as generated by JMeter), and is a well-formed CSV record with the same number of
+   * fields as the first record. This way, lines of multiline values are not considered records
+   * starts.
+   *
+   * @param channel   is the channel used to read the file.
+   * @param dataStart is the position in the file where records start (eg: after header line).
+   * @param chunkSize is the approximate size in bytes of each chunk.
+   * @return the list of chunks, in file order.
+   * @throws IOException if there is some problem reading the file.
+   */
+  public static List<CsvJtlChunk> split(FileChannel channel, long dataStart, int chunkSize)
+      throws IOException {
+    FileWindow file = new FileWindow(channel);
+    List<CsvJtlChunk> ret = new ArrayList<>();
+    int fieldsCount = countFields(file, dataStart, Long.MAX_VALUE);
+    if (fieldsCount < 0) {
+      // records can't be recognized, so the file is processed as a whole
+      ret.add(new CsvJtlChunk(dataStart, file.size));
+      return ret;
+    }
+    long chunkStart = dataStart;
+    while (chunkStart < file.size) {
+      long chunkEnd = chunkStart + chunkSize >= file.size ? file.size
+          : findRecordStart(file, chunkStart + chunkSize, fieldsCount, chunkSize);
+      ret.add(new CsvJtlChunk(chunkStart, chunkEnd));
+      chunkStart = chunkEnd;
+    }
+    return ret;
+  }
+
+  private static long findRecordStart(FileWindow file, long from, int fieldsCount,
+      int maxRecordSize) throws IOException {
+    for (long pos = from; pos < file.size; pos++) {
+      if (file.byteAt(pos) == '\n') {
+        long lineStart = pos + 1;
+        int first = file.byteAt(lineStart);
+        if (first < 0 || first >= '0' && first <= '9'
+            && countFields(file, lineStart, lineStart + maxRecordSize) == fieldsCount) {
+          return lineStart;
+        }
+      }
+    }
+    return file.size;
+  }
+
+  /*
+   Counts the fields of the record starting at the given position, assuming no quoted value is open
+   at such position. Returns -1 if the record is not well-formed CSV (eg: a quote in the middle of
+   an unquoted value, which happens when starting in the middle of a quoted value) or it exceeds
+   the given limit.
+   */
+  private static int countFields(FileWindow file, long start, long limit) throws IOException {
+    int ret = 1;
+    boolean fieldStart = true;
+    long pos = start;
+    while (pos < limit) {
+      int b = file.byteAt(pos);
+      if (b < 0 || b == '\n') {
+        return ret;
+      } else if (b == '"') {
+        if (!fieldStart) {
+          return -1;
+        }
+        pos = skipQuotedValue(file, pos + 1, limit);
+        if (pos < 0) {
+          return -1;
+        }
+        b = file.byteAt(pos);
+        if (b >= 0 && b != ',' && b != '\r' && b != '\n') {
+          return -1;
+        }
+        fieldStart = false;
+      } else {
+        if (b == ',') {
+          ret++;
+          fieldStart = true;
+        } else {
+          fieldStart = false;
+        }
+        pos++;
+      }
+    }
+    return -1;
+  }
+
+  // returns the position after the closing quote, or -1 if there is none within the limit
+  private static long skipQuotedValue(FileWindow file, long pos, long limit) throws IOException {
+    while (pos < limit) {
+      int b = file.byteAt(pos);
+      if (b < 0) {
+        return -1;
+      } else if (b == '"') {
+        if (file.byteAt(pos + 1) != '"') {
+          return pos + 1;
+        }
+        pos += 2;
+      } else {
+        pos++;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   Buffers a window of the file to avoid a read for each accessed byte, since bytes are mostly
+   accessed sequentially.
+   */
+  private static class FileWindow {
+
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    private long windowStart;
+    private int windowLength;
+
+    private FileWindow(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    private int byteAt(long pos) throws IOException {
+      if (pos >= size) {
+        return -1;
+      }
+      if (pos < windowStart || pos >= windowStart + windowLength) {
+        buffer.clear();
+        windowStart = pos;
+        windowLength = Math.max(0, channel.read(buffer, pos));
+        if (windowLength == 0) {
+          return -1;
+        }
+      }
+      return buffer.get((int) (pos - windowStart)) & 0xFF;
+    }
+
+  }
+
+  static byte[] readRange(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) == -1) {
+        break;
+      }
+    }
+    return buffer.position() == length ? buffer.array()
+        : Arrays.copyOf(buffer.array(), buffer.position());
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  /**
+   * Reads the contents of the chunk.
+   *
+   * @param channel is the channel of the file the chunk belongs to.
+   * @return the chunk contents.
+   * @throws IOException if there is some problem reading the file.
+   */
+  public byte[] read(FileChannel channel) throws IOException {
+    return readRange(channel, start, (int) (end - start));
+  }
+
+}
@@ -0,0 +1,338 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ Parses CSV JTL lines directly from bytes, only decoding into strings the fields which are not
+ numeric nor boolean, to avoid the cost of decoding each line into a String and splitting it.
+
+ Parsing is stateless (besides the columns positions), so a single instance can be used by
+ several threads parsing different chunks of the same file.
+ */
+class CsvJtlParser {
+
+  static final int BATCH_SIZE = 4096;
+  private static final byte DELIMITER = ',';
+  private static final byte QUOTE = '"';
+  private static final List<String> DEFAULT_COLUMNS = Arrays.asList("timeStamp", "elapsed",
+      "label", "responseCode", "responseMessage", "threadName", "dataType", "success",
+      "failureMessage", "bytes", "sentBytes", "grpThreads", "allThreads", "URL", "Latency",
+      "IdleTime", "Connect");
+
+  private final int timeStampColumn;
+  private final int elapsedColumn;
+  private final int labelColumn;
+  private final int responseCodeColumn;
+  private final int responseMessageColumn;
+  private final int threadNameColumn;
+  private final int dataTypeColumn;
+  private final int successColumn;
+  private final int failureMessageColumn;
+  private final int bytesColumn;
+  private final int sentBytesColumn;
+  private final int grpThreadsColumn;
+  private final int allThreadsColumn;
+  private final int urlColumn;
+  private final int latencyColumn;
+  private final int idleTimeColumn;
+  private final int connectColumn;
+  private final int requiredColumns;
+
+  private CsvJtlParser(List<String> columns) {
+    timeStampColumn = columns.indexOf("timeStamp");
+    elapsedColumn = columns.indexOf("elapsed");
+    labelColumn = columns.indexOf("label");
+    responseCodeColumn = columns.indexOf("responseCode");
+    responseMessageColumn = columns.indexOf("responseMessage");
+    threadNameColumn = columns.indexOf("threadName");
+    dataTypeColumn = columns.indexOf("dataType");
+    successColumn = columns.indexOf("success");
+    failureMessageColumn = columns.indexOf("failureMessage");
+    bytesColumn = columns.indexOf("bytes");
+    sentBytesColumn = columns.indexOf("sentBytes");
+    grpThreadsColumn = columns.indexOf("grpThreads");
+    allThreadsColumn = columns.indexOf("allThreads");
+    urlColumn = columns.indexOf("URL");
+    latencyColumn = columns.indexOf("Latency");
+    idleTimeColumn = columns.indexOf("IdleTime");
+    connectColumn = columns.indexOf("Connect");
+    requiredColumns = Math.max(timeStampColumn, Math.max(elapsedColumn, labelColumn)) + 1;
+  }
+
+  static boolean isHeader(byte[] buffer, int offset, int end) {
+    return offset < end && !isRecordStart(buffer[offset]);
+  }
+
+  /*
+   Since JMeter saves timestamps (in milliseconds by default) as first column, lines starting with
+   a digit are considered records, while others are considered headers or part of a multiline
+   value.
+   */
+  private static boolean isRecordStart(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  static CsvJtlParser fromHeader(byte[] buffer, int offset, int end) {
+    return new CsvJtlParser(Arrays.asList(
+        new String(buffer, offset, end - offset, StandardCharsets.UTF_8).trim().split(",")));
+  }
+
+  static CsvJtlParser withDefaultColumns() {
+    return new CsvJtlParser(DEFAULT_COLUMNS);
+  }
+
+  /*
+   Parses all lines in the given range (which should start at a line start) and provides parsed
+   records in batches. Returns the offset after last parsed line, which might be less than end
+   when last line is incomplete and endOfInput is false.
+   */
+  int parse(byte[] buffer, int offset, int end, boolean endOfInput,
+      Consumer<RecordBatch> batchConsumer) throws IOException {
+    if (timeStampColumn < 0 || elapsedColumn < 0 || labelColumn < 0) {
+      throw new IOException("Can't calculate statistics from JTL files without timeStamp, elapsed "
+          + "and label columns");
+    }
+    RecordBatch batch = new RecordBatch();
+    int lineStart = offset;
+    while (lineStart < end) {
+      int lineEnd = skipsLine(buffer[lineStart])
+          ? skipLine(buffer, lineStart, end, endOfInput)
+          : parseLine(buffer, lineStart, end, endOfInput, batch);
+      if (lineEnd < 0) {
+        break;
+      }
+      lineStart = lineEnd;
+      if (batch.count == BATCH_SIZE) {
+        batchConsumer.accept(batch);
+        batch = new RecordBatch();
+      }
+    }
+    if (batch.count > 0) {
+      batchConsumer.accept(batch);
+    }
+    return lineStart;
+  }
+
+  /*
+   Lines not starting with a timestamp are skipped, since they are headers of merged files or
+   invalid lines.
+   */
+  private boolean skipsLine(byte firstByte) {
+    return timeStampColumn == 0 && !isRecordStart(firstByte) && firstByte != QUOTE;
+  }
+
+  private int skipLine(byte[] buffer, int offset, int end, boolean endOfInput) {
+    for (int pos = offset; pos < end; pos++) {
+      if (buffer[pos] == '\n') {
+        return pos + 1;
+      }
+    }
+    return endOfInput ? end : -1;
+  }
+
+  private int parseLine(byte[] buffer, int offset, int end, boolean endOfInput,
+      RecordBatch batch) throws IOException {
+    int pos = offset;
+    int column = 0;
+    batch.clear(batch.count);
+    while (true) {
+      if (pos >= end) {
+        return endOfInput ? finishLine(buffer, batch, column, pos, end) : -1;
+      }
+      int fieldStart;
+      int fieldEnd;
+      boolean escapedQuotes = false;
+      if (buffer[pos] == QUOTE) {
+        fieldStart = ++pos;
+        while (pos < end && (buffer[pos] != QUOTE || pos + 1 < end && buffer[pos + 1] == QUOTE)) {
+          if (buffer[pos] == QUOTE) {
+            escapedQuotes = true;
+            pos++;
+          }
+          pos++;
+        }
+        // we need the char after closing quote to distinguish it from an escaped quote
+        if (pos + 1 >= end && !endOfInput) {
+          return -1;
+        }
+        fieldEnd = pos;
+        if (pos < end) {
+          pos++;
+        }
+      } else {
+        fieldStart = pos;
+        while (pos < end && buffer[pos] != DELIMITER && buffer[pos] != '\n'
+            && buffer[pos] != '\r') {
+          pos++;
+        }
+        fieldEnd = pos;
+        if (pos >= end && !endOfInput) {
+          return -1;
+        }
+      }
+      parseField(buffer, fieldStart, fieldEnd, escapedQuotes, column, batch);
+      column++;
+      if (pos >= end || buffer[pos] == '\n' || buffer[pos] == '\r') {
+        return finishLine(buffer, batch, column, pos, end);
+      }
+      pos++;
+    }
+  }
+
+  private void parseField(byte[] buffer, int start, int end, boolean escapedQuotes, int column,
+      RecordBatch batch) throws IOException {
+    int i = batch.count;
+    if (column == timeStampColumn) {
+      batch.timeStamps[i] = parseLong(buffer, start, end);
+    } else if (column == elapsedColumn) {
+      batch.elapsed[i] = parseLong(buffer, start, end);
+    } else if (column == labelColumn) {
+      batch.labels[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == responseCodeColumn) {
+      batch.responseCodes[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == responseMessageColumn) {
+      batch.responseMessages[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == threadNameColumn) {
+      batch.threadNames[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == dataTypeColumn) {
+      batch.dataTypes[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == successColumn) {
+      batch.successes[i] = end - start == 4 && buffer[start] == 't' && buffer[start + 1] == 'r'
+          && buffer[start + 2] == 'u' && buffer[start + 3] == 'e';
+    } else if (column == failureMessageColumn) {
+      batch.failureMessages[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == bytesColumn) {
+      batch.bytes[i] = parseLong(buffer, start, end);
+    } else if (column == sentBytesColumn) {
+      batch.sentBytes[i] = parseLong(buffer, start, end);
+    } else if (column == grpThreadsColumn) {
+      batch.grpThreads[i] = (int) parseLong(buffer, start, end);
+    } else if (column == allThreadsColumn) {
+      batch.allThreads[i] = (int) parseLong(buffer, start, end);
+    } else if (column == urlColumn) {
+      batch.urls[i] = parseString(buffer, start, end, escapedQuotes);
+    } else if (column == latencyColumn) {
+      batch.latencies[i] = parseLong(buffer, start, end);
+    } else if (column == idleTimeColumn) {
+      batch.idleTimes[i] = parseLong(buffer, start, end);
+    } else if (column == connectColumn) {
+      batch.connectTimes[i] = parseLong(buffer, start, end);
+    }
+  }
+
+  private static String parseString(byte[] buffer, int start, int end, boolean escapedQuotes) {
+    if (start == end) {
+      return "";
+    }
+    String ret = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+    return escapedQuotes ? ret.replace("\"\"", "\"") : ret;
+  }
+
+  private static long parseLong(byte[] buffer, int start, int end) throws IOException {
+    if (start == end) {
+      return 0;
+    }
+    // JMeter writes negative values in some cases (eg: -1 for unknown sent bytes or times)
+    boolean negative = buffer[start] == '-';
+    int digitsStart = negative ? start + 1 : start;
+    if (digitsStart == end) {
+      throw new IOException("Invalid numeric value in JTL: -");
+    }
+    long ret = 0;
+    for (int i = digitsStart; i < end; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new IOException("Invalid numeric value in JTL: "
+            + new String(buffer, start, end - start, StandardCharsets.UTF_8));
+      }
+      ret = ret * 10 + digit;
+    }
+    return negative ? -ret : ret;
+  }
+
+  private int finishLine(byte[] buffer, RecordBatch batch, int columns, int pos, int end) {
+    // ignore empty or incomplete lines
+    if (columns >= requiredColumns) {
+      batch.count++;
+    }
+    if (pos < end && buffer[pos] == '\r') {
+      pos++;
+    }
+    if (pos < end && buffer[pos] == '\n') {
+      pos++;
+    }
+    return pos;
+  }
+
+  static class RecordBatch {
+
+    private final long[] timeStamps = new long[BATCH_SIZE];
+    private final long[] elapsed = new long[BATCH_SIZE];
+    private final String[] labels = new String[BATCH_SIZE];
+    private final String[] responseCodes = new String[BATCH_SIZE];
+    private final String[] responseMessages = new String[BATCH_SIZE];
+    private final String[] threadNames = new String[BATCH_SIZE];
+    private final String[] dataTypes = new String[BATCH_SIZE];
+    private final boolean[] successes = new boolean[BATCH_SIZE];
+    private final String[] failureMessages = new String[BATCH_SIZE];
+    private final long[] bytes = new long[BATCH_SIZE];
+    private final long[] sentBytes = new long[BATCH_SIZE];
+    private final int[] grpThreads = new int[BATCH_SIZE];
+    private final int[] allThreads = new int[BATCH_SIZE];
+    private final String[] urls = new String[BATCH_SIZE];
+    private final long[] latencies = new long[BATCH_SIZE];
+    private final long[] idleTimes = new long[BATCH_SIZE];
+    private final long[] connectTimes = new long[BATCH_SIZE];
+    private int count;
+
+    /*
+     Sets default values for the given record, since columns might be missing in the file or in the
+     line, and the record might contain values of a previously ignored incomplete line.
+     */
+    private void clear(int i) {
+      responseCodes[i] = "";
+      responseMessages[i] = "";
+      threadNames[i] = "";
+      dataTypes[i] = "";
+      successes[i] = true;
+      failureMessages[i] = "";
+      bytes[i] = 0;
+      sentBytes[i] = 0;
+      grpThreads[i] = 0;
+      allThreads[i] = 0;
+      urls[i] = "";
+      latencies[i] = 0;
+      idleTimes[i] = 0;
+      connectTimes[i] = 0;
+    }
+
+    void forEach(JtlRecord record, Consumer<? super JtlRecord> consumer) {
+      for (int i = 0; i < count; i++) {
+        record.timeStamp = timeStamps[i];
+        record.elapsed = elapsed[i];
+        record.label = labels[i];
+        record.responseCode = responseCodes[i];
+        record.responseMessage = responseMessages[i];
+        record.threadName = threadNames[i];
+        record.dataType = dataTypes[i];
+        record.success = successes[i];
+        record.failureMessage = failureMessages[i];
+        record.bytes = bytes[i];
+        record.sentBytes = sentBytes[i];
+        record.grpThreads = grpThreads[i];
+        record.allThreads = allThreads[i];
+        record.url = urls[i];
+        record.latency = latencies[i];
+        record.idleTime = idleTimes[i];
+        record.connect = connectTimes[i];
+        consumer.accept(record);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,199 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.save.SaveService;
+
+/**
+ * Writes JTL records to a file, optionally applying gzip compression and rotating into numbered
+ * files by size or time.
+ * <p>
+ * When rotation is enabled, files are named inserting the file number before the extension (eg:
+ * {@code results.1.jtl}, {@code results.2.jtl}, etc.), and when compression is enabled {@code .gz}
+ * is appended to file names. Each file contains the header and footer, so they can be processed
+ * independently. Check {@link JtlFiles} to read them back.
+ *
+ * @since 2.3
+ */
+public class JtlFileOutput implements JtlOutput {
+
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+  private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<testResults version=\"1.2\">\n";
+  private static final String XML_FOOTER = "</testResults>\n";
+
+  private final Path path;
+  private final boolean gzip;
+  private final long maxFileBytes;
+  private final Duration maxFileDuration;
+  private final Clock clock = Clock.systemUTC();
+  private SampleSaveConfiguration config;
+  private String header;
+  private String footer;
+  private Writer writer;
+  private CountingOutputStream fileStream;
+  private int fileNumber;
+  private Instant fileStart;
+
+  /**
+   * Creates an output with given settings.
+   *
+   * @param path            is the path of the JTL file, used as base for rotated and compressed
+   *                        files names.
+   * @param gzip            specifies to compress files with gzip.
+   * @param maxFileBytes    specifies the maximum size of each file, after which a new file is
+   *                        created. When zero or negative, no rotation by size is applied.
+   * @param maxFileDuration specifies the maximum time to write to each file, after which a new
+   *                        file is created. When null, no rotation by time is applied.
+   */
+  public JtlFileOutput(Path path, boolean gzip, long maxFileBytes, Duration maxFileDuration) {
+    this.path = path;
+    this.gzip = gzip;
+    this.maxFileBytes = maxFileBytes;
+    this.maxFileDuration = maxFileDuration;
+  }
+
+  public boolean isRotating() {
+    return maxFileBytes > 0 || maxFileDuration != null;
+  }
+
+  @Override
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the path of the file with the given number.
+   *
+   * @param fileNumber number of the file, starting with 1. Ignored if rotation is not enabled.
+   * @return the path of the file.
+   */
+  public Path filePath(int fileNumber) {
+    String name = path.getFileName().toString();
+    if (isRotating()) {
+      int extensionIndex = name.lastIndexOf('.');
+      name = extensionIndex > 0
+          ? name.substring(0, extensionIndex) + "." + fileNumber + name.substring(extensionIndex)
+          : name + "." + fileNumber;
+    }
+    if (gzip) {
+      name += JtlFiles.GZIP_EXTENSION;
+    }
+    return path.resolveSibling(name);
+  }
+
+  @Override
+  public synchronized void open(SampleSaveConfiguration config) throws IOException {
+    this.config = config;
+    header = null;
+    footer = null;
+    if (config.saveAsXml()) {
+      header = XML_HEADER;
+      footer = XML_FOOTER;
+    } else if (config.saveFieldNames()) {
+      header = CSVSaveService.printableFieldNamesToString(config) + System.lineSeparator();
+    }
+    fileNumber = 0;
+    openNextFile();
+  }
+
+  private void openNextFile() throws IOException {
+    fileNumber++;
+    Path filePath = filePath(fileNumber);
+    if (filePath.getParent() != null) {
+      Files.createDirectories(filePath.getParent());
+    }
+    fileStream = new CountingOutputStream(Files.newOutputStream(filePath));
+    OutputStream out = gzip
+        ? new GZIPOutputStream(fileStream, GZIP_BUFFER_SIZE)
+        : new BufferedOutputStream(fileStream);
+    writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    fileStart = clock.instant();
+    if (header != null) {
+      writer.write(header);
+    }
+  }
+
+  @Override
+  public synchronized void write(SampleEvent event) throws IOException {
+    if (writer == null) {
+      throw new IllegalStateException("Output for " + path + " has not been opened");
+    }
+    if (requiresRotation()) {
+      closeCurrentFile();
+      openNextFile();
+    }
+    event.getResult().setSaveConfig(config);
+    if (config.saveAsXml()) {
+      SaveService.saveSampleResult(event, writer);
+    } else {
+      writer.write(CSVSaveService.resultToDelimitedString(event));
+      writer.write(System.lineSeparator());
+    }
+  }
+
+  private boolean requiresRotation() {
+    return maxFileBytes > 0 && fileStream.count >= maxFileBytes
+        || maxFileDuration != null
+        && Duration.between(fileStart, clock.instant()).compareTo(maxFileDuration) >= 0;
+  }
+
+  private void closeCurrentFile() throws IOException {
+    if (footer != null) {
+      writer.write(footer);
+    }
+    writer.close();
+    writer = null;
+  }
+
+  public synchronized void flush() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (writer != null) {
+      closeCurrentFile();
+    }
+  }
+
+  private static class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    private CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+  }
+
+}
@@ -0,0 +1,149 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Provides utility methods to read JTL files, transparently handling gzip compressed files and
+ * files rotated by {@link JtlFileOutput}.
+ *
+ * @since 2.3
+ */
+public class JtlFiles {
+
+  public static final String GZIP_EXTENSION = ".gz";
+  private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+  private static final int GZIP_MAGIC_SECOND_BYTE = 0x8b;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private JtlFiles() {
+  }
+
+  /**
+   * Finds the set of files that contain the records of a JTL file.
+   * <p>
+   * If the given path exists, then only such file is returned. Otherwise, a compressed version
+   * ({@code <path>.gz}) or rotated versions ({@code <name>.<number>.<extension>}, optionally
+   * compressed) are searched, and returned in rotation order.
+   *
+   * @param jtlFile is the path of the JTL file as specified in {@code jtlWriter}.
+   * @return the list of files containing the JTL records.
+   * @throws IOException if no file is found for the given path or there is some problem listing the
+   *                     directory files.
+   */
+  public static List<Path> resolve(Path jtlFile) throws IOException {
+    if (Files.exists(jtlFile)) {
+      return Collections.singletonList(jtlFile);
+    }
+    Path compressed = jtlFile.resolveSibling(jtlFile.getFileName() + GZIP_EXTENSION);
+    if (Files.exists(compressed)) {
+      return Collections.singletonList(compressed);
+    }
+    Pattern rotatedPattern = buildRotatedFileNamePattern(jtlFile.getFileName().toString());
+    Path directory = jtlFile.toAbsolutePath().getParent();
+    Map<Integer, Path> rotated = new TreeMap<>();
+    if (Files.isDirectory(directory)) {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(f -> {
+          Matcher matcher = rotatedPattern.matcher(f.getFileName().toString());
+          if (matcher.matches()) {
+            rotated.put(Integer.parseInt(matcher.group(1)), f);
+          }
+        });
+      }
+    }
+    if (rotated.isEmpty()) {
+      throw new IOException("No JTL file found for " + jtlFile);
+    }
+    return new ArrayList<>(rotated.values());
+  }
+
+  private static Pattern buildRotatedFileNamePattern(String fileName) {
+    int extensionIndex = fileName.lastIndexOf('.');
+    String stem = extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName;
+    String extension = extensionIndex > 0 ? fileName.substring(extensionIndex) : "";
+    return Pattern.compile(Pattern.quote(stem + ".") + "(\\d+)" + Pattern.quote(extension)
+        + "(?:" + Pattern.quote(GZIP_EXTENSION) + ")?");
+  }
+
+  /**
+   * Opens a JTL file for reading, decompressing it if it is gzip compressed.
+   * <p>
+   * Compression is detected from file content, and not from file name.
+   *
+   * @param file is the path to the file to read.
+   * @return the stream to read uncompressed file contents from.
+   * @throws IOException if there is some problem opening the file.
+   */
+  public static InputStream openInputStream(Path file) throws IOException {
+    InputStream ret = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    try {
+      ret.mark(2);
+      byte[] magic = new byte[2];
+      boolean compressed = ret.read(magic) == magic.length && isCompressed(magic);
+      ret.reset();
+      return compressed ? new GZIPInputStream(ret, BUFFER_SIZE) : ret;
+    } catch (IOException e) {
+      ret.close();
+      throw e;
+    }
+  }
+
+  static boolean isCompressed(byte[] fileStart) {
+    return fileStart.length >= 2 && (fileStart[0] & 0xFF) == GZIP_MAGIC_FIRST_BYTE
+        && (fileStart[1] & 0xFF) == GZIP_MAGIC_SECOND_BYTE;
+  }
+
+  public static BufferedReader openReader(Path file) throws IOException {
+    return new BufferedReader(new InputStreamReader(openInputStream(file),
+        StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  /**
+   * Merges a set of CSV JTL files (eg: rotated and/or compressed ones) into a single plain CSV
+   * file, which can then be used by any JMeter tool.
+   * <p>
+   * The header line is only kept from the first file.
+   *
+   * @param files  the files to merge, in order.
+   * @param target the path of the file to generate.
+   * @throws IOException if there is some problem reading or writing files.
+   */
+  public static void mergeCsv(List<Path> files, Path target) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+      String header = null;
+      for (int i = 0; i < files.size(); i++) {
+        try (BufferedReader reader = openReader(files.get(i))) {
+          String line = reader.readLine();
+          if (i == 0) {
+            header = line;
+          } else if (line != null && line.equals(header)) {
+            line = reader.readLine();
+          }
+          while (line != null) {
+            writer.write(line);
+            writer.newLine();
+            line = reader.readLine();
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+
+/**
+ * Stores sample results in some file format.
+ * <p>
+ * Implementations are used by {@link us.abstracta.jmeter.javadsl.core.listeners.JtlWriter} when
+ * the test plan runs in current JVM, and are only required to support one thread writing at a
+ * time.
+ *
+ * @since 2.3
+ */
+public interface JtlOutput {
+
+  Path getPath();
+
+  /**
+   * Creates the output files and writes any required headers.
+   *
+   * @param config specifies the fields and format to use for stored sample results. Some
+   *               implementations may ignore it, if they have a fixed set of fields.
+   * @throws IOException if there is some problem creating the output.
+   */
+  void open(SampleSaveConfiguration config) throws IOException;
+
+  void write(SampleEvent event) throws IOException;
+
+  void close() throws IOException;
+
+}
@@ -0,0 +1,101 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+/**
+ * Contains the information of a sample result read from a JTL file.
+ * <p>
+ * Fields match the ones included by default in CSV JTL files.
+ * <p>
+ * To avoid allocations while reading big files, readers reuse the same instance for all
+ * records. So, don't keep references to it, and copy any required values instead.
+ *
+ * @since 2.3
+ */
+public class JtlRecord {
+
+  protected long timeStamp;
+  protected long elapsed;
+  protected String label;
+  protected String responseCode;
+  protected String responseMessage;
+  protected String threadName;
+  protected String dataType;
+  protected boolean success;
+  protected String failureMessage;
+  protected long bytes;
+  protected long sentBytes;
+  protected int grpThreads;
+  protected int allThreads;
+  protected String url;
+  protected long latency;
+  protected long idleTime;
+  protected long connect;
+
+  public long getTimeStamp() {
+    return timeStamp;
+  }
+
+  public long getElapsed() {
+    return elapsed;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public String getResponseCode() {
+    return responseCode;
+  }
+
+  public String getResponseMessage() {
+    return responseMessage;
+  }
+
+  public String getThreadName() {
+    return threadName;
+  }
+
+  public String getDataType() {
+    return dataType;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  public String getFailureMessage() {
+    return failureMessage;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public long getSentBytes() {
+    return sentBytes;
+  }
+
+  public int getGrpThreads() {
+    return grpThreads;
+  }
+
+  public int getAllThreads() {
+    return allThreads;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public long getLatency() {
+    return latency;
+  }
+
+  public long getIdleTime() {
+    return idleTime;
+  }
+
+  public long getConnect() {
+    return connect;
+  }
+
+}
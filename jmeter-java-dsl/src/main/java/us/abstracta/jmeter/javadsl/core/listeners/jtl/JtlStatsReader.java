@@ -0,0 +1,215 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.CsvJtlParser.RecordBatch;
+
+/**
+ * Calculates {@link TestPlanStats} from existing JTL files, like ones generated in another machine
+ * or in a previous execution.
+ * <p>
+ * Supports CSV JTL files (with default delimiter and timestamp format), gzip compressed and rotated
+ * ones (check {@link JtlFiles#resolve(Path)}), and binary ones (check {@link BinaryJtlOutput}).
+ * <p>
+ * Plain CSV files are split in chunks which are parsed in parallel. Each chunk statistics are
+ * aggregated by the thread parsing it, and then merged, so only a limited number of chunks are kept
+ * in memory at any given time, and memory usage does not depend on files sizes.
+ * <p>
+ * Sample times percentiles are calculated with histograms (check {@link
+ * us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram}), which can be merged, so results are
+ * the same no matter the parallelism and order of records, and might slightly differ (less than
+ * 1%) from the ones provided by a test plan execution.
+ *
+ * @since 2.3
+ */
+public class JtlStatsReader {
+
+  private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int HEADER_MAX_SIZE = 64 * 1024;
+
+  private final int parallelism;
+  private final int chunkSize;
+
+  public JtlStatsReader() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Allows tuning resources used while reading files.
+   *
+   * @param parallelism the maximum number of threads used to parse each file. When set to 1 files
+   *                    are parsed sequentially in the calling thread.
+   * @param chunkSize   the approximate number of bytes of each parsed chunk. Memory used to
+   *                    read a file is proportional to parallelism * chunkSize.
+   */
+  public JtlStatsReader(int parallelism, int chunkSize) {
+    if (parallelism < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException("parallelism and chunkSize must be greater than 0");
+    }
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Calculates statistics from the records of the given JTL files.
+   *
+   * @param jtlFiles the JTL files to read records from. Each one is resolved with
+   *                 {@link JtlFiles#resolve(Path)}.
+   * @return the statistics, which are equivalent to the ones provided by a test plan execution.
+   * @throws IOException if there is some problem reading any of the files or parsing their
+   *                     contents.
+   */
+  public TestPlanStats read(Path... jtlFiles) throws IOException {
+    JtlTestPlanStats ret = new JtlTestPlanStats();
+    for (Path jtlFile : jtlFiles) {
+      for (Path file : JtlFiles.resolve(jtlFile)) {
+        if (BinaryJtlReader.isBinaryJtl(file)) {
+          try (BinaryJtlReader reader = new BinaryJtlReader(file)) {
+            reader.forEach(ret::add);
+          }
+        } else if (parallelism > 1) {
+          readCsvInParallel(file, ret);
+        } else {
+          readCsv(file, ret);
+        }
+      }
+    }
+    ret.updateTimes();
+    return ret;
+  }
+
+  private void readCsv(Path file, JtlTestPlanStats stats) throws IOException {
+    JtlRecord record = new JtlRecord();
+    Consumer<RecordBatch> batchConsumer = batch -> batch.forEach(record, stats::add);
+    try (InputStream in = JtlFiles.openInputStream(file)) {
+      byte[] buffer = new byte[Math.min(chunkSize, DEFAULT_CHUNK_SIZE)];
+      int size = 0;
+      CsvJtlParser parser = null;
+      int read;
+      while ((read = in.read(buffer, size, buffer.length - size)) != -1 || size > 0) {
+        boolean endOfInput = read == -1;
+        size += Math.max(read, 0);
+        int offset = 0;
+        if (parser == null) {
+          int headerEnd = findLineEnd(buffer, 0, size);
+          if (headerEnd < 0) {
+            if (!endOfInput) {
+              buffer = growIfFull(buffer, size);
+              continue;
+            }
+            headerEnd = size;
+          }
+          parser = buildParser(buffer, headerEnd);
+          offset = CsvJtlParser.isHeader(buffer, 0, headerEnd) ? headerEnd : 0;
+        }
+        int parsed = parser.parse(buffer, offset, size, endOfInput, batchConsumer);
+        if (endOfInput) {
+          break;
+        }
+        System.arraycopy(buffer, parsed, buffer, 0, size - parsed);
+        size -= parsed;
+        buffer = growIfFull(buffer, size);
+      }
+    }
+  }
+
+  private static int findLineEnd(byte[] buffer, int offset, int end) {
+    for (int i = offset; i < end; i++) {
+      if (buffer[i] == '\n') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static CsvJtlParser buildParser(byte[] buffer, int headerEnd) {
+    return CsvJtlParser.isHeader(buffer, 0, headerEnd)
+        ? CsvJtlParser.fromHeader(buffer, 0, headerEnd)
+        : CsvJtlParser.withDefaultColumns();
+  }
+
+  private static byte[] growIfFull(byte[] buffer, int size) {
+    // a line bigger than the buffer requires a bigger one
+    return size == buffer.length ? Arrays.copyOf(buffer, buffer.length * 2) : buffer;
+  }
+
+  private void readCsvInParallel(Path file, JtlTestPlanStats stats) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      byte[] header = CsvJtlChunk.readRange(channel, 0,
+          (int) Math.min(HEADER_MAX_SIZE, fileSize));
+      int headerEnd = findLineEnd(header, 0, header.length);
+      /*
+       compressed files can't be split, and for unusually long headers we just avoid the complexity
+       of parallel parsing
+       */
+      if (JtlFiles.isCompressed(header) || headerEnd < 0 && header.length < fileSize) {
+        readCsv(file, stats);
+        return;
+      }
+      int firstLineEnd = headerEnd < 0 ? header.length : headerEnd;
+      CsvJtlParser parser = buildParser(header, firstLineEnd);
+      long dataStart = CsvJtlParser.isHeader(header, 0, firstLineEnd) ? firstLineEnd : 0;
+      List<CsvJtlChunk> chunks = CsvJtlChunk.split(channel, dataStart, chunkSize);
+      if (chunks.isEmpty()) {
+        return;
+      }
+      parseChunks(channel, chunks, parser, stats);
+    }
+  }
+
+  private void parseChunks(FileChannel channel, List<CsvJtlChunk> chunks, CsvJtlParser parser,
+      JtlTestPlanStats stats) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+    try {
+      CompletionService<JtlTestPlanStats> completion = new ExecutorCompletionService<>(executor);
+      Iterator<CsvJtlChunk> pendingChunks = chunks.iterator();
+      int parsingChunks = 0;
+      while (pendingChunks.hasNext() || parsingChunks > 0) {
+        // limit submitted chunks to avoid keeping in memory statistics of all of them
+        while (pendingChunks.hasNext() && parsingChunks < parallelism * 2) {
+          CsvJtlChunk chunk = pendingChunks.next();
+          completion.submit(() -> parseChunk(chunk, channel, parser));
+          parsingChunks++;
+        }
+        stats.merge(completion.take().get());
+        parsingChunks--;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading JTL file");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static JtlTestPlanStats parseChunk(CsvJtlChunk chunk, FileChannel channel,
+      CsvJtlParser parser) throws IOException {
+    JtlTestPlanStats ret = new JtlTestPlanStats();
+    JtlRecord record = new JtlRecord();
+    byte[] buffer = chunk.read(channel);
+    parser.parse(buffer, 0, buffer.length, true, batch -> batch.forEach(record, ret::add));
+    return ret;
+  }
+
+}
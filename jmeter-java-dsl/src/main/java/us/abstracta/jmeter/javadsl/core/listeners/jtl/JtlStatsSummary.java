@@ -0,0 +1,147 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.stats.CountMetricSummary;
+import us.abstracta.jmeter.javadsl.core.stats.LogLinearHistogram;
+import us.abstracta.jmeter.javadsl.core.stats.StatsSummary;
+import us.abstracta.jmeter.javadsl.core.stats.TimeMetricSummary;
+
+/*
+ Statistics calculated from JTL records which, unlike EmbeddedStatsSummary ones, can be merged.
+
+ This allows each thread parsing a chunk of a JTL file to calculate its own statistics, and then
+ merge them, getting the same results no matter the parallelism or the order of the records.
+ */
+class JtlStatsSummary implements StatsSummary {
+
+  private long firstTime = Long.MAX_VALUE;
+  private long endTime = Long.MIN_VALUE;
+  private long samples;
+  private long errors;
+  private long receivedBytes;
+  private long sentBytes;
+  private final LogLinearHistogram sampleTimes = new LogLinearHistogram();
+
+  @Override
+  public void add(SampleResult result) {
+    add(result.getStartTime(), result.getEndTime(), result.getTime(), result.isSuccessful(),
+        result.getBytesAsLong(), result.getSentBytes());
+  }
+
+  void add(JtlRecord record) {
+    add(record.timeStamp, record.timeStamp + record.elapsed, record.elapsed, record.success,
+        record.bytes, record.sentBytes);
+  }
+
+  private void add(long startTime, long endTime, long elapsed, boolean success,
+      long receivedBytes, long sentBytes) {
+    firstTime = Math.min(firstTime, startTime);
+    this.endTime = Math.max(this.endTime, endTime);
+    samples++;
+    if (!success) {
+      errors++;
+    }
+    this.receivedBytes += receivedBytes;
+    this.sentBytes += sentBytes;
+    sampleTimes.record(elapsed);
+  }
+
+  void merge(JtlStatsSummary other) {
+    firstTime = Math.min(firstTime, other.firstTime);
+    endTime = Math.max(endTime, other.endTime);
+    samples += other.samples;
+    errors += other.errors;
+    receivedBytes += other.receivedBytes;
+    sentBytes += other.sentBytes;
+    sampleTimes.merge(other.sampleTimes);
+  }
+
+  @Override
+  public Instant firstTime() {
+    return Instant.ofEpochMilli(firstTime);
+  }
+
+  @Override
+  public Instant endTime() {
+    return Instant.ofEpochMilli(endTime);
+  }
+
+  @Override
+  public CountMetricSummary samples() {
+    return buildCountMetric(samples);
+  }
+
+  private CountMetricSummary buildCountMetric(long total) {
+    CountMetricSummary ret = new CountMetricSummary();
+    ret.increment(total, endTime - firstTime);
+    return ret;
+  }
+
+  @Override
+  public CountMetricSummary errors() {
+    return buildCountMetric(errors);
+  }
+
+  @Override
+  public TimeMetricSummary sampleTime() {
+    return new HistogramTimeMetricSummary(sampleTimes);
+  }
+
+  @Override
+  public CountMetricSummary receivedBytes() {
+    return buildCountMetric(receivedBytes);
+  }
+
+  @Override
+  public CountMetricSummary sentBytes() {
+    return buildCountMetric(sentBytes);
+  }
+
+  private static class HistogramTimeMetricSummary implements TimeMetricSummary {
+
+    private final LogLinearHistogram histogram;
+
+    private HistogramTimeMetricSummary(LogLinearHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public Duration min() {
+      return Duration.ofMillis(histogram.min());
+    }
+
+    @Override
+    public Duration max() {
+      return Duration.ofMillis(histogram.max());
+    }
+
+    @Override
+    public Duration mean() {
+      return Duration.ofMillis(Math.round(histogram.mean()));
+    }
+
+    @Override
+    public Duration median() {
+      return Duration.ofMillis(histogram.percentile(50));
+    }
+
+    @Override
+    public Duration perc90() {
+      return Duration.ofMillis(histogram.percentile(90));
+    }
+
+    @Override
+    public Duration perc95() {
+      return Duration.ofMillis(histogram.percentile(95));
+    }
+
+    @Override
+    public Duration perc99() {
+      return Duration.ofMillis(histogram.percentile(99));
+    }
+
+  }
+
+}
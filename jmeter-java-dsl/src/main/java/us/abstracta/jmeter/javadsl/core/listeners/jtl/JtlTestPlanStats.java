@@ -0,0 +1,38 @@
+package us.abstracta.jmeter.javadsl.core.listeners.jtl;
+
+import java.util.Map;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.stats.StatsSummary;
+
+/*
+ Test plan statistics calculated from JTL records, which can be merged with statistics of other
+ records (eg: other chunks of the same file).
+ */
+class JtlTestPlanStats extends TestPlanStats {
+
+  JtlTestPlanStats() {
+    super(JtlStatsSummary::new);
+  }
+
+  void add(JtlRecord record) {
+    ((JtlStatsSummary) overallStats).add(record);
+    ((JtlStatsSummary) labeledStats.computeIfAbsent(record.label, l -> new JtlStatsSummary()))
+        .add(record);
+  }
+
+  void merge(JtlTestPlanStats other) {
+    ((JtlStatsSummary) overallStats).merge((JtlStatsSummary) other.overallStats);
+    for (Map.Entry<String, StatsSummary> entry : other.labeledStats.entrySet()) {
+      ((JtlStatsSummary) labeledStats.computeIfAbsent(entry.getKey(),
+          l -> new JtlStatsSummary())).merge((JtlStatsSummary) entry.getValue());
+    }
+  }
+
+  void updateTimes() {
+    if (overallStats.samplesCount() > 0) {
+      setStart(overallStats.firstTime());
+      setEnd(overallStats.endTime());
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+package us.abstracta.jmeter.javadsl.core.stats;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contains statistics about the queue and sending of sample results of a backend listener (eg:
+ * influxDbListener, graphiteListener, elasticsearchListener, etc.) during a test plan execution.
+ * <p>
+ * These statistics help detecting when a backend service is not able to keep up with test plan
+ * throughput, and in consequence, when test plan execution or collected metrics might be
+ * affected.
+ *
+ * @since 2.3
+ */
+public class BackendListenerStats {
+
+  private final String name;
+  private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+  private final LongAdder queueWaits = new LongAdder();
+  private final LongAdder droppedSamples = new LongAdder();
+  private final LongAdder aggregatedSamples = new LongAdder();
+  private final LongAdder sentSamples = new LongAdder();
+  private final LongAdder sentBatches = new LongAdder();
+  private final LongAdder sendTimeNanos = new LongAdder();
+  private final LongAccumulator maxSendTimeNanos = new LongAccumulator(Math::max, 0);
+
+  public BackendListenerStats(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the name of the backend listener client class (eg: InfluxdbBackendListenerClient).
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Gets the maximum number of sample results observed waiting in the queue to be sent.
+   */
+  public long maxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  /**
+   * Gets the number of times a sampler thread had to wait for space in the queue.
+   */
+  public long queueWaitsCount() {
+    return queueWaits.sum();
+  }
+
+  /**
+   * Gets the number of sample results discarded due to the queue being full.
+   */
+  public long droppedSamplesCount() {
+    return droppedSamples.sum();
+  }
+
+  /**
+   * Gets the number of sample results that were locally aggregated due to the queue being full.
+   */
+  public long aggregatedSamplesCount() {
+    return aggregatedSamples.sum();
+  }
+
+  /**
+   * Gets the number of sample results sent to the backend listener client.
+   * <p>
+   * Each locally aggregated sample result is counted only once, independently of the number of
+   * sample results it aggregates.
+   */
+  public long sentSamplesCount() {
+    return sentSamples.sum();
+  }
+
+  /**
+   * Gets the number of batches of sample results sent to the backend listener client.
+   */
+  public long sentBatchesCount() {
+    return sentBatches.sum();
+  }
+
+  /**
+   * Gets the mean time spent by the backend listener client to process a batch of sample
+   * results.
+   */
+  public Duration sendTimeMean() {
+    long batches = sentBatches.sum();
+    return Duration.ofNanos(batches == 0 ? 0 : sendTimeNanos.sum() / batches);
+  }
+
+  /**
+   * Gets the maximum time spent by the backend listener client to process a batch of sample
+   * results.
+   */
+  public Duration sendTimeMax() {
+    return Duration.ofNanos(maxSendTimeNanos.get());
+  }
+
+  public void reset() {
+    maxQueueDepth.reset();
+    queueWaits.reset();
+    droppedSamples.reset();
+    aggregatedSamples.reset();
+    sentSamples.reset();
+    sentBatches.reset();
+    sendTimeNanos.reset();
+    maxSendTimeNanos.reset();
+  }
+
+  public void registerQueueDepth(int depth) {
+    maxQueueDepth.accumulate(depth);
+  }
+
+  public void registerQueueWait() {
+    queueWaits.increment();
+  }
+
+  public void registerDroppedSample() {
+    droppedSamples.increment();
+  }
+
+  public void registerAggregatedSample() {
+    aggregatedSamples.increment();
+  }
+
+  public void registerSentBatch(int samplesCount, long sendTimeNanos) {
+    sentSamples.add(samplesCount);
+    sentBatches.increment();
+    this.sendTimeNanos.add(sendTimeNanos);
+    maxSendTimeNanos.accumulate(sendTimeNanos);
+  }
+
+}
@@ -0,0 +1,175 @@
+package us.abstracta.jmeter.javadsl.core.stats;
+
+import java.util.Arrays;
+
+/**
+ * Compact and mergeable histogram of non-negative long values (eg: response times in
+ * milliseconds) which allows estimating percentiles with bounded relative error.
+ * <p>
+ * Values under 128 are counted exactly, and bigger values are counted in buckets whose width is at
+ * most 1/64 of their lower bound (log-linear buckets, like HdrHistogram ones), so estimated
+ * percentiles have a relative error lower than 1%. Memory usage depends only on the range of
+ * recorded values (eg: ~9KB for values up to one hour in milliseconds), and not on the number of
+ * recorded values.
+ * <p>
+ * Since histograms with same buckets can be merged just by adding their counts, this allows
+ * computing percentiles of arbitrary groups of values (eg: time intervals or sample labels)
+ * without storing the values.
+ * <p>
+ * This class is not thread safe. Callers must synchronize access to it when used by several
+ * threads.
+ *
+ * @since 2.3
+ */
+public class LogLinearHistogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+  private long[] counts = new long[SUB_BUCKETS];
+  private long count;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+
+  /**
+   * Records a value in the histogram.
+   *
+   * @param value the value to record. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    record(value, 1);
+  }
+
+  /**
+   * Records a value as if it was recorded several times.
+   * <p>
+   * This is useful to record values of aggregated or sampled sample results, which represent
+   * several samples.
+   *
+   * @param value the value to record. Negative values are recorded as 0.
+   * @param times the number of times to record the value.
+   */
+  public void record(long value, long times) {
+    if (times <= 0) {
+      return;
+    }
+    value = Math.max(value, 0);
+    int index = bucketIndex(value);
+    if (index >= counts.length) {
+      counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+    }
+    counts[index] += times;
+    count += times;
+    sum += value * times;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  private static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+    return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  private static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / HALF_SUB_BUCKETS - 1;
+    return (long) (index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+  }
+
+  private static long bucketWidth(int index) {
+    return index < SUB_BUCKETS ? 1 : 1L << (index / HALF_SUB_BUCKETS - 1);
+  }
+
+  /**
+   * Adds all values recorded in another histogram to this one.
+   *
+   * @param other the histogram to merge into this one.
+   */
+  public void merge(LogLinearHistogram other) {
+    if (other.count == 0) {
+      return;
+    }
+    if (other.counts.length > counts.length) {
+      counts = Arrays.copyOf(counts, other.counts.length);
+    }
+    for (int i = 0; i < other.counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * Removes all recorded values.
+   */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public long sum() {
+    return sum;
+  }
+
+  /**
+   * Gets the minimum recorded value, or 0 if no value has been recorded.
+   */
+  public long min() {
+    return count == 0 ? 0 : min;
+  }
+
+  /**
+   * Gets the maximum recorded value, or 0 if no value has been recorded.
+   */
+  public long max() {
+    return count == 0 ? 0 : max;
+  }
+
+  /**
+   * Gets the mean of recorded values, or 0 if no value has been recorded.
+   */
+  public double mean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Estimates the value under which the given percentage of recorded values are.
+   *
+   * @param percentile the percentage of values, between 0 and 100.
+   * @return the estimated value, which is the middle of the bucket containing the percentile,
+   * bounded by recorded minimum and maximum values. When no value has been recorded, 0 is
+   * returned.
+   */
+  public long percentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long accumulated = 0;
+    for (int i = 0; i < counts.length; i++) {
+      accumulated += counts[i];
+      if (accumulated >= rank) {
+        long ret = bucketLowerBound(i) + (bucketWidth(i) - 1) / 2;
+        return Math.max(min, Math.min(max, ret));
+      }
+    }
+    return max;
+  }
+
+}
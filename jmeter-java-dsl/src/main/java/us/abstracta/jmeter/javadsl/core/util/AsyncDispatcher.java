@@ -0,0 +1,110 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.BackpressurePolicy;
+
+/**
+ * Passes elements from sampler threads to a single background thread through a
+ * {@link RingBuffer}, applying a {@link BackpressurePolicy} when the background thread can't keep
+ * up.
+ * <p>
+ * Elements discarded by the backpressure policy are counted in a provided counter, so listeners
+ * can report them to users.
+ *
+ * @param <T> is the type of elements passed to the background thread.
+ * @since 2.3
+ */
+public class AsyncDispatcher<T> {
+
+  private static final int SAMPLING_RATIO = 10;
+  private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+  private final RingBuffer<T> buffer;
+  private final int batchSize;
+  private final BackpressurePolicy backpressure;
+  private final AtomicLong droppedCount;
+  private final AtomicLong sampledSuccesses = new AtomicLong();
+  private final Thread consumerThread;
+  private volatile boolean running = true;
+
+  /**
+   * Creates a dispatcher with the given settings.
+   *
+   * @param threadName   name of the background thread.
+   * @param bufferSize   maximum number of elements pending to be consumed. This is rounded up to
+   *                     the next power of two.
+   * @param batchSize    maximum number of elements to consume before checking for stop.
+   * @param backpressure specifies what to do with elements when the buffer is full.
+   * @param droppedCount is incremented each time an element is discarded.
+   * @param consumer     consumes elements in the background thread.
+   */
+  public AsyncDispatcher(String threadName, int bufferSize, int batchSize,
+      BackpressurePolicy backpressure, AtomicLong droppedCount, Consumer<? super T> consumer) {
+    this.buffer = new RingBuffer<>(bufferSize);
+    this.batchSize = batchSize;
+    this.backpressure = backpressure;
+    this.droppedCount = droppedCount;
+    this.consumerThread = new Thread(() -> consume(consumer), threadName);
+    this.consumerThread.setDaemon(true);
+  }
+
+  private void consume(Consumer<? super T> consumer) {
+    while (running || !buffer.isEmpty()) {
+      if (buffer.drainTo(consumer, batchSize) == 0) {
+        LockSupport.parkNanos(WAIT_NANOS);
+      }
+    }
+  }
+
+  public void start() {
+    consumerThread.start();
+  }
+
+  /**
+   * Passes the given element to the background thread, applying the backpressure policy if the
+   * buffer is full.
+   *
+   * @param element element to pass to the background thread.
+   * @param success specifies if the element belongs to a successful sample, which the
+   *                {@link BackpressurePolicy#SAMPLE} policy may discard.
+   */
+  public void dispatch(T element, boolean success) {
+    if (backpressure == BackpressurePolicy.SAMPLE && success
+        && buffer.size() > buffer.capacity() / 2
+        && sampledSuccesses.getAndIncrement() % SAMPLING_RATIO != 0) {
+      droppedCount.incrementAndGet();
+      return;
+    }
+    if (buffer.offer(element)) {
+      return;
+    }
+    if (backpressure == BackpressurePolicy.DROP) {
+      droppedCount.incrementAndGet();
+      return;
+    }
+    while (!buffer.offer(element)) {
+      // avoid blocking sampler threads forever if background thread is no longer running
+      if (!consumerThread.isAlive()) {
+        droppedCount.incrementAndGet();
+        return;
+      }
+      LockSupport.parkNanos(WAIT_NANOS);
+    }
+  }
+
+  /**
+   * Waits for the background thread to consume all pending elements and stops it.
+   */
+  public void stop() {
+    running = false;
+    try {
+      consumerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
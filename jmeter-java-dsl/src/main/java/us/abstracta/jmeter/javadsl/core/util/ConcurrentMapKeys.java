@@ -0,0 +1,26 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+/**
+ * Provides keys for concurrent maps from values which might be null (like sample labels or
+ * response codes).
+ *
+ * @since 2.3
+ */
+public class ConcurrentMapKeys {
+
+  private ConcurrentMapKeys() {
+  }
+
+  /**
+   * Gets a key from the given value, replacing null with an empty string.
+   * <p>
+   * Concurrent maps don't support null keys, so null values are collected with empty ones.
+   *
+   * @param value is the value to use as key. May be null.
+   * @return the given value, or an empty string if the given value is null.
+   */
+  public static String of(String value) {
+    return value != null ? value : "";
+  }
+
+}
@@ -0,0 +1,39 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+/**
+ * Provides escaping of strings included in JSON documents which are built by hand (eg: by
+ * listeners which generate documents for each sample result and avoid the overhead of a JSON
+ * library).
+ *
+ * @since 2.3
+ */
+public class JsonStrings {
+
+  private JsonStrings() {
+  }
+
+  /**
+   * Escapes the given string to be included between double quotes in a JSON document.
+   *
+   * @param value is the string to escape. May be null.
+   * @return the escaped string, or an empty string if the given value is null.
+   */
+  public static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder ret = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        ret.append('\\').append(c);
+      } else if (c < 0x20) {
+        ret.append(String.format("\\u%04x", (int) c));
+      } else {
+        ret.append(c);
+      }
+    }
+    return ret.toString();
+  }
+
+}
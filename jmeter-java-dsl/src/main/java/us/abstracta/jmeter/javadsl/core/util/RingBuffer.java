@@ -0,0 +1,143 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free, multi producer and multi consumer queue backed by an array.
+ * <p>
+ * This is intended to be used to pass elements from sampler threads to a background thread with
+ * minimal contention. When the buffer is full, {@link #offer(Object)} fails immediately, so
+ * callers can decide how to handle backpressure (block, drop, etc.).
+ * <p>
+ * Implementation is based on Dmitry Vyukov bounded MPMC queue, where each slot has a sequence that
+ * specifies if it is available for producers or consumers, avoiding any locking.
+ *
+ * @param <T> is the type of elements stored in the buffer.
+ * @since 2.3
+ */
+public class RingBuffer<T> {
+
+  private final AtomicReferenceArray<T> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Creates a buffer with at least the given capacity.
+   *
+   * @param capacity minimum number of elements the buffer can hold. The actual capacity is rounded
+   *                 up to the next power of two, and is at least 2.
+   */
+  public RingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Ring buffer capacity must be positive, but was "
+          + capacity);
+    }
+    /*
+     with a single slot, the sequence of a consumed slot would be the same as the one of a slot
+     with a pending element, so producers could overwrite elements not yet consumed.
+     */
+    int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    elements = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    mask = size - 1;
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Adds an element at the end of the buffer if there is space available.
+   *
+   * @param element element to add to the buffer. Must not be null.
+   * @return true if the element was added, false if the buffer is full.
+   */
+  public boolean offer(T element) {
+    long pos = tail.get();
+    while (true) {
+      int index = (int) pos & mask;
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          elements.lazySet(index, element);
+          sequences.set(index, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes and returns the first element of the buffer.
+   *
+   * @return the first element of the buffer, or null if the buffer is empty.
+   */
+  public T poll() {
+    long pos = head.get();
+    while (true) {
+      int index = (int) pos & mask;
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          T ret = elements.get(index);
+          elements.lazySet(index, null);
+          sequences.set(index, pos + mask + 1);
+          return ret;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        return null;
+      } else {
+        pos = head.get();
+      }
+    }
+  }
+
+  /**
+   * Removes up to the given number of elements from the buffer, passing them to the given consumer.
+   *
+   * @param consumer receives each of the removed elements, in the order they were added.
+   * @param maxElements maximum number of elements to remove.
+   * @return the number of removed elements.
+   */
+  public int drainTo(Consumer<? super T> consumer, int maxElements) {
+    int ret = 0;
+    T element;
+    while (ret < maxElements && (element = poll()) != null) {
+      consumer.accept(element);
+      ret++;
+    }
+    return ret;
+  }
+
+  /**
+   * Gets an approximation of the number of elements in the buffer.
+   * <p>
+   * Since producers and consumers may be concurrently modifying the buffer, the result may be
+   * outdated as soon as it is returned.
+   *
+   * @return the approximate number of elements in the buffer.
+   */
+  public int size() {
+    long ret = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(ret, capacity()));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+}
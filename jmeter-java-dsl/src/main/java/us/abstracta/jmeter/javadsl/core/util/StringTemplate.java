@@ -1,8 +1,10 @@
 package us.abstracta.jmeter.javadsl.core.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,6 +34,11 @@ import java.util.regex.Pattern;
  * <pre>&lt;root version="1.2"&gt;{{value:3~\d+}}&lt;/root&gt;</pre>
  * can be used with {@link #matches(String)} or with {@link #bind(String, Object)} and
  * {@link #solve()}.
+ * <p>
+ * The template is parsed only once, when the instance is created, so the same instance can be
+ * efficiently reused for several {@link #solve()} or {@link #matches(String)} invocations (eg: to
+ * build a request body on each iteration). {@link #solve()} and {@link #matches(String)} can be
+ * invoked from multiple threads, as long as bindings are not changed while doing so.
  */
 public class StringTemplate {
 
@@ -41,49 +48,47 @@ public class StringTemplate {
       Pattern.quote(EXPRESSION_START_MARKER) + "(.*?)" + Pattern.quote(EXPRESSION_END_MARKER));
   private static final Pattern EXPRESSION_WITH_VAR_NAME_PATTERN = Pattern.compile(
       "^(\\w+)?(:[^~]*)?(~.*)?$");
-  private final String template;
+  private final List<TemplateSegment> segments;
   private final Map<String, Object> bindings = new HashMap<>();
   private boolean ignoreMissingBindings;
+  private volatile Pattern pattern;
+  /*
+   only the length of last solved string is kept (instead of reusing a builder) to pre-size the
+   builder of next solve, avoiding buffer resizes without sharing state between threads or keeping
+   the memory of the biggest solved string.
+   */
+  private volatile int lastSolvedLength = 16;
 
   public StringTemplate(String template) {
-    this.template = template;
+    this.segments = parseSegments(template);
   }
 
-  public boolean matches(String string) {
-    Pattern templatePattern = Pattern.compile(
-        processTemplate(Pattern::quote, this::getExpressionPattern));
-    return templatePattern.matcher(string).matches();
-  }
-
-  private String processTemplate(Function<String, String> literalProcessor,
-      Function<String, String> expressionProcessor) {
-    StringBuilder ret = new StringBuilder();
+  private static List<TemplateSegment> parseSegments(String template) {
+    List<TemplateSegment> ret = new ArrayList<>();
     int currentIndex = 0;
     Matcher matcher = EXPRESSION_PATTERN.matcher(template);
     while (matcher.find()) {
-      ret.append(literalProcessor.apply(template.substring(currentIndex, matcher.start())));
-      String expression = template.substring(matcher.start() + EXPRESSION_START_MARKER.length(),
-          matcher.end() - EXPRESSION_END_MARKER.length());
-      ret.append(expressionProcessor.apply(expression));
+      if (matcher.start() > currentIndex) {
+        ret.add(new LiteralSegment(template.substring(currentIndex, matcher.start())));
+      }
+      ret.add(ExpressionSegment.fromExpression(matcher.group(1)));
       currentIndex = matcher.end();
     }
     if (currentIndex < template.length()) {
-      ret.append(literalProcessor.apply(template.substring(currentIndex)));
+      ret.add(new LiteralSegment(template.substring(currentIndex)));
     }
-    return ret.toString();
+    return Collections.unmodifiableList(ret);
   }
 
-  private String getExpressionPattern(String expression) {
-    Matcher varExpressionMatcher = EXPRESSION_WITH_VAR_NAME_PATTERN.matcher(expression);
-    if (!varExpressionMatcher.matches()) {
-      return expression;
-    }
-    String regex = varExpressionMatcher.group(3);
-    if (regex != null) {
-      return regex.substring(1);
+  public boolean matches(String string) {
+    Pattern ret = pattern;
+    if (ret == null) {
+      StringBuilder regex = new StringBuilder();
+      segments.forEach(s -> s.appendPatternTo(regex));
+      ret = Pattern.compile(regex.toString());
+      pattern = ret;
     }
-    String defaultVal = varExpressionMatcher.group(2);
-    return defaultVal == null ? ".*" : Pattern.quote(defaultVal.substring(1));
+    return ret.matcher(string).matches();
   }
 
   public StringTemplate bind(String key, Object value) {
@@ -97,22 +102,12 @@ public class StringTemplate {
   }
 
   public String solve() {
-    return processTemplate(s -> s, this::solveExpression);
-  }
-
-  private String solveExpression(String expression) {
-    Matcher varExpressionMatcher = EXPRESSION_WITH_VAR_NAME_PATTERN.matcher(expression);
-    if (!varExpressionMatcher.matches()) {
-      Object bind = bindings.get(expression);
-      return bind != null ? bind.toString() : handleMissingBinding(expression);
-    }
-    String varName = varExpressionMatcher.group(1);
-    Object bind = bindings.get(varName);
-    if (bind != null) {
-      return bind.toString();
+    StringBuilder ret = new StringBuilder(lastSolvedLength);
+    for (TemplateSegment segment : segments) {
+      segment.solveTo(ret, this);
     }
-    String defaultVal = varExpressionMatcher.group(2);
-    return defaultVal != null ? defaultVal.substring(1) : handleMissingBinding(varName);
+    lastSolvedLength = ret.length();
+    return ret.toString();
   }
 
   private String handleMissingBinding(String expression) {
@@ -122,5 +117,77 @@ public class StringTemplate {
     throw new IllegalStateException("No binding was found for: " + expression);
   }
 
-}
+  private interface TemplateSegment {
+
+    void appendPatternTo(StringBuilder regex);
+
+    void solveTo(StringBuilder ret, StringTemplate template);
+
+  }
+
+  private static class LiteralSegment implements TemplateSegment {
+
+    private final String literal;
+
+    private LiteralSegment(String literal) {
+      this.literal = literal;
+    }
 
+    @Override
+    public void appendPatternTo(StringBuilder regex) {
+      regex.append(Pattern.quote(literal));
+    }
+
+    @Override
+    public void solveTo(StringBuilder ret, StringTemplate template) {
+      ret.append(literal);
+    }
+
+  }
+
+  private static class ExpressionSegment implements TemplateSegment {
+
+    // name used to solve bindings, or raw expression when it does not follow var name syntax
+    private final String bindingName;
+    private final String defaultValue;
+    private final String regex;
+
+    private ExpressionSegment(String bindingName, String defaultValue, String regex) {
+      this.bindingName = bindingName;
+      this.defaultValue = defaultValue;
+      this.regex = regex;
+    }
+
+    private static ExpressionSegment fromExpression(String expression) {
+      Matcher varExpressionMatcher = EXPRESSION_WITH_VAR_NAME_PATTERN.matcher(expression);
+      if (!varExpressionMatcher.matches()) {
+        return new ExpressionSegment(expression, null, expression);
+      }
+      String defaultVal = varExpressionMatcher.group(2);
+      String regex = varExpressionMatcher.group(3);
+      return new ExpressionSegment(varExpressionMatcher.group(1),
+          defaultVal != null ? defaultVal.substring(1) : null,
+          regex != null ? regex.substring(1)
+              : defaultVal != null ? Pattern.quote(defaultVal.substring(1)) : ".*");
+    }
+
+    @Override
+    public void appendPatternTo(StringBuilder ret) {
+      ret.append(regex);
+    }
+
+    @Override
+    public void solveTo(StringBuilder ret, StringTemplate template) {
+      Object bind = template.bindings.get(bindingName);
+      if (bind != null) {
+        ret.append(bind);
+      } else if (defaultValue != null) {
+        ret.append(defaultValue);
+      } else {
+        ret.append(template.handleMissingBinding(bindingName));
+      }
+    }
+
+  }
+
+}
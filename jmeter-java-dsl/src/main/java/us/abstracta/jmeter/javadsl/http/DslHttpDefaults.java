@@ -4,13 +4,21 @@ import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.protocol.http.config.gui.HttpDefaultsGui;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.NullProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
+import org.apache.jmeter.testelement.property.StringProperty;
 import org.apache.jmeter.testelement.property.TestElementProperty;
 import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
@@ -24,6 +32,7 @@ import us.abstracta.jmeter.javadsl.codegeneration.params.EncodingParam;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext.TreeContextEndListener;
 import us.abstracta.jmeter.javadsl.core.configs.BaseConfigElement;
+import us.abstracta.jmeter.javadsl.core.samplers.BaseSampler;
 import us.abstracta.jmeter.javadsl.http.DslBaseHttpSampler.BaseHttpSamplerCodeBuilder;
 import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
 
@@ -39,6 +48,10 @@ import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
  */
 public class DslHttpDefaults extends BaseConfigElement {
 
+  private static final Set<String> NON_INLINED_PROPERTIES = new HashSet<>(Arrays.asList(
+      TestElement.NAME, TestElement.GUI_CLASS, TestElement.TEST_CLASS, TestElement.ENABLED,
+      TestElement.COMMENTS, HTTPSamplerBase.ARGUMENTS));
+
   protected String protocol;
   protected String host;
   protected String port;
@@ -441,7 +454,14 @@ public class DslHttpDefaults extends BaseConfigElement {
 
   @Override
   public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
-    HashTree ret = super.buildTreeUnder(parent, context);
+    TestElement element = buildConfiguredTestElement();
+    HashTree ret = parent.add(element);
+    if (context.isInProcessExecution()) {
+      BuildTreeContext root = context.getRoot();
+      root.getOrCreateEntry(StaticDefaultsInliner.class.getName(),
+              () -> new StaticDefaultsInliner(root))
+          .register(element, parent, context);
+    }
     if (followRedirects != null) {
       buildEndListener(context.getParent()).followRedirects = followRedirects;
     }
@@ -527,6 +547,110 @@ public class DslHttpDefaults extends BaseConfigElement {
 
   }
 
+  /*
+   JMeter merges config elements into samplers on each sample, cloning each of the config element
+   properties and then reverting them after the sample. Since defaults without variables or
+   functions always produce the same result, when running in current JVM we apply them to samplers
+   at build time and remove them from the tree, avoiding such per sample cost.
+   */
+  private static class StaticDefaultsInliner implements TreeContextEndListener {
+
+    private final List<ScopedDefaults> defaults = new ArrayList<>();
+    private boolean dynamicDefaults;
+
+    private StaticDefaultsInliner(BuildTreeContext context) {
+      context.addEndListener(this);
+    }
+
+    private void register(TestElement element, HashTree scope, BuildTreeContext context) {
+      /*
+       if some defaults need to be merged at runtime, we don't inline any of them, since their
+       precedence would change (samplers properties are never overwritten by defaults). Defaults
+       as sampler children are not inlined for simplicity, since they are not common.
+       */
+      if (!isStatic(element) || context.getParent().getTestElement() instanceof BaseSampler) {
+        dynamicDefaults = true;
+      }
+      defaults.add(new ScopedDefaults(element, scope, scopeDepth(context)));
+    }
+
+    private static boolean isStatic(TestElement element) {
+      PropertyIterator it = element.propertyIterator();
+      while (it.hasNext()) {
+        if (it.next().getStringValue().contains("${")) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int scopeDepth(BuildTreeContext context) {
+      int ret = 0;
+      while (!context.isRoot()) {
+        context = context.getParent();
+        ret++;
+      }
+      return ret;
+    }
+
+    @Override
+    public void execute(BuildTreeContext context, HashTree tree) {
+      if (dynamicDefaults) {
+        return;
+      }
+      /*
+       inner scopes are applied first, since inner defaults take precedence over outer ones. Sort is
+       stable, so defaults in same scope keep their order, and first one takes precedence, as in
+       JMeter.
+       */
+      defaults.sort(Comparator.comparingInt((ScopedDefaults d) -> d.depth).reversed());
+      for (ScopedDefaults d : defaults) {
+        applyToSamplers(d.element, d.scope);
+        d.scope.remove(d.element);
+      }
+    }
+
+    private void applyToSamplers(TestElement defaults, HashTree tree) {
+      tree.forEach((key, value) -> {
+        if (key instanceof HTTPSamplerBase) {
+          applyToSampler(defaults, (HTTPSamplerBase) key);
+        } else {
+          applyToSamplers(defaults, value);
+        }
+      });
+    }
+
+    private void applyToSampler(TestElement defaults, HTTPSamplerBase sampler) {
+      PropertyIterator it = defaults.propertyIterator();
+      while (it.hasNext()) {
+        JMeterProperty prop = it.next();
+        if (NON_INLINED_PROPERTIES.contains(prop.getName())) {
+          continue;
+        }
+        JMeterProperty samplerProp = sampler.getProperty(prop.getName());
+        if (samplerProp instanceof NullProperty
+            || samplerProp instanceof StringProperty && samplerProp.getStringValue().isEmpty()) {
+          sampler.setProperty(prop.clone());
+        }
+      }
+    }
+
+  }
+
+  private static class ScopedDefaults {
+
+    private final TestElement element;
+    private final HashTree scope;
+    private final int depth;
+
+    private ScopedDefaults(TestElement element, HashTree scope, int depth) {
+      this.element = element;
+      this.scope = scope;
+      this.depth = depth;
+    }
+
+  }
+
   public static class CodeBuilder extends SingleGuiClassCallBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
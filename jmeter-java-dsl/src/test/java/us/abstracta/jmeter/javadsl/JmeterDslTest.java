@@ -6,12 +6,21 @@ import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.ClassOrderer;
 import org.junit.jupiter.api.TestClassOrder;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
 
 /*
 We force the order to avoid nested classes tests stopping wiremock and then parent tests failing.
@@ -55,4 +64,25 @@ public abstract class JmeterDslTest {
     return actualStats;
   }
 
+  /*
+   Builds the tree as embedded engine does, to check optimizations that only apply when test plans
+   run in current JVM.
+   */
+  protected HashTree buildInProcessTree(DslTestPlan testPlan, boolean structureCompilation)
+      throws IOException {
+    new JmeterEnvironment();
+    BuildTreeContext context = new BuildTreeContext();
+    context.setInProcessExecution(true);
+    context.setStructureCompilation(structureCompilation);
+    HashTree ret = new ListedHashTree();
+    context.buildTreeFor(testPlan, ret);
+    return ret;
+  }
+
+  protected <T> List<T> findInTree(HashTree tree, Class<T> elementClass) {
+    SearchByClass<T> search = new SearchByClass<>(elementClass);
+    tree.traverse(search);
+    return new ArrayList<>(search.getSearchResults());
+  }
+
 }
@@ -9,17 +9,26 @@ import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.apache.jmeter.control.GenericController;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.AbstractThreadGroup;
+import org.apache.jorphan.collections.HashTree;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.engines.EmbeddedJmeterEngine;
 
 public class DslSimpleControllerTest extends JmeterDslTest {
 
+  private static final String DEFAULT_LABEL = "dummy";
+  private static final String OVERRIDEN_LABEL = "test";
+
   @Test
   public void shouldApplyPostProcessorToSimpleControllerScopedElements() throws Exception {
     String defaultName = "dummy";
@@ -41,6 +50,52 @@ public class DslSimpleControllerTest extends JmeterDslTest {
     assertThat(extractLabelsCounts(stats)).isEqualTo(labelsCounts);
   }
 
+  @Test
+  public void shouldKeepSimpleControllersBehaviorWhenRunWithCompiledStructure() throws Exception {
+    TestPlanStats stats = buildNestedSimpleControllersTestPlan()
+        .runIn(new EmbeddedJmeterEngine().compiledStructure());
+    Map<String, Long> labelsCounts = new HashMap<>();
+    labelsCounts.put(OVERRIDEN_LABEL, 2L);
+    labelsCounts.put(DEFAULT_LABEL, 4L);
+    assertThat(extractLabelsCounts(stats)).isEqualTo(labelsCounts);
+  }
+
+  private DslTestPlan buildNestedSimpleControllersTestPlan() {
+    String body = "OK";
+    return testPlan(
+        threadGroup(1, 2,
+            simpleController(
+                simpleController(
+                    dummySampler(DEFAULT_LABEL, body),
+                    dummySampler(DEFAULT_LABEL, body)
+                ),
+                simpleController(
+                    jsr223PostProcessor(v -> v.prev.setSampleLabel(OVERRIDEN_LABEL)),
+                    dummySampler(DEFAULT_LABEL, body)
+                )
+            )
+        )
+    );
+  }
+
+  @Test
+  public void shouldOnlyKeepScopingSimpleControllersWhenBuildWithCompiledStructure()
+      throws Exception {
+    HashTree tree = buildInProcessTree(buildNestedSimpleControllersTestPlan(), true);
+    List<GenericController> controllers = findInTree(tree, GenericController.class);
+    assertThat(controllers).hasSize(1);
+    HashTree threadGroupTree = tree.search(findInTree(tree, AbstractThreadGroup.class).get(0));
+    assertThat(threadGroupTree.list()).contains(controllers.get(0));
+    assertThat(findInTree(tree.search(controllers.get(0)), Sampler.class)).hasSize(1);
+  }
+
+  @Test
+  public void shouldKeepAllSimpleControllersWhenBuildWithoutCompiledStructure()
+      throws Exception {
+    HashTree tree = buildInProcessTree(buildNestedSimpleControllersTestPlan(), false);
+    assertThat(findInTree(tree, GenericController.class)).hasSize(3);
+  }
+
   private Map<String, Long> extractLabelsCounts(TestPlanStats stats) {
     return stats.labels().stream()
         .collect(Collectors.toMap(l -> l, l -> stats.byLabel(l).samplesCount()));
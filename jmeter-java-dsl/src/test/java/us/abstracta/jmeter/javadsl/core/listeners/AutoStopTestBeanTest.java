@@ -9,6 +9,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.function.Consumer;
 import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.samplers.SampleResult;
@@ -29,7 +30,8 @@ public class AutoStopTestBeanTest {
 
   private static class MockedClock extends Clock {
 
-    private Instant instant = Instant.now();
+    // samples end times have milliseconds precision
+    private Instant instant = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
     @Override
     public ZoneId getZone() {
@@ -108,10 +110,21 @@ public class AutoStopTestBeanTest {
   }
 
   public void sample(Consumer<SampleResult> consumer, AutoStopTestBean listener) {
+    sampleWithoutEvaluation(consumer, listener);
+    // conditions are evaluated periodically, so we force evaluation to avoid depending on timing
+    listener.evaluate();
+  }
+
+  private void sampleWithoutEvaluation(Consumer<SampleResult> consumer,
+      AutoStopTestBean listener) {
     SampleResult sample = new SampleResult();
     sample.setSampleLabel("test");
     sample.setSuccessful(true);
     consumer.accept(sample);
+    // SampleResult does not allow setting stamp and time more than once
+    if (sample.getEndTime() == 0) {
+      sample.setStampAndTime(clock.instant().toEpochMilli(), 0);
+    }
     listener.sampleOccurred(new SampleEvent(sample, "test-thread"));
   }
 
@@ -296,8 +309,55 @@ public class AutoStopTestBeanTest {
     assertAutoStop();
   }
 
+  @Test
+  public void shouldAutoStopWhenConditionOverLimitWithSamplesFromMultipleThreads()
+      throws Exception {
+    AutoStopTestBean element = buildAutoStop(
+        AutoStopCondition.errors().total().greaterThanOrEqualTo(2L));
+    Thread otherThread = new Thread(() -> errorSampleWithoutEvaluation(element));
+    otherThread.start();
+    otherThread.join();
+    errorSampleWithoutEvaluation(element);
+    element.evaluate();
+    assertAutoStop();
+  }
+
+  private void errorSampleWithoutEvaluation(AutoStopTestBean element) {
+    sampleWithoutEvaluation(r -> r.setSuccessful(false), element);
+  }
+
   private void sampleWithTime(Duration duration, AutoStopTestBean element) {
-    sample(r -> r.setStampAndTime(clock.instant.toEpochMilli(), duration.toMillis()), element);
+    sample(r -> r.setStampAndTime(clock.instant.toEpochMilli() - duration.toMillis(),
+        duration.toMillis()), element);
+  }
+
+  @Test
+  public void shouldAutoStopWhenSamplesOfPeriodAreEvaluatedAfterPeriodEnd() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.errors().total()
+        .every(ONE_SEC).greaterThanOrEqualTo(2L));
+    errorSampleWithoutEvaluation(element);
+    clock.tick(Duration.ofMillis(900));
+    errorSampleWithoutEvaluation(element);
+    clock.tick(Duration.ofMillis(200));
+    sampleWithoutEvaluation(r -> {
+    }, element);
+    element.evaluate();
+    assertAutoStop();
+  }
+
+  @Test
+  public void shouldNotAutoStopWhenConditionMatchesBetweenEvaluationsButNotHolds() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.errors().percent()
+        .greaterThan(ERROR_PERCENT_LIMIT).holdsFor(ONE_SEC));
+    errorSample(element);
+    clock.tick(Duration.ofMillis(500));
+    sampleWithoutEvaluation(r -> {
+    }, element);
+    clock.tick(Duration.ofMillis(600));
+    errorSampleWithoutEvaluation(element);
+    errorSampleWithoutEvaluation(element);
+    element.evaluate();
+    assertNotAutoStop();
   }
 
   @Test
@@ -312,4 +372,51 @@ public class AutoStopTestBeanTest {
     assertNotAutoStop();
   }
 
+  @Test
+  public void shouldAutoStopWhenSampleTimePercentileInSlidingWindowIsOverLimit() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.sampleTime().percentile(99)
+        .over(Duration.ofSeconds(3)).greaterThan(ONE_SEC));
+    sampleWithTime(Duration.ofSeconds(5), element);
+    clock.tick(Duration.ofMillis(500));
+    sampleWithTime(Duration.ofMillis(100), element);
+    clock.tick(Duration.ofMillis(500));
+    sample(element);
+    assertAutoStop();
+  }
+
+  @Test
+  public void shouldNotAutoStopWhenSampleTimePercentileOverLimitLeftSlidingWindow() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.sampleTime().percentile(99)
+        .over(Duration.ofSeconds(2)).greaterThan(ONE_SEC).holdsFor(Duration.ofSeconds(2)));
+    sampleWithTime(Duration.ofSeconds(5), element);
+    for (int i = 0; i < 3; i++) {
+      clock.tick();
+      sampleWithTime(Duration.ofMillis(100), element);
+    }
+    assertNotAutoStop();
+  }
+
+  @Test
+  public void shouldAutoStopWhenErrorsPercentInSlidingWindowHoldsOverLimit() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.errors().percent()
+        .over(Duration.ofSeconds(2)).greaterThan(ERROR_PERCENT_LIMIT).holdsFor(ONE_SEC));
+    sample(element);
+    for (int i = 0; i < 4; i++) {
+      clock.tick();
+      errorSample(element);
+    }
+    assertAutoStop();
+  }
+
+  @Test
+  public void shouldNotAutoStopWhenNoSamplesYetInSlidingWindowWithLessThanCondition() {
+    AutoStopTestBean element = buildAutoStop(AutoStopCondition.samples().perSecond()
+        .over(Duration.ofSeconds(10)).lessThan(5.0));
+    for (int i = 0; i < 3; i++) {
+      clock.tick();
+      element.evaluate();
+    }
+    assertNotAutoStop();
+  }
+
 }
@@ -0,0 +1,126 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.listeners.DslBackendListener.OverflowPolicy;
+import us.abstracta.jmeter.javadsl.core.stats.BackendListenerStats;
+
+public class DslBackendListenerTest {
+
+  private static final int THREADS = 2;
+  private static final int ITERATIONS = 50;
+  private static final AtomicLong RECEIVED_SAMPLES = new AtomicLong();
+
+  @BeforeEach
+  public void setup() {
+    RECEIVED_SAMPLES.set(0);
+  }
+
+  @Test
+  public void shouldAccountAllSamplesInStatsWhenDropNewestOverflowPolicy() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            dummySampler("OK")
+        ),
+        new SlowBackendListener()
+            .queueSize(1)
+            .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+    ).run();
+    BackendListenerStats listenerStats = stats.backendListeners().get(0);
+    assertThat(listenerStats.sentSamplesCount() + listenerStats.droppedSamplesCount())
+        .isEqualTo(THREADS * ITERATIONS);
+  }
+
+  @Test
+  public void shouldSendAllSampleCountsWhenAggregateLocallyOverflowPolicyAndMultipleConsumers()
+      throws Exception {
+    testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            dummySampler("OK")
+        ),
+        new SlowBackendListener()
+            .queueSize(1)
+            .overflowPolicy(OverflowPolicy.AGGREGATE_LOCALLY)
+            .consumers(2)
+    ).run();
+    assertThat(RECEIVED_SAMPLES.get()).isEqualTo(THREADS * ITERATIONS);
+  }
+
+  @Test
+  public void shouldSendAllSamplesWithoutStatsWhenNoOverflowPolicyNorConsumers() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            dummySampler("OK")
+        ),
+        new SlowBackendListener()
+    ).run();
+    assertThat(RECEIVED_SAMPLES.get()).isEqualTo(THREADS * ITERATIONS);
+    assertThat(stats.backendListeners()).isEmpty();
+  }
+
+  @Test
+  public void shouldGetStatsWithClientNameWhenListenerClassChangesAfterCreation()
+      throws Exception {
+    SlowBackendListener listener = new SlowBackendListener()
+        .overflowPolicy(OverflowPolicy.BLOCK);
+    listener.listenerClass = OtherSlowBackendListenerClient.class;
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            dummySampler("OK")
+        ),
+        listener
+    ).run();
+    assertThat(stats.backendListeners().get(0).name())
+        .isEqualTo(OtherSlowBackendListenerClient.class.getSimpleName());
+  }
+
+  private static class SlowBackendListener extends DslBackendListener<SlowBackendListener> {
+
+    private SlowBackendListener() {
+      super(SlowBackendListenerClient.class, null);
+    }
+
+    @Override
+    protected Arguments buildListenerArguments() {
+      return new Arguments();
+    }
+
+  }
+
+  public static class SlowBackendListenerClient extends AbstractBackendListenerClient {
+
+    @Override
+    public Arguments getDefaultParameters() {
+      return new Arguments();
+    }
+
+    @Override
+    public void handleSampleResults(List<SampleResult> results, BackendListenerContext context) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      RECEIVED_SAMPLES.addAndGet(results.stream()
+          .mapToLong(SampleResult::getSampleCount)
+          .sum());
+    }
+
+  }
+
+  public static class OtherSlowBackendListenerClient extends SlowBackendListenerClient {
+  }
+
+}
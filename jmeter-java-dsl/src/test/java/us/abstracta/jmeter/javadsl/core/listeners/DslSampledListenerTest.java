@@ -0,0 +1,81 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jtlWriter;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.sampled;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+
+public class DslSampledListenerTest extends JmeterDslTest {
+
+  private static final String RESULTS_JTL = "results.jtl";
+  private static final int ITERATIONS = 10;
+
+  @Test
+  public void shouldLogWeightedPortionOfResultsWhenSampledJtlWriter(@TempDir Path tempDir)
+      throws Exception {
+    testPlan(
+        threadGroup(1, ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        sampled(0.5, jtlWriter(tempDir.toString(), RESULTS_JTL)
+            .withSampleAndErrorCounts(true))
+    ).run();
+    assertThat(findSampleCounts(tempDir.resolve(RESULTS_JTL)))
+        .isEqualTo(Arrays.asList("2", "2", "2", "2", "2"));
+  }
+
+  private List<String> findSampleCounts(Path jtlPath) throws Exception {
+    List<String> lines = Files.readAllLines(jtlPath);
+    int sampleCountColumn = Arrays.asList(lines.get(0).split(",")).indexOf("SampleCount");
+    return lines.stream()
+        .skip(1)
+        .map(l -> l.split(",")[sampleCountColumn])
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldLogAllErrorsWhenSampledJtlWriterWithAllErrors(@TempDir Path tempDir)
+      throws Exception {
+    stubFor(any(anyUrl()).willReturn(aResponse().withStatus(500)));
+    testPlan(
+        threadGroup(1, ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        sampled(0.1, jtlWriter(tempDir.toString(), RESULTS_JTL)
+            .withSampleAndErrorCounts(true))
+            .allErrors()
+    ).run();
+    assertThat(findSampleCounts(tempDir.resolve(RESULTS_JTL))).hasSize(ITERATIONS)
+        .containsOnly("1");
+  }
+
+  @Test
+  public void shouldEvaluateExpressionsOfWrappedListenerWhenSampledListener(@TempDir Path tempDir)
+      throws Exception {
+    testPlan(
+        threadGroup(1, ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        sampled(0.5, jtlWriter(tempDir.toString(), "${__P(SAMPLED_JTL," + RESULTS_JTL + ")}")
+            .withSampleAndErrorCounts(true))
+    ).run();
+    assertThat(findSampleCounts(tempDir.resolve(RESULTS_JTL)))
+        .isEqualTo(Arrays.asList("2", "2", "2", "2", "2"));
+  }
+
+}
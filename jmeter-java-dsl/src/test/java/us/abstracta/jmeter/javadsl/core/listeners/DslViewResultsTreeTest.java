@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatus;
 
 public class DslViewResultsTreeTest extends DslVisualizerTest {
 
@@ -27,6 +28,23 @@ public class DslViewResultsTreeTest extends DslVisualizerTest {
         frame -> assertThat(frame.tree().valueAt(0)).isEqualTo("HTTP Request"), testInfo);
   }
 
+  @Test
+  public void shouldShowOnlyMatchingResultsWhenRunTestPlanWithViewResultsTreeWithLabelsFilter(
+      TestInfo testInfo) {
+    testVisualizerTestPlan(
+        testPlan(
+            threadGroup(1, 1,
+                httpSampler("ignored", wiremockUri),
+                httpSampler("shown", wiremockUri)
+            ),
+            resultsTreeVisualizer()
+                .labelsMatching("sho.*")
+                .maxBodySize(10)
+        ),
+        frame -> frame.tree().target().getRowCount() > 0,
+        frame -> assertThat(frame.tree().valueAt(0)).isEqualTo("shown"), testInfo);
+  }
+
   @SuppressWarnings("unused")
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
@@ -40,6 +58,27 @@ public class DslViewResultsTreeTest extends DslVisualizerTest {
       );
     }
 
+    public DslTestPlan testPlanWithResultsTreeVisualizerShowingOnlyErrors() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost")
+          ),
+          resultsTreeVisualizer()
+              .showOnly(SampleStatus.ERROR)
+      );
+    }
+
+    public DslTestPlan testPlanWithResultsTreeVisualizerWithLabelsFilterAndMaxBodySize() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost")
+          ),
+          resultsTreeVisualizer()
+              .labelsMatching("sho.*")
+              .maxBodySize(10)
+      );
+    }
+
   }
 
 }
@@ -14,14 +14,22 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import devcsrj.okhttp3.logging.HttpLoggingInterceptor;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import okhttp3.OkHttpClient;
 import okhttp3.ResponseBody;
+import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -67,6 +75,103 @@ public class GraphiteBackendListenerTest extends JmeterDslTest {
     }
   }
 
+  @Test
+  public void shouldSendAggregatedMetricsInBatchesWhenGraphiteListenerWithMetricsTemplate()
+      throws Exception {
+    try (PickleReceiver receiver = new PickleReceiver()) {
+      testPlan(
+          threadGroup(1, TEST_ITERATIONS,
+              httpSampler(SAMPLE_1_LABEL, wiremockUri),
+              httpSampler(SAMPLE_2_LABEL, wiremockUri)
+          ),
+          graphiteListener("localhost:" + receiver.getPort())
+              .metricsTemplate("{status}.{metric}")
+              .batching(5, Duration.ofMillis(100))
+      ).run();
+      await()
+          .atMost(Duration.ofSeconds(10))
+          .untilAsserted(() -> assertThat(receiver.sumOf("jmeter.a.count"))
+              .isEqualTo(2 * TEST_ITERATIONS));
+      SoftAssertions softly = new SoftAssertions();
+      softly.assertThat(receiver.metrics)
+          .allMatch(m -> m.path.matches("jmeter\\.(a|ok|ko|test)\\.[^.]+(\\.count)?"));
+      softly.assertThat(receiver.frameSizes).allMatch(s -> s <= 5);
+      softly.assertAll();
+    }
+  }
+
+  private static class PickleReceiver implements AutoCloseable {
+
+    private static final Pattern METRIC_PATTERN = Pattern.compile(
+        "\\(S'([^']*)'\n\\(L\\d+L\nS'([^']*)'\ntta");
+
+    private final ServerSocket server = new ServerSocket(0);
+    private final List<ReceivedMetric> metrics = new CopyOnWriteArrayList<>();
+    private final List<Integer> frameSizes = new CopyOnWriteArrayList<>();
+    private final Thread thread = new Thread(this::receive);
+
+    private PickleReceiver() throws IOException {
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private int getPort() {
+      return server.getLocalPort();
+    }
+
+    private void receive() {
+      while (!server.isClosed()) {
+        try (Socket socket = server.accept();
+            DataInputStream input = new DataInputStream(socket.getInputStream())) {
+          while (true) {
+            byte[] frame = new byte[input.readInt()];
+            input.readFully(frame);
+            Matcher matcher = METRIC_PATTERN.matcher(
+                new String(frame, StandardCharsets.US_ASCII));
+            int frameSize = 0;
+            while (matcher.find()) {
+              metrics.add(new ReceivedMetric(matcher.group(1),
+                  Double.parseDouble(matcher.group(2))));
+              frameSize++;
+            }
+            frameSizes.add(frameSize);
+          }
+        } catch (EOFException e) {
+          // client closed the connection, so we wait for a new one
+        } catch (IOException e) {
+          if (!server.isClosed()) {
+            LOG.warn("Problem receiving Graphite metrics", e);
+          }
+        }
+      }
+    }
+
+    private long sumOf(String path) {
+      return Math.round(metrics.stream()
+          .filter(m -> m.path.equals(path))
+          .mapToDouble(m -> m.value)
+          .sum());
+    }
+
+    @Override
+    public void close() throws IOException {
+      server.close();
+    }
+
+  }
+
+  private static class ReceivedMetric {
+
+    private final String path;
+    private final double value;
+
+    private ReceivedMetric(String path, double value) {
+      this.path = path;
+      this.value = value;
+    }
+
+  }
+
   private GenericContainer<?> buildContainer() {
     return new GenericContainer<>("graphiteapp/graphite-statsd:1.1.10-5")
         .withExposedPorts(GRAPHITE_HTTP_PORT, GRAPHITE_RECEIVER_PORT)
@@ -176,5 +281,16 @@ public class GraphiteBackendListenerTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithAggregatingGraphiteListener() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              graphiteListener("localhost")
+                  .metricsTemplate("{label}.{metric}")
+                  .batching(1000, Duration.ofSeconds(5))
+          )
+      );
+    }
+
   }
 }
@@ -7,16 +7,24 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.htmlReporter;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jtlWriter;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.jmeter.save.CSVSaveService;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -51,6 +59,106 @@ public class HtmlReporterTest extends JmeterDslTest {
     assertDirectoryContainsReportIndex(findFirstSubDirectory(reportDir));
   }
 
+  @Test
+  public void shouldWriteHtmlReportWhenIncrementalHtmlReporter(@TempDir Path reportDir)
+      throws IOException {
+    testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler(wiremockUri)),
+        buildHtmlReporter(reportDir)
+            .incremental(true)).run();
+    assertDirectoryContainsReportIndex(reportDir);
+  }
+
+  @Test
+  public void shouldReportSameSamplesCountsAsJtlWhenIncrementalHtmlReporter(
+      @TempDir Path reportDir) throws IOException {
+    testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler(SAMPLE_1_LABEL, wiremockUri),
+            httpSampler(SAMPLE_2_LABEL, wiremockUri)),
+        buildHtmlReporter(reportDir)
+            .incremental(true)).run();
+    Map<String, Long> reportCounts = extractReportSamplesCounts(reportDir);
+    assertThat(reportCounts).isEqualTo(extractJtlSamplesCounts(reportDir.resolve("report.jtl")));
+    assertThat(reportCounts.get(OVERALL_STATS_LABEL)).isEqualTo(2L * 2 * TEST_ITERATIONS);
+  }
+
+  private static Map<String, Long> extractReportSamplesCounts(Path reportDir) throws IOException {
+    JsonNode statistics = readStatistics(reportDir);
+    Map<String, Long> ret = new HashMap<>();
+    statistics.fields().forEachRemaining(e -> ret.put(
+        "Total".equals(e.getKey()) ? OVERALL_STATS_LABEL : e.getKey(),
+        e.getValue().get("sampleCount").asLong()));
+    return ret;
+  }
+
+  private static Map<String, Long> extractJtlSamplesCounts(Path jtlFile) throws IOException {
+    Map<String, Long> ret = new HashMap<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(jtlFile.toFile()))) {
+      List<String> columns = Arrays.asList(CSVSaveService.csvSplitString(reader.readLine(), ','));
+      int labelColumn = columns.indexOf("label");
+      String line = reader.readLine();
+      while (line != null) {
+        String label = CSVSaveService.csvSplitString(line, ',')[labelColumn];
+        ret.merge(label, 1L, Long::sum);
+        ret.merge(OVERALL_STATS_LABEL, 1L, Long::sum);
+        line = reader.readLine();
+      }
+    }
+    return ret;
+  }
+
+  @Test
+  public void shouldWriteHtmlReportWhenHtmlReporterWithMultipleGenerationThreads(
+      @TempDir Path reportDir) throws IOException {
+    testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler(wiremockUri)),
+        buildHtmlReporter(reportDir)
+            .generationThreads(4)).run();
+    assertDirectoryContainsReportIndex(reportDir);
+  }
+
+  @Test
+  public void shouldReportSameStatisticsAsSingleThreadWhenGenerateFromWithMultipleThreads(
+      @TempDir Path tempDir) throws Exception {
+    Path jtlFile = tempDir.resolve("results.jtl");
+    testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler(SAMPLE_1_LABEL, wiremockUri),
+            httpSampler(SAMPLE_2_LABEL, wiremockUri)),
+        jtlWriter(tempDir.toString(), jtlFile.getFileName().toString())
+    ).run();
+    Path singleThreadReport = tempDir.resolve("single");
+    buildHtmlReporter(singleThreadReport).generateFrom(jtlFile);
+    Path multiThreadReport = tempDir.resolve("multi");
+    buildHtmlReporter(multiThreadReport)
+        .generationThreads(4)
+        .generateFrom(jtlFile);
+    assertThat(readStatistics(multiThreadReport)).isEqualTo(readStatistics(singleThreadReport));
+  }
+
+  private static JsonNode readStatistics(Path reportDir) throws IOException {
+    return new ObjectMapper().readTree(reportDir.resolve("statistics.json").toFile());
+  }
+
+  @Test
+  public void shouldWriteHtmlReportWhenGenerateFromCompressedAndRotatedJtl(@TempDir Path tempDir)
+      throws Exception {
+    Path jtlFile = tempDir.resolve("jtls").resolve("results.jtl");
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri)),
+        jtlWriter(jtlFile.getParent().toString(), jtlFile.getFileName().toString())
+            .compressed(true)
+            .rotateOnSize(1)
+    ).run();
+    Path reportDir = tempDir.resolve("report");
+    buildHtmlReporter(reportDir).generateFrom(jtlFile);
+    assertDirectoryContainsReportIndex(reportDir);
+  }
+
   private static Path findFirstSubDirectory(Path reportDir) {
     return reportDir.resolve(reportDir.toFile().list()[0]);
   }
@@ -7,6 +7,7 @@ import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.influxdb.annotation.Column;
@@ -46,6 +47,25 @@ public class InfluxDbBackendListenerTest extends JmeterDslTest {
     }
   }
 
+  @Test
+  public void shouldSendMetricsToInfluxDbWhenInfluxDbListenerWithBatchingAndGzipInPlan()
+      throws IOException {
+    try (InfluxDBContainer<?> influxDbContainer = buildInfluxDbContainer()) {
+      influxDbContainer.start();
+      testPlan(
+          threadGroup(1, TEST_ITERATIONS,
+              httpSampler(SAMPLE_1_LABEL, wiremockUri),
+              httpSampler(SAMPLE_2_LABEL, wiremockUri)
+          ),
+          influxDbListener(influxDbContainer.getUrl() + "/write?db=" + INFLUXDB_DATABASE)
+              .batching(1000, Duration.ofSeconds(30))
+              .gzip()
+      ).run();
+      assertThat(getInfluxDbRecordedMetrics(influxDbContainer))
+          .isEqualTo(buildExpectedTotalCounts());
+    }
+  }
+
   private InfluxDBContainer<?> buildInfluxDbContainer() {
     return new InfluxDBContainer<>(
         DockerImageName.parse("influxdb:1.8"))
@@ -112,6 +132,18 @@ public class InfluxDbBackendListenerTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithBatchingInfluxDbListener() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost"),
+              influxDbListener("http://localhost?db=jmeter")
+                  .title("My Title")
+                  .batching(1000, Duration.ofSeconds(10))
+                  .gzip()
+          )
+      );
+    }
+
   }
 
 }
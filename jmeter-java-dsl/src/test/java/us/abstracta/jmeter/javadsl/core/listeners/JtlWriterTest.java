@@ -1,5 +1,9 @@
 package us.abstracta.jmeter.javadsl.core.listeners;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
@@ -9,8 +13,14 @@ import static us.abstracta.jmeter.javadsl.JmeterDsl.testResource;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.http.entity.ContentType;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,11 +29,21 @@ import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.StringTemplateAssert;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.BackpressurePolicy;
 import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatus;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.BinaryJtlReader;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlFiles;
+import us.abstracta.jmeter.javadsl.core.listeners.jtl.JtlStatsReader;
+import us.abstracta.jmeter.javadsl.core.stats.StatsSummary;
+import us.abstracta.jmeter.javadsl.core.stats.TimeMetricSummary;
 
 public class JtlWriterTest extends JmeterDslTest {
 
   private static final String RESULTS_JTL = "results.jtl";
+  private static final String ERROR_PATH = "/error";
+  private static final int LOAD_THREADS = 4;
+  private static final int LOAD_ITERATIONS = 50;
 
   @Test
   public void shouldWriteResultsToFileWhenJtlWriterWithoutNameAtTestPlan(@TempDir Path tempDir) throws Exception {
@@ -101,6 +121,182 @@ public class JtlWriterTest extends JmeterDslTest {
     assertResultsFileResultsCount(resultsFilePath, TEST_ITERATIONS);
   }
 
+  @Test
+  public void shouldWriteAllResultsToFileWhenAsyncJtlWriterWithBlockingBackpressure(
+      @TempDir Path tempDir) throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    JtlWriter jtlWriter = buildJtlWriter(resultsFilePath)
+        .async(1, BackpressurePolicy.BLOCK);
+    testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        jtlWriter
+    ).run();
+    assertResultsFileResultsCount(resultsFilePath, TEST_ITERATIONS * 2);
+    assertThat(jtlWriter.droppedRecordsCount()).isZero();
+  }
+
+  @Test
+  public void shouldWriteOrDropEachResultWhenAsyncJtlWriterWithDropBackpressure(
+      @TempDir Path tempDir) throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    JtlWriter jtlWriter = buildJtlWriter(resultsFilePath)
+        .async(1, BackpressurePolicy.DROP);
+    testPlan(
+        threadGroup(LOAD_THREADS, LOAD_ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        jtlWriter
+    ).run();
+    assertThat(TestPlanStats.fromJtl(resultsFilePath).overall().samplesCount()
+        + jtlWriter.droppedRecordsCount()).isEqualTo(LOAD_THREADS * LOAD_ITERATIONS);
+  }
+
+  @Test
+  public void shouldWriteAllErrorsWhenAsyncJtlWriterWithSampleBackpressure(
+      @TempDir Path tempDir) throws IOException {
+    stubFor(any(urlPathEqualTo(ERROR_PATH)).willReturn(aResponse().withStatus(500)));
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    JtlWriter jtlWriter = buildJtlWriter(resultsFilePath)
+        .async(2, BackpressurePolicy.SAMPLE);
+    testPlan(
+        threadGroup(LOAD_THREADS, LOAD_ITERATIONS,
+            httpSampler(wiremockUri),
+            httpSampler(wiremockUri + ERROR_PATH)
+        ),
+        jtlWriter
+    ).run();
+    StatsSummary jtlStats = TestPlanStats.fromJtl(resultsFilePath).overall();
+    int samplesPerStatus = LOAD_THREADS * LOAD_ITERATIONS;
+    assertThat(jtlStats.errorsCount()).isEqualTo(samplesPerStatus);
+    assertThat(jtlStats.samplesCount() - jtlStats.errorsCount()
+        + jtlWriter.droppedRecordsCount()).isEqualTo(samplesPerStatus);
+  }
+
+  @Test
+  public void shouldWriteAllResultsToRotatedFilesWhenCompressedJtlWriterWithRotation(
+      @TempDir Path tempDir) throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        buildJtlWriter(resultsFilePath)
+            .compressed(true)
+            .rotateOnSize(1)
+    ).run();
+    List<Path> files = JtlFiles.resolve(resultsFilePath);
+    Path mergedFilePath = tempDir.resolve("merged.jtl");
+    JtlFiles.mergeCsv(files, mergedFilePath);
+    assertThat(files).hasSizeGreaterThan(1);
+    assertResultsFileResultsCount(mergedFilePath, TEST_ITERATIONS);
+  }
+
+  @Test
+  public void shouldGetSameStatsAndCsvRecordsFromBinaryJtlWhenJtlWriterWithBinaryFormat(
+      @TempDir Path tempDir) throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    TestPlanStats stats = testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler("sample1", wiremockUri),
+            httpSampler("sample2", wiremockUri)
+        ),
+        buildJtlWriter(resultsFilePath)
+            .saveAsBinary(true)
+    ).run();
+    TestPlanStats binaryStats = BinaryJtlReader.readStats(resultsFilePath);
+    Path csvFilePath = tempDir.resolve("results.csv");
+    BinaryJtlReader.convertToCsv(resultsFilePath, csvFilePath);
+    assertThat(binaryStats.overall().samplesCount()).isEqualTo(stats.overall().samplesCount());
+    assertThat(binaryStats.labels()).isEqualTo(stats.labels());
+    assertThat(binaryStats.overall().sampleTime().max())
+        .isEqualTo(stats.overall().sampleTime().max());
+    assertResultsFileResultsCount(csvFilePath, TEST_ITERATIONS * 4);
+    assertThat(buildStatsValues(binaryStats))
+        .isEqualTo(buildStatsValues(TestPlanStats.fromJtl(csvFilePath)));
+  }
+
+  @Test
+  public void shouldGetSameStatsFromCsvJtlWhenReadInParallelChunks(@TempDir Path tempDir)
+      throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    TestPlanStats stats = testPlan(
+        threadGroup(2, TEST_ITERATIONS,
+            httpSampler("sample1", wiremockUri),
+            httpSampler("sample, 2", wiremockUri)
+        ),
+        buildJtlWriter(resultsFilePath)
+    ).run();
+    TestPlanStats jtlStats = new JtlStatsReader(4, 256).read(resultsFilePath);
+    assertThat(jtlStats.overall().samplesCount()).isEqualTo(stats.overall().samplesCount());
+    assertThat(jtlStats.labels()).isEqualTo(stats.labels());
+    assertThat(jtlStats.byLabel("sample, 2").samplesCount())
+        .isEqualTo(stats.byLabel("sample, 2").samplesCount());
+    assertThat(jtlStats.overall().sampleTime().max())
+        .isEqualTo(stats.overall().sampleTime().max());
+    assertThat(TestPlanStats.fromJtl(resultsFilePath).overall().receivedBytes().total())
+        .isEqualTo(stats.overall().receivedBytes().total());
+  }
+
+  @Test
+  public void shouldGetSameStatsFromCsvJtlWithMultilineValuesWhenReadInParallelOrSequentially(
+      @TempDir Path tempDir) throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    int recordsCount = 300;
+    StringBuilder jtl = new StringBuilder("timeStamp,elapsed,label,responseCode,responseMessage,"
+        + "threadName,dataType,success,failureMessage,bytes,sentBytes,grpThreads,allThreads,URL,"
+        + "Latency,IdleTime,Connect\n");
+    long timeStamp = 1700000000000L;
+    for (int i = 0; i < recordsCount; i++) {
+      // multiline values include lines which look like records, to verify they are not split
+      jtl.append(timeStamp + i).append(',').append(i % 97).append(",sample").append(i % 3)
+          .append(",500,\"Error\n").append(timeStamp + i).append(",1,fake,\"\"quoted\"\"\",")
+          .append("Thread 1-1,text,").append(i % 5 != 0).append(",\"failure,\n2 lines\",")
+          .append(i).append(",10,1,1,http://localhost,1,0,0\n");
+    }
+    Files.write(resultsFilePath, jtl.toString().getBytes(StandardCharsets.UTF_8));
+    TestPlanStats sequentialStats = new JtlStatsReader(1, 64).read(resultsFilePath);
+    TestPlanStats parallelStats = new JtlStatsReader(4, 64).read(resultsFilePath);
+    assertThat(sequentialStats.overall().samplesCount()).isEqualTo(recordsCount);
+    assertThat(sequentialStats.labels()).containsExactlyInAnyOrder("sample0", "sample1",
+        "sample2");
+    assertThat(buildStatsValues(parallelStats)).isEqualTo(buildStatsValues(sequentialStats));
+  }
+
+  @Test
+  public void shouldGetStatsFromCsvJtlWhenRecordsWithNegativeValues(@TempDir Path tempDir)
+      throws IOException {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    Files.write(resultsFilePath, ("timeStamp,elapsed,label,responseCode,responseMessage,"
+        + "threadName,dataType,success,failureMessage,bytes,sentBytes,grpThreads,allThreads,URL,"
+        + "Latency,IdleTime,Connect\n"
+        + "1700000000000,10,sample,200,OK,Thread 1-1,text,true,,100,10,1,1,http://localhost,"
+        + "5,0,-1\n"
+        + "1700000000010,20,sample,200,OK,Thread 1-1,text,true,,100,10,1,1,http://localhost,"
+        + "5,-2,3\n").getBytes(StandardCharsets.UTF_8));
+    TestPlanStats stats = new JtlStatsReader(1, 64).read(resultsFilePath);
+    assertThat(stats.overall().samplesCount()).isEqualTo(2);
+    assertThat(stats.overall().sampleTime().max()).isEqualTo(Duration.ofMillis(20));
+  }
+
+  private static Map<String, List<Object>> buildStatsValues(TestPlanStats stats) {
+    Map<String, List<Object>> ret = new HashMap<>();
+    ret.put("overall", buildStatsValues(stats.overall()));
+    for (String label : stats.labels()) {
+      ret.put(label, buildStatsValues(stats.byLabel(label)));
+    }
+    return ret;
+  }
+
+  private static List<Object> buildStatsValues(StatsSummary stats) {
+    TimeMetricSummary sampleTime = stats.sampleTime();
+    return Arrays.asList(stats.firstTime(), stats.endTime(), stats.samplesCount(),
+        stats.errorsCount(), stats.receivedBytes().total(), stats.sentBytes().total(),
+        sampleTime.min(), sampleTime.max(), sampleTime.mean(), sampleTime.median(),
+        sampleTime.perc90(), sampleTime.perc95(), sampleTime.perc99());
+  }
+
   @Test
   public void shouldWriteDefaultSampleFieldsWhenJtlWithDefaultSettings(@TempDir Path tempDir)
       throws Exception {
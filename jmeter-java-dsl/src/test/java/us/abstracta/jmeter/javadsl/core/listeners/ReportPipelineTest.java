@@ -0,0 +1,61 @@
+package us.abstracta.jmeter.javadsl.core.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.jmeter.report.config.ExporterConfiguration;
+import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.dashboard.DataExporter;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
+
+/*
+ ReportPipeline builds same consumers and exporters as JMeter ReportGenerator, solving graph
+ consumers, their setters and exporters by reflection from report generator configuration. These
+ tests verify that all of them are still available in current JMeter version.
+ */
+public class ReportPipelineTest {
+
+  // date range, apdex, requests, statistics, top 5 errors and errors consumers
+  private static final int SUMMARY_STAGES_COUNT = 7;
+
+  @BeforeAll
+  public static void setupAll() throws Exception {
+    new JmeterEnvironment();
+  }
+
+  @Test
+  public void shouldBuildAllConfiguredGraphsWhenDefaultReportConfiguration() throws Exception {
+    ReportGeneratorConfiguration configuration = ReportPipeline.loadConfiguration();
+    ReportPipeline pipeline = new ReportPipeline(
+        new SampleMetadata(new SampleSaveConfiguration()), Collections.emptyMap());
+    try {
+      List<ReportPipeline.Stage> stages = pipeline.partitionStages(1).get(0);
+      assertThat(stages).hasSize(
+          SUMMARY_STAGES_COUNT + configuration.getGraphConfigurations().size());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  @Test
+  public void shouldFindAllConfiguredExportersWhenDefaultReportConfiguration() throws Exception {
+    ReportGeneratorConfiguration configuration = ReportPipeline.loadConfiguration();
+    assertThat(configuration.getExportConfigurations().values())
+        .isNotEmpty()
+        .allMatch(ReportPipelineTest::isDataExporter);
+  }
+
+  private static boolean isDataExporter(ExporterConfiguration exporter) {
+    try {
+      return DataExporter.class.isAssignableFrom(Class.forName(exporter.getClassName()));
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+}
@@ -4,13 +4,16 @@ import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.any;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.responseFileSaver;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.transaction;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,10 +21,17 @@ import org.junit.jupiter.api.io.TempDir;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.BackpressurePolicy;
+import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter.SampleStatus;
 
 public class ResponseFileSaverTest extends JmeterDslTest {
 
   private static final String RESPONSE_FILE_PREFIX = "response";
+  private static final String ERROR_PATH = "/error";
+  private static final String SUCCESS_EXTENSION = ".plain";
+  private static final String ERROR_EXTENSION = ".problem+json";
+  private static final int LOAD_THREADS = 4;
+  private static final int LOAD_ITERATIONS = 50;
 
   @Test
   public void shouldWriteFileWithResponseContentWhenResponseFileSaverInPlan(@TempDir Path tempDir)
@@ -75,6 +85,128 @@ public class ResponseFileSaverTest extends JmeterDslTest {
     assertThat(responseFiles).hasSize(TEST_ITERATIONS);
   }
 
+  @Test
+  public void shouldWriteUpToMaxFilesWhenResponseFileSaverWithMaxFiles(@TempDir Path tempDir)
+      throws Exception {
+    ResponseFileSaver saver = buildResponseFileSaver(tempDir)
+        .maxFiles(1);
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        saver
+    ).run();
+    String[] responseFiles = tempDir.toFile().list((dir, name) -> name.startsWith(
+        RESPONSE_FILE_PREFIX));
+    assertThat(responseFiles).hasSize(1);
+    assertThat(saver.droppedResponsesCount()).isEqualTo(TEST_ITERATIONS - 1);
+  }
+
+  @Test
+  public void shouldWriteOneFileAndIndexWhenAsyncResponseFileSaverWithDeduplication(
+      @TempDir Path tempDir) throws Exception {
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            httpSampler(wiremockUri)
+        ),
+        buildResponseFileSaver(tempDir)
+            .deduplicate()
+            .async()
+    ).run();
+    String[] responseFiles = tempDir.toFile().list((dir, name) -> name.startsWith(
+        RESPONSE_FILE_PREFIX) && name.endsWith(".unknown"));
+    assertThat(responseFiles).hasSize(1);
+    assertThat(Files.readAllLines(tempDir.resolve(RESPONSE_FILE_PREFIX + "index.csv")))
+        .hasSize(TEST_ITERATIONS + 1);
+  }
+
+  @Test
+  public void shouldWriteAllErrorsAndSampledSuccessesWhenResponseFileSaverWithSampledSuccesses(
+      @TempDir Path tempDir) throws Exception {
+    stubSuccessAndErrorResponses();
+    int iterations = 10;
+    testPlan(
+        threadGroup(1, iterations,
+            httpSampler(wiremockUri),
+            httpSampler(wiremockUri + ERROR_PATH)
+        ),
+        buildResponseFileSaver(tempDir)
+            .sampledSuccesses(0.2)
+    ).run();
+    assertThat(findResponseFiles(tempDir, SUCCESS_EXTENSION)).hasSize(2);
+    assertThat(findResponseFiles(tempDir, ERROR_EXTENSION)).hasSize(iterations);
+  }
+
+  private void stubSuccessAndErrorResponses() {
+    stubFor(any(anyUrl()).willReturn(aResponse()
+        .withHeader("Content-Type", "text/plain")
+        .withBody("OK")));
+    stubFor(any(urlPathEqualTo(ERROR_PATH)).willReturn(aResponse()
+        .withStatus(500)
+        .withHeader("Content-Type", "application/problem+json")
+        .withBody("{\"title\":\"error\"}")));
+  }
+
+  private String[] findResponseFiles(Path tempDir, String extension) {
+    return tempDir.toFile().list((dir, name) -> name.startsWith(RESPONSE_FILE_PREFIX)
+        && name.endsWith(extension));
+  }
+
+  @Test
+  public void shouldNotWriteTransactionResponsesWhenBoundedResponseFileSaver(
+      @TempDir Path tempDir) throws Exception {
+    testPlan(
+        threadGroup(1, TEST_ITERATIONS,
+            transaction("transaction",
+                httpSampler(wiremockUri)
+            )
+        ),
+        buildResponseFileSaver(tempDir)
+            .maxFiles(TEST_ITERATIONS * 2)
+    ).run();
+    String[] responseFiles = tempDir.toFile().list((dir, name) -> name.startsWith(
+        RESPONSE_FILE_PREFIX));
+    assertThat(responseFiles).hasSize(TEST_ITERATIONS);
+  }
+
+  @Test
+  public void shouldWriteOrDropEachResponseWhenAsyncResponseFileSaverWithDropPolicy(
+      @TempDir Path tempDir) throws Exception {
+    stubSuccessAndErrorResponses();
+    ResponseFileSaver saver = buildResponseFileSaver(tempDir)
+        .async(2, BackpressurePolicy.DROP);
+    testPlan(
+        threadGroup(LOAD_THREADS, LOAD_ITERATIONS,
+            httpSampler(wiremockUri),
+            httpSampler(wiremockUri + ERROR_PATH)
+        ),
+        saver
+    ).run();
+    String[] responseFiles = tempDir.toFile().list((dir, name) -> name.startsWith(
+        RESPONSE_FILE_PREFIX));
+    assertThat(responseFiles.length + saver.droppedResponsesCount())
+        .isEqualTo(LOAD_THREADS * LOAD_ITERATIONS * 2);
+  }
+
+  @Test
+  public void shouldWriteAllErrorsWhenAsyncResponseFileSaverWithSamplePolicy(
+      @TempDir Path tempDir) throws Exception {
+    stubSuccessAndErrorResponses();
+    ResponseFileSaver saver = buildResponseFileSaver(tempDir)
+        .async(2, BackpressurePolicy.SAMPLE);
+    testPlan(
+        threadGroup(LOAD_THREADS, LOAD_ITERATIONS,
+            httpSampler(wiremockUri),
+            httpSampler(wiremockUri + ERROR_PATH)
+        ),
+        saver
+    ).run();
+    int samplesPerStatus = LOAD_THREADS * LOAD_ITERATIONS;
+    assertThat(findResponseFiles(tempDir, ERROR_EXTENSION)).hasSize(samplesPerStatus);
+    assertThat(findResponseFiles(tempDir, SUCCESS_EXTENSION).length
+        + saver.droppedResponsesCount()).isEqualTo(samplesPerStatus);
+  }
+
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
 
@@ -94,6 +226,7 @@ public class ResponseFileSaverTest extends JmeterDslTest {
               responseFileSaver("response")
                   .autoNumber(false)
                   .autoFileExtension(false)
+                  .saveOnly(SampleStatus.ERROR)
           )
       );
     }
@@ -0,0 +1,24 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+
+  @Test
+  public void shouldNotOverwritePendingElementsWhenOfferToFullBufferWithMinimumCapacity() {
+    RingBuffer<Integer> buffer = new RingBuffer<>(1);
+    for (int i = 0; i < buffer.capacity(); i++) {
+      assertThat(buffer.offer(i)).isTrue();
+    }
+    assertThat(buffer.offer(buffer.capacity())).isFalse();
+    List<Integer> drained = new ArrayList<>();
+    buffer.drainTo(drained::add, Integer.MAX_VALUE);
+    assertThat(drained).isEqualTo(Arrays.asList(0, 1));
+  }
+
+}
@@ -0,0 +1,67 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class StringTemplateTest {
+
+  private static final String TEMPLATE = "{\"id\": {{id}}, \"comment\": \"{{comment:}}\"}";
+
+  @Test
+  public void shouldSolveEachBodyWhenSolveWithBindingsOfDifferentSizes() {
+    StringTemplate template = new StringTemplate(TEMPLATE);
+    for (int size : new int[]{1000, 0, 10, 100000, 5}) {
+      String comment = buildComment(size);
+      assertThat(template.bind("id", size).bind("comment", comment).solve())
+          .isEqualTo(buildExpectedBody(size, comment));
+    }
+  }
+
+  private static String buildComment(int size) {
+    StringBuilder ret = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      ret.append((char) ('a' + i % 26));
+    }
+    return ret.toString();
+  }
+
+  private static String buildExpectedBody(int id, String comment) {
+    return "{\"id\": " + id + ", \"comment\": \"" + comment + "\"}";
+  }
+
+  @Test
+  public void shouldSolveSameBodyWhenSolveFromMultipleThreads() throws Exception {
+    String comment = buildComment(10000);
+    StringTemplate template = new StringTemplate(TEMPLATE)
+        .bind("id", 1)
+        .bind("comment", comment);
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          String expected = buildExpectedBody(1, comment);
+          for (int j = 0; j < 1000; j++) {
+            if (!expected.equals(template.solve())) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -17,11 +17,18 @@ import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.swing.JFrame;
 import org.apache.http.HttpStatus;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.protocol.http.config.gui.HttpDefaultsGui;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.collections.HashTree;
 import org.assertj.swing.core.BasicRobot;
 import org.assertj.swing.core.Robot;
 import org.assertj.swing.finder.WindowFinder;
@@ -220,6 +227,64 @@ public class DslHttpDefaultsTest extends JmeterDslTest {
     verify(getRequestedFor(anyUrl()).withHeader("Connection", equalTo("close")));
   }
 
+  @Test
+  public void shouldUseInnerDefaultsOverOuterOnesWhenNestedHttpDefaults() throws Exception {
+    String innerPath = "/inner";
+    testPlan(
+        httpDefaults()
+            .url(wiremockUri + "/outer"),
+        threadGroup(1, 1,
+            httpDefaults()
+                .path(innerPath),
+            httpSampler((String) null)
+        )
+    ).run();
+    verify(getRequestedFor(urlPathEqualTo(innerPath)));
+  }
+
+  @Test
+  public void shouldApplyDefaultsToSamplersAndRemoveThemWhenStaticDefaultsAndInProcessExecution()
+      throws Exception {
+    String samplerPath = "/sampler";
+    HashTree tree = buildInProcessTree(testPlan(
+        httpDefaults()
+            .url("http://outer:8080/outer")
+            .encoding(StandardCharsets.UTF_8),
+        threadGroup(1, 1,
+            httpDefaults()
+                .host("inner"),
+            httpSampler(samplerPath)
+        )
+    ), false);
+    HTTPSamplerProxy sampler = findInTree(tree, HTTPSamplerProxy.class).get(0);
+    assertThat(findHttpDefaults(tree)).isEmpty();
+    assertThat(sampler.getUrl().toString()).isEqualTo("http://inner:8080" + samplerPath);
+    assertThat(sampler.getContentEncoding()).isEqualTo(StandardCharsets.UTF_8.name());
+  }
+
+  private List<ConfigTestElement> findHttpDefaults(HashTree tree) {
+    return findInTree(tree, ConfigTestElement.class).stream()
+        .filter(e -> HttpDefaultsGui.class.getName()
+            .equals(e.getPropertyAsString(TestElement.GUI_CLASS)))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldKeepAllDefaultsInTreeWhenSomeDefaultsWithVariablesAndInProcessExecution()
+      throws Exception {
+    HashTree tree = buildInProcessTree(testPlan(
+        httpDefaults()
+            .url("http://outer:8080/outer"),
+        threadGroup(1, 1,
+            httpDefaults()
+                .host("${host}"),
+            httpSampler((String) null)
+        )
+    ), false);
+    assertThat(findHttpDefaults(tree)).hasSize(2);
+    assertThat(findInTree(tree, HTTPSamplerProxy.class).get(0).getDomain()).isEmpty();
+  }
+
   @Test
   public void shouldShowInGuiWhenShowInGui() {
     Robot robot = BasicRobot.robotWithNewAwtHierarchy();
@@ -50,6 +50,8 @@ public class DslHttpSamplerTest extends JmeterDslTest {
   private static final String HEADER_VALUE_1 = "value1";
   private static final String HEADER_NAME_2 = "name2";
   private static final String HEADER_VALUE_2 = "value2";
+  private static final String HEADER_NAME_VAR = "headerName";
+  private static final String HEADER_VALUE_VAR = "headerValue";
   private static final String REDIRECT_PATH = "/redirect";
   private static final String PARAM1_NAME = "par+am1";
   private static final String PARAM1_VALUE = "MY+VALUE";
@@ -173,6 +175,23 @@ public class DslHttpSamplerTest extends JmeterDslTest {
     verifyHeadersSentToServer();
   }
 
+  @Test
+  public void shouldSendHeadersWhenHttpSamplerWithHeadersUsingVariables() throws Exception {
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .method(HTTPConstants.POST)
+                .children(jsr223PreProcessor(s -> {
+                  s.vars.put(HEADER_NAME_VAR, HEADER_NAME_2);
+                  s.vars.put(HEADER_VALUE_VAR, HEADER_VALUE_2);
+                }))
+                .header(HEADER_NAME_1, HEADER_VALUE_1)
+                .header("${" + HEADER_NAME_VAR + "}", "${" + HEADER_VALUE_VAR + "}")
+        )
+    ).run();
+    verifyHeadersSentToServer();
+  }
+
   @Test
   public void shouldUseGeneratedBodyAndHeaderWhenRequestWithHeaderAndBodySuppliers()
       throws Exception {